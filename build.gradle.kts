@@ -18,6 +18,9 @@ repositories {
   mavenCentral()
 }
 
+// The annotation processor that generates accessors at compile time, see GenerateAccessor
+val processor: SourceSet by sourceSets.creating
+
 dependencies {
   val guavaVersion = "31.0.1-jre"
   implementation(group = "org.ow2.asm", name = "asm", version = "9.4")
@@ -30,6 +33,9 @@ dependencies {
   testImplementation(kotlin("reflect"))
   testImplementation(group = "org.jetbrains.kotlinx", name = "kotlinx-coroutines-core", version = "1.6.4")
   testImplementation(group = "com.google.guava", name = "guava", version = guavaVersion)
+  testAnnotationProcessor(processor.output)
+  // The processor is also invoked directly, to test the reported errors
+  testImplementation(processor.output)
 }
 
 defaultTasks("licenseFormat", "build")
@@ -60,12 +66,18 @@ tasks {
     exclude("module-info.java")
   }
 
+  val processorJar = create<Jar>("processorJar") {
+    archiveClassifier.set("processor")
+    from(processor.output)
+  }
+
   assemble {
     dependsOn(sourceJar)
     dependsOn(javadocJar)
+    dependsOn(processorJar)
   }
 
-  val jars = listOf(jar.get(), sourceJar, javadocJar)
+  val jars = listOf(jar.get(), sourceJar, javadocJar, processorJar)
   jars.forEach { jar ->
     jar.from(project.file("LICENSE.txt"))
   }
@@ -105,6 +117,7 @@ publishing {
       from(components["java"])
       artifact(tasks["javadocJar"])
       artifact(tasks["sourceJar"])
+      artifact(tasks["processorJar"])
 
       pom {
         name.set(project.name)
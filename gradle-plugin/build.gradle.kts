@@ -0,0 +1,56 @@
+plugins {
+  `java-gradle-plugin`
+  `maven-publish`
+  id("org.cadixdev.licenser") version "0.6.1"
+}
+
+group = "org.lanternpowered"
+version = "3.0.0-SNAPSHOT"
+
+repositories {
+  mavenCentral()
+}
+
+dependencies {
+  val asmVersion = "9.4"
+  implementation(group = "org.ow2.asm", name = "asm", version = asmVersion)
+  implementation(group = "org.ow2.asm", name = "asm-tree", version = asmVersion)
+  testImplementation(group = "org.lanternpowered", name = "lmbda")
+  testImplementation(group = "org.junit.jupiter", name = "junit-jupiter-engine", version = "5.9.0")
+}
+
+java {
+  sourceCompatibility = JavaVersion.VERSION_1_8
+  targetCompatibility = JavaVersion.VERSION_1_8
+}
+
+gradlePlugin {
+  plugins {
+    create("lmbda") {
+      id = "org.lanternpowered.lmbda"
+      implementationClass = "org.lanternpowered.lmbda.gradle.LmbdaPlugin"
+      displayName = "Lmbda"
+      description = "Replaces constant LambdaFactory call sites with pregenerated classes"
+    }
+  }
+}
+
+tasks {
+  test {
+    useJUnitPlatform()
+  }
+}
+
+license {
+  header(rootProject.file("../HEADER.txt"))
+  newLine(false)
+  ignoreFailures(false)
+
+  include("**/*.java")
+
+  ext {
+    set("name", "Lmbda")
+    set("url", "https://www.lanternpowered.org")
+    set("organization", "LanternPowered")
+  }
+}
@@ -0,0 +1,8 @@
+rootProject.name = "lmbda-gradle-plugin"
+
+// The library is only required by the tests, which rewrite call sites of the LambdaFactory
+includeBuild("..") {
+  dependencySubstitution {
+    substitute(module("org.lanternpowered:lmbda")).using(project(":"))
+  }
+}
@@ -0,0 +1,562 @@
+/*
+ * Lmbda
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) contributors
+ *
+ * This work is licensed under the terms of the MIT License (MIT). For
+ * a copy, see 'LICENSE.txt' or <https://opensource.org/licenses/MIT>.
+ */
+package org.lanternpowered.lmbda.gradle;
+
+import static org.objectweb.asm.Opcodes.ACC_FINAL;
+import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
+import static org.objectweb.asm.Opcodes.ACC_STATIC;
+import static org.objectweb.asm.Opcodes.ACC_SUPER;
+import static org.objectweb.asm.Opcodes.ACC_SYNTHETIC;
+import static org.objectweb.asm.Opcodes.ALOAD;
+import static org.objectweb.asm.Opcodes.CHECKCAST;
+import static org.objectweb.asm.Opcodes.DUP;
+import static org.objectweb.asm.Opcodes.F2D;
+import static org.objectweb.asm.Opcodes.GETFIELD;
+import static org.objectweb.asm.Opcodes.GETSTATIC;
+import static org.objectweb.asm.Opcodes.I2D;
+import static org.objectweb.asm.Opcodes.I2F;
+import static org.objectweb.asm.Opcodes.I2L;
+import static org.objectweb.asm.Opcodes.ILOAD;
+import static org.objectweb.asm.Opcodes.INVOKEINTERFACE;
+import static org.objectweb.asm.Opcodes.INVOKESPECIAL;
+import static org.objectweb.asm.Opcodes.INVOKESTATIC;
+import static org.objectweb.asm.Opcodes.INVOKEVIRTUAL;
+import static org.objectweb.asm.Opcodes.IRETURN;
+import static org.objectweb.asm.Opcodes.L2D;
+import static org.objectweb.asm.Opcodes.L2F;
+import static org.objectweb.asm.Opcodes.NEW;
+import static org.objectweb.asm.Opcodes.POP;
+import static org.objectweb.asm.Opcodes.POP2;
+import static org.objectweb.asm.Opcodes.PUTFIELD;
+import static org.objectweb.asm.Opcodes.PUTSTATIC;
+import static org.objectweb.asm.Opcodes.RETURN;
+import static org.objectweb.asm.Opcodes.V1_8;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Generates the classes that replace the functions created by the {@code LambdaFactory} for
+ * direct method handles. The generated classes access the target member directly, like the
+ * classes which are defined by the factory at runtime.
+ *
+ * <p>Only public members of public classes are supported, which can be accessed from any
+ * class, and the same conversions between the function method and the method handle types as
+ * {@link java.lang.invoke.MethodHandle#asType(java.lang.invoke.MethodType)} performs.</p>
+ */
+final class AccessorGenerator {
+
+  /**
+   * The name of the static field which holds the shared instance of a generated class.
+   */
+  static final String INSTANCE_FIELD_NAME = "INSTANCE";
+
+  private static final Map<Class<?>, Class<?>> wrappers = new HashMap<>();
+
+  static {
+    wrappers.put(boolean.class, Boolean.class);
+    wrappers.put(byte.class, Byte.class);
+    wrappers.put(short.class, Short.class);
+    wrappers.put(char.class, Character.class);
+    wrappers.put(int.class, Integer.class);
+    wrappers.put(long.class, Long.class);
+    wrappers.put(float.class, Float.class);
+    wrappers.put(double.class, Double.class);
+  }
+
+  private final ClassLoader classLoader;
+
+  AccessorGenerator(final ClassLoader classLoader) {
+    this.classLoader = classLoader;
+  }
+
+  /**
+   * Generates the class for the given function, if supported.
+   *
+   * @param internalName The internal name of the class to generate
+   * @param key          The function that should be implemented
+   * @return The bytecode, or null if the function isn't supported
+   */
+  byte[] generate(final String internalName, final Key key) {
+    final Class<?> functionClass = load(key.functionType);
+    if (functionClass == null || !functionClass.isInterface() ||
+        !Modifier.isPublic(functionClass.getModifiers())) {
+      return null;
+    }
+    final Method method = findFunctionMethod(functionClass);
+    final Target target = resolveTarget(key);
+    if (method == null || target == null) {
+      return null;
+    }
+    final Class<?>[] parameterTypes = method.getParameterTypes();
+    if (parameterTypes.length < target.parameterTypes.length) {
+      return null;
+    }
+    // Validate all the conversions before anything is generated
+    for (int i = 0; i < target.parameterTypes.length; i++) {
+      if (!visitConversion(null, parameterTypes[i], target.parameterTypes[i])) {
+        return null;
+      }
+    }
+    if (!visitConversion(null, target.returnType, method.getReturnType())) {
+      return null;
+    }
+
+    final ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+    cw.visit(V1_8, ACC_FINAL | ACC_SUPER | ACC_SYNTHETIC,
+      internalName, null, "java/lang/Object",
+      new String[] { Type.getInternalName(functionClass) });
+
+    cw.visitField(ACC_STATIC | ACC_FINAL | ACC_SYNTHETIC,
+      INSTANCE_FIELD_NAME, "L" + internalName + ";", null, null).visitEnd();
+
+    MethodVisitor mv = cw.visitMethod(ACC_STATIC, "<clinit>", "()V", null, null);
+    mv.visitCode();
+    mv.visitTypeInsn(NEW, internalName);
+    mv.visitInsn(DUP);
+    mv.visitMethodInsn(INVOKESPECIAL, internalName, "<init>", "()V", false);
+    mv.visitFieldInsn(PUTSTATIC, internalName, INSTANCE_FIELD_NAME,
+      "L" + internalName + ";");
+    mv.visitInsn(RETURN);
+    mv.visitMaxs(0, 0);
+    mv.visitEnd();
+
+    mv = cw.visitMethod(0, "<init>", "()V", null, null);
+    mv.visitCode();
+    mv.visitVarInsn(ALOAD, 0);
+    mv.visitMethodInsn(INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+    mv.visitInsn(RETURN);
+    mv.visitMaxs(0, 0);
+    mv.visitEnd();
+
+    mv = cw.visitMethod(ACC_PUBLIC, method.getName(), Type.getMethodDescriptor(method),
+      null, null);
+    mv.visitCode();
+    if (target.opcode == INVOKESPECIAL) {
+      mv.visitTypeInsn(NEW, target.owner);
+      mv.visitInsn(DUP);
+    }
+    int local = 1;
+    for (int i = 0; i < parameterTypes.length; i++) {
+      final Type type = Type.getType(parameterTypes[i]);
+      if (i < target.parameterTypes.length) {
+        mv.visitVarInsn(type.getOpcode(ILOAD), local);
+        visitConversion(mv, parameterTypes[i], target.parameterTypes[i]);
+      }
+      local += type.getSize();
+    }
+    if (target.opcode == GETFIELD || target.opcode == GETSTATIC ||
+        target.opcode == PUTFIELD || target.opcode == PUTSTATIC) {
+      mv.visitFieldInsn(target.opcode, target.owner, target.name, target.descriptor);
+    } else {
+      mv.visitMethodInsn(target.opcode, target.owner, target.name, target.descriptor,
+        target.isInterface);
+    }
+    visitConversion(mv, target.returnType, method.getReturnType());
+    mv.visitInsn(Type.getType(method.getReturnType()).getOpcode(IRETURN));
+    mv.visitMaxs(0, 0);
+    mv.visitEnd();
+
+    cw.visitEnd();
+    return cw.toByteArray();
+  }
+
+  private Class<?> load(final Type type) {
+    switch (type.getSort()) {
+      case Type.BOOLEAN:
+        return boolean.class;
+      case Type.BYTE:
+        return byte.class;
+      case Type.SHORT:
+        return short.class;
+      case Type.CHAR:
+        return char.class;
+      case Type.INT:
+        return int.class;
+      case Type.LONG:
+        return long.class;
+      case Type.FLOAT:
+        return float.class;
+      case Type.DOUBLE:
+        return double.class;
+      case Type.VOID:
+        return void.class;
+      default:
+        final String name = type.getSort() == Type.ARRAY ?
+          type.getDescriptor().replace('/', '.') : type.getClassName();
+        try {
+          return Class.forName(name, false, this.classLoader);
+        } catch (ClassNotFoundException | LinkageError e) {
+          return null;
+        }
+    }
+  }
+
+  private Class<?>[] load(final Type[] types) {
+    final Class<?>[] classes = new Class<?>[types.length];
+    for (int i = 0; i < types.length; i++) {
+      classes[i] = load(types[i]);
+      if (classes[i] == null) {
+        return null;
+      }
+    }
+    return classes;
+  }
+
+  /**
+   * Finds the single abstract method of the functional interface.
+   */
+  private static Method findFunctionMethod(final Class<?> functionClass) {
+    Method found = null;
+    for (final Method method : functionClass.getMethods()) {
+      if (!Modifier.isAbstract(method.getModifiers()) || isObjectMethod(method)) {
+        continue;
+      }
+      if (found != null && !(found.getName().equals(method.getName()) &&
+          Arrays.equals(found.getParameterTypes(), method.getParameterTypes()) &&
+          found.getReturnType() == method.getReturnType())) {
+        return null;
+      }
+      found = method;
+    }
+    return found;
+  }
+
+  private static boolean isObjectMethod(final Method method) {
+    try {
+      Object.class.getMethod(method.getName(), method.getParameterTypes());
+      return true;
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Resolves the public member that is targeted by the method handle of the key.
+   */
+  private Target resolveTarget(final Key key) {
+    final Class<?> owner = load(key.owner);
+    if (owner == null || !Modifier.isPublic(owner.getModifiers())) {
+      return null;
+    }
+    final String ownerName = Type.getInternalName(owner);
+    if (key.kind.equals("findVirtual") || key.kind.equals("findStatic") ||
+        key.kind.equals("findConstructor")) {
+      final Type methodType = (Type) key.type;
+      final Class<?>[] parameterTypes = load(methodType.getArgumentTypes());
+      final Class<?> returnType = load(methodType.getReturnType());
+      if (parameterTypes == null || returnType == null) {
+        return null;
+      }
+      if (key.kind.equals("findConstructor")) {
+        if (returnType != void.class || owner.isInterface() ||
+            Modifier.isAbstract(owner.getModifiers())) {
+          return null;
+        }
+        final Constructor<?> constructor;
+        try {
+          constructor = owner.getConstructor(parameterTypes);
+        } catch (NoSuchMethodException | LinkageError e) {
+          return null;
+        }
+        return new Target(INVOKESPECIAL, ownerName, "<init>",
+          Type.getConstructorDescriptor(constructor), false, parameterTypes, owner);
+      }
+      final boolean isStatic = key.kind.equals("findStatic");
+      final Method method;
+      try {
+        method = owner.getMethod(key.name, parameterTypes);
+      } catch (NoSuchMethodException | LinkageError e) {
+        return null;
+      }
+      if (method.getReturnType() != returnType ||
+          Modifier.isStatic(method.getModifiers()) != isStatic || isCallerSensitive(method)) {
+        return null;
+      }
+      final Class<?>[] targetParameterTypes;
+      final int opcode;
+      if (isStatic) {
+        opcode = INVOKESTATIC;
+        targetParameterTypes = parameterTypes;
+      } else {
+        opcode = owner.isInterface() ? INVOKEINTERFACE : INVOKEVIRTUAL;
+        targetParameterTypes = new Class<?>[parameterTypes.length + 1];
+        targetParameterTypes[0] = owner;
+        System.arraycopy(parameterTypes, 0, targetParameterTypes, 1, parameterTypes.length);
+      }
+      return new Target(opcode, ownerName, key.name, methodType.getDescriptor(),
+        owner.isInterface(), targetParameterTypes, returnType);
+    }
+
+    final Class<?> fieldType = load((Type) key.type);
+    final Field field;
+    try {
+      field = owner.getField(key.name);
+    } catch (NoSuchFieldException | LinkageError e) {
+      return null;
+    }
+    if (fieldType == null || field.getType() != fieldType) {
+      return null;
+    }
+    final boolean isStatic = Modifier.isStatic(field.getModifiers());
+    final String descriptor = Type.getDescriptor(fieldType);
+    switch (key.kind) {
+      case "findGetter":
+        return isStatic ? null : new Target(GETFIELD, ownerName, key.name, descriptor,
+          false, new Class<?>[] { owner }, fieldType);
+      case "findStaticGetter":
+        return !isStatic ? null : new Target(GETSTATIC, ownerName, key.name, descriptor,
+          false, new Class<?>[0], fieldType);
+      case "findSetter":
+        return isStatic || Modifier.isFinal(field.getModifiers()) ? null :
+          new Target(PUTFIELD, ownerName, key.name, descriptor, false,
+            new Class<?>[] { owner, fieldType }, void.class);
+      case "findStaticSetter":
+        return !isStatic || Modifier.isFinal(field.getModifiers()) ? null :
+          new Target(PUTSTATIC, ownerName, key.name, descriptor, false,
+            new Class<?>[] { fieldType }, void.class);
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Caller sensitive methods would see the generated class as caller instead of the class
+   * that looked up the method handle.
+   */
+  private static boolean isCallerSensitive(final Method method) {
+    for (final Annotation annotation : method.getDeclaredAnnotations()) {
+      if (annotation.annotationType().getSimpleName().equals("CallerSensitive")) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Visits the conversion of a value from one type to another, like
+   * {@link java.lang.invoke.MethodHandle#asType(java.lang.invoke.MethodType)}.
+   *
+   * @param mv   The method visitor, or null to only check whether the conversion is supported
+   * @param from The type to convert from
+   * @param to   The type to convert to
+   * @return Whether the conversion is supported
+   */
+  private static boolean visitConversion(
+    final MethodVisitor mv,
+    final Class<?> from,
+    final Class<?> to
+  ) {
+    if (from == to) {
+      return true;
+    }
+    if (to == void.class) {
+      if (mv != null) {
+        mv.visitInsn(Type.getType(from).getSize() == 2 ? POP2 : POP);
+      }
+      return true;
+    }
+    if (from == void.class) {
+      return false;
+    }
+    if (from.isPrimitive() && to.isPrimitive()) {
+      return visitPrimitiveConversion(mv, from, to);
+    }
+    if (from.isPrimitive()) {
+      final Class<?> wrapper = wrappers.get(from);
+      if (!to.isAssignableFrom(wrapper)) {
+        return false;
+      }
+      if (mv != null) {
+        mv.visitMethodInsn(INVOKESTATIC, Type.getInternalName(wrapper), "valueOf",
+          Type.getMethodDescriptor(Type.getType(wrapper), Type.getType(from)), false);
+      }
+      return true;
+    }
+    if (to.isPrimitive()) {
+      Class<?> primitive = null;
+      for (final Map.Entry<Class<?>, Class<?>> entry : wrappers.entrySet()) {
+        if (entry.getValue() == from) {
+          primitive = entry.getKey();
+        }
+      }
+      final Class<?> wrapper;
+      if (primitive != null) {
+        // Unbox and widen
+        if (!visitPrimitiveConversion(null, primitive, to)) {
+          return false;
+        }
+        wrapper = from;
+      } else {
+        wrapper = wrappers.get(to);
+        if (!from.isAssignableFrom(wrapper)) {
+          return false;
+        }
+        primitive = to;
+        if (mv != null) {
+          mv.visitTypeInsn(CHECKCAST, Type.getInternalName(wrapper));
+        }
+      }
+      if (mv != null) {
+        mv.visitMethodInsn(INVOKEVIRTUAL, Type.getInternalName(wrapper),
+          primitive.getName() + "Value", Type.getMethodDescriptor(Type.getType(primitive)),
+          false);
+        visitPrimitiveConversion(mv, primitive, to);
+      }
+      return true;
+    }
+    if (to.isAssignableFrom(from)) {
+      return true;
+    }
+    final Class<?> component = getComponentType(to);
+    if (!component.isPrimitive() && !Modifier.isPublic(component.getModifiers())) {
+      return false;
+    }
+    if (mv != null) {
+      mv.visitTypeInsn(CHECKCAST, Type.getInternalName(to));
+    }
+    return true;
+  }
+
+  private static Class<?> getComponentType(final Class<?> type) {
+    Class<?> component = type;
+    while (component.isArray()) {
+      component = component.getComponentType();
+    }
+    return component;
+  }
+
+  private static boolean visitPrimitiveConversion(
+    final MethodVisitor mv,
+    final Class<?> from,
+    final Class<?> to
+  ) {
+    if (from == to) {
+      return true;
+    }
+    final int opcode;
+    if (from == byte.class || from == short.class || from == char.class || from == int.class) {
+      if (to == int.class) {
+        return true;
+      } else if (to == short.class) {
+        return from == byte.class;
+      } else if (to == long.class) {
+        opcode = I2L;
+      } else if (to == float.class) {
+        opcode = I2F;
+      } else if (to == double.class) {
+        opcode = I2D;
+      } else {
+        return false;
+      }
+    } else if (from == long.class) {
+      if (to == float.class) {
+        opcode = L2F;
+      } else if (to == double.class) {
+        opcode = L2D;
+      } else {
+        return false;
+      }
+    } else if (from == float.class && to == double.class) {
+      opcode = F2D;
+    } else {
+      return false;
+    }
+    if (mv != null) {
+      mv.visitInsn(opcode);
+    }
+    return true;
+  }
+
+  /**
+   * The function that should be implemented, the lambda type and the resolved method handle.
+   */
+  static final class Key {
+
+    final Type functionType;
+    final String kind;
+    final Type owner;
+    final String name;
+    final Object type;
+
+    Key(
+      final Type functionType,
+      final String kind,
+      final Type owner,
+      final String name,
+      final Object type
+    ) {
+      this.functionType = functionType;
+      this.kind = kind;
+      this.owner = owner;
+      this.name = name;
+      this.type = type;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      final Key other = (Key) obj;
+      return this.functionType.equals(other.functionType) && this.kind.equals(other.kind) &&
+        this.owner.equals(other.owner) && this.name.equals(other.name) &&
+        this.type.equals(other.type);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(this.functionType, this.kind, this.owner, this.name, this.type);
+    }
+  }
+
+  /**
+   * The resolved target member.
+   */
+  private static final class Target {
+
+    final int opcode;
+    final String owner;
+    final String name;
+    final String descriptor;
+    final boolean isInterface;
+    final Class<?>[] parameterTypes;
+    final Class<?> returnType;
+
+    Target(
+      final int opcode,
+      final String owner,
+      final String name,
+      final String descriptor,
+      final boolean isInterface,
+      final Class<?>[] parameterTypes,
+      final Class<?> returnType
+    ) {
+      this.opcode = opcode;
+      this.owner = owner;
+      this.name = name;
+      this.descriptor = descriptor;
+      this.isInterface = isInterface;
+      this.parameterTypes = parameterTypes;
+      this.returnType = returnType;
+    }
+  }
+}
@@ -0,0 +1,1054 @@
+/*
+ * Lmbda
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) contributors
+ *
+ * This work is licensed under the terms of the MIT License (MIT). For
+ * a copy, see 'LICENSE.txt' or <https://opensource.org/licenses/MIT>.
+ */
+package org.lanternpowered.lmbda.gradle;
+
+import static org.objectweb.asm.Opcodes.AALOAD;
+import static org.objectweb.asm.Opcodes.AASTORE;
+import static org.objectweb.asm.Opcodes.ACC_FINAL;
+import static org.objectweb.asm.Opcodes.ACC_STATIC;
+import static org.objectweb.asm.Opcodes.ACONST_NULL;
+import static org.objectweb.asm.Opcodes.ALOAD;
+import static org.objectweb.asm.Opcodes.ANEWARRAY;
+import static org.objectweb.asm.Opcodes.ARRAYLENGTH;
+import static org.objectweb.asm.Opcodes.ASM9;
+import static org.objectweb.asm.Opcodes.ASTORE;
+import static org.objectweb.asm.Opcodes.BALOAD;
+import static org.objectweb.asm.Opcodes.BASTORE;
+import static org.objectweb.asm.Opcodes.BIPUSH;
+import static org.objectweb.asm.Opcodes.CALOAD;
+import static org.objectweb.asm.Opcodes.CASTORE;
+import static org.objectweb.asm.Opcodes.CHECKCAST;
+import static org.objectweb.asm.Opcodes.D2F;
+import static org.objectweb.asm.Opcodes.D2I;
+import static org.objectweb.asm.Opcodes.D2L;
+import static org.objectweb.asm.Opcodes.DADD;
+import static org.objectweb.asm.Opcodes.DALOAD;
+import static org.objectweb.asm.Opcodes.DASTORE;
+import static org.objectweb.asm.Opcodes.DCMPG;
+import static org.objectweb.asm.Opcodes.DCMPL;
+import static org.objectweb.asm.Opcodes.DCONST_0;
+import static org.objectweb.asm.Opcodes.DCONST_1;
+import static org.objectweb.asm.Opcodes.DDIV;
+import static org.objectweb.asm.Opcodes.DLOAD;
+import static org.objectweb.asm.Opcodes.DMUL;
+import static org.objectweb.asm.Opcodes.DNEG;
+import static org.objectweb.asm.Opcodes.DREM;
+import static org.objectweb.asm.Opcodes.DSTORE;
+import static org.objectweb.asm.Opcodes.DSUB;
+import static org.objectweb.asm.Opcodes.DUP;
+import static org.objectweb.asm.Opcodes.F2D;
+import static org.objectweb.asm.Opcodes.F2I;
+import static org.objectweb.asm.Opcodes.F2L;
+import static org.objectweb.asm.Opcodes.FADD;
+import static org.objectweb.asm.Opcodes.FALOAD;
+import static org.objectweb.asm.Opcodes.FASTORE;
+import static org.objectweb.asm.Opcodes.FCMPG;
+import static org.objectweb.asm.Opcodes.FCMPL;
+import static org.objectweb.asm.Opcodes.FCONST_0;
+import static org.objectweb.asm.Opcodes.FCONST_1;
+import static org.objectweb.asm.Opcodes.FCONST_2;
+import static org.objectweb.asm.Opcodes.FDIV;
+import static org.objectweb.asm.Opcodes.FLOAD;
+import static org.objectweb.asm.Opcodes.FMUL;
+import static org.objectweb.asm.Opcodes.FNEG;
+import static org.objectweb.asm.Opcodes.FREM;
+import static org.objectweb.asm.Opcodes.FSTORE;
+import static org.objectweb.asm.Opcodes.FSUB;
+import static org.objectweb.asm.Opcodes.GETFIELD;
+import static org.objectweb.asm.Opcodes.GETSTATIC;
+import static org.objectweb.asm.Opcodes.I2B;
+import static org.objectweb.asm.Opcodes.I2C;
+import static org.objectweb.asm.Opcodes.I2D;
+import static org.objectweb.asm.Opcodes.I2F;
+import static org.objectweb.asm.Opcodes.I2L;
+import static org.objectweb.asm.Opcodes.I2S;
+import static org.objectweb.asm.Opcodes.IADD;
+import static org.objectweb.asm.Opcodes.IALOAD;
+import static org.objectweb.asm.Opcodes.IAND;
+import static org.objectweb.asm.Opcodes.IASTORE;
+import static org.objectweb.asm.Opcodes.ICONST_0;
+import static org.objectweb.asm.Opcodes.ICONST_1;
+import static org.objectweb.asm.Opcodes.ICONST_2;
+import static org.objectweb.asm.Opcodes.ICONST_3;
+import static org.objectweb.asm.Opcodes.ICONST_4;
+import static org.objectweb.asm.Opcodes.ICONST_5;
+import static org.objectweb.asm.Opcodes.ICONST_M1;
+import static org.objectweb.asm.Opcodes.IDIV;
+import static org.objectweb.asm.Opcodes.IFEQ;
+import static org.objectweb.asm.Opcodes.IFGE;
+import static org.objectweb.asm.Opcodes.IFGT;
+import static org.objectweb.asm.Opcodes.IFLE;
+import static org.objectweb.asm.Opcodes.IFLT;
+import static org.objectweb.asm.Opcodes.IFNE;
+import static org.objectweb.asm.Opcodes.IFNONNULL;
+import static org.objectweb.asm.Opcodes.IFNULL;
+import static org.objectweb.asm.Opcodes.IF_ACMPEQ;
+import static org.objectweb.asm.Opcodes.IF_ACMPNE;
+import static org.objectweb.asm.Opcodes.IF_ICMPEQ;
+import static org.objectweb.asm.Opcodes.IF_ICMPGE;
+import static org.objectweb.asm.Opcodes.IF_ICMPGT;
+import static org.objectweb.asm.Opcodes.IF_ICMPLE;
+import static org.objectweb.asm.Opcodes.IF_ICMPLT;
+import static org.objectweb.asm.Opcodes.IF_ICMPNE;
+import static org.objectweb.asm.Opcodes.IINC;
+import static org.objectweb.asm.Opcodes.ILOAD;
+import static org.objectweb.asm.Opcodes.IMUL;
+import static org.objectweb.asm.Opcodes.INEG;
+import static org.objectweb.asm.Opcodes.INSTANCEOF;
+import static org.objectweb.asm.Opcodes.INVOKEDYNAMIC;
+import static org.objectweb.asm.Opcodes.INVOKEINTERFACE;
+import static org.objectweb.asm.Opcodes.INVOKESPECIAL;
+import static org.objectweb.asm.Opcodes.INVOKESTATIC;
+import static org.objectweb.asm.Opcodes.INVOKEVIRTUAL;
+import static org.objectweb.asm.Opcodes.IOR;
+import static org.objectweb.asm.Opcodes.IREM;
+import static org.objectweb.asm.Opcodes.ISHL;
+import static org.objectweb.asm.Opcodes.ISHR;
+import static org.objectweb.asm.Opcodes.ISTORE;
+import static org.objectweb.asm.Opcodes.ISUB;
+import static org.objectweb.asm.Opcodes.IUSHR;
+import static org.objectweb.asm.Opcodes.IXOR;
+import static org.objectweb.asm.Opcodes.L2D;
+import static org.objectweb.asm.Opcodes.L2F;
+import static org.objectweb.asm.Opcodes.L2I;
+import static org.objectweb.asm.Opcodes.LADD;
+import static org.objectweb.asm.Opcodes.LALOAD;
+import static org.objectweb.asm.Opcodes.LAND;
+import static org.objectweb.asm.Opcodes.LASTORE;
+import static org.objectweb.asm.Opcodes.LCMP;
+import static org.objectweb.asm.Opcodes.LCONST_0;
+import static org.objectweb.asm.Opcodes.LCONST_1;
+import static org.objectweb.asm.Opcodes.LDC;
+import static org.objectweb.asm.Opcodes.LDIV;
+import static org.objectweb.asm.Opcodes.LLOAD;
+import static org.objectweb.asm.Opcodes.LMUL;
+import static org.objectweb.asm.Opcodes.LNEG;
+import static org.objectweb.asm.Opcodes.LOR;
+import static org.objectweb.asm.Opcodes.LREM;
+import static org.objectweb.asm.Opcodes.LSHL;
+import static org.objectweb.asm.Opcodes.LSHR;
+import static org.objectweb.asm.Opcodes.LSTORE;
+import static org.objectweb.asm.Opcodes.LSUB;
+import static org.objectweb.asm.Opcodes.LUSHR;
+import static org.objectweb.asm.Opcodes.LXOR;
+import static org.objectweb.asm.Opcodes.MONITORENTER;
+import static org.objectweb.asm.Opcodes.MONITOREXIT;
+import static org.objectweb.asm.Opcodes.MULTIANEWARRAY;
+import static org.objectweb.asm.Opcodes.NEW;
+import static org.objectweb.asm.Opcodes.NEWARRAY;
+import static org.objectweb.asm.Opcodes.NOP;
+import static org.objectweb.asm.Opcodes.POP;
+import static org.objectweb.asm.Opcodes.POP2;
+import static org.objectweb.asm.Opcodes.PUTFIELD;
+import static org.objectweb.asm.Opcodes.PUTSTATIC;
+import static org.objectweb.asm.Opcodes.SALOAD;
+import static org.objectweb.asm.Opcodes.SASTORE;
+import static org.objectweb.asm.Opcodes.SIPUSH;
+import static org.objectweb.asm.Opcodes.SWAP;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.signature.SignatureReader;
+import org.objectweb.asm.signature.SignatureVisitor;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.FieldInsnNode;
+import org.objectweb.asm.tree.FieldNode;
+import org.objectweb.asm.tree.IincInsnNode;
+import org.objectweb.asm.tree.InsnList;
+import org.objectweb.asm.tree.InsnNode;
+import org.objectweb.asm.tree.IntInsnNode;
+import org.objectweb.asm.tree.InvokeDynamicInsnNode;
+import org.objectweb.asm.tree.JumpInsnNode;
+import org.objectweb.asm.tree.LabelNode;
+import org.objectweb.asm.tree.LdcInsnNode;
+import org.objectweb.asm.tree.LookupSwitchInsnNode;
+import org.objectweb.asm.tree.MethodInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.MultiANewArrayInsnNode;
+import org.objectweb.asm.tree.TableSwitchInsnNode;
+import org.objectweb.asm.tree.TryCatchBlockNode;
+import org.objectweb.asm.tree.TypeInsnNode;
+import org.objectweb.asm.tree.VarInsnNode;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Replaces calls to {@code LambdaFactory.create} and {@code LambdaFactory.createCached} of
+ * which the lambda type and the method handle can be resolved statically, with the
+ * instantiation of a class generated by the {@link AccessorGenerator}.
+ *
+ * <p>The values on the operand stack are tracked by simulating every method linearly. All
+ * values become unknown at instructions which can be reached by a jump, so only arguments
+ * which are computed within straight-line code are resolved. The arguments are still
+ * evaluated, only the result of the factory is replaced, so exceptions thrown while looking
+ * up the method handle are preserved.</p>
+ */
+final class CallSiteRewriter {
+
+  private static final String LAMBDA_FACTORY = "org/lanternpowered/lmbda/LambdaFactory";
+  private static final String LAMBDA_TYPE = "org/lanternpowered/lmbda/LambdaType";
+  private static final String FACTORY_DESCRIPTOR =
+    "(L" + LAMBDA_TYPE + ";Ljava/lang/invoke/MethodHandle;)Ljava/lang/Object;";
+  private static final String LOOKUP = "java/lang/invoke/MethodHandles$Lookup";
+  private static final String METHOD_TYPE = "java/lang/invoke/MethodType";
+  private static final String GENERATED_CLASS_INFIX = "$Lmbda$";
+
+  private final AccessorGenerator generator;
+  private final ClassLoader classLoader;
+  private final Map<String, Type> lambdaTypeClasses = new HashMap<>();
+
+  /**
+   * Constructs a new {@link CallSiteRewriter}.
+   *
+   * @param classLoader The class loader which can load the compiled classes and their
+   *                    dependencies
+   */
+  CallSiteRewriter(final ClassLoader classLoader) {
+    this.classLoader = classLoader;
+    this.generator = new AccessorGenerator(classLoader);
+  }
+
+  /**
+   * Rewrites all the class files within the directory, the generated classes are written to
+   * the same directory.
+   *
+   * <p>Generated classes which are no longer referenced by the class they were generated for,
+   * because it was recompiled or removed, are deleted first.</p>
+   *
+   * @param directory The classes directory
+   * @return The amount of rewritten call sites
+   * @throws IOException If an I/O error occurred
+   */
+  int rewrite(final Path directory) throws IOException {
+    final List<Path> files;
+    try (Stream<Path> stream = Files.walk(directory)) {
+      files = stream.filter(path -> path.toString().endsWith(".class"))
+        .collect(Collectors.toList());
+    }
+    files.removeIf(file -> deleteIfStale(directory, file));
+    int count = 0;
+    for (final Path file : files) {
+      final Map<String, byte[]> generatedClasses = new LinkedHashMap<>();
+      final int[] rewritten = new int[1];
+      final byte[] bytes = rewrite(Files.readAllBytes(file), generatedClasses, rewritten);
+      if (bytes == null) {
+        continue;
+      }
+      Files.write(file, bytes);
+      for (final Map.Entry<String, byte[]> entry : generatedClasses.entrySet()) {
+        Files.write(directory.resolve(entry.getKey() + ".class"), entry.getValue());
+      }
+      count += rewritten[0];
+    }
+    return count;
+  }
+
+  /**
+   * Deletes the given class file if it was generated for a class which no longer references it.
+   *
+   * @param directory The classes directory
+   * @param file      The class file
+   * @return Whether the file was deleted
+   */
+  private static boolean deleteIfStale(final Path directory, final Path file) {
+    final String fileName = file.getFileName().toString();
+    final int index = fileName.lastIndexOf(GENERATED_CLASS_INFIX);
+    if (index == -1) {
+      return false;
+    }
+    final String suffix = fileName.substring(index + GENERATED_CLASS_INFIX.length(),
+      fileName.length() - ".class".length());
+    if (suffix.isEmpty() || !suffix.chars().allMatch(Character::isDigit)) {
+      return false;
+    }
+    final String name = directory.relativize(file).toString()
+      .replace(file.getFileSystem().getSeparator(), "/");
+    final Path owner = file.resolveSibling(fileName.substring(0, index) + ".class");
+    try {
+      if (Files.exists(owner) && getReferencedClasses(Files.readAllBytes(owner))
+          .contains(name.substring(0, name.length() - ".class".length()))) {
+        return false;
+      }
+      Files.delete(file);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return true;
+  }
+
+  /**
+   * Gets the internal names of all the classes referenced in the constant pool of the class.
+   *
+   * @param bytes The bytecode of the class
+   * @return The referenced classes
+   */
+  private static Set<String> getReferencedClasses(final byte[] bytes) {
+    final ClassReader reader = new ClassReader(bytes);
+    final Set<String> classes = new HashSet<>();
+    final char[] buffer = new char[reader.getMaxStringLength()];
+    for (int i = 1; i < reader.getItemCount(); i++) {
+      final int offset = reader.getItem(i);
+      if (offset > 0 && bytes[offset - 1] == 7) { // CONSTANT_Class
+        classes.add(reader.readUTF8(offset, buffer));
+      }
+    }
+    return classes;
+  }
+
+  /**
+   * Rewrites the call sites within the given class.
+   *
+   * @param bytes            The bytecode of the class
+   * @param generatedClasses The map to put the generated classes in, by internal name
+   * @param rewritten        The array of which the first element will be increased by the
+   *                         amount of rewritten call sites
+   * @return The rewritten bytecode, or null if nothing was rewritten
+   */
+  byte[] rewrite(
+    final byte[] bytes,
+    final Map<String, byte[]> generatedClasses,
+    final int[] rewritten
+  ) {
+    // Quick check whether the factory is referenced at all
+    if (!getReferencedClasses(bytes).contains(LAMBDA_FACTORY)) {
+      return null;
+    }
+    final ClassReader reader = new ClassReader(bytes);
+    final ClassNode classNode = new ClassNode();
+    reader.accept(classNode, 0);
+
+    // Constants stored in static final fields by the static initializer can be resolved in
+    // all the methods
+    final Map<String, Object> constants = new HashMap<>();
+    for (final MethodNode method : classNode.methods) {
+      if (method.name.equals("<clinit>")) {
+        simulate(classNode, method, constants, true);
+      }
+    }
+
+    final Map<AccessorGenerator.Key, String> accessors = new HashMap<>();
+    int count = 0;
+    for (final MethodNode method : classNode.methods) {
+      count += rewrite(classNode, method, constants, accessors, generatedClasses);
+    }
+    if (count == 0) {
+      return null;
+    }
+    rewritten[0] += count;
+    // The stack map frames stay valid, the replacement leaves the same stack behind
+    final ClassWriter writer = new ClassWriter(0);
+    classNode.accept(writer);
+    return writer.toByteArray();
+  }
+
+  private int rewrite(
+    final ClassNode classNode,
+    final MethodNode method,
+    final Map<String, Object> constants,
+    final Map<AccessorGenerator.Key, String> accessors,
+    final Map<String, byte[]> generatedClasses
+  ) {
+    int count = 0;
+    for (final Map.Entry<MethodInsnNode, AccessorGenerator.Key> entry :
+        simulate(classNode, method, constants, false).entrySet()) {
+      final AccessorGenerator.Key key = entry.getValue();
+      String accessor = accessors.get(key);
+      if (accessor == null) {
+        final String name = classNode.name + GENERATED_CLASS_INFIX + (accessors.size() + 1);
+        final byte[] bytes = this.generator.generate(name, key);
+        if (bytes == null) {
+          continue;
+        }
+        generatedClasses.put(name, bytes);
+        accessors.put(key, name);
+        accessor = name;
+      }
+      // The lambda type and method handle are still evaluated, only the result is replaced
+      final MethodInsnNode callSite = entry.getKey();
+      final InsnList replacement = new InsnList();
+      replacement.add(new InsnNode(POP2));
+      if (callSite.name.equals("createCached")) {
+        replacement.add(new FieldInsnNode(GETSTATIC, accessor,
+          AccessorGenerator.INSTANCE_FIELD_NAME, "L" + accessor + ";"));
+      } else {
+        replacement.add(new TypeInsnNode(NEW, accessor));
+        replacement.add(new InsnNode(DUP));
+        replacement.add(new MethodInsnNode(INVOKESPECIAL, accessor, "<init>", "()V", false));
+      }
+      method.instructions.insert(callSite, replacement);
+      method.instructions.remove(callSite);
+      count++;
+    }
+    return count;
+  }
+
+  /**
+   * Simulates the given method and collects the factory call sites of which the arguments
+   * could be resolved.
+   *
+   * @param classNode The class that declares the method
+   * @param method    The method
+   * @param constants The values of static final fields of the class, by field name
+   * @param record    Whether values stored in static final fields should be recorded
+   * @return The resolved call sites
+   */
+  private Map<MethodInsnNode, AccessorGenerator.Key> simulate(
+    final ClassNode classNode,
+    final MethodNode method,
+    final Map<String, Object> constants,
+    final boolean record
+  ) {
+    final Set<LabelNode> jumpTargets = new HashSet<>();
+    for (final TryCatchBlockNode tryCatchBlock : method.tryCatchBlocks) {
+      jumpTargets.add(tryCatchBlock.handler);
+    }
+    for (final AbstractInsnNode insn : method.instructions) {
+      if (insn instanceof JumpInsnNode) {
+        jumpTargets.add(((JumpInsnNode) insn).label);
+      } else if (insn instanceof TableSwitchInsnNode) {
+        jumpTargets.add(((TableSwitchInsnNode) insn).dflt);
+        jumpTargets.addAll(((TableSwitchInsnNode) insn).labels);
+      } else if (insn instanceof LookupSwitchInsnNode) {
+        jumpTargets.add(((LookupSwitchInsnNode) insn).dflt);
+        jumpTargets.addAll(((LookupSwitchInsnNode) insn).labels);
+      }
+    }
+
+    final Simulation simulation = new Simulation(classNode, constants, record);
+    final Map<MethodInsnNode, AccessorGenerator.Key> callSites = new LinkedHashMap<>();
+    for (final AbstractInsnNode insn : method.instructions) {
+      if (insn instanceof LabelNode && jumpTargets.contains(insn)) {
+        simulation.reset();
+        continue;
+      }
+      if (insn.getOpcode() == INVOKESTATIC) {
+        final MethodInsnNode methodInsn = (MethodInsnNode) insn;
+        if (methodInsn.owner.equals(LAMBDA_FACTORY) &&
+            methodInsn.desc.equals(FACTORY_DESCRIPTOR) &&
+            (methodInsn.name.equals("create") || methodInsn.name.equals("createCached"))) {
+          final Object handle = simulation.peek(0);
+          final Object lambdaType = simulation.peek(1);
+          if (handle instanceof HandleValue && lambdaType instanceof LambdaTypeValue) {
+            final HandleValue handleValue = (HandleValue) handle;
+            callSites.put(methodInsn, new AccessorGenerator.Key(
+              ((LambdaTypeValue) lambdaType).functionType, handleValue.kind, handleValue.owner,
+              handleValue.name, handleValue.type));
+          }
+        }
+      }
+      simulation.execute(insn);
+    }
+    return callSites;
+  }
+
+  /**
+   * Gets the function type of the given class if it's a subclass of {@code LambdaType} which
+   * directly specifies the function type, like {@code new LambdaType<Function<A, B>>() {}}.
+   */
+  private Type getLambdaTypeClass(final String internalName) {
+    return this.lambdaTypeClasses.computeIfAbsent(internalName, name -> {
+      final ClassNode classNode = new ClassNode();
+      try (InputStream is = this.classLoader.getResourceAsStream(name + ".class")) {
+        if (is == null) {
+          return Type.VOID_TYPE;
+        }
+        new ClassReader(is).accept(classNode,
+          ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+      } catch (IOException e) {
+        return Type.VOID_TYPE;
+      }
+      if (!LAMBDA_TYPE.equals(classNode.superName) || classNode.signature == null) {
+        return Type.VOID_TYPE;
+      }
+      final String[] functionType = new String[1];
+      new SignatureReader(classNode.signature).accept(new SignatureVisitor(ASM9) {
+
+        private int depth;
+        private boolean superClass;
+
+        @Override
+        public SignatureVisitor visitSuperclass() {
+          this.superClass = true;
+          return this;
+        }
+
+        @Override
+        public SignatureVisitor visitInterface() {
+          this.superClass = false;
+          return this;
+        }
+
+        @Override
+        public void visitClassType(final String name) {
+          if (this.superClass && this.depth == 1 && functionType[0] == null) {
+            functionType[0] = name;
+          }
+          this.depth++;
+        }
+
+        @Override
+        public SignatureVisitor visitTypeArgument(final char wildcard) {
+          return this;
+        }
+
+        @Override
+        public void visitEnd() {
+          this.depth--;
+        }
+      });
+      return functionType[0] == null ? Type.VOID_TYPE : Type.getObjectType(functionType[0]);
+    });
+  }
+
+  /**
+   * A resolved {@code LambdaType}.
+   */
+  private static final class LambdaTypeValue {
+
+    final Type functionType;
+
+    LambdaTypeValue(final Type functionType) {
+      this.functionType = functionType;
+    }
+  }
+
+  /**
+   * A resolved {@code MethodHandle}, the kind is the name of the lookup method.
+   */
+  private static final class HandleValue {
+
+    final String kind;
+    final Type owner;
+    final String name;
+    final Object type;
+
+    HandleValue(final String kind, final Type owner, final String name, final Object type) {
+      this.kind = kind;
+      this.owner = owner;
+      this.name = name;
+      this.type = type;
+    }
+  }
+
+  /**
+   * An array of classes which is being filled.
+   */
+  private static final class ClassArrayValue {
+
+    final Type[] types;
+
+    ClassArrayValue(final int length) {
+      this.types = new Type[length];
+    }
+  }
+
+  /**
+   * A value of which nothing is known.
+   */
+  private static final Object UNKNOWN = new Object();
+
+  /**
+   * The second half of a long or double value.
+   */
+  private static final Object TOP = new Object();
+
+  /**
+   * Simulates the operand stack and the local variables of a method.
+   */
+  private final class Simulation {
+
+    private final Deque<Object> stack = new ArrayDeque<>();
+    private final Map<Integer, Object> locals = new HashMap<>();
+    private final ClassNode classNode;
+    private final Map<String, Object> constants;
+    private final boolean record;
+
+    Simulation(final ClassNode classNode, final Map<String, Object> constants,
+        final boolean record) {
+      this.classNode = classNode;
+      this.constants = constants;
+      this.record = record;
+    }
+
+    void reset() {
+      this.stack.clear();
+      this.locals.clear();
+    }
+
+    Object peek(final int index) {
+      int i = 0;
+      for (final Object value : this.stack) {
+        if (value == TOP) {
+          continue;
+        }
+        if (i++ == index) {
+          return value;
+        }
+      }
+      return UNKNOWN;
+    }
+
+    private Object pop() {
+      final Object value = this.stack.poll();
+      return value == null ? UNKNOWN : value;
+    }
+
+    private void pop(final int slots) {
+      for (int i = 0; i < slots; i++) {
+        pop();
+      }
+    }
+
+    private void push(final Object value) {
+      this.stack.push(value);
+    }
+
+    private void pushUnknown(final int size) {
+      if (size == 2) {
+        push(TOP);
+      }
+      if (size > 0) {
+        push(UNKNOWN);
+      }
+    }
+
+    void execute(final AbstractInsnNode insn) {
+      final int opcode = insn.getOpcode();
+      if (opcode == -1) {
+        return;
+      }
+      switch (opcode) {
+        case NOP:
+          break;
+        case ACONST_NULL:
+        case FCONST_0:
+        case FCONST_1:
+        case FCONST_2:
+          pushUnknown(1);
+          break;
+        case ICONST_M1:
+        case ICONST_0:
+        case ICONST_1:
+        case ICONST_2:
+        case ICONST_3:
+        case ICONST_4:
+        case ICONST_5:
+          push((Object) (opcode - ICONST_0));
+          break;
+        case LCONST_0:
+        case LCONST_1:
+        case DCONST_0:
+        case DCONST_1:
+          pushUnknown(2);
+          break;
+        case BIPUSH:
+        case SIPUSH:
+          push((Object) ((IntInsnNode) insn).operand);
+          break;
+        case LDC: {
+          final Object constant = ((LdcInsnNode) insn).cst;
+          if (constant instanceof Long || constant instanceof Double) {
+            pushUnknown(2);
+          } else if (constant instanceof Type && ((Type) constant).getSort() == Type.METHOD) {
+            pushUnknown(1);
+          } else {
+            push(constant);
+          }
+          break;
+        }
+        case ILOAD:
+        case FLOAD:
+        case ALOAD: {
+          final Object value = this.locals.get(((VarInsnNode) insn).var);
+          push(value == null ? UNKNOWN : value);
+          break;
+        }
+        case LLOAD:
+        case DLOAD:
+          pushUnknown(2);
+          break;
+        case ISTORE:
+        case FSTORE:
+        case ASTORE:
+          this.locals.put(((VarInsnNode) insn).var, pop());
+          break;
+        case LSTORE:
+        case DSTORE:
+          pop(2);
+          this.locals.remove(((VarInsnNode) insn).var);
+          this.locals.remove(((VarInsnNode) insn).var + 1);
+          break;
+        case IALOAD:
+        case FALOAD:
+        case AALOAD:
+        case BALOAD:
+        case CALOAD:
+        case SALOAD:
+          pop(2);
+          pushUnknown(1);
+          break;
+        case LALOAD:
+        case DALOAD:
+          pop(2);
+          pushUnknown(2);
+          break;
+        case AASTORE: {
+          final Object value = pop();
+          final Object index = pop();
+          final Object array = pop();
+          if (array instanceof ClassArrayValue && index instanceof Integer) {
+            final Type[] types = ((ClassArrayValue) array).types;
+            final int i = (Integer) index;
+            if (i >= 0 && i < types.length) {
+              types[i] = value instanceof Type ? (Type) value : null;
+            }
+          }
+          break;
+        }
+        case IASTORE:
+        case FASTORE:
+        case BASTORE:
+        case CASTORE:
+        case SASTORE:
+          pop(3);
+          break;
+        case LASTORE:
+        case DASTORE:
+          pop(4);
+          break;
+        case POP:
+          pop(1);
+          break;
+        case POP2:
+          pop(2);
+          break;
+        case DUP: {
+          final Object value = pop();
+          push(value);
+          push(value);
+          break;
+        }
+        case SWAP: {
+          final Object value1 = pop();
+          final Object value2 = pop();
+          push(value1);
+          push(value2);
+          break;
+        }
+        case IADD:
+        case ISUB:
+        case IMUL:
+        case IDIV:
+        case IREM:
+        case ISHL:
+        case ISHR:
+        case IUSHR:
+        case IAND:
+        case IOR:
+        case IXOR:
+        case FADD:
+        case FSUB:
+        case FMUL:
+        case FDIV:
+        case FREM:
+        case FCMPL:
+        case FCMPG:
+          pop(2);
+          pushUnknown(1);
+          break;
+        case LADD:
+        case LSUB:
+        case LMUL:
+        case LDIV:
+        case LREM:
+        case LAND:
+        case LOR:
+        case LXOR:
+        case DADD:
+        case DSUB:
+        case DMUL:
+        case DDIV:
+        case DREM:
+          pop(4);
+          pushUnknown(2);
+          break;
+        case LSHL:
+        case LSHR:
+        case LUSHR:
+          pop(3);
+          pushUnknown(2);
+          break;
+        case LCMP:
+        case DCMPL:
+        case DCMPG:
+          pop(4);
+          pushUnknown(1);
+          break;
+        case INEG:
+        case FNEG:
+        case I2F:
+        case F2I:
+        case I2B:
+        case I2C:
+        case I2S:
+        case ARRAYLENGTH:
+        case INSTANCEOF:
+        case NEWARRAY:
+          pop(1);
+          pushUnknown(1);
+          break;
+        case LNEG:
+        case DNEG:
+        case L2D:
+        case D2L:
+          pop(2);
+          pushUnknown(2);
+          break;
+        case I2L:
+        case I2D:
+        case F2L:
+        case F2D:
+          pop(1);
+          pushUnknown(2);
+          break;
+        case L2I:
+        case L2F:
+        case D2I:
+        case D2F:
+          pop(2);
+          pushUnknown(1);
+          break;
+        case IINC:
+          this.locals.remove(((IincInsnNode) insn).var);
+          break;
+        case IFEQ:
+        case IFNE:
+        case IFLT:
+        case IFGE:
+        case IFGT:
+        case IFLE:
+        case IFNULL:
+        case IFNONNULL:
+          pop(1);
+          break;
+        case IF_ICMPEQ:
+        case IF_ICMPNE:
+        case IF_ICMPLT:
+        case IF_ICMPGE:
+        case IF_ICMPGT:
+        case IF_ICMPLE:
+        case IF_ACMPEQ:
+        case IF_ACMPNE:
+          pop(2);
+          break;
+        case MONITORENTER:
+        case MONITOREXIT:
+          pop(1);
+          break;
+        case GETSTATIC: {
+          final FieldInsnNode fieldInsn = (FieldInsnNode) insn;
+          final Type primitive = fieldInsn.name.equals("TYPE") ?
+            getPrimitiveType(fieldInsn.owner) : null;
+          final Object constant = fieldInsn.owner.equals(this.classNode.name) ?
+            this.constants.get(fieldInsn.name) : null;
+          if (primitive != null) {
+            push(primitive);
+          } else if (constant != null) {
+            push(constant);
+          } else {
+            pushUnknown(Type.getType(fieldInsn.desc).getSize());
+          }
+          break;
+        }
+        case GETFIELD:
+          pop(1);
+          pushUnknown(Type.getType(((FieldInsnNode) insn).desc).getSize());
+          break;
+        case PUTSTATIC: {
+          final FieldInsnNode fieldInsn = (FieldInsnNode) insn;
+          final Object value = this.stack.peek();
+          pop(Type.getType(fieldInsn.desc).getSize());
+          if (this.record && fieldInsn.owner.equals(this.classNode.name)) {
+            recordConstant(fieldInsn.name, value);
+          }
+          break;
+        }
+        case PUTFIELD:
+          pop(Type.getType(((FieldInsnNode) insn).desc).getSize() + 1);
+          break;
+        case INVOKEVIRTUAL:
+        case INVOKESPECIAL:
+        case INVOKESTATIC:
+        case INVOKEINTERFACE:
+          invoke((MethodInsnNode) insn);
+          break;
+        case INVOKEDYNAMIC: {
+          final String descriptor = ((InvokeDynamicInsnNode) insn).desc;
+          pop((Type.getArgumentsAndReturnSizes(descriptor) >> 2) - 1);
+          pushUnknown(Type.getReturnType(descriptor).getSize());
+          break;
+        }
+        case NEW: {
+          final Type functionType = getLambdaTypeClass(((TypeInsnNode) insn).desc);
+          push(functionType.getSort() == Type.VOID ? UNKNOWN : new LambdaTypeValue(functionType));
+          break;
+        }
+        case ANEWARRAY: {
+          final Object length = pop();
+          push(((TypeInsnNode) insn).desc.equals("java/lang/Class") && length instanceof Integer &&
+            (Integer) length >= 0 ? new ClassArrayValue((Integer) length) : UNKNOWN);
+          break;
+        }
+        case CHECKCAST:
+          break;
+        case MULTIANEWARRAY:
+          pop(((MultiANewArrayInsnNode) insn).dims);
+          pushUnknown(1);
+          break;
+        default:
+          // Jumps, returns, switches, throws and the more complex stack operations, the code
+          // that follows them can only be reached through a jump or is too complex to follow
+          reset();
+          break;
+      }
+    }
+
+    private void recordConstant(final String name, final Object value) {
+      for (final FieldNode field : this.classNode.fields) {
+        if (field.name.equals(name) && (field.access & (ACC_STATIC | ACC_FINAL)) ==
+            (ACC_STATIC | ACC_FINAL)) {
+          // Fields which are assigned more than once are never constant
+          final boolean resolved = value instanceof LambdaTypeValue || value instanceof HandleValue;
+          if (!resolved || this.constants.containsKey(name)) {
+            this.constants.put(name, UNKNOWN);
+          } else {
+            this.constants.put(name, value);
+          }
+          return;
+        }
+      }
+    }
+
+    private void invoke(final MethodInsnNode insn) {
+      final Type[] argumentTypes = Type.getArgumentTypes(insn.desc);
+      final Object[] arguments = new Object[argumentTypes.length];
+      for (int i = arguments.length - 1; i >= 0; i--) {
+        if (argumentTypes[i].getSize() == 2) {
+          pop();
+        }
+        arguments[i] = pop();
+      }
+      if (insn.getOpcode() != INVOKESTATIC) {
+        pop();
+      }
+      final Object result = evaluate(insn, arguments);
+      if (result != null) {
+        push(result);
+      } else {
+        pushUnknown(Type.getReturnType(insn.desc).getSize());
+      }
+    }
+
+    private Object evaluate(final MethodInsnNode insn, final Object[] arguments) {
+      if (insn.owner.equals(LAMBDA_TYPE) && insn.name.equals("of") &&
+          insn.desc.equals("(Ljava/lang/Class;)L" + LAMBDA_TYPE + ";")) {
+        return arguments[0] instanceof Type ? new LambdaTypeValue((Type) arguments[0]) : null;
+      } else if (insn.owner.equals(METHOD_TYPE) && insn.name.equals("methodType")) {
+        final List<Type> types = new ArrayList<>();
+        for (final Object argument : arguments) {
+          if (argument instanceof Type) {
+            types.add((Type) argument);
+          } else if (argument instanceof ClassArrayValue) {
+            for (final Type type : ((ClassArrayValue) argument).types) {
+              if (type == null) {
+                return null;
+              }
+              types.add(type);
+            }
+          } else {
+            return null;
+          }
+        }
+        return Type.getMethodType(types.get(0),
+          types.subList(1, types.size()).toArray(new Type[0]));
+      } else if (insn.owner.equals(LOOKUP) && insn.getOpcode() == INVOKEVIRTUAL &&
+          insn.name.startsWith("find") && arguments.length >= 2) {
+        final Object owner = arguments[0];
+        if (!(owner instanceof Type) || ((Type) owner).getSort() != Type.OBJECT) {
+          return null;
+        }
+        switch (insn.name) {
+          case "findVirtual":
+          case "findStatic":
+          case "findGetter":
+          case "findSetter":
+          case "findStaticGetter":
+          case "findStaticSetter":
+            if (arguments.length == 3 && arguments[1] instanceof String &&
+                arguments[2] instanceof Type) {
+              return new HandleValue(insn.name, (Type) owner, (String) arguments[1],
+                arguments[2]);
+            }
+            return null;
+          case "findConstructor":
+            if (arguments[1] instanceof Type) {
+              return new HandleValue(insn.name, (Type) owner, "<init>", arguments[1]);
+            }
+            return null;
+          default:
+            return null;
+        }
+      }
+      return null;
+    }
+  }
+
+  private static Type getPrimitiveType(final String wrapper) {
+    switch (wrapper) {
+      case "java/lang/Boolean":
+        return Type.BOOLEAN_TYPE;
+      case "java/lang/Byte":
+        return Type.BYTE_TYPE;
+      case "java/lang/Short":
+        return Type.SHORT_TYPE;
+      case "java/lang/Character":
+        return Type.CHAR_TYPE;
+      case "java/lang/Integer":
+        return Type.INT_TYPE;
+      case "java/lang/Long":
+        return Type.LONG_TYPE;
+      case "java/lang/Float":
+        return Type.FLOAT_TYPE;
+      case "java/lang/Double":
+        return Type.DOUBLE_TYPE;
+      case "java/lang/Void":
+        return Type.VOID_TYPE;
+      default:
+        return null;
+    }
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ * Lmbda
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) contributors
+ *
+ * This work is licensed under the terms of the MIT License (MIT). For
+ * a copy, see 'LICENSE.txt' or <https://opensource.org/licenses/MIT>.
+ */
+package org.lanternpowered.lmbda.gradle;
+
+import org.gradle.api.Action;
+import org.gradle.api.Plugin;
+import org.gradle.api.Project;
+import org.gradle.api.Task;
+import org.gradle.api.plugins.JavaPlugin;
+import org.gradle.api.tasks.compile.JavaCompile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A plugin which replaces calls to {@code LambdaFactory.create} and
+ * {@code LambdaFactory.createCached} with constant arguments by classes that are generated
+ * at build time, so no bytecode needs to be generated at runtime for those functions.
+ *
+ * <p>The call sites are rewritten after every {@link JavaCompile} task of a project with the
+ * {@link JavaPlugin} applied. Classes generated by a previous build which are no longer
+ * referenced, because the class they were generated for was recompiled, are removed.</p>
+ */
+public final class LmbdaPlugin implements Plugin<Project> {
+
+  @Override
+  public void apply(final Project project) {
+    project.getPlugins().withType(JavaPlugin.class, plugin ->
+      project.getTasks().withType(JavaCompile.class).configureEach(task ->
+        task.doLast(new RewriteCallSitesAction())));
+  }
+
+  private static final class RewriteCallSitesAction implements Action<Task> {
+
+    @Override
+    public void execute(final Task task) {
+      final JavaCompile compile = (JavaCompile) task;
+      final File directory = compile.getDestinationDirectory().get().getAsFile();
+      if (!directory.isDirectory()) {
+        return;
+      }
+      final Path path = directory.toPath();
+      final List<URL> urls = new ArrayList<>();
+      try {
+        urls.add(directory.toURI().toURL());
+        for (final File file : compile.getClasspath()) {
+          urls.add(file.toURI().toURL());
+        }
+      } catch (MalformedURLException e) {
+        throw new IllegalStateException(e);
+      }
+      // Only the platform classes are shared with the build, the classes are never initialized
+      try (URLClassLoader classLoader = new URLClassLoader(urls.toArray(new URL[0]),
+          ClassLoader.getSystemClassLoader().getParent())) {
+        final int count = new CallSiteRewriter(classLoader).rewrite(path);
+        if (count > 0) {
+          task.getLogger().info("Replaced {} LambdaFactory call sites in {}", count, directory);
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Lmbda
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) contributors
+ *
+ * This work is licensed under the terms of the MIT License (MIT). For
+ * a copy, see 'LICENSE.txt' or <https://opensource.org/licenses/MIT>.
+ */
+package org.lanternpowered.lmbda.gradle;
+
+import org.lanternpowered.lmbda.LambdaFactory;
+import org.lanternpowered.lmbda.LambdaType;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.function.BiFunction;
+import java.util.function.IntSupplier;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * The call sites that are rewritten by the {@link CallSiteRewriterTest}.
+ */
+public final class CallSiteFixture {
+
+  private static final LambdaType<IntSupplier> supplierType = LambdaType.of(IntSupplier.class);
+  private static final MethodHandle getStatic;
+
+  static {
+    try {
+      getStatic = MethodHandles.lookup().findStatic(Target.class, "getStatic",
+        MethodType.methodType(int.class));
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  public static ToIntFunction<Target> getter() throws ReflectiveOperationException {
+    return LambdaFactory.create(new LambdaType<ToIntFunction<Target>>() {},
+      MethodHandles.lookup().findGetter(Target.class, "value", int.class));
+  }
+
+  public static ObjIntConsumer<Target> setter() throws ReflectiveOperationException {
+    final MethodHandles.Lookup lookup = MethodHandles.lookup();
+    final MethodHandle setter = lookup.findSetter(Target.class, "value", int.class);
+    return LambdaFactory.create(new LambdaType<ObjIntConsumer<Target>>() {}, setter);
+  }
+
+  public static BiFunction<Target, String, String> method() throws ReflectiveOperationException {
+    return LambdaFactory.create(new LambdaType<BiFunction<Target, String, String>>() {},
+      MethodHandles.lookup().findVirtual(Target.class, "describe",
+        MethodType.methodType(String.class, String.class)));
+  }
+
+  public static BiFunction<Integer, String, Target> constructor()
+      throws ReflectiveOperationException {
+    return LambdaFactory.create(new LambdaType<BiFunction<Integer, String, Target>>() {},
+      MethodHandles.lookup().findConstructor(Target.class,
+        MethodType.methodType(void.class, int.class, String.class)));
+  }
+
+  public static IntSupplier cached() {
+    return LambdaFactory.createCached(supplierType, getStatic);
+  }
+
+  public static ToIntFunction<Target> privateGetter() throws ReflectiveOperationException {
+    return LambdaFactory.create(new LambdaType<ToIntFunction<Target>>() {},
+      MethodHandles.lookup().findGetter(Target.class, "secret", int.class));
+  }
+
+  public static ToIntFunction<Target> conditional(final boolean secret)
+      throws ReflectiveOperationException {
+    return LambdaFactory.create(new LambdaType<ToIntFunction<Target>>() {},
+      MethodHandles.lookup().findGetter(Target.class, secret ? "secret" : "value", int.class));
+  }
+
+  public static final class Target {
+
+    public static int getStatic() {
+      return 500;
+    }
+
+    public int value = 100;
+    int secret = 200;
+
+    public Target() {
+    }
+
+    public Target(final int value, final String prefix) {
+      this.value = value + prefix.length();
+    }
+
+    public String describe(final String prefix) {
+      return prefix + this.value;
+    }
+  }
+
+  private CallSiteFixture() {
+  }
+}
@@ -0,0 +1,204 @@
+/*
+ * Lmbda
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) contributors
+ *
+ * This work is licensed under the terms of the MIT License (MIT). For
+ * a copy, see 'LICENSE.txt' or <https://opensource.org/licenses/MIT>.
+ */
+package org.lanternpowered.lmbda.gradle;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.IntSupplier;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+class CallSiteRewriterTest {
+
+  private static final String FIXTURE_NAME = CallSiteFixture.class.getName();
+
+  private static Class<?> fixture;
+  private static int rewritten;
+
+  @BeforeAll
+  static void rewrite() throws Exception {
+    final ClassLoader parent = CallSiteRewriterTest.class.getClassLoader();
+    final Map<String, byte[]> generatedClasses = new HashMap<>();
+    final int[] count = new int[1];
+    final byte[] bytes = new CallSiteRewriter(parent).rewrite(
+      readClass(parent, FIXTURE_NAME.replace('.', '/')), generatedClasses, count);
+    assertNotNull(bytes);
+    rewritten = count[0];
+
+    final Map<String, byte[]> classes = new HashMap<>();
+    classes.put(FIXTURE_NAME, bytes);
+    generatedClasses.forEach((name, value) -> classes.put(name.replace('/', '.'), value));
+    // The fixture classes are loaded by a new class loader, so the rewritten class is used
+    final ClassLoader classLoader = new ClassLoader(parent) {
+      @Override
+      protected Class<?> loadClass(final String name, final boolean resolve)
+          throws ClassNotFoundException {
+        if (!name.startsWith(FIXTURE_NAME)) {
+          return super.loadClass(name, resolve);
+        }
+        synchronized (getClassLoadingLock(name)) {
+          Class<?> theClass = findLoadedClass(name);
+          if (theClass == null) {
+            byte[] classBytes = classes.get(name);
+            if (classBytes == null) {
+              try {
+                classBytes = readClass(parent, name.replace('.', '/'));
+              } catch (IOException e) {
+                throw new ClassNotFoundException(name, e);
+              }
+            }
+            theClass = defineClass(name, classBytes, 0, classBytes.length);
+          }
+          return theClass;
+        }
+      }
+    };
+    fixture = classLoader.loadClass(FIXTURE_NAME);
+  }
+
+  private static byte[] readClass(final ClassLoader classLoader, final String internalName)
+      throws IOException {
+    try (InputStream is = classLoader.getResourceAsStream(internalName + ".class")) {
+      if (is == null) {
+        throw new IOException("Missing class: " + internalName);
+      }
+      final ByteArrayOutputStream os = new ByteArrayOutputStream();
+      final byte[] buffer = new byte[4096];
+      int length;
+      while ((length = is.read(buffer)) != -1) {
+        os.write(buffer, 0, length);
+      }
+      return os.toByteArray();
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> T invoke(final String name, final Object... args) throws Exception {
+    for (final java.lang.reflect.Method method : fixture.getMethods()) {
+      if (method.getName().equals(name)) {
+        return (T) method.invoke(null, args);
+      }
+    }
+    throw new NoSuchMethodException(name);
+  }
+
+  private static boolean isGenerated(final Object function) {
+    return function.getClass().getName().startsWith(FIXTURE_NAME + "$Lmbda$");
+  }
+
+  private static Object newTarget() throws Exception {
+    return fixture.getClassLoader().loadClass(FIXTURE_NAME + "$Target")
+      .getConstructor().newInstance();
+  }
+
+  @Test
+  void testCount() {
+    assertEquals(5, rewritten);
+  }
+
+  @Test
+  void testGetter() throws Exception {
+    final ToIntFunction<Object> getter = invoke("getter");
+    assertTrue(isGenerated(getter), getter.getClass().getName());
+    assertEquals(100, getter.applyAsInt(newTarget()));
+  }
+
+  @Test
+  void testSetter() throws Exception {
+    final ObjIntConsumer<Object> setter = invoke("setter");
+    assertTrue(isGenerated(setter), setter.getClass().getName());
+    final Object target = newTarget();
+    setter.accept(target, 300);
+    assertEquals(300, target.getClass().getField("value").getInt(target));
+  }
+
+  @Test
+  void testMethod() throws Exception {
+    final BiFunction<Object, String, String> method = invoke("method");
+    assertTrue(isGenerated(method), method.getClass().getName());
+    assertEquals("value=100", method.apply(newTarget(), "value="));
+  }
+
+  @Test
+  void testConstructor() throws Exception {
+    final BiFunction<Integer, String, Object> constructor = invoke("constructor");
+    assertTrue(isGenerated(constructor), constructor.getClass().getName());
+    final Object target = constructor.apply(10, "abc");
+    assertEquals(13, target.getClass().getField("value").getInt(target));
+  }
+
+  @Test
+  void testCached() throws Exception {
+    final IntSupplier supplier = invoke("cached");
+    assertTrue(isGenerated(supplier), supplier.getClass().getName());
+    assertEquals(500, supplier.getAsInt());
+    assertSame(supplier, invoke("cached"));
+  }
+
+  @Test
+  void testNotRewritten() throws Exception {
+    final ToIntFunction<Object> privateGetter = invoke("privateGetter");
+    assertFalse(isGenerated(privateGetter), privateGetter.getClass().getName());
+    assertEquals(200, privateGetter.applyAsInt(newTarget()));
+
+    final ToIntFunction<Object> conditional = invoke("conditional", false);
+    assertFalse(isGenerated(conditional), conditional.getClass().getName());
+    assertEquals(100, conditional.applyAsInt(newTarget()));
+  }
+
+  @Test
+  void testStaleClasses() throws Exception {
+    final ClassLoader parent = CallSiteRewriterTest.class.getClassLoader();
+    final String internalName = FIXTURE_NAME.replace('.', '/');
+    final Path directory = Files.createTempDirectory("lmbda-rewrite");
+    try {
+      final Path file = directory.resolve(internalName + ".class");
+      Files.createDirectories(file.getParent());
+      Files.write(file, readClass(parent, internalName));
+      // Left behind by a previous build which had more call sites
+      final Path stale = directory.resolve(internalName + "$Lmbda$9.class");
+      Files.write(stale, new byte[0]);
+
+      assertEquals(5, new CallSiteRewriter(parent).rewrite(directory));
+      assertFalse(Files.exists(stale));
+      final Path generated = directory.resolve(internalName + "$Lmbda$1.class");
+      assertTrue(Files.exists(generated));
+
+      // The generated classes are still referenced by the rewritten class
+      assertEquals(0, new CallSiteRewriter(parent).rewrite(directory));
+      assertTrue(Files.exists(generated));
+    } finally {
+      try (Stream<Path> stream = Files.walk(directory)) {
+        for (final Path path : stream.sorted(Comparator.reverseOrder())
+            .collect(Collectors.toList())) {
+          Files.delete(path);
+        }
+      }
+    }
+  }
+}
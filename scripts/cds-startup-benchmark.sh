@@ -0,0 +1,60 @@
+#!/usr/bin/env bash
+#
+# Compares the startup time of creating lambdas with hidden classes and with named classes,
+# with and without an AppCDS archive. Requires JDK 13 or later for -XX:ArchiveClassesAtExit.
+#
+# Usage: scripts/cds-startup-benchmark.sh [count]
+#
+# Build the classes first with: ./gradlew classes jmhClasses
+# The ASM jar is looked up in the Gradle cache, or can be provided with ASM_JAR.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+COUNT="${1:-2000}"
+JAVA="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+JAR="${JAVA_HOME:+$JAVA_HOME/bin/}jar"
+ASM_JAR="${ASM_JAR:-$(find ~/.gradle/caches -name 'asm-9.*.jar' ! -name '*sources*' | sort | tail -n 1)}"
+WORK_DIR="build/cds-startup"
+NAMED_DIR="$WORK_DIR/named"
+NAMED_JAR="$WORK_DIR/named.jar"
+ARCHIVE="$WORK_DIR/named.jsa"
+MAIN="org.lanternpowered.lmbda.NamedStartupMain"
+
+rm -rf "$WORK_DIR"
+mkdir -p "$NAMED_DIR"
+
+# AppCDS only archives classes that are loaded from jars, not from directories
+"$JAR" cf "$WORK_DIR/lmbda.jar" -C build/classes/java/main . -C build/classes/java/jmh .
+CLASS_PATH="$WORK_DIR/lmbda.jar:$ASM_JAR"
+
+run() {
+  local name="$1"
+  shift
+  local start end
+  start=$(date +%s%N)
+  local output
+  output=$("$JAVA" "$@")
+  end=$(date +%s%N)
+  echo "$name: total $(( (end - start) / 1000000 )) ms, $output"
+}
+
+echo "== Baseline"
+run "hidden" -cp "$CLASS_PATH" "$MAIN" HIDDEN "$COUNT"
+run "named" -cp "$CLASS_PATH" "$MAIN" NAMED "$COUNT"
+
+echo "== Export the named classes"
+run "export" -cp "$CLASS_PATH" \
+  "-Dorg.lanternpowered.lmbda.namedClassOutputDirectory=$NAMED_DIR" "$MAIN" NAMED "$COUNT"
+
+"$JAR" cf "$NAMED_JAR" -C "$NAMED_DIR" .
+
+echo "== Create the archive"
+run "archive" -XX:ArchiveClassesAtExit="$ARCHIVE" -cp "$CLASS_PATH:$NAMED_JAR" \
+  "$MAIN" NAMED "$COUNT"
+
+echo "== Archived boots"
+run "hidden, archived" -XX:SharedArchiveFile="$ARCHIVE" -cp "$CLASS_PATH:$NAMED_JAR" \
+  "$MAIN" HIDDEN "$COUNT"
+run "named, archived" -XX:SharedArchiveFile="$ARCHIVE" -cp "$CLASS_PATH:$NAMED_JAR" \
+  "$MAIN" NAMED "$COUNT"
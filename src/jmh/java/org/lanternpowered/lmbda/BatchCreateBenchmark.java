@@ -0,0 +1,80 @@
+/*
+ * Lmbda
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) contributors
+ *
+ * This work is licensed under the terms of the MIT License (MIT). For
+ * a copy, see 'LICENSE.txt' or <https://opensource.org/licenses/MIT>.
+ */
+package org.lanternpowered.lmbda;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+/**
+ * Compares creating many lambdas one by one with creating them as a single batch, and with
+ * creating them as shared lambdas.
+ */
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(3)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class BatchCreateBenchmark {
+
+  private static final LambdaType<IntSupplier> lambdaType = LambdaType.of(IntSupplier.class);
+
+  @Param({ "10", "100", "1000" })
+  private int size;
+
+  private List<MethodHandle> methodHandles;
+
+  @Setup
+  public void setup() {
+    this.methodHandles = new ArrayList<>(this.size);
+    for (int i = 0; i < this.size; i++) {
+      this.methodHandles.add(MethodHandles.constant(int.class, i));
+    }
+  }
+
+  @Benchmark
+  public List<IntSupplier> sequential() {
+    final List<IntSupplier> functions = new ArrayList<>(this.size);
+    for (final MethodHandle methodHandle : this.methodHandles) {
+      functions.add(LambdaFactory.create(lambdaType, methodHandle));
+    }
+    return functions;
+  }
+
+  @Benchmark
+  public List<IntSupplier> batch() {
+    return LambdaFactory.createAll(lambdaType, this.methodHandles);
+  }
+
+  @Benchmark
+  public List<IntSupplier> shared() {
+    final List<IntSupplier> functions = new ArrayList<>(this.size);
+    for (final MethodHandle methodHandle : this.methodHandles) {
+      functions.add(LambdaFactory.createShared(lambdaType, methodHandle));
+    }
+    return functions;
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * Lmbda
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) contributors
+ *
+ * This work is licensed under the terms of the MIT License (MIT). For
+ * a copy, see 'LICENSE.txt' or <https://opensource.org/licenses/MIT>.
+ */
+package org.lanternpowered.lmbda;
+
+import static org.lanternpowered.lmbda.InternalUtilities.throwUnchecked;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+
+/**
+ * Measures the invocation of lambdas on cold paths, where the code isn't (fully) compiled by the
+ * JIT, once in interpreted mode only and once with only the C1 compiler.
+ */
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class ColdInvokeBenchmark {
+
+  private static final ToLongFunction<ColdInvokeBenchmark> directFunction;
+  private static final ToLongFunction<ColdInvokeBenchmark> convertedFunction;
+
+  static {
+    try {
+      final LambdaType<ToLongFunction<ColdInvokeBenchmark>> lambdaType =
+        new LambdaType<ToLongFunction<ColdInvokeBenchmark>>() {};
+      final MethodHandle methodHandle = MethodHandles.lookup().findVirtual(
+        ColdInvokeBenchmark.class, "getValue", MethodType.methodType(int.class));
+      directFunction = LambdaFactory.create(lambdaType, methodHandle);
+      convertedFunction = LambdaFactory.create(lambdaType, MethodHandles.filterReturnValue(
+        methodHandle, MethodHandles.identity(int.class)));
+    } catch (Throwable t) {
+      throw throwUnchecked(t);
+    }
+  }
+
+  private int getValue() {
+    return 32;
+  }
+
+  @Benchmark
+  @Fork(value = 3, jvmArgsAppend = "-Xint")
+  public long directInterpreted() {
+    return directFunction.applyAsLong(this);
+  }
+
+  @Benchmark
+  @Fork(value = 3, jvmArgsAppend = "-Xint")
+  public long convertedInterpreted() {
+    return convertedFunction.applyAsLong(this);
+  }
+
+  @Benchmark
+  @Fork(value = 3, jvmArgsAppend = "-XX:TieredStopAtLevel=1")
+  public long directC1() {
+    return directFunction.applyAsLong(this);
+  }
+
+  @Benchmark
+  @Fork(value = 3, jvmArgsAppend = "-XX:TieredStopAtLevel=1")
+  public long convertedC1() {
+    return convertedFunction.applyAsLong(this);
+  }
+}
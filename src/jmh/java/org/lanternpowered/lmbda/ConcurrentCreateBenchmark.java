@@ -0,0 +1,128 @@
+/*
+ * Lmbda
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) contributors
+ *
+ * This work is licensed under the terms of the MIT License (MIT). For
+ * a copy, see 'LICENSE.txt' or <https://opensource.org/licenses/MIT>.
+ */
+package org.lanternpowered.lmbda;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+/**
+ * Measures how the creation of lambdas scales when multiple threads request the same lambdas at
+ * the same time. Every thread walks through the same method handles, so the threads race to
+ * create the same lambda. Plain creation defines a class per thread, cached creation defines
+ * a class once and shares it between the threads.
+ */
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(3)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ConcurrentCreateBenchmark {
+
+  private static final LambdaType<IntSupplier> lambdaType = LambdaType.of(IntSupplier.class);
+
+  /**
+   * The amount of method handles per iteration, enough so that the threads don't run out of
+   * uncached method handles within an iteration.
+   */
+  private static final int SIZE = 1 << 16;
+
+  @State(Scope.Benchmark)
+  public static class MethodHandlesState {
+
+    MethodHandle[] methodHandles;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+      // New method handle instances, so the cached lambdas of the previous iteration aren't used
+      this.methodHandles = new MethodHandle[SIZE];
+      for (int i = 0; i < SIZE; i++) {
+        this.methodHandles[i] = MethodHandles.constant(int.class, i);
+      }
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class IndexState {
+
+    int index;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+      this.index = 0;
+    }
+
+    MethodHandle next(final MethodHandlesState state) {
+      return state.methodHandles[this.index++ & (SIZE - 1)];
+    }
+  }
+
+  @Benchmark
+  @Threads(1)
+  public IntSupplier create1(final MethodHandlesState state, final IndexState index) {
+    return LambdaFactory.create(lambdaType, index.next(state));
+  }
+
+  @Benchmark
+  @Threads(2)
+  public IntSupplier create2(final MethodHandlesState state, final IndexState index) {
+    return LambdaFactory.create(lambdaType, index.next(state));
+  }
+
+  @Benchmark
+  @Threads(4)
+  public IntSupplier create4(final MethodHandlesState state, final IndexState index) {
+    return LambdaFactory.create(lambdaType, index.next(state));
+  }
+
+  @Benchmark
+  @Threads(8)
+  public IntSupplier create8(final MethodHandlesState state, final IndexState index) {
+    return LambdaFactory.create(lambdaType, index.next(state));
+  }
+
+  @Benchmark
+  @Threads(1)
+  public IntSupplier createCached1(final MethodHandlesState state, final IndexState index) {
+    return LambdaFactory.createCached(lambdaType, index.next(state));
+  }
+
+  @Benchmark
+  @Threads(2)
+  public IntSupplier createCached2(final MethodHandlesState state, final IndexState index) {
+    return LambdaFactory.createCached(lambdaType, index.next(state));
+  }
+
+  @Benchmark
+  @Threads(4)
+  public IntSupplier createCached4(final MethodHandlesState state, final IndexState index) {
+    return LambdaFactory.createCached(lambdaType, index.next(state));
+  }
+
+  @Benchmark
+  @Threads(8)
+  public IntSupplier createCached8(final MethodHandlesState state, final IndexState index) {
+    return LambdaFactory.createCached(lambdaType, index.next(state));
+  }
+}
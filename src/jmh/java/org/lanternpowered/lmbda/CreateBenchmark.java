@@ -0,0 +1,72 @@
+/*
+ * Lmbda
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) contributors
+ *
+ * This work is licensed under the terms of the MIT License (MIT). For
+ * a copy, see 'LICENSE.txt' or <https://opensource.org/licenses/MIT>.
+ */
+package org.lanternpowered.lmbda;
+
+import static org.lanternpowered.lmbda.InternalUtilities.throwUnchecked;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+
+/**
+ * Measures the cost of creating a lambda, for a direct method handle and for a method handle
+ * whose type differs from the function method and needs to be converted.
+ */
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(3)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class CreateBenchmark {
+
+  private static final LambdaType<ToLongFunction<CreateBenchmark>> lambdaType =
+    new LambdaType<ToLongFunction<CreateBenchmark>>() {};
+
+  private static final MethodHandle directMethodHandle;
+  private static final MethodHandle filteredMethodHandle;
+
+  static {
+    try {
+      directMethodHandle = MethodHandles.lookup().findVirtual(CreateBenchmark.class,
+        "getValue", MethodType.methodType(int.class));
+      filteredMethodHandle = MethodHandles.filterReturnValue(directMethodHandle,
+        MethodHandles.identity(int.class));
+    } catch (Throwable t) {
+      throw throwUnchecked(t);
+    }
+  }
+
+  private int getValue() {
+    return 32;
+  }
+
+  @Benchmark
+  public ToLongFunction<CreateBenchmark> direct() {
+    return LambdaFactory.create(lambdaType, directMethodHandle);
+  }
+
+  @Benchmark
+  public ToLongFunction<CreateBenchmark> converted() {
+    return LambdaFactory.create(lambdaType, filteredMethodHandle);
+  }
+}
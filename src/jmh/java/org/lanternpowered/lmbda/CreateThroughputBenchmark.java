@@ -0,0 +1,71 @@
+/*
+ * Lmbda
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) contributors
+ *
+ * This work is licensed under the terms of the MIT License (MIT). For
+ * a copy, see 'LICENSE.txt' or <https://opensource.org/licenses/MIT>.
+ */
+package org.lanternpowered.lmbda;
+
+import static org.lanternpowered.lmbda.InternalUtilities.throwUnchecked;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
+
+/**
+ * Measures the throughput of creating lambdas, with a lambda type that is reused, for which the
+ * access checks are resolved only once, and with a lambda type that is resolved for every
+ * lambda.
+ */
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(3)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+public class CreateThroughputBenchmark {
+
+  private static final LambdaType<ToIntFunction<CreateThroughputBenchmark>> lambdaType =
+    new LambdaType<ToIntFunction<CreateThroughputBenchmark>>() {};
+
+  private static final MethodHandle methodHandle;
+
+  static {
+    try {
+      methodHandle = MethodHandles.lookup().findVirtual(CreateThroughputBenchmark.class,
+        "getValue", MethodType.methodType(int.class));
+    } catch (Throwable t) {
+      throw throwUnchecked(t);
+    }
+  }
+
+  private int getValue() {
+    return 32;
+  }
+
+  @Benchmark
+  public ToIntFunction<CreateThroughputBenchmark> reusedLambdaType() {
+    return LambdaFactory.create(lambdaType, methodHandle);
+  }
+
+  @Benchmark
+  public ToIntFunction<CreateThroughputBenchmark> newLambdaType() {
+    return LambdaFactory.create(
+      new LambdaType<ToIntFunction<CreateThroughputBenchmark>>() {}, methodHandle);
+  }
+}
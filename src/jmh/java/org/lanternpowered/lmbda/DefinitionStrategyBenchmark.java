@@ -0,0 +1,141 @@
+/*
+ * Lmbda
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) contributors
+ *
+ * This work is licensed under the terms of the MIT License (MIT). For
+ * a copy, see 'LICENSE.txt' or <https://opensource.org/licenses/MIT>.
+ */
+package org.lanternpowered.lmbda;
+
+import static org.lanternpowered.lmbda.InternalUtilities.throwUnchecked;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
+
+/**
+ * Compares the {@link DefinitionStrategy}s on the local JDK: the cost of creating a lambda, the
+ * cost of invoking one that targets a private member directly and one that needs a method handle
+ * invocation, and how many of the generated classes can be unloaded again.
+ *
+ * <p>The class unloading results are reported as the secondary {@code loadedClasses} and
+ * {@code unloadedClasses} results of the {@link #create(ClassUnloading)} benchmark, the classes
+ * that were created by an iteration aren't referenced anymore at the end of it.</p>
+ */
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(3)
+@BenchmarkMode(Mode.AverageTime)
+@State(Scope.Thread)
+public class DefinitionStrategyBenchmark {
+
+  private static final MethodHandle directMethodHandle;
+  private static final MethodHandle convertedMethodHandle;
+
+  static {
+    try {
+      directMethodHandle = MethodHandles.lookup().findVirtual(DefinitionStrategyBenchmark.class,
+        "getValue", MethodType.methodType(int.class));
+      convertedMethodHandle = MethodHandles.filterReturnValue(directMethodHandle,
+        MethodHandles.identity(int.class));
+    } catch (Throwable t) {
+      throw throwUnchecked(t);
+    }
+  }
+
+  @Param({ "HIDDEN", "STRONG_HIDDEN", "NESTMATE", "DEFINE_CLASS", "METAFACTORY", "AUTOMATIC" })
+  public DefinitionStrategy strategy;
+
+  private LambdaType<ToIntFunction<DefinitionStrategyBenchmark>> lambdaType;
+  private ToIntFunction<DefinitionStrategyBenchmark> directFunction;
+  private ToIntFunction<DefinitionStrategyBenchmark> convertedFunction;
+
+  private int value = 32;
+
+  private int getValue() {
+    return this.value;
+  }
+
+  @Setup
+  public void setup() {
+    this.lambdaType = new LambdaType<ToIntFunction<DefinitionStrategyBenchmark>>() {}
+      .defineClassesWith(MethodHandles.lookup())
+      .defineClassesUsing(this.strategy);
+    this.directFunction = LambdaFactory.create(this.lambdaType, directMethodHandle);
+    this.convertedFunction = LambdaFactory.create(this.lambdaType, convertedMethodHandle);
+  }
+
+  /**
+   * Counts the classes that were loaded during an iteration, and how many classes were unloaded
+   * again after collecting the garbage at the end of the iteration.
+   */
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  @State(Scope.Thread)
+  public static class ClassUnloading {
+
+    public long loadedClasses;
+    public long unloadedClasses;
+
+    private long totalLoadedClasses;
+    private long totalUnloadedClasses;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+      final ClassLoadingMXBean classLoading = ManagementFactory.getClassLoadingMXBean();
+      this.totalLoadedClasses = classLoading.getTotalLoadedClassCount();
+      this.totalUnloadedClasses = classLoading.getUnloadedClassCount();
+      this.loadedClasses = 0;
+      this.unloadedClasses = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void collect() throws InterruptedException {
+      for (int i = 0; i < 3; i++) {
+        System.gc();
+        Thread.sleep(100);
+      }
+      final ClassLoadingMXBean classLoading = ManagementFactory.getClassLoadingMXBean();
+      this.loadedClasses = classLoading.getTotalLoadedClassCount() - this.totalLoadedClasses;
+      this.unloadedClasses = classLoading.getUnloadedClassCount() - this.totalUnloadedClasses;
+    }
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public ToIntFunction<DefinitionStrategyBenchmark> create(final ClassUnloading unloading) {
+    return LambdaFactory.create(this.lambdaType, directMethodHandle);
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public int invokeDirect() {
+    return this.directFunction.applyAsInt(this);
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public int invokeConverted() {
+    return this.convertedFunction.applyAsInt(this);
+  }
+}
@@ -61,6 +61,10 @@ public class IntGetterFieldBenchmark {
   private static final ToIntFunction<IntGetterFieldBenchmark> mhDynFunction;
   private static final ToIntFunction<IntGetterFieldBenchmark> mhProxyFunction;
   private static final ToIntFunction<IntGetterFieldBenchmark> lmbdaFunction;
+  private static final ToIntFunction<IntGetterFieldBenchmark> lmbdaSharedFunction;
+  private static final ToIntFunction<IntGetterFieldBenchmark> lmbdaTieredFunction;
+  private static final ToIntFunction<IntGetterFieldBenchmark> lmbdaNestmateFunction;
+  private static final ToIntFunction<IntGetterFieldBenchmark> lmbdaAutomaticFunction;
 
   static {
     try {
@@ -102,6 +106,17 @@ public class IntGetterFieldBenchmark {
       mhProxyFunction = MethodHandleProxies.asInterfaceInstance(ToIntFunction.class, mhDyn);
       lmbdaFunction = LambdaFactory.create(
         new LambdaType<ToIntFunction<IntGetterFieldBenchmark>>() {}, mhDyn);
+      lmbdaSharedFunction = LambdaFactory.createShared(
+        new LambdaType<ToIntFunction<IntGetterFieldBenchmark>>() {}, mhDyn);
+      lmbdaTieredFunction = LambdaFactory.createTiered(
+        new LambdaType<ToIntFunction<IntGetterFieldBenchmark>>() {}, mhDyn);
+      lmbdaNestmateFunction = LambdaFactory.create(
+        new LambdaType<ToIntFunction<IntGetterFieldBenchmark>>() {}
+          .defineClassesUsing(DefinitionStrategy.NESTMATE), mhDyn);
+      lmbdaAutomaticFunction = LambdaFactory.create(
+        new LambdaType<ToIntFunction<IntGetterFieldBenchmark>>() {}
+          .defineClassesWith(MethodHandles.lookup())
+          .defineClassesUsing(DefinitionStrategy.AUTOMATIC), mhDyn);
     } catch (Throwable t) {
       throw throwUnchecked(t);
     }
@@ -146,4 +161,24 @@ public int methodHandleProxy() {
   public int lmbda() {
     return lmbdaFunction.applyAsInt(this);
   }
+
+  @Benchmark
+  public int lmbdaShared() {
+    return lmbdaSharedFunction.applyAsInt(this);
+  }
+
+  @Benchmark
+  public int lmbdaTiered() {
+    return lmbdaTieredFunction.applyAsInt(this);
+  }
+
+  @Benchmark
+  public int lmbdaNestmate() {
+    return lmbdaNestmateFunction.applyAsInt(this);
+  }
+
+  @Benchmark
+  public int lmbdaAutomatic() {
+    return lmbdaAutomaticFunction.applyAsInt(this);
+  }
 }
@@ -61,6 +61,14 @@ public class IntGetterMethodBenchmark {
   private static final ToIntFunction<IntGetterMethodBenchmark> mhProxyFunction;
   private static final ToIntFunction<IntGetterMethodBenchmark> lambdaMetafactoryFunction;
   private static final ToIntFunction<IntGetterMethodBenchmark> lmbdaFunction;
+  private static final ToIntFunction<IntGetterMethodBenchmark> lmbdaSharedFunction;
+  private static final ToIntFunction<IntGetterMethodBenchmark> lmbdaTieredFunction;
+  private static final ToIntFunction<IntGetterMethodBenchmark> lmbdaNestmateFunction;
+  private static final ToIntFunction<IntGetterMethodBenchmark> lmbdaAutomaticFunction;
+  @SuppressWarnings("FieldMayBeFinal")
+  private static ToIntFunction<IntGetterMethodBenchmark> lmbdaDynFunction;
+  @SuppressWarnings("FieldMayBeFinal")
+  private static ToIntFunction<IntGetterMethodBenchmark> lmbdaTieredDynFunction;
 
   static {
     try {
@@ -105,6 +113,23 @@ public class IntGetterMethodBenchmark {
         MethodHandles.lookup(), mhDyn);
       lmbdaFunction = LambdaFactory.create(
         new LambdaType<ToIntFunction<IntGetterMethodBenchmark>>() {}, mhDyn);
+      lmbdaSharedFunction = LambdaFactory.createShared(
+        new LambdaType<ToIntFunction<IntGetterMethodBenchmark>>() {}, mhDyn);
+      lmbdaTieredFunction = LambdaFactory.createTiered(
+        new LambdaType<ToIntFunction<IntGetterMethodBenchmark>>() {}, mhDyn);
+      lmbdaNestmateFunction = LambdaFactory.create(
+        new LambdaType<ToIntFunction<IntGetterMethodBenchmark>>() {}
+          .defineClassesUsing(DefinitionStrategy.NESTMATE), mhDyn);
+      lmbdaAutomaticFunction = LambdaFactory.create(
+        new LambdaType<ToIntFunction<IntGetterMethodBenchmark>>() {}
+          .defineClassesWith(MethodHandles.lookup())
+          .defineClassesUsing(DefinitionStrategy.AUTOMATIC), mhDyn);
+      lmbdaDynFunction = LambdaFactory.create(
+        new LambdaType<ToIntFunction<IntGetterMethodBenchmark>>() {}, mhDyn);
+      lmbdaTieredDynFunction = LambdaFactory.createTiered(
+        new LambdaType<ToIntFunction<IntGetterMethodBenchmark>>() {}, mhDyn, 1);
+      // Promote the function before the measurements
+      lmbdaTieredDynFunction.applyAsInt(new IntGetterMethodBenchmark());
     } catch (Throwable t) {
       throw throwUnchecked(t);
     }
@@ -158,4 +183,34 @@ public int lambdaMetafactory() {
   public int lmbda() {
     return lmbdaFunction.applyAsInt(this);
   }
+
+  @Benchmark
+  public int lmbdaShared() {
+    return lmbdaSharedFunction.applyAsInt(this);
+  }
+
+  @Benchmark
+  public int lmbdaTiered() {
+    return lmbdaTieredFunction.applyAsInt(this);
+  }
+
+  @Benchmark
+  public int lmbdaNestmate() {
+    return lmbdaNestmateFunction.applyAsInt(this);
+  }
+
+  @Benchmark
+  public int lmbdaAutomatic() {
+    return lmbdaAutomaticFunction.applyAsInt(this);
+  }
+
+  @Benchmark
+  public int lmbdaDyn() {
+    return lmbdaDynFunction.applyAsInt(this);
+  }
+
+  @Benchmark
+  public int lmbdaTieredDyn() {
+    return lmbdaTieredDynFunction.applyAsInt(this);
+  }
 }
@@ -59,6 +59,10 @@ public class IntSetterFieldBenchmark {
   private static final ObjIntConsumer<IntSetterFieldBenchmark> mhDynFunction;
   private static final ObjIntConsumer<IntSetterFieldBenchmark> mhProxyFunction;
   private static final ObjIntConsumer<IntSetterFieldBenchmark> lmbdaFunction;
+  private static final ObjIntConsumer<IntSetterFieldBenchmark> lmbdaSharedFunction;
+  private static final ObjIntConsumer<IntSetterFieldBenchmark> lmbdaTieredFunction;
+  private static final ObjIntConsumer<IntSetterFieldBenchmark> lmbdaNestmateFunction;
+  private static final ObjIntConsumer<IntSetterFieldBenchmark> lmbdaAutomaticFunction;
 
   static {
     try {
@@ -100,6 +104,17 @@ public class IntSetterFieldBenchmark {
       mhProxyFunction = MethodHandleProxies.asInterfaceInstance(ObjIntConsumer.class, mhDyn);
       lmbdaFunction = LambdaFactory.create(
         new LambdaType<ObjIntConsumer<IntSetterFieldBenchmark>>() {}, mhDyn);
+      lmbdaSharedFunction = LambdaFactory.createShared(
+        new LambdaType<ObjIntConsumer<IntSetterFieldBenchmark>>() {}, mhDyn);
+      lmbdaTieredFunction = LambdaFactory.createTiered(
+        new LambdaType<ObjIntConsumer<IntSetterFieldBenchmark>>() {}, mhDyn);
+      lmbdaNestmateFunction = LambdaFactory.create(
+        new LambdaType<ObjIntConsumer<IntSetterFieldBenchmark>>() {}
+          .defineClassesUsing(DefinitionStrategy.NESTMATE), mhDyn);
+      lmbdaAutomaticFunction = LambdaFactory.create(
+        new LambdaType<ObjIntConsumer<IntSetterFieldBenchmark>>() {}
+          .defineClassesWith(MethodHandles.lookup())
+          .defineClassesUsing(DefinitionStrategy.AUTOMATIC), mhDyn);
     } catch (Throwable t) {
       throw throwUnchecked(t);
     }
@@ -145,6 +160,26 @@ public void lmbda(final Data data) {
     lmbdaFunction.accept(this, data.value++);
   }
 
+  @Benchmark
+  public void lmbdaShared(final Data data) {
+    lmbdaSharedFunction.accept(this, data.value++);
+  }
+
+  @Benchmark
+  public void lmbdaTiered(final Data data) {
+    lmbdaTieredFunction.accept(this, data.value++);
+  }
+
+  @Benchmark
+  public void lmbdaNestmate(final Data data) {
+    lmbdaNestmateFunction.accept(this, data.value++);
+  }
+
+  @Benchmark
+  public void lmbdaAutomatic(final Data data) {
+    lmbdaAutomaticFunction.accept(this, data.value++);
+  }
+
   @State(Scope.Benchmark)
   public static class Data {
 
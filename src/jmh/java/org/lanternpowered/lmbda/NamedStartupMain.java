@@ -0,0 +1,45 @@
+/*
+ * Lmbda
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) contributors
+ *
+ * This work is licensed under the terms of the MIT License (MIT). For
+ * a copy, see 'LICENSE.txt' or <https://opensource.org/licenses/MIT>.
+ */
+package org.lanternpowered.lmbda;
+
+import java.lang.invoke.MethodHandles;
+import java.util.function.IntSupplier;
+
+/**
+ * The application used by {@code scripts/cds-startup-benchmark.sh} to measure the startup time
+ * of creating lambdas, with and without an AppCDS archive.
+ *
+ * <p>Arguments: the {@link DefinitionStrategy} and the amount of lambdas to create.</p>
+ */
+public final class NamedStartupMain {
+
+  public static void main(final String[] args) {
+    final long start = System.nanoTime();
+
+    final DefinitionStrategy strategy = DefinitionStrategy.valueOf(args[0]);
+    final int count = Integer.parseInt(args[1]);
+
+    final LambdaType<IntSupplier> lambdaType =
+      LambdaType.of(IntSupplier.class).defineClassesUsing(strategy);
+    long sum = 0;
+    for (int i = 0; i < count; i++) {
+      final IntSupplier supplier =
+        LambdaFactory.create(lambdaType, MethodHandles.constant(int.class, i));
+      sum += supplier.getAsInt();
+    }
+
+    final long elapsed = System.nanoTime() - start;
+    System.out.println(strategy + " " + count + " lambdas: " + (elapsed / 1000000) + " ms" +
+      " (checksum " + sum + ")");
+  }
+
+  private NamedStartupMain() {
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * Lmbda
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) contributors
+ *
+ * This work is licensed under the terms of the MIT License (MIT). For
+ * a copy, see 'LICENSE.txt' or <https://opensource.org/licenses/MIT>.
+ */
+package org.lanternpowered.lmbda;
+
+import static org.lanternpowered.lmbda.InternalUtilities.throwUnchecked;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * Measures the startup cost of the {@link DefinitionStrategy}s, the time it takes to create and
+ * invoke the first lambdas of the {@code IntGetter*} and {@code IntSetter*} benchmarks in a
+ * fresh JVM, including the initialization of the library itself.
+ */
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class StartupBenchmark {
+
+  @Param({ "HIDDEN", "NESTMATE", "METAFACTORY", "AUTOMATIC" })
+  public DefinitionStrategy strategy;
+
+  private int value = 32;
+
+  private int getValue() {
+    return this.value;
+  }
+
+  private void setValue(final int value) {
+    this.value = value;
+  }
+
+  @Benchmark
+  public int create() {
+    try {
+      final MethodHandles.Lookup lookup = MethodHandles.lookup();
+      final ToIntFunction<StartupBenchmark> fieldGetter = LambdaFactory.create(
+        new LambdaType<ToIntFunction<StartupBenchmark>>() {}
+          .defineClassesWith(lookup).defineClassesUsing(this.strategy),
+        lookup.findGetter(StartupBenchmark.class, "value", int.class));
+      final ToIntFunction<StartupBenchmark> methodGetter = LambdaFactory.create(
+        new LambdaType<ToIntFunction<StartupBenchmark>>() {}
+          .defineClassesWith(lookup).defineClassesUsing(this.strategy),
+        lookup.findVirtual(StartupBenchmark.class, "getValue", MethodType.methodType(int.class)));
+      final ObjIntConsumer<StartupBenchmark> methodSetter = LambdaFactory.create(
+        new LambdaType<ObjIntConsumer<StartupBenchmark>>() {}
+          .defineClassesWith(lookup).defineClassesUsing(this.strategy),
+        lookup.findVirtual(StartupBenchmark.class, "setValue",
+          MethodType.methodType(void.class, int.class)));
+      methodSetter.accept(this, 64);
+      return fieldGetter.applyAsInt(this) + methodGetter.applyAsInt(this);
+    } catch (Throwable t) {
+      throw throwUnchecked(t);
+    }
+  }
+}
@@ -0,0 +1,138 @@
+/*
+ * Lmbda
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) contributors
+ *
+ * This work is licensed under the terms of the MIT License (MIT). For
+ * a copy, see 'LICENSE.txt' or <https://opensource.org/licenses/MIT>.
+ */
+package org.lanternpowered.lmbda;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+import java.util.Locale;
+
+/**
+ * Represents the strategy that is used to define the generated function classes of a
+ * {@link LambdaType}.
+ *
+ * <p>The strategy of lambda types that don't specify one is {@link #HIDDEN}, this can be changed
+ * with the {@code org.lanternpowered.lmbda.definitionStrategy} system property, for example
+ * {@code -Dorg.lanternpowered.lmbda.definitionStrategy=STRONG_HIDDEN}. An unknown value is
+ * ignored, {@link #HIDDEN} will be used instead.</p>
+ *
+ * <p>Strategies other than {@link #HIDDEN} apply to the functions that get a dedicated class for
+ * their method handle, which are the ones created by {@code create}, {@code createCached},
+ * {@code createAll} and their asynchronous variants, and the functions that tiered, lazy and
+ * interim functions are promoted to. Shared, capturing, constant and prepared functions, and
+ * tiered functions before their promotion, will always be defined as hidden classes.</p>
+ *
+ * @see LambdaType#defineClassesUsing(DefinitionStrategy)
+ */
+public enum DefinitionStrategy {
+
+  /**
+   * Defines hidden classes, when supported by the JVM. Otherwise normal classes with unique
+   * names will be defined. The hidden classes are weakly reachable from their class loader, so
+   * they can be unloaded as soon as the function isn't used anymore. This is the default
+   * strategy.
+   */
+  HIDDEN,
+
+  /**
+   * Defines hidden classes that are strongly reachable from their class loader, when supported
+   * by the JVM. Otherwise normal classes with unique names will be defined.
+   *
+   * <p>The classes can only be unloaded together with their class loader, in exchange the JVM
+   * doesn't need to keep track of every class separately, which uses less memory.</p>
+   */
+  STRONG_HIDDEN,
+
+  /**
+   * Defines normal classes with unique names in the package of the define lookup, using
+   * {@code Lookup.defineClass} or the class loader of the define lookup on Java 8.
+   *
+   * <p>The classes can only be unloaded together with their class loader.</p>
+   */
+  DEFINE_CLASS,
+
+  /**
+   * Delegates to the {@link java.lang.invoke.LambdaMetafactory}, which is also used to implement
+   * java lambdas and method references, with the define lookup as caller.
+   *
+   * <p>This only supports direct method handles that the define lookup has access to, for
+   * interface lambda types. Other method handles or lambda types will be defined like
+   * {@link #HIDDEN}.</p>
+   *
+   * <p>The metafactory defines strongly reachable classes, so they can only be unloaded together
+   * with the class loader of the define lookup. Without an explicit define lookup, see
+   * {@link LambdaType#defineClassesWith(java.lang.invoke.MethodHandles.Lookup)}, this is the
+   * class loader of this library.</p>
+   */
+  METAFACTORY,
+
+  /**
+   * Delegates to the {@link java.lang.invoke.LambdaMetafactory} like {@link #METAFACTORY}
+   * whenever the lambda type has an explicit define lookup, see
+   * {@link LambdaType#defineClassesWith(java.lang.invoke.MethodHandles.Lookup)}, and the method
+   * handle is supported by the metafactory. Otherwise the classes will be defined like
+   * {@link #HIDDEN}.
+   *
+   * <p>The classes of the metafactory are optimized by the JDK and can be archived by CDS, but
+   * they can only be unloaded together with the class loader of the define lookup.</p>
+   */
+  AUTOMATIC,
+
+  /**
+   * Defines normal classes with stable names in the package of the define lookup.
+   *
+   * <p>Classes with the same name that can already be loaded by the class loader of the define
+   * lookup will be reused instead of defining new ones, the method handle is bound to such a
+   * class when it's initialized. By exporting the generated classes, see
+   * {@link LambdaFactory#setNamedClassOutputDirectory(java.nio.file.Path)}, and adding the
+   * directory to the class path of the next run, the classes can be archived by AppCDS, e.g.
+   * with {@code -XX:ArchiveClassesAtExit}.</p>
+   *
+   * <p>Named classes can only be unloaded together with their class loader, so this strategy
+   * should only be used for functions that live as long as the application.</p>
+   */
+  NAMED,
+
+  /**
+   * Defines hidden classes as nestmates of the class that declares the target member of a
+   * direct method handle, when supported by the JVM. The generated class accesses the member
+   * directly, even if it's private, instead of invoking the method handle.
+   *
+   * <p>This requires that the define lookup can acquire private access to the declaring
+   * class, see {@link MethodHandlesExtensions#privateLookupIn(Class,
+   * java.lang.invoke.MethodHandles.Lookup)}. The generated classes will be defined in the
+   * package and class loader of the declaring class. If this isn't possible, or if the method
+   * handle isn't a direct one, the classes will be defined like {@link #HIDDEN}.</p>
+   */
+  NESTMATE;
+
+  /**
+   * The system property that can be used to change the default strategy. The value is the name
+   * of a strategy, ignoring case. If the value isn't the name of a strategy, {@link #HIDDEN}
+   * will be used, failing would prevent this class from being initialized.
+   */
+  static final String DEFAULT_STRATEGY_PROPERTY = "org.lanternpowered.lmbda.definitionStrategy";
+
+  /**
+   * The strategy of lambda types that don't specify one.
+   */
+  static final @NonNull DefinitionStrategy defaultStrategy = loadDefaultStrategy();
+
+  private static @NonNull DefinitionStrategy loadDefaultStrategy() {
+    final String property = System.getProperty(DEFAULT_STRATEGY_PROPERTY);
+    if (property == null || property.isEmpty()) {
+      return HIDDEN;
+    }
+    try {
+      return valueOf(property.trim().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      return HIDDEN;
+    }
+  }
+}
@@ -0,0 +1,67 @@
+/*
+ * Lmbda
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) contributors
+ *
+ * This work is licensed under the terms of the MIT License (MIT). For
+ * a copy, see 'LICENSE.txt' or <https://opensource.org/licenses/MIT>.
+ */
+package org.lanternpowered.lmbda;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Repeatable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Requests the annotation processor of this library to generate a function class at compile
+ * time which accesses a member directly. Functions created by the {@link LambdaFactory} for a
+ * direct method handle of the member will use the generated class instead of generating one
+ * at runtime.
+ *
+ * <p>The generated classes are placed in the package of the class that declares the member,
+ * so private members, members of private nested classes and members that are declared by classes
+ * which aren't compiled together with the annotation, e.g. library classes, are not supported.
+ * The types of the function method must be convertible to the types of the member, otherwise
+ * the processor reports an error. For example:</p>
+ * <pre>{@code
+ * @GenerateAccessor(target = Entity.class, member = "health", type = ToIntFunction.class)
+ * public class EntityAccessors {
+ * }
+ * }</pre>
+ *
+ * <p>The processor is published with the {@code processor} classifier and must be added to
+ * the annotation processor path, for example with
+ * {@code annotationProcessor("org.lanternpowered:lmbda:<version>:processor")}.</p>
+ */
+@Documented
+@Repeatable(GenerateAccessors.class)
+@Retention(RetentionPolicy.SOURCE)
+@Target({ ElementType.TYPE, ElementType.PACKAGE })
+public @interface GenerateAccessor {
+
+  /**
+   * The class that declares or inherits the member.
+   *
+   * @return The target class
+   */
+  Class<?> target();
+
+  /**
+   * The name of the field or method, or {@code <init>} for a constructor. Overloaded methods
+   * are distinguished by the parameter count of the functional method.
+   *
+   * @return The member name
+   */
+  String member();
+
+  /**
+   * The functional interface or abstract class that will be implemented.
+   *
+   * @return The function type
+   */
+  Class<?> type();
+}
@@ -0,0 +1,268 @@
+/*
+ * Lmbda
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) contributors
+ *
+ * This work is licensed under the terms of the MIT License (MIT). For
+ * a copy, see 'LICENSE.txt' or <https://opensource.org/licenses/MIT>.
+ */
+package org.lanternpowered.lmbda;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.objectweb.asm.ClassWriter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.function.Supplier;
+
+/**
+ * A persistent cache of generated class bytes, stored in a directory so that the bytes can be
+ * reused across restarts of the JVM.
+ *
+ * <p>Each file is named after the SHA-256 hash of its key and starts with the key itself, which
+ * is compared when reading so that hash collisions can't result in the wrong class. The key must
+ * describe everything the generated bytes depend on, except the class name and the version of the
+ * generator, which is added to every key. The cache is only used for hidden classes, which don't
+ * require unique names.</p>
+ */
+final class InternalBytecodeCache {
+
+  /**
+   * The system property which can be used to set the cache directory.
+   */
+  static final String DIRECTORY_PROPERTY = "org.lanternpowered.lmbda.bytecodeCacheDirectory";
+
+  private static volatile @Nullable Path directory;
+
+  static {
+    final String property = System.getProperty(DIRECTORY_PROPERTY);
+    if (property != null && !property.isEmpty()) {
+      directory = Paths.get(property);
+    }
+  }
+
+  /**
+   * Sets the directory of the cache.
+   *
+   * @param directory The directory, or null to disable the cache
+   */
+  static void setDirectory(final @Nullable Path directory) {
+    InternalBytecodeCache.directory = directory;
+  }
+
+  /**
+   * Gets the directory of the cache.
+   *
+   * @return The directory, or null if the cache is disabled
+   */
+  static @Nullable Path getDirectory() {
+    return directory;
+  }
+
+  /**
+   * Gets the bytes for the given key from the cache, or generates and stores them if they
+   * aren't present. If the cache is disabled, the bytes will always be generated.
+   *
+   * @param key       The key which describes the generated bytes
+   * @param generator The generator of the bytes
+   * @return The bytes
+   */
+  static byte @NonNull [] get(
+    final @NonNull String key,
+    final @NonNull Supplier<byte @NonNull []> generator
+  ) {
+    final Path directory = InternalBytecodeCache.directory;
+    final String version = GeneratorVersion.value;
+    if (directory == null || version == null) {
+      return generator.get();
+    }
+    final String fullKey = version + ";" + key;
+    final byte[] keyBytes = fullKey.getBytes(StandardCharsets.UTF_8);
+    final Path file = directory.resolve(hash(keyBytes) + ".class");
+    byte[] bytes = read(file, keyBytes);
+    if (bytes == null) {
+      bytes = generator.get();
+      write(directory, file, keyBytes, bytes);
+    }
+    return bytes;
+  }
+
+  /**
+   * Reads the bytes from the given file, using memory mapped I/O.
+   *
+   * @param file     The file
+   * @param keyBytes The expected key
+   * @return The bytes, or null if the file doesn't exist, is invalid or belongs to another key
+   */
+  private static byte @Nullable [] read(final @NonNull Path file, final byte @NonNull [] keyBytes) {
+    if (!Files.isRegularFile(file)) {
+      return null;
+    }
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      if (buffer.remaining() < Integer.BYTES || buffer.getInt() != keyBytes.length ||
+        buffer.remaining() < keyBytes.length) {
+        return null;
+      }
+      final byte[] storedKeyBytes = new byte[keyBytes.length];
+      buffer.get(storedKeyBytes);
+      if (!MessageDigest.isEqual(storedKeyBytes, keyBytes)) {
+        return null;
+      }
+      final byte[] bytes = new byte[buffer.remaining()];
+      buffer.get(bytes);
+      return bytes;
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Writes the bytes to the given file. The bytes are first written to a temporary file which is
+   * moved afterwards, so other processes never see an incomplete file. Failures are ignored, the
+   * bytes will just be generated again next time.
+   *
+   * @param directory The cache directory
+   * @param file      The file
+   * @param keyBytes  The key
+   * @param bytes     The bytes
+   */
+  private static void write(
+    final @NonNull Path directory,
+    final @NonNull Path file,
+    final byte @NonNull [] keyBytes,
+    final byte @NonNull [] bytes
+  ) {
+    Path tempFile = null;
+    try {
+      Files.createDirectories(directory);
+      tempFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+      final ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + keyBytes.length + bytes.length);
+      buffer.putInt(keyBytes.length);
+      buffer.put(keyBytes);
+      buffer.put(bytes);
+      Files.write(tempFile, buffer.array());
+      try {
+        Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE);
+      } catch (IOException e) {
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+      }
+      tempFile = null;
+    } catch (IOException ignored) {
+    } finally {
+      if (tempFile != null) {
+        try {
+          Files.deleteIfExists(tempFile);
+        } catch (IOException ignored) {
+        }
+      }
+    }
+  }
+
+  /**
+   * Gets the version of the bytecode generator.
+   *
+   * @return The version, or null if the generator classes couldn't be read
+   */
+  static @Nullable String getGeneratorVersion() {
+    return GeneratorVersion.value;
+  }
+
+  /**
+   * Holds the version of the bytecode generator, which is only computed when it's needed.
+   */
+  private static final class GeneratorVersion {
+
+    static final @Nullable String value = computeGeneratorVersion();
+  }
+
+  /**
+   * Computes the version of the bytecode generator, the SHA-256 hash of the bytecode of the
+   * classes that generate the function classes. This way stale cache entries of other versions
+   * of the library or ASM are never used.
+   *
+   * @return The version, or null if the generator classes couldn't be read
+   */
+  private static @Nullable String computeGeneratorVersion() {
+    final MessageDigest digest = newDigest();
+    // ASM may be relocated, so its classes are resolved relative to the class writer
+    if (!update(digest, InternalLambdaFactory.class, "InternalLambdaFactory.class") ||
+        !update(digest, InternalConversions.class, "InternalConversions.class") ||
+        !update(digest, ClassWriter.class, "ClassWriter.class") ||
+        !update(digest, ClassWriter.class, "MethodWriter.class")) {
+      return null;
+    }
+    return toHexString(digest.digest());
+  }
+
+  /**
+   * Updates the digest with the contents of the given resource.
+   *
+   * @param digest       The digest
+   * @param relativeTo   The class the resource name is relative to
+   * @param resourceName The resource name
+   * @return Whether the resource could be read
+   */
+  private static boolean update(
+    final @NonNull MessageDigest digest,
+    final @NonNull Class<?> relativeTo,
+    final @NonNull String resourceName
+  ) {
+    try (InputStream is = relativeTo.getResourceAsStream(resourceName)) {
+      if (is == null) {
+        return false;
+      }
+      final byte[] buffer = new byte[8192];
+      int read;
+      while ((read = is.read(buffer)) != -1) {
+        digest.update(buffer, 0, read);
+      }
+      return true;
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Gets the SHA-256 hash of the given key as hexadecimal string.
+   *
+   * @param keyBytes The key
+   * @return The hash
+   */
+  static @NonNull String hash(final byte @NonNull [] keyBytes) {
+    return toHexString(newDigest().digest(keyBytes));
+  }
+
+  private static @NonNull MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static @NonNull String toHexString(final byte @NonNull [] hash) {
+    final StringBuilder builder = new StringBuilder(hash.length * 2);
+    for (final byte b : hash) {
+      builder.append(Character.forDigit((b >> 4) & 0xf, 16));
+      builder.append(Character.forDigit(b & 0xf, 16));
+    }
+    return builder.toString();
+  }
+
+  private InternalBytecodeCache() {
+  }
+}
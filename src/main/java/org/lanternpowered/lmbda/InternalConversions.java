@@ -0,0 +1,206 @@
+/*
+ * Lmbda
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) contributors
+ *
+ * This work is licensed under the terms of the MIT License (MIT). For
+ * a copy, see 'LICENSE.txt' or <https://opensource.org/licenses/MIT>.
+ */
+package org.lanternpowered.lmbda;
+
+import static org.objectweb.asm.Opcodes.ACONST_NULL;
+import static org.objectweb.asm.Opcodes.CHECKCAST;
+import static org.objectweb.asm.Opcodes.DCONST_0;
+import static org.objectweb.asm.Opcodes.F2D;
+import static org.objectweb.asm.Opcodes.FCONST_0;
+import static org.objectweb.asm.Opcodes.I2D;
+import static org.objectweb.asm.Opcodes.I2F;
+import static org.objectweb.asm.Opcodes.I2L;
+import static org.objectweb.asm.Opcodes.ICONST_0;
+import static org.objectweb.asm.Opcodes.INVOKESTATIC;
+import static org.objectweb.asm.Opcodes.INVOKEVIRTUAL;
+import static org.objectweb.asm.Opcodes.L2D;
+import static org.objectweb.asm.Opcodes.L2F;
+import static org.objectweb.asm.Opcodes.LCONST_0;
+import static org.objectweb.asm.Opcodes.POP;
+import static org.objectweb.asm.Opcodes.POP2;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Emits the conversions between types in bytecode, the same way as they would be applied by
+ * {@link MethodHandle#asType(java.lang.invoke.MethodType)}.
+ *
+ * <p>Only a subset of the conversions is supported, for example unboxing from a type that isn't
+ * a wrapper class requires runtime checks. When a conversion isn't supported, the caller should
+ * fall back to {@link MethodHandle#asType(java.lang.invoke.MethodType)}.</p>
+ */
+final class InternalConversions {
+
+  private static final @NonNull Map<Class<?>, Class<?>> primitiveToWrapper = new HashMap<>();
+  private static final @NonNull Map<Class<?>, Class<?>> wrapperToPrimitive = new HashMap<>();
+
+  static {
+    primitiveToWrapper.put(boolean.class, Boolean.class);
+    primitiveToWrapper.put(byte.class, Byte.class);
+    primitiveToWrapper.put(short.class, Short.class);
+    primitiveToWrapper.put(char.class, Character.class);
+    primitiveToWrapper.put(int.class, Integer.class);
+    primitiveToWrapper.put(long.class, Long.class);
+    primitiveToWrapper.put(float.class, Float.class);
+    primitiveToWrapper.put(double.class, Double.class);
+    primitiveToWrapper.forEach((primitive, wrapper) -> wrapperToPrimitive.put(wrapper, primitive));
+  }
+
+  /**
+   * Gets whether a value of the given type can be converted to the target type with bytecode.
+   *
+   * @param from   The type to convert from
+   * @param to     The type to convert to
+   * @param lookup The lookup the converting code will be defined in
+   * @return Whether the conversion is supported
+   */
+  static boolean isSupported(
+    final @NonNull Class<?> from,
+    final @NonNull Class<?> to,
+    final MethodHandles.@NonNull Lookup lookup
+  ) {
+    if (from == to || to == void.class || from == void.class) {
+      return true;
+    }
+    if (from.isPrimitive()) {
+      if (to.isPrimitive()) {
+        return isWidening(from, to);
+      }
+      // Boxing, followed by a reference widening
+      return to.isAssignableFrom(primitiveToWrapper.get(from));
+    }
+    if (to.isPrimitive()) {
+      // Unboxing, followed by a primitive widening, only from the wrappers themselves
+      final Class<?> primitive = wrapperToPrimitive.get(from);
+      return primitive != null && (primitive == to || isWidening(primitive, to));
+    }
+    return to.isAssignableFrom(from) ||
+      InternalMethodHandles.adapter.isAccessible(lookup, to);
+  }
+
+  /**
+   * Emits the conversion of the value on top of the stack to the target type. The conversion
+   * must be supported, see {@link #isSupported(Class, Class, MethodHandles.Lookup)}.
+   *
+   * @param mv   The method visitor
+   * @param from The type to convert from
+   * @param to   The type to convert to
+   */
+  static void visitConversion(
+    final @NonNull MethodVisitor mv,
+    final @NonNull Class<?> from,
+    final @NonNull Class<?> to
+  ) {
+    if (from == to) {
+      return;
+    }
+    if (to == void.class) {
+      mv.visitInsn(Type.getType(from).getSize() == 2 ? POP2 : POP);
+    } else if (from == void.class) {
+      visitDefaultValue(mv, to);
+    } else if (from.isPrimitive()) {
+      if (to.isPrimitive()) {
+        visitWidening(mv, from, to);
+      } else {
+        final Class<?> wrapper = primitiveToWrapper.get(from);
+        mv.visitMethodInsn(INVOKESTATIC, Type.getInternalName(wrapper), "valueOf",
+          Type.getMethodDescriptor(Type.getType(wrapper), Type.getType(from)), false);
+      }
+    } else if (to.isPrimitive()) {
+      final Class<?> primitive = wrapperToPrimitive.get(from);
+      mv.visitMethodInsn(INVOKEVIRTUAL, Type.getInternalName(from), primitive.getName() + "Value",
+        Type.getMethodDescriptor(Type.getType(primitive)), false);
+      visitWidening(mv, primitive, to);
+    } else if (!to.isAssignableFrom(from)) {
+      mv.visitTypeInsn(CHECKCAST, Type.getInternalName(to));
+    }
+  }
+
+  private static void visitDefaultValue(
+    final @NonNull MethodVisitor mv,
+    final @NonNull Class<?> type
+  ) {
+    if (!type.isPrimitive()) {
+      mv.visitInsn(ACONST_NULL);
+    } else if (type == long.class) {
+      mv.visitInsn(LCONST_0);
+    } else if (type == float.class) {
+      mv.visitInsn(FCONST_0);
+    } else if (type == double.class) {
+      mv.visitInsn(DCONST_0);
+    } else {
+      mv.visitInsn(ICONST_0);
+    }
+  }
+
+  private static boolean isWidening(final @NonNull Class<?> from, final @NonNull Class<?> to) {
+    if (from == to) {
+      return true;
+    }
+    if (from == boolean.class || to == boolean.class) {
+      return false;
+    }
+    final int fromRank = getWideningRank(from);
+    final int toRank = getWideningRank(to);
+    if (from == char.class) {
+      // Char can only be widened to int or bigger
+      return toRank >= getWideningRank(int.class);
+    }
+    return to != char.class && toRank > fromRank;
+  }
+
+  private static int getWideningRank(final @NonNull Class<?> type) {
+    if (type == byte.class) {
+      return 0;
+    } else if (type == short.class || type == char.class) {
+      return 1;
+    } else if (type == int.class) {
+      return 2;
+    } else if (type == long.class) {
+      return 3;
+    } else if (type == float.class) {
+      return 4;
+    } else {
+      return 5;
+    }
+  }
+
+  private static void visitWidening(
+    final @NonNull MethodVisitor mv,
+    final @NonNull Class<?> from,
+    final @NonNull Class<?> to
+  ) {
+    if (from == to) {
+      return;
+    }
+    if (from == long.class) {
+      mv.visitInsn(to == float.class ? L2F : L2D);
+    } else if (from == float.class) {
+      mv.visitInsn(F2D);
+    } else if (to == long.class) {
+      mv.visitInsn(I2L);
+    } else if (to == float.class) {
+      mv.visitInsn(I2F);
+    } else if (to == double.class) {
+      mv.visitInsn(I2D);
+    }
+    // Conversions between int-like types don't require any instructions
+  }
+
+  private InternalConversions() {
+  }
+}
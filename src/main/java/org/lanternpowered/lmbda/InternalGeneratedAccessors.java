@@ -0,0 +1,125 @@
+/*
+ * Lmbda
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) contributors
+ *
+ * This work is licensed under the terms of the MIT License (MIT). For
+ * a copy, see 'LICENSE.txt' or <https://opensource.org/licenses/MIT>.
+ */
+package org.lanternpowered.lmbda;
+
+import static org.lanternpowered.lmbda.InternalUtilities.throwUnchecked;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandleInfo;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Resolves the functions that were generated at compile time by the annotation processor, see
+ * {@link GenerateAccessor}.
+ *
+ * <p>For every class that declares targeted members, the processor generates a package private
+ * holder class named {@code <DeclaringClass>$$LmbdaAccessors} in the same package, with a static
+ * {@code get(String)} method which returns a new function for the given key, or null if
+ * there's none. The holder is accessed through a private lookup in the holder class, if that
+ * isn't possible, the functions will be generated at runtime instead.</p>
+ */
+final class InternalGeneratedAccessors {
+
+  /**
+   * The suffix that is appended to the binary name of the declaring class to get the name of
+   * the holder class.
+   */
+  static final String HOLDER_SUFFIX = "$$LmbdaAccessors";
+
+  /**
+   * The name of the static method of the holder class that returns the functions.
+   */
+  static final String GET_METHOD_NAME = "get";
+
+  /**
+   * The get method handles of the holder classes, by declaring class. Null is stored as a
+   * holder that returns nothing, so the class is only looked up once.
+   */
+  private static final ClassValue<MethodHandle> holders = new ClassValue<MethodHandle>() {
+    @Override
+    protected MethodHandle computeValue(final @NonNull Class<?> type) {
+      return findHolder(type);
+    }
+  };
+
+  private static final MethodHandle noHolder = MethodHandles.dropArguments(
+    MethodHandles.constant(Object.class, null), 0, String.class);
+
+  private static @NonNull MethodHandle findHolder(final @NonNull Class<?> declaringClass) {
+    final Class<?> holderClass;
+    try {
+      holderClass = Class.forName(declaringClass.getName() + HOLDER_SUFFIX, false,
+        declaringClass.getClassLoader());
+    } catch (ClassNotFoundException | LinkageError e) {
+      return noHolder;
+    }
+    try {
+      final MethodHandles.Lookup lookup =
+        InternalMethodHandles.adapter.privateLookupIn(holderClass, MethodHandles.lookup());
+      return lookup.findStatic(holderClass, GET_METHOD_NAME,
+        MethodType.methodType(Object.class, String.class));
+    } catch (NoSuchMethodException | IllegalAccessException | RuntimeException e) {
+      // The package of the holder isn't open to this library
+      return noHolder;
+    }
+  }
+
+  /**
+   * Gets the key of a generated function, which must match the keys generated by the
+   * annotation processor.
+   *
+   * @param functionClass The function class
+   * @param target        The target member info
+   * @return The key
+   */
+  static @NonNull String getKey(
+    final @NonNull Class<?> functionClass,
+    final @NonNull MethodHandleInfo target
+  ) {
+    return functionClass.getName() +
+      ";" + MethodHandleInfo.referenceKindToString(target.getReferenceKind()) +
+      ";" + target.getName() +
+      ";" + target.getMethodType().toMethodDescriptorString();
+  }
+
+  /**
+   * Attempts to create a function which was generated at compile time for the given function
+   * class and target member.
+   *
+   * @param functionClass The function class
+   * @param target        The target member info
+   * @param <T>           The function type
+   * @return The function, or null if none was generated
+   */
+  @SuppressWarnings("unchecked")
+  static <@NonNull T> @Nullable T create(
+    final @NonNull Class<?> functionClass,
+    final @NonNull MethodHandleInfo target
+  ) {
+    final MethodHandle holder = holders.get(target.getDeclaringClass());
+    if (holder == noHolder) {
+      return null;
+    }
+    final Object function;
+    try {
+      function = (Object) holder.invokeExact(getKey(functionClass, target));
+    } catch (Throwable t) {
+      throw throwUnchecked(t);
+    }
+    return functionClass.isInstance(function) ? (T) function : null;
+  }
+
+  private InternalGeneratedAccessors() {
+  }
+}
@@ -0,0 +1,411 @@
+/*
+ * Lmbda
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) contributors
+ *
+ * This work is licensed under the terms of the MIT License (MIT). For
+ * a copy, see 'LICENSE.txt' or <https://opensource.org/licenses/MIT>.
+ */
+package org.lanternpowered.lmbda;
+
+import static java.util.Objects.requireNonNull;
+import static org.lanternpowered.lmbda.InternalUtilities.throwUnchecked;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * A cache for generated functions, or classes, keyed by the {@link LambdaType}, the
+ * {@link MethodHandle} instance and the define lookup.
+ *
+ * <p>Method handles are weakly referenced and compared by identity, generated functions are
+ * weakly referenced. A cache is attached to the involved class with the most specific class
+ * loader, so that all the entries can be unloaded together with that class loader.</p>
+ */
+final class InternalLambdaCache {
+
+  private static final @NonNull ClassValue<InternalLambdaCache> caches = newCaches();
+  private static final @NonNull ClassValue<InternalLambdaCache> capturingCaches = newCaches();
+
+  private static @NonNull ClassValue<InternalLambdaCache> newCaches() {
+    return new ClassValue<InternalLambdaCache>() {
+      @Override
+      protected @NonNull InternalLambdaCache computeValue(final @NonNull Class<?> type) {
+        return new InternalLambdaCache();
+      }
+    };
+  }
+
+  /**
+   * Gets the cache that should be used for the given lambda type, method handle and define
+   * lookup.
+   *
+   * @param lambdaType   The lambda type
+   * @param methodHandle The method handle
+   * @param defineLookup The define lookup
+   * @return The cache
+   */
+  static @NonNull InternalLambdaCache of(
+    final @NonNull LambdaType<?> lambdaType,
+    final @NonNull MethodHandle methodHandle,
+    final MethodHandles.@NonNull Lookup defineLookup
+  ) {
+    return caches.get(getOwner(lambdaType, methodHandle, defineLookup));
+  }
+
+  /**
+   * Gets the cache of capturing function classes that should be used for the given lambda
+   * type, method handle and define lookup.
+   *
+   * @param lambdaType   The lambda type
+   * @param methodHandle The method handle
+   * @param defineLookup The define lookup
+   * @return The cache
+   */
+  static @NonNull InternalLambdaCache ofCapturing(
+    final @NonNull LambdaType<?> lambdaType,
+    final @NonNull MethodHandle methodHandle,
+    final MethodHandles.@NonNull Lookup defineLookup
+  ) {
+    return capturingCaches.get(getOwner(lambdaType, methodHandle, defineLookup));
+  }
+
+  private static @NonNull Class<?> getOwner(
+    final @NonNull LambdaType<?> lambdaType,
+    final @NonNull MethodHandle methodHandle,
+    final MethodHandles.@NonNull Lookup defineLookup
+  ) {
+    Class<?> owner = defineLookup.lookupClass();
+    owner = mostSpecific(owner, lambdaType.resolved.functionClass);
+    final MethodType type = methodHandle.type();
+    owner = mostSpecific(owner, type.returnType());
+    for (final Class<?> parameterType : type.parameterList()) {
+      owner = mostSpecific(owner, parameterType);
+    }
+    return owner;
+  }
+
+  /**
+   * Gets the class of which the class loader is the most specific one. If the class loaders
+   * aren't related, the current one will be kept.
+   *
+   * @param current   The current class
+   * @param candidate The candidate class
+   * @return The most specific class
+   */
+  static @NonNull Class<?> mostSpecific(
+    final @NonNull Class<?> current,
+    @NonNull Class<?> candidate
+  ) {
+    while (candidate.isArray()) {
+      candidate = candidate.getComponentType();
+    }
+    if (candidate.isPrimitive()) {
+      return current;
+    }
+    final ClassLoader currentLoader = current.getClassLoader();
+    final ClassLoader candidateLoader = candidate.getClassLoader();
+    if (candidateLoader == currentLoader || candidateLoader == null) {
+      return current;
+    }
+    ClassLoader parent = candidateLoader.getParent();
+    while (parent != null) {
+      if (parent == currentLoader) {
+        return candidate;
+      }
+      parent = parent.getParent();
+    }
+    return currentLoader == null ? candidate : current;
+  }
+
+  /**
+   * The entries of the cache, the values are either a {@link Reference} to the value or a
+   * {@link Pending} value which is still being created.
+   */
+  private final @NonNull ConcurrentMap<Key, Object> entries = new ConcurrentHashMap<>();
+  private final @NonNull ReferenceQueue<MethodHandle> queue = new ReferenceQueue<>();
+
+  InternalLambdaCache() {
+  }
+
+  /**
+   * Gets the value for the given lambda type and method handle, or constructs a new one
+   * using the given factory if it isn't cached or no longer reachable.
+   *
+   * <p>Only one thread will construct the value for a specific key at a time, other threads
+   * that request the same key will wait for the value and share it.</p>
+   *
+   * @param lambdaType   The lambda type
+   * @param methodHandle The method handle
+   * @param factory      The factory to create a new value
+   * @param <T>          The value type
+   * @return The value
+   */
+  <@NonNull T> T get(
+    final @NonNull LambdaType<?> lambdaType,
+    final @NonNull MethodHandle methodHandle,
+    final @NonNull Supplier<T> factory
+  ) {
+    return get(lambdaType, methodHandle, 0, factory);
+  }
+
+  /**
+   * Gets the value for the given lambda type, method handle and variant, or constructs a new one
+   * using the given factory if it isn't cached or no longer reachable.
+   *
+   * @param lambdaType   The lambda type
+   * @param methodHandle The method handle
+   * @param variant      The variant of the value, e.g. the amount of captured values
+   * @param factory      The factory to create a new value
+   * @param <T>          The value type
+   * @return The value
+   * @see #get(LambdaType, MethodHandle, Supplier)
+   */
+  @SuppressWarnings("unchecked")
+  <@NonNull T> T get(
+    final @NonNull LambdaType<?> lambdaType,
+    final @NonNull MethodHandle methodHandle,
+    final int variant,
+    final @NonNull Supplier<T> factory
+  ) {
+    expungeStaleEntries();
+    final LookupKey lookupKey = new LookupKey(lambdaType, methodHandle, variant);
+    Object entry = this.entries.get(lookupKey);
+    WeakKey key = null;
+    while (true) {
+      if (entry instanceof Pending) {
+        final Pending pending = (Pending) entry;
+        // The factory of the same thread requested the same value again
+        if (pending.thread == Thread.currentThread()) {
+          return factory.get();
+        }
+        return (T) pending.await();
+      } else if (entry != null) {
+        final Object value = ((Reference<Object>) entry).get();
+        if (value != null) {
+          return (T) value;
+        }
+      }
+      // The value isn't present or no longer reachable, try to claim the creation
+      if (key == null) {
+        key = new WeakKey(lambdaType, methodHandle, variant, this.queue);
+      }
+      final Pending pending = new Pending();
+      if (entry == null ? this.entries.putIfAbsent(key, pending) == null :
+          this.entries.replace(lookupKey, entry, pending)) {
+        final T created;
+        try {
+          created = factory.get();
+        } catch (Throwable t) {
+          this.entries.remove(lookupKey, pending);
+          pending.complete(null, t);
+          throw t;
+        }
+        this.entries.replace(lookupKey, pending, new WeakReference<>(created));
+        pending.complete(created, null);
+        return created;
+      }
+      // Another thread modified the entry in the meantime
+      entry = this.entries.get(lookupKey);
+    }
+  }
+
+  /**
+   * Removes all the entries of which the method handle is no longer reachable.
+   */
+  private void expungeStaleEntries() {
+    Reference<? extends MethodHandle> reference;
+    while ((reference = this.queue.poll()) != null) {
+      this.entries.remove(reference);
+    }
+  }
+
+  /**
+   * A value that is being created by a specific thread.
+   */
+  private static final class Pending {
+
+    private final @NonNull Thread thread = Thread.currentThread();
+    private final @NonNull CountDownLatch latch = new CountDownLatch(1);
+
+    private @Nullable Object value;
+    private @Nullable Throwable failure;
+
+    /**
+     * Completes the creation and releases all the waiting threads.
+     *
+     * @param value   The created value, or null if the creation failed
+     * @param failure The failure, or null if the creation succeeded
+     */
+    void complete(final @Nullable Object value, final @Nullable Throwable failure) {
+      this.value = value;
+      this.failure = failure;
+      this.latch.countDown();
+    }
+
+    /**
+     * Waits for the creation to complete. If it failed, the same failure will be thrown.
+     *
+     * @return The created value
+     */
+    @NonNull Object await() {
+      boolean interrupted = false;
+      while (true) {
+        try {
+          this.latch.await();
+          break;
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+      final Throwable failure = this.failure;
+      if (failure != null) {
+        throw throwUnchecked(failure);
+      }
+      return requireNonNull(this.value);
+    }
+  }
+
+  /**
+   * Represents a key of the cache.
+   */
+  private interface Key {
+
+    @NonNull LambdaType<?> lambdaType();
+
+    @Nullable MethodHandle methodHandle();
+
+    int variant();
+
+    static boolean equals(final @NonNull Key key, final @Nullable Object obj) {
+      if (key == obj) {
+        return true;
+      }
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      final Key that = (Key) obj;
+      final MethodHandle methodHandle = key.methodHandle();
+      return methodHandle != null && methodHandle == that.methodHandle() &&
+        key.variant() == that.variant() && key.lambdaType().equals(that.lambdaType());
+    }
+
+    static int hashCode(
+      final @NonNull LambdaType<?> lambdaType,
+      final @NonNull MethodHandle methodHandle,
+      final int variant
+    ) {
+      int result = lambdaType.hashCode();
+      result = 31 * result + System.identityHashCode(methodHandle);
+      result = 31 * result + variant;
+      return result;
+    }
+  }
+
+  /**
+   * A key that is only used to query the cache.
+   */
+  private static final class LookupKey implements Key {
+
+    private final @NonNull LambdaType<?> lambdaType;
+    private final @NonNull MethodHandle methodHandle;
+    private final int variant;
+
+    LookupKey(
+      final @NonNull LambdaType<?> lambdaType,
+      final @NonNull MethodHandle methodHandle,
+      final int variant
+    ) {
+      this.lambdaType = lambdaType;
+      this.methodHandle = methodHandle;
+      this.variant = variant;
+    }
+
+    @Override
+    public @NonNull LambdaType<?> lambdaType() {
+      return this.lambdaType;
+    }
+
+    @Override
+    public @NonNull MethodHandle methodHandle() {
+      return this.methodHandle;
+    }
+
+    @Override
+    public int variant() {
+      return this.variant;
+    }
+
+    @Override
+    public boolean equals(final @Nullable Object obj) {
+      return Key.equals(this, obj);
+    }
+
+    @Override
+    public int hashCode() {
+      return Key.hashCode(this.lambdaType, this.methodHandle, this.variant);
+    }
+  }
+
+  /**
+   * A key which is stored in the cache, the method handle is weakly referenced.
+   */
+  private static final class WeakKey extends WeakReference<MethodHandle> implements Key {
+
+    private final @NonNull LambdaType<?> lambdaType;
+    private final int variant;
+    private final int hashCode;
+
+    WeakKey(
+      final @NonNull LambdaType<?> lambdaType,
+      final @NonNull MethodHandle methodHandle,
+      final int variant,
+      final @NonNull ReferenceQueue<MethodHandle> queue
+    ) {
+      super(methodHandle, queue);
+      this.lambdaType = lambdaType;
+      this.variant = variant;
+      this.hashCode = Key.hashCode(lambdaType, methodHandle, variant);
+    }
+
+    @Override
+    public @NonNull LambdaType<?> lambdaType() {
+      return this.lambdaType;
+    }
+
+    @Override
+    public @Nullable MethodHandle methodHandle() {
+      return get();
+    }
+
+    @Override
+    public int variant() {
+      return this.variant;
+    }
+
+    @Override
+    public boolean equals(final @Nullable Object obj) {
+      return Key.equals(this, obj);
+    }
+
+    @Override
+    public int hashCode() {
+      return this.hashCode;
+    }
+  }
+}
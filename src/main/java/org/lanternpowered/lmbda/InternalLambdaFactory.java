@@ -10,6 +10,7 @@
 package org.lanternpowered.lmbda;
 
 import static java.util.Objects.requireNonNull;
+import static org.lanternpowered.lmbda.InternalLambdaCache.mostSpecific;
 import static org.lanternpowered.lmbda.InternalUtilities.doUnchecked;
 import static org.lanternpowered.lmbda.InternalUtilities.throwUnchecked;
 import static org.objectweb.asm.Opcodes.ACC_FINAL;
@@ -18,35 +19,64 @@
 import static org.objectweb.asm.Opcodes.ACC_STATIC;
 import static org.objectweb.asm.Opcodes.ACC_SUPER;
 import static org.objectweb.asm.Opcodes.ALOAD;
+import static org.objectweb.asm.Opcodes.DUP;
+import static org.objectweb.asm.Opcodes.GETFIELD;
 import static org.objectweb.asm.Opcodes.GETSTATIC;
+import static org.objectweb.asm.Opcodes.H_INVOKESTATIC;
 import static org.objectweb.asm.Opcodes.ILOAD;
+import static org.objectweb.asm.Opcodes.INVOKEINTERFACE;
 import static org.objectweb.asm.Opcodes.INVOKESPECIAL;
 import static org.objectweb.asm.Opcodes.INVOKESTATIC;
 import static org.objectweb.asm.Opcodes.INVOKEVIRTUAL;
 import static org.objectweb.asm.Opcodes.IRETURN;
+import static org.objectweb.asm.Opcodes.NEW;
+import static org.objectweb.asm.Opcodes.PUTFIELD;
 import static org.objectweb.asm.Opcodes.PUTSTATIC;
 import static org.objectweb.asm.Opcodes.RETURN;
+import static org.objectweb.asm.Opcodes.V11;
 import static org.objectweb.asm.Opcodes.V1_8;
 
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.ConstantDynamic;
 import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.Handle;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Type;
 
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaConversionException;
+import java.lang.invoke.LambdaMetafactory;
 import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandleInfo;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodType;
+import java.lang.invoke.MutableCallSite;
 import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Member;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.TypeVariable;
 import java.lang.reflect.WildcardType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
 
 /**
  * Separated from {@link LambdaFactory} to keep it clean.
@@ -78,206 +108,2429 @@ public final class InternalLambdaFactory {
 
   /**
    * A thread local which temporarily holds the {@link MethodHandle}
-   * that will be injected into the generated class.
+   * that will be injected into the generated class. Only used when
+   * hidden classes with class data aren't supported.
    */
   private static final @NonNull ThreadLocal<MethodHandle> currentMethodHandle = new ThreadLocal<>();
 
   /**
-   * A counter to make sure that lambda names don't conflict.
+   * A thread local which holds the {@link LambdaScope} in which lambdas are currently being
+   * created, the classes that are defined in the meantime will be recorded in it.
    */
-  private static final @NonNull AtomicInteger lambdaCounter = new AtomicInteger();
+  private static final @NonNull ThreadLocal<LambdaScope> currentScope = new ThreadLocal<>();
+
+  /**
+   * The counters per class name, to make sure that lambda names don't conflict when hidden
+   * classes aren't supported.
+   */
+  private static final @NonNull ConcurrentMap<String, AtomicInteger> classNameCounters =
+    new ConcurrentHashMap<>();
 
   private static final @Nullable MethodHandle defineHiddenClass =
     InternalMethodHandles.findDefineHiddenClassMethodHandle();
 
+  private static final @Nullable MethodHandle defineHiddenClassWithClassData =
+    InternalMethodHandles.findDefineHiddenClassWithClassDataMethodHandle();
+
+  /**
+   * Defines hidden classes as nestmates of the lookup class, available since Java 15.
+   */
+  private static final @Nullable MethodHandle defineHiddenNestmateClass =
+    InternalMethodHandles.findDefineHiddenClassMethodHandle("NESTMATE");
+
+  /**
+   * Defines hidden classes that can only be unloaded together with their class loader,
+   * available since Java 15.
+   */
+  private static final @Nullable MethodHandle defineStrongHiddenClass =
+    InternalMethodHandles.findDefineHiddenClassMethodHandle("STRONG");
+
+  private static final @Nullable MethodHandle defineStrongHiddenClassWithClassData =
+    InternalMethodHandles.findDefineHiddenClassWithClassDataMethodHandle("STRONG");
+
+  /**
+   * The bootstrap method that is used to load the class data of a hidden class as a dynamic
+   * constant, available since Java 16.
+   */
+  private static final @NonNull Handle classDataBootstrap = new Handle(H_INVOKESTATIC,
+    "java/lang/invoke/MethodHandles", "classData",
+    "(Ljava/lang/invoke/MethodHandles$Lookup;Ljava/lang/String;Ljava/lang/Class;)" +
+      "Ljava/lang/Object;", false);
+
+  /**
+   * The bootstrap method that is used to load an element of the class data list of a hidden
+   * class as a dynamic constant, available since Java 16.
+   */
+  private static final @NonNull Handle classDataAtBootstrap = new Handle(H_INVOKESTATIC,
+    "java/lang/invoke/MethodHandles", "classDataAt",
+    "(Ljava/lang/invoke/MethodHandles$Lookup;Ljava/lang/String;Ljava/lang/Class;I)" +
+      "Ljava/lang/Object;", false);
+
+  static <@NonNull T> T create(
+    final @NonNull LambdaType<T> lambdaType,
+    final @NonNull MethodHandle methodHandle
+  ) {
+    requireNonNull(lambdaType, "lambdaType");
+    requireNonNull(methodHandle, "methodHandle");
+
+    final MethodHandles.Lookup defineLookup = getDefineLookup(lambdaType);
+    checkAccess(lambdaType, defineLookup);
+
+    try {
+      return createFunction(lambdaType, methodHandle, defineLookup, null);
+    } catch (Throwable e) {
+      throw new IllegalStateException("Couldn't create lambda for: \"" + methodHandle + "\". "
+        + "Failed to implement: " + lambdaType, e);
+    }
+  }
+
+  static <@NonNull T> @NonNull PreparedLambdaFactory<T> prepare(
+    final @NonNull LambdaType<T> lambdaType,
+    final @NonNull MethodType methodType
+  ) {
+    requireNonNull(lambdaType, "lambdaType");
+    requireNonNull(methodType, "methodType");
+
+    final MethodHandles.Lookup defineLookup = getDefineLookup(lambdaType);
+    checkAccess(lambdaType, defineLookup);
+
+    final ResolvedLambdaType<T> resolved = lambdaType.resolved;
+    final MethodType functionMethodType = getFunctionMethodType(resolved, methodType);
+    try {
+      // Validate that method handles of the method type can be converted, use the exact invoker
+      // to represent such a method handle
+      MethodHandles.exactInvoker(methodType).asType(
+        functionMethodType.insertParameterTypes(0, MethodHandle.class));
+    } catch (Throwable e) {
+      throw new IllegalStateException("Couldn't prepare lambda for: \"" + methodType + "\". "
+        + "Failed to implement: " + lambdaType, e);
+    }
+
+    // The bytecode can only be shared between hidden classes, which don't require unique names
+    final byte @Nullable [] bytes = defineHiddenClass == null ? null :
+      generateCachedMethodHandleFunction(resolved, functionMethodType, defineLookup);
+    return new PreparedLambdaFactory<>(lambdaType, methodType, functionMethodType, defineLookup,
+      bytes);
+  }
+
+  static <@NonNull T> T createPrepared(
+    final @NonNull PreparedLambdaFactory<T> factory,
+    final @NonNull MethodHandle methodHandle
+  ) {
+    requireNonNull(methodHandle, "methodHandle");
+    if (!methodHandle.type().equals(factory.methodType)) {
+      throw new IllegalArgumentException("The method handle type " + methodHandle.type() +
+        " doesn't match the prepared method type " + factory.methodType);
+    }
+    try {
+      final MethodHandle convertedMethodHandle =
+        methodHandle.asType(factory.functionMethodType);
+      byte[] bytes = factory.bytes;
+      if (bytes == null) {
+        bytes = generateMethodHandleFunction(factory.lambdaType.resolved,
+          factory.functionMethodType, nextInternalClassName(factory.defineLookup,
+            factory.lambdaType.resolved, null));
+      }
+      return defineMethodHandleFunction(factory.defineLookup, bytes, convertedMethodHandle);
+    } catch (Throwable e) {
+      throw new IllegalStateException("Couldn't create lambda for: \"" + methodHandle + "\". "
+        + "Failed to implement: " + factory.lambdaType, e);
+    }
+  }
+
+  /**
+   * Checks whether the {@link LambdaType} can be implemented by a class that is defined by the
+   * given define lookup.
+   *
+   * @param lambdaType   The lambda type
+   * @param defineLookup The define lookup
+   */
+  private static void checkAccess(
+    final @NonNull LambdaType<?> lambdaType,
+    final MethodHandles.@NonNull Lookup defineLookup
+  ) {
+    // Check that the lambda type can be defined using the lookup, the restrictions are resolved
+    // once per lambda type and the package names are cached, so no reflection is needed here
+    final ResolvedLambdaType<?> resolved = lambdaType.resolved;
+    final String restriction = resolved.packageAccessRestriction;
+    // Classes are only a problem if the access isn't public, in which case the classes must be
+    // in the same package
+    if (restriction != null && !InternalUtilities.getPackageName(resolved.functionClass)
+        .equals(InternalUtilities.getPackageName(defineLookup.lookupClass()))) {
+      throw throwUnchecked(new IllegalAccessException(restriction));
+    }
+  }
+
+  static <@NonNull T> T createCached(
+    final @NonNull LambdaType<T> lambdaType,
+    final @NonNull MethodHandle methodHandle
+  ) {
+    requireNonNull(lambdaType, "lambdaType");
+    requireNonNull(methodHandle, "methodHandle");
+
+    // The functions created within a scope are cached by the scope, so they don't outlive it
+    final LambdaScope scope = currentScope.get();
+    if (scope != null) {
+      return scope.getCached(lambdaType, methodHandle, () -> create(lambdaType, methodHandle));
+    }
+    final MethodHandles.Lookup defineLookup = getDefineLookup(lambdaType);
+    return InternalLambdaCache.of(lambdaType, methodHandle, defineLookup)
+      .get(lambdaType, methodHandle, () -> create(lambdaType, methodHandle));
+  }
+
+  /**
+   * The minimum amount of lambdas within a batch before the classes will be defined in parallel.
+   */
+  private static final int PARALLEL_BATCH_THRESHOLD = 64;
+
+  static @NonNull List<Object> createAll(
+    final @NonNull Collection<? extends LambdaRequest<?>> requests
+  ) {
+    requireNonNull(requests, "requests");
+
+    final LambdaRequest<?>[] requestArray = requests.toArray(new LambdaRequest<?>[0]);
+    // The bytecode can only be shared between hidden classes, which don't require unique names,
+    // the map is also used to only check the access once per lambda type
+    final Map<LambdaType<?>, Map<MethodType, byte[]>> sharedBytesByType = new HashMap<>();
+    for (final LambdaRequest<?> request : requestArray) {
+      requireNonNull(request, "request");
+      sharedBytesByType.computeIfAbsent(request.lambdaType, lambdaType -> {
+        checkAccess(lambdaType, getDefineLookup(lambdaType));
+        return new ConcurrentHashMap<>();
+      });
+    }
+
+    final Object[] functions = new Object[requestArray.length];
+    // Large batches are created in parallel, the scope must also be known by the worker threads
+    final LambdaScope scope = currentScope.get();
+    final IntStream indices = IntStream.range(0, requestArray.length);
+    (requestArray.length >= PARALLEL_BATCH_THRESHOLD ? indices.parallel() : indices)
+      .forEach(index -> {
+        final LambdaRequest<?> request = requestArray[index];
+        final LambdaType<?> lambdaType = request.lambdaType;
+        final Map<MethodType, byte[]> sharedBytes =
+          defineHiddenClass == null ? null : sharedBytesByType.get(lambdaType);
+        try {
+          functions[index] = withScope(scope, () -> createFunction(lambdaType,
+            request.methodHandle, getDefineLookup(lambdaType), sharedBytes));
+        } catch (Throwable e) {
+          throw new IllegalStateException("Couldn't create lambda for: \"" +
+            request.methodHandle + "\". Failed to implement: " + lambdaType, e);
+        }
+      });
+    return Collections.unmodifiableList(Arrays.asList(functions));
+  }
+
+  /**
+   * The constructors of the shared function classes, attached to the class with the most specific
+   * class loader, so they can be unloaded together with that class loader.
+   */
+  private static final @NonNull ClassValue<ConcurrentMap<SharedShape, MethodHandle>>
+    sharedConstructors = new ClassValue<ConcurrentMap<SharedShape, MethodHandle>>() {
+      @Override
+      protected @NonNull ConcurrentMap<SharedShape, MethodHandle> computeValue(
+        final @NonNull Class<?> type
+      ) {
+        return new ConcurrentHashMap<>();
+      }
+    };
+
+  @SuppressWarnings("unchecked")
+  static <@NonNull T> T createShared(
+    final @NonNull LambdaType<T> lambdaType,
+    final @NonNull MethodHandle methodHandle
+  ) {
+    requireNonNull(lambdaType, "lambdaType");
+    requireNonNull(methodHandle, "methodHandle");
+
+    final MethodHandles.Lookup defineLookup = getDefineLookup(lambdaType);
+    checkAccess(lambdaType, defineLookup);
+
+    try {
+      final MethodType methodType = getFunctionMethodType(lambdaType.resolved, methodHandle.type());
+      final MethodHandle convertedMethodHandle = methodHandle.asType(methodType);
+
+      final MethodHandle constructor =
+        getSharedConstructor(lambdaType, methodType, defineLookup);
+      return (T) (Object) constructor.invokeExact(convertedMethodHandle);
+    } catch (Throwable e) {
+      throw new IllegalStateException("Couldn't create lambda for: \"" + methodHandle + "\". "
+        + "Failed to implement: " + lambdaType, e);
+    }
+  }
+
+  /**
+   * The constructors of the capturing function classes, which spread the captured values from an
+   * array. Attached to the generated classes, so that the function classes can be weakly cached.
+   */
+  private static final @NonNull ClassValue<AtomicReference<MethodHandle>> capturingConstructors =
+    new ClassValue<AtomicReference<MethodHandle>>() {
+      @Override
+      protected @NonNull AtomicReference<MethodHandle> computeValue(final @NonNull Class<?> type) {
+        return new AtomicReference<>();
+      }
+    };
+
+  @SuppressWarnings("unchecked")
   static <@NonNull T> T create(
+    final @NonNull LambdaType<T> lambdaType,
+    final @NonNull MethodHandle methodHandle,
+    final @Nullable Object @NonNull [] captures
+  ) {
+    requireNonNull(lambdaType, "lambdaType");
+    requireNonNull(methodHandle, "methodHandle");
+    requireNonNull(captures, "captures");
+    if (captures.length == 0) {
+      return create(lambdaType, methodHandle);
+    }
+    if (captures.length > methodHandle.type().parameterCount()) {
+      throw new IllegalArgumentException("Cannot capture " + captures.length + " values for: \""
+        + methodHandle + "\".");
+    }
+
+    final MethodHandles.Lookup defineLookup = getDefineLookup(lambdaType);
+    checkAccess(lambdaType, defineLookup);
+
+    final MethodHandle constructor;
+    try {
+      // The same method handle can be captured in different ways if the function method has
+      // parameters which can be dropped, so the classes are also keyed by the capture count
+      final LambdaScope scope = currentScope.get();
+      final InternalLambdaCache cache = scope != null ? scope.capturingCache :
+        InternalLambdaCache.ofCapturing(lambdaType, methodHandle, defineLookup);
+      final Class<?> theClass = cache.get(lambdaType, methodHandle, captures.length,
+        () -> defineCapturingFunctionClass(
+          lambdaType.resolved, methodHandle, captures.length, defineLookup));
+      constructor = capturingConstructors.get(theClass).get();
+    } catch (Throwable e) {
+      throw new IllegalStateException("Couldn't create lambda for: \"" + methodHandle + "\". "
+        + "Failed to implement: " + lambdaType, e);
+    }
+
+    try {
+      return (T) (Object) constructor.invokeExact(captures);
+    } catch (ClassCastException | NullPointerException e) {
+      throw new IllegalArgumentException("The captured values don't match the parameters of: \""
+        + methodHandle + "\".", e);
+    } catch (Throwable e) {
+      throw throwUnchecked(e);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  static <@NonNull T> T createWithConstants(
+    final @NonNull LambdaType<T> lambdaType,
+    final @NonNull MethodHandle methodHandle,
+    final @Nullable Object @NonNull [] constants
+  ) {
+    requireNonNull(lambdaType, "lambdaType");
+    requireNonNull(methodHandle, "methodHandle");
+    requireNonNull(constants, "constants");
+    if (constants.length == 0) {
+      return create(lambdaType, methodHandle);
+    }
+    final MethodType targetType = methodHandle.type();
+    if (constants.length > targetType.parameterCount()) {
+      throw new IllegalArgumentException("Cannot capture " + constants.length + " values for: \""
+        + methodHandle + "\".");
+    }
+
+    // Binding validates the constants against the parameter types
+    final MethodHandle boundMethodHandle;
+    try {
+      boundMethodHandle = MethodHandles.insertArguments(methodHandle, 0, constants);
+    } catch (ClassCastException | NullPointerException e) {
+      throw new IllegalArgumentException("The captured values don't match the parameters of: \""
+        + methodHandle + "\".", e);
+    }
+    // Without class data, the values remain bound to the method handle, which is a constant
+    // within the generated class, so the bound values can also be folded by the JIT compiler
+    if (defineHiddenClassWithClassData == null) {
+      return create(lambdaType, boundMethodHandle);
+    }
+
+    final MethodHandles.Lookup defineLookup = getDefineLookup(lambdaType);
+    checkAccess(lambdaType, defineLookup);
+
+    try {
+      final Object[] classData = new Object[constants.length + 1];
+      final Class<?>[] constantTypes = new Class<?>[constants.length];
+      for (int i = 0; i < constants.length; i++) {
+        final Class<?> type = targetType.parameterType(i);
+        if (type.isPrimitive()) {
+          // Apply the same conversions as the bound method handle
+          final MethodHandle converter = MethodHandles.identity(type)
+            .asType(MethodType.methodType(Object.class, Object.class));
+          classData[i + 1] = converter.invokeExact(constants[i]);
+          constantTypes[i] = type;
+        } else {
+          classData[i + 1] = constants[i];
+          // The constants can't be of a type which isn't accessible from the generated class
+          constantTypes[i] =
+            InternalMethodHandles.adapter.isAccessible(defineLookup, type) ? type : Object.class;
+        }
+      }
+      final MethodType methodType = getFunctionMethodType(lambdaType.resolved,
+        targetType.dropParameterTypes(0, constants.length))
+        .insertParameterTypes(0, constantTypes);
+      classData[0] = methodHandle.asType(methodType);
+
+      final byte[] bytes = generateConstantFunction(lambdaType.resolved, methodType,
+        nextInternalClassName(defineLookup, lambdaType.resolved, "Constant"), constantTypes);
+      final List<Object> classDataList = Collections.unmodifiableList(Arrays.asList(classData));
+      final MethodHandles.Lookup theClassLookup = doUnchecked(() ->
+        (MethodHandles.Lookup) defineHiddenClassWithClassData.invokeExact(
+          defineLookup, bytes, (Object) classDataList, true));
+      return newInstance(record(theClassLookup, bytes));
+    } catch (Throwable e) {
+      throw new IllegalStateException("Couldn't create lambda for: \"" + methodHandle + "\". "
+        + "Failed to implement: " + lambdaType, e);
+    }
+  }
+
+  /**
+   * Generates and defines a function class which stores the captured values in final instance
+   * fields and passes them as leading arguments to the method handle.
+   *
+   * @param lambdaType   The lambda type
+   * @param methodHandle The method handle
+   * @param captureCount The amount of leading parameters of the method handle that are captured
+   * @param defineLookup The define lookup
+   * @return The function class
+   */
+  private static @NonNull Class<?> defineCapturingFunctionClass(
+    final @NonNull ResolvedLambdaType<?> lambdaType,
+    final @NonNull MethodHandle methodHandle,
+    final int captureCount,
+    final MethodHandles.@NonNull Lookup defineLookup
+  ) {
+    final MethodType targetType = methodHandle.type();
+    final Class<?>[] captureTypes = new Class<?>[captureCount];
+    for (int i = 0; i < captureCount; i++) {
+      final Class<?> type = targetType.parameterType(i);
+      // The fields can't be of a type which isn't accessible from the generated class
+      captureTypes[i] = type.isPrimitive() ||
+        InternalMethodHandles.adapter.isAccessible(defineLookup, type) ? type : Object.class;
+    }
+    final MethodType methodType = getFunctionMethodType(lambdaType,
+      targetType.dropParameterTypes(0, captureCount)).insertParameterTypes(0, captureTypes);
+    final MethodHandle convertedMethodHandle = methodHandle.asType(methodType);
+
+    final byte[] bytes = generateMethodHandleFunction(lambdaType, methodType,
+      nextInternalClassName(defineLookup, lambdaType, "Capturing"), captureTypes,
+      defineHiddenClassWithClassData != null);
+    final MethodHandles.Lookup theClassLookup =
+      defineMethodHandleFunctionClass(defineLookup, bytes, convertedMethodHandle);
+    final Class<?> theClass = theClassLookup.lookupClass();
+    final MethodHandle constructor = doUnchecked(() -> theClassLookup.findConstructor(theClass,
+      MethodType.methodType(void.class, captureTypes)));
+    // Use the original parameter types, so that the captured values are validated on construction,
+    // the values are spread from the array that's passed to the factory
+    capturingConstructors.get(theClass).set(constructor.asType(MethodType.methodType(
+      Object.class, targetType.parameterList().subList(0, captureCount)))
+      .asSpreader(Object[].class, captureCount));
+    return theClass;
+  }
+
+  /**
+   * Gets the constructor of the shared function class for the given lambda type, method type
+   * and define lookup, the class will be defined if it doesn't exist yet. Shared function classes
+   * that are defined within a {@link LambdaScope} are only shared within that scope.
+   *
+   * @param lambdaType   The lambda type
+   * @param methodType   The method type the method handle will be invoked with
+   * @param defineLookup The define lookup
+   * @return The constructor, of the type (MethodHandle)Object
+   */
+  private static @NonNull MethodHandle getSharedConstructor(
+    final @NonNull LambdaType<?> lambdaType,
+    final @NonNull MethodType methodType,
+    final MethodHandles.@NonNull Lookup defineLookup
+  ) {
+    final SharedShape shape = new SharedShape(lambdaType, methodType);
+    final LambdaScope scope = currentScope.get();
+    if (scope != null) {
+      return scope.getSharedConstructor(shape,
+        () -> createSharedConstructor(lambdaType.resolved, methodType, defineLookup));
+    }
+    return getSharedConstructors(lambdaType, methodType, defineLookup).computeIfAbsent(shape,
+      key -> createSharedConstructor(lambdaType.resolved, methodType, defineLookup));
+  }
+
+  /**
+   * Gets the map of shared function class constructors that should be used for the given lambda
+   * type, method type and define lookup.
+   *
+   * @param lambdaType   The lambda type
+   * @param methodType   The method type the method handle will be invoked with
+   * @param defineLookup The define lookup
+   * @return The shared constructors
+   */
+  private static @NonNull ConcurrentMap<SharedShape, MethodHandle> getSharedConstructors(
+    final @NonNull LambdaType<?> lambdaType,
+    final @NonNull MethodType methodType,
+    final MethodHandles.@NonNull Lookup defineLookup
+  ) {
+    Class<?> owner = InternalLambdaCache.mostSpecific(
+      defineLookup.lookupClass(), lambdaType.resolved.functionClass);
+    owner = mostSpecific(owner, methodType.returnType());
+    for (final Class<?> parameterType : methodType.parameterList()) {
+      owner = mostSpecific(owner, parameterType);
+    }
+    return sharedConstructors.get(owner);
+  }
+
+  /**
+   * The method handle that is used to promote a tiered function to a dedicated function class.
+   */
+  private static final @NonNull MethodHandle createMethodHandle = doUnchecked(() ->
+    internalLookup.findStatic(InternalLambdaFactory.class, "create",
+      MethodType.methodType(Object.class, LambdaType.class, MethodHandle.class)));
+
+  @SuppressWarnings("unchecked")
+  static <@NonNull T> T createTiered(
+    final @NonNull LambdaType<T> lambdaType,
+    final @NonNull MethodHandle methodHandle,
+    final int threshold
+  ) {
+    requireNonNull(lambdaType, "lambdaType");
+    requireNonNull(methodHandle, "methodHandle");
+    if (threshold < 0) {
+      throw new IllegalArgumentException("The threshold cannot be negative: " + threshold);
+    }
+
+    final MethodHandle promoter = MethodHandles.insertArguments(
+      createMethodHandle, 0, lambdaType, methodHandle);
+    return createTiered(lambdaType, methodHandle, promoter, threshold);
+  }
+
+  /**
+   * The method handle that is used to promote a lazy function to a dedicated function class, the
+   * function is cached so that concurrent first invocations share the same function.
+   */
+  private static final @NonNull MethodHandle createCachedMethodHandle = doUnchecked(() ->
+    internalLookup.findStatic(InternalLambdaFactory.class, "createCached",
+      MethodType.methodType(Object.class, LambdaType.class, MethodHandle.class)));
+
+  static <@NonNull T> T createLazy(
     final @NonNull LambdaType<T> lambdaType,
     final @NonNull MethodHandle methodHandle
   ) {
     requireNonNull(lambdaType, "lambdaType");
     requireNonNull(methodHandle, "methodHandle");
 
-    MethodHandles.Lookup defineLookup = lambdaType.defineLookup;
-    if (defineLookup == null) {
-      defineLookup = internalLookup;
+    // A tiered function which is promoted by the first invocation
+    final MethodHandle promoter = MethodHandles.insertArguments(
+      createCachedMethodHandle, 0, lambdaType, methodHandle);
+    return createTiered(lambdaType, methodHandle, promoter, 1);
+  }
+
+  /**
+   * Creates a tiered function which uses the given promoter to create the dedicated function
+   * once the threshold is reached. The promoter may return null if no dedicated function is
+   * available yet, in which case it will be invoked again by the next invocation.
+   *
+   * @param lambdaType   The lambda type
+   * @param methodHandle The method handle
+   * @param promoter     The promoter, of the type ()Object
+   * @param threshold    The amount of invocations before the promoter will be invoked
+   * @param <T>          The function type
+   * @return The tiered function
+   */
+  @SuppressWarnings("unchecked")
+  private static <@NonNull T> T createTiered(
+    final @NonNull LambdaType<T> lambdaType,
+    final @NonNull MethodHandle methodHandle,
+    final @NonNull MethodHandle promoter,
+    final int threshold
+  ) {
+    final MethodHandles.Lookup defineLookup = getDefineLookup(lambdaType);
+    checkAccess(lambdaType, defineLookup);
+
+    // The function is promoted by whichever thread invokes it, so the scope must be kept
+    final LambdaScope scope = currentScope.get();
+    final MethodHandle scopedPromoter = scope == null ? promoter :
+      MethodHandles.insertArguments(promoteInScopeMethodHandle, 0, scope, promoter);
+    try {
+      final MethodType methodType = getFunctionMethodType(lambdaType.resolved, methodHandle.type());
+      final MethodHandle convertedMethodHandle = methodHandle.asType(methodType);
+
+      // The tiered function only differs from a shared function by its method handle, which
+      // links to a call site that is owned by the function, so that it can be relinked to the
+      // dedicated function without affecting the other functions of the same shape
+      final TieredCallSite callSite = new TieredCallSite(
+        lambdaType.resolved, defineLookup, convertedMethodHandle, scopedPromoter, threshold);
+      final MethodHandle constructor =
+        getSharedConstructor(lambdaType, methodType, defineLookup);
+      return (T) (Object) constructor.invokeExact(callSite.dynamicInvoker());
+    } catch (Throwable e) {
+      throw new IllegalStateException("Couldn't create lambda for: \"" + methodHandle + "\". "
+        + "Failed to implement: " + lambdaType, e);
+    }
+  }
+
+  /**
+   * The method handle that is used to invoke the promoter of a tiered function within the
+   * {@link LambdaScope} in which the tiered function was created.
+   */
+  private static final @NonNull MethodHandle promoteInScopeMethodHandle = doUnchecked(() ->
+    internalLookup.findStatic(InternalLambdaFactory.class, "promoteInScope",
+      MethodType.methodType(Object.class, LambdaScope.class, MethodHandle.class)));
+
+  /**
+   * Invokes the promoter within the given scope. Closed scopes don't promote their functions
+   * anymore, the failure keeps the function on its shared path.
+   *
+   * @param scope    The scope
+   * @param promoter The promoter, of the type ()Object
+   * @return The promoted function, or null if not available yet
+   */
+  private static @Nullable Object promoteInScope(
+    final @NonNull LambdaScope scope,
+    final @NonNull MethodHandle promoter
+  ) {
+    scope.checkOpen();
+    return withScope(scope, () -> doUnchecked(() -> (Object) promoter.invokeExact()));
+  }
+
+  /**
+   * The method handle that is used to promote an interim function to the function which was
+   * created in the background, once it's available.
+   */
+  private static final @NonNull MethodHandle getCompletedMethodHandle = doUnchecked(() ->
+    internalLookup.findStatic(InternalLambdaFactory.class, "getCompleted",
+      MethodType.methodType(Object.class, CompletableFuture.class)));
+
+  static <@NonNull T> @NonNull CompletableFuture<T> createAsync(
+    final @NonNull LambdaType<T> lambdaType,
+    final @NonNull MethodHandle methodHandle,
+    final @NonNull Executor executor
+  ) {
+    requireNonNull(lambdaType, "lambdaType");
+    requireNonNull(methodHandle, "methodHandle");
+    requireNonNull(executor, "executor");
+    // The function is created on another thread, which must know the scope
+    final LambdaScope scope = currentScope.get();
+    return CompletableFuture.supplyAsync(() ->
+      withScope(scope, () -> create(lambdaType, methodHandle)), executor);
+  }
+
+  static @NonNull CompletableFuture<List<Object>> createAllAsync(
+    final @NonNull Collection<? extends LambdaRequest<?>> requests,
+    final @NonNull Executor executor
+  ) {
+    requireNonNull(requests, "requests");
+    requireNonNull(executor, "executor");
+    // Copy the requests, the collection could be modified before the task runs
+    final List<LambdaRequest<?>> copy = new ArrayList<>(requests);
+    final LambdaScope scope = currentScope.get();
+    return CompletableFuture.supplyAsync(() -> withScope(scope, () -> createAll(copy)), executor);
+  }
+
+  static <@NonNull T> T createInterim(
+    final @NonNull LambdaType<T> lambdaType,
+    final @NonNull MethodHandle methodHandle,
+    final @NonNull Executor executor
+  ) {
+    final CompletableFuture<T> future = createAsync(lambdaType, methodHandle, executor);
+    // Reuse the tiered function with a threshold of zero, every invocation checks whether the
+    // function is available until it's promoted
+    final MethodHandle promoter = getCompletedMethodHandle.bindTo(future);
+    return createTiered(lambdaType, methodHandle, promoter, 0);
+  }
+
+  /**
+   * Gets the value of the future if it completed successfully.
+   *
+   * @param future The future
+   * @return The value, or null if not available
+   */
+  private static @Nullable Object getCompleted(final @NonNull CompletableFuture<?> future) {
+    if (!future.isDone() || future.isCompletedExceptionally()) {
+      return null;
     }
+    return future.join();
+  }
+
+  /**
+   * Generates and defines a function class which invokes a {@link MethodHandle} that's stored
+   * in a final instance field, so that a single class can be shared between all the method
+   * handles of the same type.
+   *
+   * @param lambdaType   The lambda type
+   * @param methodType   The method type the method handle will be invoked with
+   * @param defineLookup The define lookup
+   * @return The constructor of the function class, of the type (MethodHandle)Object
+   */
+  private static @NonNull MethodHandle createSharedConstructor(
+    final @NonNull ResolvedLambdaType<?> lambdaType,
+    final @NonNull MethodType methodType,
+    final MethodHandles.@NonNull Lookup defineLookup
+  ) {
+    final String internalClassName = nextInternalClassName(defineLookup, lambdaType, "Shared");
+    final ClassWriter cw = new ClassWriter(0);
+    visitClass(cw, V1_8, internalClassName, lambdaType);
 
-    // Check that the lambda type can be defined using the lookup
-    final Class<?> functionClass = lambdaType.resolved.functionClass;
+    final FieldVisitor fv = cw.visitField(ACC_PRIVATE + ACC_FINAL,
+      METHOD_HANDLE_FIELD_NAME, "Ljava/lang/invoke/MethodHandle;", null, null);
+    fv.visitEnd();
 
-    // Check if the classes are in the same package, this is only a problem if the access isn't
-    // public, or the constructor isn't public
-    final boolean samePackage = InternalUtilities.getPackageName(functionClass)
-      .equals(InternalUtilities.getPackageName(defineLookup.lookupClass()));
+    final Class<?> functionClass = lambdaType.functionClass;
+    final Class<?> superclass = functionClass.isInterface() ? Object.class : functionClass;
+    MethodVisitor mv = cw.visitMethod(0, "<init>", "(Ljava/lang/invoke/MethodHandle;)V",
+      null, null);
+    mv.visitCode();
+    mv.visitVarInsn(ALOAD, 0);
+    mv.visitMethodInsn(INVOKESPECIAL, Type.getInternalName(superclass), "<init>", "()V", false);
+    mv.visitVarInsn(ALOAD, 0);
+    mv.visitVarInsn(ALOAD, 1);
+    mv.visitFieldInsn(PUTFIELD, internalClassName, METHOD_HANDLE_FIELD_NAME,
+      "Ljava/lang/invoke/MethodHandle;");
+    mv.visitInsn(RETURN);
+    mv.visitMaxs(2, 2);
+    mv.visitEnd();
+
+    mv = visitFunctionMethod(cw, lambdaType.method);
+    mv.visitVarInsn(ALOAD, 0);
+    mv.visitFieldInsn(GETFIELD, internalClassName, METHOD_HANDLE_FIELD_NAME,
+      "Ljava/lang/invoke/MethodHandle;");
+    visitMethodHandleInvocation(mv, lambdaType.method, methodType);
+
+    cw.visitEnd();
+
+    final MethodHandles.Lookup theClassLookup = defineFunctionClass(defineLookup, cw.toByteArray());
+    final Class<?> theClass = theClassLookup.lookupClass();
+    return doUnchecked(() -> theClassLookup.findConstructor(theClass,
+      MethodType.methodType(void.class, MethodHandle.class))
+      .asType(MethodType.methodType(Object.class, MethodHandle.class)));
+  }
+
+  /**
+   * Represents the shape of a shared function class.
+   */
+  private static final class SharedShape {
+
+    private final @NonNull LambdaType<?> lambdaType;
+    private final @NonNull MethodType methodType;
+
+    SharedShape(
+      final @NonNull LambdaType<?> lambdaType,
+      final @NonNull MethodType methodType
+    ) {
+      this.lambdaType = lambdaType;
+      this.methodType = methodType;
+    }
+
+    @Override
+    public boolean equals(final @Nullable Object obj) {
+      if (!(obj instanceof SharedShape)) {
+        return false;
+      }
+      final SharedShape other = (SharedShape) obj;
+      return this.lambdaType.equals(other.lambdaType) && this.methodType.equals(other.methodType);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * this.lambdaType.hashCode() + this.methodType.hashCode();
+    }
+  }
+
+  /**
+   * The call site of a tiered function, which counts the invocations until the threshold is
+   * reached. The call site will then be relinked to the dedicated function that's created by the
+   * promoter, or to the method handle if the promotion failed.
+   */
+  private static final class TieredCallSite extends MutableCallSite {
+
+    private static final @NonNull MethodHandle countInvocation = doUnchecked(() ->
+      internalLookup.findVirtual(TieredCallSite.class, "countInvocation",
+        MethodType.methodType(void.class)));
+
+    private final @NonNull ResolvedLambdaType<?> lambdaType;
+    private final MethodHandles.@NonNull Lookup defineLookup;
+    private final @NonNull MethodHandle methodHandle;
+    private final @NonNull MethodHandle promoter;
+    private final int threshold;
+
+    /**
+     * Whether the function is being promoted or is already promoted.
+     */
+    private final @NonNull AtomicBoolean promoted = new AtomicBoolean();
+
+    /**
+     * Doesn't need to be volatile, lost invocation counts only delay the promotion.
+     */
+    private int invocations;
+
+    TieredCallSite(
+      final @NonNull ResolvedLambdaType<?> lambdaType,
+      final MethodHandles.@NonNull Lookup defineLookup,
+      final @NonNull MethodHandle methodHandle,
+      final @NonNull MethodHandle promoter,
+      final int threshold
+    ) {
+      super(methodHandle.type());
+      this.lambdaType = lambdaType;
+      this.defineLookup = defineLookup;
+      this.methodHandle = methodHandle;
+      this.promoter = promoter;
+      this.threshold = threshold;
+      setTarget(MethodHandles.foldArguments(methodHandle, countInvocation.bindTo(this)));
+    }
+
+    void countInvocation() {
+      if (this.invocations < this.threshold && ++this.invocations < this.threshold) {
+        return;
+      }
+      // Only a single thread is allowed to promote the function
+      if (!this.promoted.compareAndSet(false, true)) {
+        return;
+      }
+      MethodHandle target;
+      try {
+        final Object function = this.promoter.invokeExact();
+        if (function == null) {
+          // Not available yet, try again with the next invocation
+          this.promoted.set(false);
+          return;
+        }
+        target = findFunctionMethod(function).bindTo(function).asType(type());
+      } catch (VirtualMachineError e) {
+        this.promoted.set(false);
+        throw e;
+      } catch (Throwable t) {
+        // Keep invoking the method handle, but stop counting the invocations
+        target = this.methodHandle;
+      }
+      setTarget(target);
+    }
+
+    /**
+     * Finds the implemented method of the dedicated function. The method is looked up in the
+     * function class itself, the abstract method isn't always accessible from the define lookup,
+     * e.g. a protected method of an abstract class in another package.
+     *
+     * @param function The dedicated function
+     * @return The method handle of the implemented method
+     */
+    private @NonNull MethodHandle findFunctionMethod(final @NonNull Object function)
+      throws IllegalAccessException, NoSuchMethodException {
+      final Class<?> functionClass = function.getClass();
+      final Method method = this.lambdaType.method;
+      final MethodHandles.Lookup lookup;
+      try {
+        lookup = InternalMethodHandles.adapter.privateLookupIn(functionClass, this.defineLookup);
+      } catch (Exception e) {
+        // Not allowed to access the function class, e.g. if its module isn't open
+        return this.defineLookup.unreflect(method);
+      }
+      return lookup.findVirtual(functionClass, method.getName(),
+        MethodType.methodType(method.getReturnType(), method.getParameterTypes()));
+    }
+  }
+
+  /**
+   * Gets the lookup that will be used to define the implementation of the given
+   * {@link LambdaType}.
+   *
+   * @param lambdaType The lambda type
+   * @return The define lookup
+   */
+  private static MethodHandles.@NonNull Lookup getDefineLookup(
+    final @NonNull LambdaType<?> lambdaType
+  ) {
+    final MethodHandles.Lookup defineLookup = lambdaType.defineLookup;
+    return defineLookup != null ? defineLookup : internalLookup;
+  }
+
+  private static @NonNull String toGenericDescriptor(
+    final @NonNull Class<?> superClass,
+    final @NonNull ParameterizedType genericType
+  ) {
+    final Map<String, TypeVariable<?>> typeVariables = new HashMap<>();
+
+    final StringBuilder signatureBuilder = new StringBuilder();
+    toGenericSignature(signatureBuilder, genericType, typeVariables);
+
+    final StringBuilder descriptorBuilder = new StringBuilder();
+
+    if (!typeVariables.isEmpty()) {
+      descriptorBuilder.append('<');
+      for (final TypeVariable<?> typeVariable : typeVariables.values()) {
+        descriptorBuilder.append(typeVariable.getName());
+        for (final java.lang.reflect.Type bound : typeVariable.getBounds()) {
+          final boolean isFinal;
+          if (bound instanceof Class) {
+            isFinal = Modifier.isFinal(((Class<?>) bound).getModifiers());
+          } else if (bound instanceof GenericArrayType) {
+            throw new IllegalStateException(); // Should never happen
+          } else if (bound instanceof ParameterizedType) {
+            isFinal = Modifier.isFinal(
+              ((Class<?>) ((ParameterizedType) bound).getRawType()).getModifiers());
+          } else {
+            isFinal = false;
+          }
+          if (isFinal) {
+            descriptorBuilder.append(':');
+          }
+          descriptorBuilder.append(':');
+          toGenericSignature(descriptorBuilder, bound, null);
+        }
+      }
+      descriptorBuilder.append('>');
+    }
+
+    descriptorBuilder.append(Type.getDescriptor(superClass));
+    descriptorBuilder.append(signatureBuilder);
+
+    return descriptorBuilder.toString();
+  }
+
+  private static void toGenericSignature(
+    final @NonNull StringBuilder builder,
+    final java.lang.reflect.@NonNull Type type,
+    final @Nullable Map<String, TypeVariable<?>> typeVariables
+  ) {
+    if (type instanceof Class) {
+      builder.append(Type.getDescriptor((Class<?>) type));
+    } else if (type instanceof GenericArrayType) {
+      final GenericArrayType arrayType = (GenericArrayType) type;
+      builder.append('[');
+      toGenericSignature(builder, arrayType.getGenericComponentType(), typeVariables);
+    } else if (type instanceof ParameterizedType) {
+      final ParameterizedType parameterizedType = (ParameterizedType) type;
+      builder.append('L');
+      builder.append(Type.getInternalName((Class<?>) parameterizedType.getRawType()));
+      builder.append('<');
+      for (java.lang.reflect.Type parameter : parameterizedType.getActualTypeArguments()) {
+        toGenericSignature(builder, parameter, typeVariables);
+      }
+      builder.append('>').append(';');
+    } else if (type instanceof TypeVariable) {
+      final TypeVariable<?> typeVariable = (TypeVariable<?>) type;
+      builder.append('T').append(typeVariable.getName()).append(';');
+      if (typeVariables != null) {
+        typeVariables.put(typeVariable.getName(), typeVariable);
+      }
+    } else if (type instanceof WildcardType) {
+      final WildcardType wildcardType = (WildcardType) type;
+
+      final java.lang.reflect.Type[] lowerBounds = wildcardType.getLowerBounds();
+      final java.lang.reflect.Type[] upperBounds = wildcardType.getUpperBounds();
+
+      final boolean hasLower = lowerBounds != null && lowerBounds.length > 0;
+      final boolean hasUpper = upperBounds != null && upperBounds.length > 0;
+
+      if (hasUpper && hasLower &&
+        Object.class.equals(lowerBounds[0]) &&
+        Object.class.equals(upperBounds[0])
+      ) {
+        builder.append('*');
+      } else if (hasLower) {
+        builder.append('-');
+        for (final java.lang.reflect.Type lower : lowerBounds) {
+          toGenericSignature(builder, lower, typeVariables);
+        }
+      } else if (hasUpper) {
+        if (upperBounds.length == 1 && Object.class.equals(upperBounds[0])) {
+          builder.append('*');
+        } else {
+          builder.append('+');
+          for (final java.lang.reflect.Type upper : upperBounds) {
+            toGenericSignature(builder, upper, typeVariables);
+          }
+        }
+      } else {
+        builder.append('*');
+      }
+    }
+  }
+
+  private static final String METHOD_HANDLE_FIELD_NAME = "methodHandle";
+
+  /**
+   * Creates the function for the given {@link MethodHandle} using the
+   * {@link DefinitionStrategy} of the {@link LambdaType}.
+   *
+   * @param lambdaType   The lambda type
+   * @param methodHandle The method handle
+   * @param defineLookup The define lookup
+   * @param sharedBytes  The bytecode that can be shared between the generated classes of the
+   *                     lambda type, mapped by method type, or null if nothing is shared
+   * @param <T>          The function type
+   * @return The function
+   */
+  private static <@NonNull T> T createFunction(
+    final @NonNull LambdaType<?> lambdaType,
+    final @NonNull MethodHandle methodHandle,
+    final MethodHandles.@NonNull Lookup defineLookup,
+    final @Nullable Map<MethodType, byte[]> sharedBytes
+  ) {
+    final ResolvedLambdaType<?> resolved = lambdaType.resolved;
+    switch (lambdaType.definitionStrategy) {
+      case STRONG_HIDDEN:
+        return createGeneratedFunction(resolved, methodHandle, defineLookup, sharedBytes, true);
+      case NESTMATE:
+        return createNestmateFunction(resolved, methodHandle, defineLookup);
+      case DEFINE_CLASS:
+        return createDefinedFunction(resolved, methodHandle, defineLookup);
+      case METAFACTORY:
+      case AUTOMATIC:
+        // The classes of the metafactory are strongly reachable from the class loader of the
+        // caller, using them automatically with the internal lookup would keep the targets
+        // reachable for as long as this library is loaded
+        if (lambdaType.definitionStrategy == DefinitionStrategy.METAFACTORY ||
+            defineLookup != internalLookup) {
+          final T function = createMetafactoryFunction(resolved, methodHandle, defineLookup);
+          if (function != null) {
+            return function;
+          }
+        }
+        return createGeneratedFunction(resolved, methodHandle, defineLookup, sharedBytes, false);
+      case NAMED:
+        return createNamedFunction(resolved, methodHandle, defineLookup);
+      default:
+        return createGeneratedFunction(resolved, methodHandle, defineLookup, sharedBytes, false);
+    }
+  }
+
+  private static <@NonNull T> T createGeneratedFunction(
+    final @NonNull ResolvedLambdaType<?> lambdaType,
+    final @NonNull MethodHandle methodHandle,
+    final MethodHandles.@NonNull Lookup defineLookup
+  ) {
+    return createGeneratedFunction(lambdaType, methodHandle, defineLookup, null, false);
+  }
+
+  /**
+   * Creates the function for the given {@link MethodHandle}.
+   *
+   * @param lambdaType   The lambda type
+   * @param methodHandle The method handle
+   * @param defineLookup The define lookup
+   * @param sharedBytes  The bytecode that can be shared between the generated classes of the
+   *                     lambda type, mapped by method type, or null if nothing is shared
+   * @param strong       Whether hidden classes should be strongly reachable from their class
+   *                     loader, see {@link DefinitionStrategy#STRONG_HIDDEN}
+   * @param <T>          The function type
+   * @return The function
+   */
+  private static <@NonNull T> T createGeneratedFunction(
+    final @NonNull ResolvedLambdaType<?> lambdaType,
+    final @NonNull MethodHandle methodHandle,
+    final MethodHandles.@NonNull Lookup defineLookup,
+    final @Nullable Map<MethodType, byte[]> sharedBytes,
+    final boolean strong
+  ) {
+    MethodType methodType = getFunctionMethodType(lambdaType, methodHandle.type());
+
+    // Direct method handles can be invoked directly from bytecode, if the generated class has
+    // access to the target member
+    final MethodHandleInfo directTarget =
+      findDirectTarget(methodHandle, methodType, defineLookup);
+    if (directTarget != null) {
+      final LambdaManifest manifest = LambdaManifest.getRecording();
+      if (manifest != null) {
+        manifest.record(lambdaType.functionClass,
+          defineLookup == internalLookup ? null : defineLookup.lookupClass(), directTarget);
+      }
+      // Prefer the functions that were generated at compile time
+      final T generated = InternalGeneratedAccessors.create(lambdaType.functionClass,
+        directTarget);
+      if (generated != null) {
+        return generated;
+      }
+      // The pre-generated classes are shared by everything, a scope defines its own classes
+      if (hasPregeneratedFunctions && currentScope.get() == null) {
+        final PregeneratedKey key = new PregeneratedKey(lambdaType.functionClass, methodType,
+          methodHandle.type(), directTarget, defineLookup, strong);
+        final MethodHandles.Lookup pregenerated = pregeneratedFunctions.get(key.getOwner())
+          .get(key);
+        if (pregenerated != null) {
+          return newInstance(pregenerated);
+        }
+      }
+      return newInstance(defineDirectFunction(lambdaType, methodType, methodHandle.type(),
+        directTarget, defineLookup, strong));
+    }
+
+    // Invoke the method handle with its own type if possible, the conversions between the
+    // function method and the method handle will be done in the generated bytecode, this avoids
+    // the adapters which would be created by asType
+    final MethodType invokedType = getInvokedMethodType(methodHandle.type(), methodType,
+      defineLookup);
+    final MethodHandle convertedMethodHandle;
+    if (invokedType != null) {
+      methodType = invokedType;
+      convertedMethodHandle = methodHandle.asType(invokedType);
+    } else {
+      // Convert the method handle types to match the functional method signature, this will
+      // make sure that all the objects are converted accordingly.
+      // This will also throw an exception if the functional interface cannot be implemented by
+      // the given method handle
+      convertedMethodHandle = methodHandle.asType(methodType);
+    }
+
+    final byte[] bytes;
+    if (sharedBytes != null) {
+      bytes = sharedBytes.computeIfAbsent(methodType, type ->
+        generateCachedMethodHandleFunction(lambdaType, type, defineLookup));
+    } else {
+      bytes = generateCachedMethodHandleFunction(lambdaType, methodType, defineLookup);
+    }
+    return defineMethodHandleFunction(defineLookup, bytes, convertedMethodHandle, strong);
+  }
+
+  /**
+   * Creates the function for the given {@link MethodHandle} using a hidden class that is a
+   * nestmate of the class which declares the target member, see
+   * {@link DefinitionStrategy#NESTMATE}. The function is generated like any other function if
+   * the target member can't be accessed directly from within that nest.
+   *
+   * @param lambdaType   The lambda type
+   * @param methodHandle The method handle
+   * @param defineLookup The define lookup
+   * @param <T>          The function type
+   * @return The function
+   */
+  private static <@NonNull T> T createNestmateFunction(
+    final @NonNull ResolvedLambdaType<?> lambdaType,
+    final @NonNull MethodHandle methodHandle,
+    final MethodHandles.@NonNull Lookup defineLookup
+  ) {
+    final MethodHandles.Lookup nestLookup = findNestLookup(lambdaType, methodHandle, defineLookup);
+    if (nestLookup != null) {
+      final MethodType methodType = getFunctionMethodType(lambdaType, methodHandle.type());
+      final MethodHandleInfo directTarget =
+        findDirectTarget(methodHandle, methodType, nestLookup, true);
+      if (directTarget != null) {
+        final MethodType targetType = methodHandle.type();
+        final String key = getDirectBytecodeCacheKey("nestmate", lambdaType, methodType,
+          targetType, directTarget, nestLookup);
+        final byte[] bytes = InternalBytecodeCache.get(key, () -> generateDirectFunction(
+          lambdaType, methodType, targetType, directTarget,
+          nextDirectInternalClassName(nestLookup, lambdaType, directTarget)));
+        return newInstance(record(doUnchecked(() -> (MethodHandles.Lookup) requireNonNull(
+          defineHiddenNestmateClass).invokeExact(nestLookup, bytes, true)), bytes));
+      }
+    }
+    return createGeneratedFunction(lambdaType, methodHandle, defineLookup);
+  }
+
+  /**
+   * Attempts to find a lookup with private access to the class which declares the target
+   * member of the given {@link MethodHandle}, in which a nestmate function class can be defined.
+   *
+   * @param lambdaType   The lambda type
+   * @param methodHandle The method handle
+   * @param defineLookup The define lookup
+   * @return The nest lookup, or null if not applicable
+   */
+  private static MethodHandles.@Nullable Lookup findNestLookup(
+    final @NonNull ResolvedLambdaType<?> lambdaType,
+    final @NonNull MethodHandle methodHandle,
+    final MethodHandles.@NonNull Lookup defineLookup
+  ) {
+    if (defineHiddenNestmateClass == null) {
+      return null;
+    }
+    final Class<?> declaringClass;
+    final MethodHandles.Lookup nestLookup;
+    try {
+      // Cracking the method handle doesn't require access, this is only needed to find out
+      // which class the nestmate should be defined for
+      declaringClass = MethodHandles.reflectAs(Member.class, methodHandle).getDeclaringClass();
+      nestLookup = MethodHandlesExtensions.privateLookupIn(declaringClass, defineLookup);
+    } catch (IllegalAccessException | IllegalArgumentException | SecurityException e) {
+      return null;
+    }
+    // The function class must also be accessible from within the nest
+    final Class<?> functionClass = lambdaType.functionClass;
+    if (!InternalMethodHandles.isVisible(nestLookup, functionClass) ||
+        (lambdaType.packageAccessRestriction != null &&
+          !InternalUtilities.isSamePackage(functionClass, declaringClass))) {
+      return null;
+    }
+    return nestLookup;
+  }
+
+  /**
+   * Creates the function for the given {@link MethodHandle} using a normal class with a unique
+   * name that's defined in the package of the define lookup, see
+   * {@link DefinitionStrategy#DEFINE_CLASS}.
+   *
+   * @param lambdaType   The lambda type
+   * @param methodHandle The method handle
+   * @param defineLookup The define lookup
+   * @param <T>          The function type
+   * @return The function
+   */
+  private static <@NonNull T> T createDefinedFunction(
+    final @NonNull ResolvedLambdaType<?> lambdaType,
+    final @NonNull MethodHandle methodHandle,
+    final MethodHandles.@NonNull Lookup defineLookup
+  ) {
+    MethodType methodType = getFunctionMethodType(lambdaType, methodHandle.type());
+
+    final MethodHandleInfo directTarget =
+      findDirectTarget(methodHandle, methodType, defineLookup);
+    if (directTarget != null) {
+      final byte[] bytes = generateDirectFunction(lambdaType, methodType, methodHandle.type(),
+        directTarget, nextInternalClassName(defineLookup, lambdaType,
+          getDirectDescription(directTarget), true));
+      return newInstance(defineClass(defineLookup, bytes));
+    }
+
+    final MethodType invokedType = getInvokedMethodType(methodHandle.type(), methodType,
+      defineLookup);
+    if (invokedType != null) {
+      methodType = invokedType;
+    }
+    final MethodHandle convertedMethodHandle = methodHandle.asType(methodType);
+    final byte[] bytes = generateMethodHandleFunction(lambdaType, methodType,
+      nextInternalClassName(defineLookup, lambdaType, null, true), new Class<?>[0], false);
+    try {
+      currentMethodHandle.set(convertedMethodHandle);
+      return newInstance(defineClass(defineLookup, bytes));
+    } finally {
+      currentMethodHandle.remove();
+    }
+  }
+
+  /**
+   * Attempts to create the function for the given {@link MethodHandle} using the
+   * {@link LambdaMetafactory}, see {@link DefinitionStrategy#METAFACTORY}.
+   *
+   * @param lambdaType   The lambda type
+   * @param methodHandle The method handle
+   * @param defineLookup The define lookup, which is used as caller lookup
+   * @param <T>          The function type
+   * @return The function, or null if the metafactory doesn't support the method handle
+   */
+  @SuppressWarnings("unchecked")
+  private static <@NonNull T> @Nullable T createMetafactoryFunction(
+    final @NonNull ResolvedLambdaType<?> lambdaType,
+    final @NonNull MethodHandle methodHandle,
+    final MethodHandles.@NonNull Lookup defineLookup
+  ) {
+    final MethodType instantiatedType =
+      getMetafactoryInstantiatedType(lambdaType, methodHandle, defineLookup);
+    if (instantiatedType == null) {
+      return null;
+    }
+    final CallSite callSite;
+    try {
+      callSite = LambdaMetafactory.metafactory(defineLookup, lambdaType.method.getName(),
+        MethodType.methodType(lambdaType.functionClass), lambdaType.methodType, methodHandle,
+        instantiatedType);
+    } catch (LambdaConversionException | IllegalArgumentException e) {
+      // Unsupported conversions or the define lookup doesn't have the required access
+      return null;
+    }
+    final T function = doUnchecked(() -> (T) callSite.getTarget().invoke());
+    // The bytecode of the metafactory classes isn't available
+    final LambdaScope scope = currentScope.get();
+    if (scope != null) {
+      scope.record(function.getClass(), 0);
+    }
+    return function;
+  }
+
+  /**
+   * Gets the instantiated method type that should be passed to the {@link LambdaMetafactory} to
+   * implement the lambda type with the given {@link MethodHandle}. Everything that the
+   * metafactory would reject is checked upfront, so that no exceptions need to be thrown in
+   * order to fall back to generated classes.
+   *
+   * @param lambdaType   The lambda type
+   * @param methodHandle The method handle
+   * @param defineLookup The define lookup, which is used as caller lookup
+   * @return The instantiated method type, or null if the metafactory doesn't support the
+   *         method handle
+   */
+  private static @Nullable MethodType getMetafactoryInstantiatedType(
+    final @NonNull ResolvedLambdaType<?> lambdaType,
+    final @NonNull MethodHandle methodHandle,
+    final MethodHandles.@NonNull Lookup defineLookup
+  ) {
+    final MethodType samType = lambdaType.methodType;
+    final MethodType targetType = methodHandle.type();
+    // The metafactory can only implement interfaces, can't drop parameters and requires a
+    // caller lookup with private access
+    if (!lambdaType.functionClass.isInterface() || methodHandle.isVarargsCollector() ||
+        samType.parameterCount() != targetType.parameterCount() ||
+        (defineLookup.lookupModes() & MethodHandles.Lookup.PRIVATE) == 0) {
+      return null;
+    }
+    final MethodHandleInfo info;
+    try {
+      info = defineLookup.revealDirect(methodHandle);
+    } catch (IllegalArgumentException | SecurityException e) {
+      return null;
+    }
+    // Only methods and constructors are supported, no fields
+    final int kind = info.getReferenceKind();
+    if (kind == MethodHandleInfo.REF_getField || kind == MethodHandleInfo.REF_getStatic ||
+        kind == MethodHandleInfo.REF_putField || kind == MethodHandleInfo.REF_putStatic ||
+        !isVisible(defineLookup, info)) {
+      return null;
+    }
+    // The metafactory only casts parameters to a more specific type if that type is part of the
+    // instantiated method type, other parameter conversions must be strict
+    MethodType instantiatedType = samType;
+    for (int i = 0; i < samType.parameterCount(); i++) {
+      final Class<?> samParameterType = samType.parameterType(i);
+      final Class<?> parameterType = targetType.parameterType(i);
+      if (!InternalConversions.isSupported(samParameterType, parameterType, defineLookup)) {
+        return null;
+      }
+      if (samParameterType.isPrimitive() || parameterType.isPrimitive() ||
+          parameterType.isAssignableFrom(samParameterType)) {
+        continue;
+      }
+      if (!samParameterType.isAssignableFrom(parameterType) ||
+          !InternalMethodHandles.isVisible(defineLookup, parameterType)) {
+        return null;
+      }
+      instantiatedType = instantiatedType.changeParameterType(i, parameterType);
+    }
+    final Class<?> returnType = samType.returnType();
+    if ((targetType.returnType() == void.class && returnType != void.class) ||
+        !InternalConversions.isSupported(targetType.returnType(), returnType, defineLookup)) {
+      return null;
+    }
+    return instantiatedType;
+  }
+
+  /**
+   * Creates the function for the given {@link MethodHandle} using a named class, see
+   * {@link DefinitionStrategy#NAMED}. The class names are derived from the bytecode, so existing
+   * classes which are visible to the class loader of the define lookup, for example exported by
+   * a previous run, will be reused instead of being defined again.
+   *
+   * @param lambdaType   The lambda type
+   * @param methodHandle The method handle
+   * @param defineLookup The define lookup
+   * @param <T>          The function type
+   * @return The function
+   */
+  private static <@NonNull T> T createNamedFunction(
+    final @NonNull ResolvedLambdaType<?> lambdaType,
+    final @NonNull MethodHandle methodHandle,
+    final MethodHandles.@NonNull Lookup defineLookup
+  ) {
+    MethodType methodType = getFunctionMethodType(lambdaType, methodHandle.type());
+
+    final MethodHandleInfo directTarget =
+      findDirectTarget(methodHandle, methodType, defineLookup);
+    if (directTarget != null) {
+      final String key = getDirectBytecodeCacheKey("namedDirect", lambdaType, methodType,
+        methodHandle.type(), directTarget, defineLookup);
+      final String internalClassName = (getClassName(defineLookup, lambdaType,
+        getDirectDescription(directTarget)) + "$" + InternalNamedClasses.getNameSuffix(key))
+        .replace('.', '/');
+      final MethodType finalMethodType = methodType;
+      return newInstance(defineNamedClass(defineLookup, internalClassName, () ->
+        generateDirectFunction(lambdaType, finalMethodType, methodHandle.type(), directTarget,
+          internalClassName)));
+    }
+
+    final MethodType invokedType = getInvokedMethodType(methodHandle.type(), methodType,
+      defineLookup);
+    if (invokedType != null) {
+      methodType = invokedType;
+    }
+    final MethodHandle convertedMethodHandle = methodHandle.asType(methodType);
+
+    // Every class binds a single method handle on initialization, so classes are numbered and
+    // the first one that gets initialized with the given method handle will be used
+    final String key = getBytecodeCacheKey("named", lambdaType, methodType, defineLookup);
+    final String baseName = getClassName(defineLookup, lambdaType, null) + "$" +
+      InternalNamedClasses.getNameSuffix(key);
+    final AtomicInteger counter = classNameCounters.computeIfAbsent(baseName,
+      name -> new AtomicInteger());
+    final MethodType finalMethodType = methodType;
+    try {
+      currentMethodHandle.set(convertedMethodHandle);
+      while (true) {
+        final String internalClassName =
+          (baseName + "$" + counter.incrementAndGet()).replace('.', '/');
+        final MethodHandles.Lookup theClassLookup = defineNamedClass(defineLookup,
+          internalClassName, () -> generateMethodHandleFunction(lambdaType, finalMethodType,
+            internalClassName, new Class<?>[0], false));
+        // Accessing the method handle field initializes the class while the method handle is
+        // still available, classes which were already initialized hold another method handle
+        final Class<?> theClass = theClassLookup.lookupClass();
+        final MethodHandle boundMethodHandle = doUnchecked(() -> (MethodHandle)
+          MethodHandlesExtensions.privateLookupIn(theClass, defineLookup)
+            .findStaticGetter(theClass, METHOD_HANDLE_FIELD_NAME, MethodHandle.class).invoke());
+        if (boundMethodHandle == convertedMethodHandle) {
+          return newInstance(theClassLookup);
+        }
+      }
+    } finally {
+      currentMethodHandle.remove();
+    }
+  }
+
+  /**
+   * Gets the named class with the given name if it's already visible to the class loader of the
+   * define lookup, otherwise the class will be generated and defined. Defined classes are
+   * exported to the output directory of the {@link InternalNamedClasses}, if set.
+   *
+   * @param defineLookup      The define lookup
+   * @param internalClassName The internal class name
+   * @param generator         The generator of the bytecode
+   * @return The lookup of the class
+   */
+  private static MethodHandles.@NonNull Lookup defineNamedClass(
+    final MethodHandles.@NonNull Lookup defineLookup,
+    final @NonNull String internalClassName,
+    final @NonNull Supplier<byte[]> generator
+  ) {
+    Class<?> theClass = InternalNamedClasses.findExisting(defineLookup, internalClassName);
+    if (theClass == null) {
+      final byte[] bytes = generator.get();
+      try {
+        theClass = MethodHandlesExtensions.defineClass(defineLookup, bytes);
+        InternalNamedClasses.export(internalClassName, bytes);
+        final LambdaScope scope = currentScope.get();
+        if (scope != null) {
+          scope.record(theClass, bytes.length);
+        }
+      } catch (LinkageError e) {
+        // Another thread defined the class in the meantime
+        theClass = InternalNamedClasses.findExisting(defineLookup, internalClassName);
+        if (theClass == null) {
+          throw e;
+        }
+      } catch (IllegalAccessException e) {
+        throw throwUnchecked(e);
+      }
+    }
+    return defineLookup.in(theClass);
+  }
+
+  /**
+   * Gets the method type of the function method that will be used to invoke a method handle of
+   * the given type. Parameters at the end will be dropped if the function method has too many.
+   *
+   * @param lambdaType The lambda type
+   * @param targetType The method type of the method handle
+   * @return The method type
+   */
+  private static @NonNull MethodType getFunctionMethodType(
+    final @NonNull ResolvedLambdaType<?> lambdaType,
+    final @NonNull MethodType targetType
+  ) {
+    MethodType methodType = lambdaType.methodType;
+    // drop parameters at the end if we have too many
+    if (methodType.parameterCount() > targetType.parameterCount()) {
+      methodType = methodType.dropParameterTypes(targetType.parameterCount(),
+        methodType.parameterCount());
+    }
+    return methodType;
+  }
+
+  /**
+   * Gets the method type which should be used to invoke a method handle of the given type from
+   * the function method, if all the conversions between them can be done in bytecode.
+   * Reference types which aren't accessible from the generated class will be replaced by
+   * {@link Object}.
+   *
+   * @param targetType   The method type of the method handle
+   * @param functionType The method type of the function method
+   * @param defineLookup The define lookup
+   * @return The invoked method type, or null if the conversions aren't supported
+   */
+  private static @Nullable MethodType getInvokedMethodType(
+    final @NonNull MethodType targetType,
+    final @NonNull MethodType functionType,
+    final MethodHandles.@NonNull Lookup defineLookup
+  ) {
+    if (targetType.parameterCount() != functionType.parameterCount()) {
+      return null;
+    }
+    final Class<?>[] parameterTypes = new Class<?>[targetType.parameterCount()];
+    for (int i = 0; i < parameterTypes.length; i++) {
+      parameterTypes[i] = toAccessibleType(targetType.parameterType(i), defineLookup);
+      if (!InternalConversions.isSupported(
+          functionType.parameterType(i), parameterTypes[i], defineLookup)) {
+        return null;
+      }
+    }
+    final Class<?> returnType = toAccessibleType(targetType.returnType(), defineLookup);
+    if (!InternalConversions.isSupported(returnType, functionType.returnType(), defineLookup)) {
+      return null;
+    }
+    return MethodType.methodType(returnType, parameterTypes);
+  }
+
+  private static @NonNull Class<?> toAccessibleType(
+    final @NonNull Class<?> type,
+    final MethodHandles.@NonNull Lookup defineLookup
+  ) {
+    return type.isPrimitive() || InternalMethodHandles.adapter.isAccessible(defineLookup, type) ?
+      type : Object.class;
+  }
+
+  /**
+   * Generates the bytecode of a function class which invokes a {@link MethodHandle}, like
+   * {@link #generateMethodHandleFunction(ResolvedLambdaType, MethodType, String)}. The bytecode
+   * of hidden classes will be loaded from the {@link InternalBytecodeCache}, if enabled.
+   *
+   * @param lambdaType   The lambda type
+   * @param methodType   The method type the method handle will be invoked with
+   * @param defineLookup The define lookup
+   * @return The bytecode
+   */
+  private static byte @NonNull [] generateCachedMethodHandleFunction(
+    final @NonNull ResolvedLambdaType<?> lambdaType,
+    final @NonNull MethodType methodType,
+    final MethodHandles.@NonNull Lookup defineLookup
+  ) {
+    // Hidden classes don't need unique names, so only their bytes can be reused
+    if (defineHiddenClass == null) {
+      return generateMethodHandleFunction(lambdaType, methodType,
+        nextInternalClassName(defineLookup, lambdaType, null));
+    }
+    final String key = getBytecodeCacheKey("methodHandle", lambdaType, methodType, defineLookup);
+    return InternalBytecodeCache.get(key, () -> generateMethodHandleFunction(lambdaType,
+      methodType, nextInternalClassName(defineLookup, lambdaType, null)));
+  }
+
+  /**
+   * Gets the key of bytecode in the {@link InternalBytecodeCache}, which describes everything
+   * that influences the generated bytecode, except the class name.
+   *
+   * @param kind         The kind of the generated function
+   * @param lambdaType   The lambda type
+   * @param methodType   The method type of the function method
+   * @param defineLookup The define lookup
+   * @return The key
+   */
+  private static @NonNull String getBytecodeCacheKey(
+    final @NonNull String kind,
+    final @NonNull ResolvedLambdaType<?> lambdaType,
+    final @NonNull MethodType methodType,
+    final MethodHandles.@NonNull Lookup defineLookup
+  ) {
+    final Method method = lambdaType.method;
+    return kind +
+      ";" + (defineHiddenClassWithClassData != null) +
+      ";" + lambdaType.getFunctionType().getTypeName() +
+      ";" + lambdaType.functionClass.isInterface() +
+      ";" + method.getName() + Type.getMethodDescriptor(method) +
+      ";" + methodType.toMethodDescriptorString() +
+      ";" + InternalUtilities.getPackageName(defineLookup.lookupClass());
+  }
+
+  /**
+   * Generates the bytecode of a function class which invokes a {@link MethodHandle}. The bytecode
+   * doesn't depend on the method handle itself, only on its type.
+   *
+   * @param lambdaType        The lambda type
+   * @param methodType        The method type the method handle will be invoked with
+   * @param internalClassName The internal class name
+   * @return The bytecode
+   */
+  private static byte @NonNull [] generateMethodHandleFunction(
+    final @NonNull ResolvedLambdaType<?> lambdaType,
+    final @NonNull MethodType methodType,
+    final @NonNull String internalClassName
+  ) {
+    return generateMethodHandleFunction(lambdaType, methodType, internalClassName, new Class<?>[0],
+      defineHiddenClassWithClassData != null);
+  }
+
+  /**
+   * Generates the bytecode of a function class which invokes a {@link MethodHandle}, with the
+   * values of the capture fields as leading arguments. The bytecode doesn't depend on the method
+   * handle itself, only on its type.
+   *
+   * @param lambdaType        The lambda type
+   * @param methodType        The method type the method handle will be invoked with
+   * @param internalClassName The internal class name
+   * @param captureTypes      The types of the capture fields, which are initialized by the
+   *                          constructor of the function class
+   * @param useClassData      Whether the method handle is passed as class data to a hidden
+   *                          class, otherwise it's requested by the static initializer
+   * @return The bytecode
+   */
+  private static byte @NonNull [] generateMethodHandleFunction(
+    final @NonNull ResolvedLambdaType<?> lambdaType,
+    final @NonNull MethodType methodType,
+    final @NonNull String internalClassName,
+    final Class<?> @NonNull [] captureTypes,
+    final boolean useClassData
+  ) {
+
+    final Method method = lambdaType.method;
+    final ClassWriter cw = new ClassWriter(0);
+
+    // Dynamic constants require at least Java 11 class files
+    visitClass(cw, useClassData ? V11 : V1_8, internalClassName, lambdaType);
+    if (captureTypes.length == 0) {
+      visitConstructor(cw, lambdaType);
+    } else {
+      visitCapturingConstructor(cw, lambdaType, internalClassName, captureTypes);
+    }
+
+    MethodVisitor mv;
+    if (!useClassData) {
+      // Add the method handle field
+      final FieldVisitor fv = cw.visitField(ACC_PRIVATE + ACC_FINAL + ACC_STATIC,
+        METHOD_HANDLE_FIELD_NAME, "Ljava/lang/invoke/MethodHandle;", null, null);
+      fv.visitEnd();
+
+      mv = cw.visitMethod(ACC_STATIC, "<clinit>", "()V", null, null);
+      mv.visitCode();
+      mv.visitMethodInsn(INVOKESTATIC, Type.getInternalName(InternalLambdaFactory.class),
+        "requestMethodHandle", "()Ljava/lang/invoke/MethodHandle;", false);
+      mv.visitFieldInsn(PUTSTATIC, internalClassName, METHOD_HANDLE_FIELD_NAME,
+        "Ljava/lang/invoke/MethodHandle;");
+      mv.visitInsn(RETURN);
+      mv.visitMaxs(1, 0);
+      mv.visitEnd();
+    }
+
+    // Write the function method
+    mv = visitFunctionMethod(cw, method);
+    if (useClassData) {
+      mv.visitLdcInsn(new ConstantDynamic("_", "Ljava/lang/invoke/MethodHandle;",
+        classDataBootstrap));
+    } else {
+      mv.visitFieldInsn(GETSTATIC, internalClassName, METHOD_HANDLE_FIELD_NAME,
+        "Ljava/lang/invoke/MethodHandle;");
+    }
+    visitMethodHandleInvocation(mv, method, methodType, internalClassName, captureTypes, false);
+
+    cw.visitEnd();
+
+    return cw.toByteArray();
+  }
+
+  /**
+   * Generates the bytecode of a function class which invokes a {@link MethodHandle} with the
+   * constants as leading arguments. The method handle and the constants are loaded from the
+   * class data list, the method handle being the first element.
+   *
+   * @param lambdaType        The lambda type
+   * @param methodType        The method type the method handle will be invoked with
+   * @param internalClassName The internal class name
+   * @param constantTypes     The types of the constants
+   * @return The bytecode
+   */
+  private static byte @NonNull [] generateConstantFunction(
+    final @NonNull ResolvedLambdaType<?> lambdaType,
+    final @NonNull MethodType methodType,
+    final @NonNull String internalClassName,
+    final Class<?> @NonNull [] constantTypes
+  ) {
+    final ClassWriter cw = new ClassWriter(0);
+
+    // Dynamic constants require at least Java 11 class files
+    visitClass(cw, V11, internalClassName, lambdaType);
+    visitConstructor(cw, lambdaType);
+
+    final MethodVisitor mv = visitFunctionMethod(cw, lambdaType.method);
+    mv.visitLdcInsn(new ConstantDynamic("_", "Ljava/lang/invoke/MethodHandle;",
+      classDataAtBootstrap, 0));
+    visitMethodHandleInvocation(mv, lambdaType.method, methodType, internalClassName,
+      constantTypes, true);
+
+    cw.visitEnd();
+
+    return cw.toByteArray();
+  }
+
+  private static final String CAPTURE_FIELD_NAME_PREFIX = "capture";
+
+  /**
+   * Visits the package private constructor of the function class which initializes the capture
+   * fields.
+   *
+   * @param cw                The class writer
+   * @param lambdaType        The lambda type
+   * @param internalClassName The internal class name
+   * @param captureTypes      The types of the capture fields
+   */
+  private static void visitCapturingConstructor(
+    final @NonNull ClassWriter cw,
+    final @NonNull ResolvedLambdaType<?> lambdaType,
+    final @NonNull String internalClassName,
+    final Class<?> @NonNull [] captureTypes
+  ) {
+    final Class<?> functionClass = lambdaType.functionClass;
+    final Class<?> superclass = functionClass.isInterface() ? Object.class : functionClass;
+
+    final Type[] parameterTypes = new Type[captureTypes.length];
+    for (int i = 0; i < captureTypes.length; i++) {
+      parameterTypes[i] = Type.getType(captureTypes[i]);
+      cw.visitField(ACC_PRIVATE + ACC_FINAL, CAPTURE_FIELD_NAME_PREFIX + i,
+        parameterTypes[i].getDescriptor(), null, null).visitEnd();
+    }
+
+    final MethodVisitor mv = cw.visitMethod(0, "<init>",
+      Type.getMethodDescriptor(Type.VOID_TYPE, parameterTypes), null, null);
+    mv.visitCode();
+    mv.visitVarInsn(ALOAD, 0);
+    mv.visitMethodInsn(INVOKESPECIAL, Type.getInternalName(superclass), "<init>", "()V", false);
+    int local = 1;
+    for (int i = 0; i < parameterTypes.length; i++) {
+      mv.visitVarInsn(ALOAD, 0);
+      mv.visitVarInsn(parameterTypes[i].getOpcode(ILOAD), local);
+      mv.visitFieldInsn(PUTFIELD, internalClassName, CAPTURE_FIELD_NAME_PREFIX + i,
+        parameterTypes[i].getDescriptor());
+      local += parameterTypes[i].getSize();
+    }
+    mv.visitInsn(RETURN);
+    mv.visitMaxs(3, local);
+    mv.visitEnd();
+  }
+
+  /**
+   * Visits the invocation of the method handle that's on top of the stack with the parameters of
+   * the function method, followed by the return of the result. Finishes the method visitor.
+   *
+   * @param mv         The method visitor
+   * @param method     The function method
+   * @param methodType The method type the method handle will be invoked with
+   */
+  private static void visitMethodHandleInvocation(
+    final @NonNull MethodVisitor mv,
+    final @NonNull Method method,
+    final @NonNull MethodType methodType
+  ) {
+    visitMethodHandleInvocation(mv, method, methodType, null, new Class<?>[0], false);
+  }
+
+  /**
+   * Visits the invocation of the method handle that's on top of the stack with the values of the
+   * capture fields and the parameters of the function method, followed by the return of the
+   * result. Finishes the method visitor.
+   *
+   * <p>The parameters and the return value will be converted if the method handle is invoked
+   * with different types than the function method, these conversions must be supported by
+   * {@link InternalConversions}.</p>
+   *
+   * @param mv                The method visitor
+   * @param method            The function method
+   * @param methodType        The method type the method handle will be invoked with
+   * @param internalClassName The internal class name, only required if there are captures
+   * @param captureTypes      The types of the capture fields
+   * @param constantCaptures  Whether the captured values are constants within the class data,
+   *                          instead of fields
+   */
+  private static void visitMethodHandleInvocation(
+    final @NonNull MethodVisitor mv,
+    final @NonNull Method method,
+    final @NonNull MethodType methodType,
+    final @Nullable String internalClassName,
+    final Class<?> @NonNull [] captureTypes,
+    final boolean constantCaptures
+  ) {
+    int stack = 1;
+    int maxStack = 1;
+    for (int i = 0; i < captureTypes.length; i++) {
+      final Type type = Type.getType(captureTypes[i]);
+      if (constantCaptures) {
+        // The first element of the class data is the method handle
+        mv.visitLdcInsn(new ConstantDynamic("_", type.getDescriptor(), classDataAtBootstrap,
+          i + 1));
+      } else {
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitFieldInsn(GETFIELD, internalClassName, CAPTURE_FIELD_NAME_PREFIX + i,
+          type.getDescriptor());
+      }
+      maxStack = Math.max(maxStack, stack + Math.max(1, type.getSize()));
+      stack += type.getSize();
+    }
+    final Class<?>[] parameters = method.getParameterTypes();
+    final int parameterCount = methodType.parameterCount() - captureTypes.length;
+    int local = 1;
+    for (int i = 0; i < parameterCount; i++) {
+      // Convert the parameters if the method handle is invoked with a different type
+      final Class<?> parameterType = methodType.parameterType(captureTypes.length + i);
+      final Type type = Type.getType(parameters[i]);
+      final int size = Type.getType(parameterType).getSize();
+      mv.visitVarInsn(type.getOpcode(ILOAD), local);
+      InternalConversions.visitConversion(mv, parameters[i], parameterType);
+      maxStack = Math.max(maxStack, stack + Math.max(type.getSize(), size));
+      local += type.getSize();
+      stack += size;
+    }
+    int maxLocals = local;
+    for (int i = parameterCount; i < parameters.length; i++) {
+      maxLocals += Type.getType(parameters[i]).getSize();
+    }
+    final Type returnType = Type.getType(methodType.returnType());
+    final Type functionReturnType = Type.getType(method.getReturnType());
+    maxStack = Math.max(maxStack, Math.max(stack,
+      Math.max(returnType.getSize(), functionReturnType.getSize())));
+    final Type[] methodHandleParameterTypes =
+      methodType.parameterList().stream().map(Type::getType).toArray(Type[]::new);
+    final String methodHandleDescriptor = Type.getMethodDescriptor(
+      returnType, methodHandleParameterTypes);
+    mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/invoke/MethodHandle",
+      "invokeExact", methodHandleDescriptor, false);
+    InternalConversions.visitConversion(mv, methodType.returnType(), method.getReturnType());
+    mv.visitInsn(functionReturnType.getOpcode(IRETURN));
+    mv.visitMaxs(maxStack, maxLocals);
+    mv.visitEnd();
+  }
+
+  /**
+   * Defines a function class that was generated by
+   * {@link #generateMethodHandleFunction(ResolvedLambdaType, MethodType, String)} and injects the
+   * method handle.
+   *
+   * @param defineLookup The define lookup
+   * @param bytes        The bytecode of the function class
+   * @param methodHandle The method handle, converted to the invoked method type
+   * @param <T>          The function type
+   * @return The function
+   */
+  private static <@NonNull T> T defineMethodHandleFunction(
+    final MethodHandles.@NonNull Lookup defineLookup,
+    final byte @NonNull [] bytes,
+    final @NonNull MethodHandle methodHandle
+  ) {
+    return defineMethodHandleFunction(defineLookup, bytes, methodHandle, false);
+  }
+
+  /**
+   * Defines a function class that was generated by
+   * {@link #generateMethodHandleFunction(ResolvedLambdaType, MethodType, String)} and injects the
+   * method handle.
+   *
+   * @param defineLookup The define lookup
+   * @param bytes        The bytecode of the function class
+   * @param methodHandle The method handle, converted to the invoked method type
+   * @param strong       Whether a hidden class should be strongly reachable from its class loader
+   * @param <T>          The function type
+   * @return The function
+   */
+  private static <@NonNull T> T defineMethodHandleFunction(
+    final MethodHandles.@NonNull Lookup defineLookup,
+    final byte @NonNull [] bytes,
+    final @NonNull MethodHandle methodHandle,
+    final boolean strong
+  ) {
+    final MethodHandle defineWithClassData = strong ?
+      defineStrongHiddenClassWithClassData : defineHiddenClassWithClassData;
+    if (defineWithClassData != null) {
+      final MethodHandles.Lookup theClassLookup = doUnchecked(() ->
+        (MethodHandles.Lookup) defineWithClassData.invokeExact(
+          defineLookup, bytes, (Object) methodHandle, true));
+      return newInstance(record(theClassLookup, bytes));
+    }
+
+    try {
+      // Store the current method handle, it will be required on initialization of the generated
+      // class
+      currentMethodHandle.set(methodHandle);
+      return newInstance(defineFunctionClass(defineLookup, bytes, strong));
+    } finally {
+      // Cleanup
+      currentMethodHandle.remove();
+    }
+  }
+
+  /**
+   * Defines a function class that was generated by
+   * {@link #generateMethodHandleFunction(ResolvedLambdaType, MethodType, String, Class[], boolean)}
+   * and injects the method handle, without instantiating it.
+   *
+   * @param defineLookup The define lookup
+   * @param bytes        The bytecode of the function class
+   * @param methodHandle The method handle, converted to the invoked method type
+   * @return The lookup of the defined class
+   */
+  private static MethodHandles.@NonNull Lookup defineMethodHandleFunctionClass(
+    final MethodHandles.@NonNull Lookup defineLookup,
+    final byte @NonNull [] bytes,
+    final @NonNull MethodHandle methodHandle
+  ) {
+    if (defineHiddenClassWithClassData != null) {
+      return record(doUnchecked(() -> (MethodHandles.Lookup) defineHiddenClassWithClassData
+        .invokeExact(defineLookup, bytes, (Object) methodHandle, true)), bytes);
+    }
+
+    try {
+      currentMethodHandle.set(methodHandle);
+      final MethodHandles.Lookup theClassLookup = defineFunctionClass(defineLookup, bytes);
+      // Accessing the method handle field initializes the class while the method handle is
+      // still available
+      final Class<?> theClass = theClassLookup.lookupClass();
+      doUnchecked(() -> MethodHandlesExtensions.privateLookupIn(theClass, theClassLookup)
+        .findStaticGetter(theClass, METHOD_HANDLE_FIELD_NAME, MethodHandle.class).invoke());
+      return theClassLookup;
+    } finally {
+      currentMethodHandle.remove();
+    }
+  }
+
+  /**
+   * Attempts to find the target member of the given {@link MethodHandle} if it can be accessed
+   * directly from bytecode by a class that's defined by the define lookup.
+   *
+   * @param methodHandle The method handle
+   * @param methodType   The method type of the function method
+   * @param defineLookup The define lookup
+   * @return The target member info, or null if not applicable
+   */
+  private static @Nullable MethodHandleInfo findDirectTarget(
+    final @NonNull MethodHandle methodHandle,
+    final @NonNull MethodType methodType,
+    final MethodHandles.@NonNull Lookup defineLookup
+  ) {
+    return findDirectTarget(methodHandle, methodType, defineLookup, false);
+  }
+
+  /**
+   * Attempts to find the target member of the given {@link MethodHandle} if it can be accessed
+   * directly from bytecode by a class that's defined by the define lookup.
+   *
+   * @param methodHandle The method handle
+   * @param methodType   The method type of the function method
+   * @param defineLookup The define lookup
+   * @param nestmate     Whether the class will be defined as a nestmate of the lookup class,
+   *                     which allows access to private members
+   * @return The target member info, or null if not applicable
+   */
+  private static @Nullable MethodHandleInfo findDirectTarget(
+    final @NonNull MethodHandle methodHandle,
+    final @NonNull MethodType methodType,
+    final MethodHandles.@NonNull Lookup defineLookup,
+    final boolean nestmate
+  ) {
+    // Varargs collectors apply conversions that can't be replicated by only looking at the member
+    if (methodHandle.isVarargsCollector()) {
+      return null;
+    }
+    final MethodHandleInfo info;
+    try {
+      // Will fail if the method handle isn't a direct one or if the define lookup doesn't have
+      // access to the member
+      info = defineLookup.revealDirect(methodHandle);
+    } catch (IllegalArgumentException | SecurityException e) {
+      return null;
+    }
+    final int kind = info.getReferenceKind();
+    final int modifiers = info.getModifiers();
+    // Special invocations are only allowed from within the caller class, private members are
+    // only accessible from within the declaring class or its nestmates. Private methods can't
+    // be overridden, so a special invocation of one is the same as a virtual invocation
+    if (Modifier.isPrivate(modifiers) ? !nestmate :
+        kind == MethodHandleInfo.REF_invokeSpecial) {
+      return null;
+    }
+    // The generated class isn't a subclass, so protected members only work within the package
+    if (Modifier.isProtected(modifiers) &&
+      !InternalUtilities.isSamePackage(info.getDeclaringClass(), defineLookup.lookupClass())) {
+      return null;
+    }
+    if ((kind == MethodHandleInfo.REF_putField || kind == MethodHandleInfo.REF_putStatic) &&
+      Modifier.isFinal(modifiers)) {
+      return null;
+    }
+    if (!isVisible(defineLookup, info)) {
+      return null;
+    }
+    final MethodType targetType = methodHandle.type();
+    if (targetType.parameterCount() != methodType.parameterCount()) {
+      return null;
+    }
+    for (int i = 0; i < methodType.parameterCount(); i++) {
+      if (!InternalConversions.isSupported(
+        methodType.parameterType(i), targetType.parameterType(i), defineLookup)) {
+        return null;
+      }
+    }
+    if (!InternalConversions.isSupported(
+      targetType.returnType(), methodType.returnType(), defineLookup)) {
+      return null;
+    }
+    return info;
+  }
+
+  /**
+   * Gets whether the given member can be referenced by name from a class that's defined by the
+   * define lookup, all the classes in its signature must resolve to the same classes from the
+   * class loader of the define lookup.
+   *
+   * @param defineLookup The define lookup
+   * @param info         The member info
+   * @return Whether the member is visible
+   */
+  private static boolean isVisible(
+    final MethodHandles.@NonNull Lookup defineLookup,
+    final @NonNull MethodHandleInfo info
+  ) {
+    final MethodType memberType = info.getMethodType();
+    if (!InternalMethodHandles.isVisible(defineLookup, info.getDeclaringClass()) ||
+        !InternalMethodHandles.isVisible(defineLookup, memberType.returnType())) {
+      return false;
+    }
+    for (final Class<?> parameterType : memberType.parameterArray()) {
+      if (!InternalMethodHandles.isVisible(defineLookup, parameterType)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Whether any function classes were pre-generated, so the lookup can be skipped otherwise.
+   */
+  private static volatile boolean hasPregeneratedFunctions;
+
+  /**
+   * The function classes which were pre-generated from a {@link LambdaManifest}, attached to the
+   * class with the most specific class loader of their key, so they don't prevent the class
+   * loader from being unloaded.
+   */
+  private static final @NonNull ClassValue<ConcurrentMap<PregeneratedKey, MethodHandles.Lookup>>
+    pregeneratedFunctions = new ClassValue<ConcurrentMap<PregeneratedKey, MethodHandles.Lookup>>() {
+      @Override
+      protected @NonNull ConcurrentMap<PregeneratedKey, MethodHandles.Lookup> computeValue(
+        final @NonNull Class<?> type
+      ) {
+        return new ConcurrentHashMap<>();
+      }
+    };
+
+  /**
+   * Generates and defines the function class for the given {@link LambdaType} and direct
+   * method handle, which will be used by following lambdas which target the same member.
+   *
+   * @param lambdaType   The lambda type
+   * @param methodHandle The method handle
+   * @return Whether the function class was generated
+   */
+  static boolean pregenerate(
+    final @NonNull LambdaType<?> lambdaType,
+    final @NonNull MethodHandle methodHandle
+  ) {
+    final MethodHandles.Lookup defineLookup = getDefineLookup(lambdaType);
+    final ResolvedLambdaType<?> resolved = lambdaType.resolved;
+    try {
+      checkAccess(lambdaType, defineLookup);
+      final MethodType methodType = getFunctionMethodType(resolved, methodHandle.type());
+      final MethodHandleInfo directTarget =
+        findDirectTarget(methodHandle, methodType, defineLookup);
+      if (directTarget == null) {
+        return false;
+      }
+      final boolean strong = lambdaType.getDefinitionStrategy() == DefinitionStrategy.STRONG_HIDDEN;
+      final PregeneratedKey key = new PregeneratedKey(resolved.functionClass, methodType,
+        methodHandle.type(), directTarget, defineLookup, strong);
+      // The classes are kept for as long as their owner, they can't belong to a scope
+      withScope(null, () -> pregeneratedFunctions.get(key.getOwner())
+        .computeIfAbsent(key, k -> defineDirectFunction(resolved, methodType,
+          methodHandle.type(), directTarget, defineLookup, strong)));
+      hasPregeneratedFunctions = true;
+      return true;
+    } catch (Exception | LinkageError e) {
+      return false;
+    }
+  }
+
+  /**
+   * The key of a pre-generated function class. The function class casts its arguments to the
+   * types of the target method handle, so method handles of the same member but with a more
+   * specific type don't share the function class.
+   */
+  private static final class PregeneratedKey {
+
+    private final @NonNull Class<?> functionClass;
+    private final @NonNull MethodType functionType;
+    private final @NonNull MethodType targetType;
+    private final int referenceKind;
+    private final @NonNull Class<?> declaringClass;
+    private final @NonNull String name;
+    private final @NonNull MethodType methodType;
+    private final @NonNull Class<?> defineClass;
+    private final boolean strong;
+
+    PregeneratedKey(
+      final @NonNull Class<?> functionClass,
+      final @NonNull MethodType functionType,
+      final @NonNull MethodType targetType,
+      final @NonNull MethodHandleInfo info,
+      final MethodHandles.@NonNull Lookup defineLookup,
+      final boolean strong
+    ) {
+      this.functionClass = functionClass;
+      this.functionType = functionType;
+      this.targetType = targetType;
+      this.referenceKind = info.getReferenceKind();
+      this.declaringClass = info.getDeclaringClass();
+      this.name = info.getName();
+      this.methodType = info.getMethodType();
+      this.defineClass = defineLookup.lookupClass();
+      this.strong = strong;
+    }
+
+    /**
+     * Gets the class with the most specific class loader of all the classes that are referenced
+     * by this key, and by the function class that will be generated for it.
+     *
+     * @return The owner class
+     */
+    @NonNull Class<?> getOwner() {
+      Class<?> owner = mostSpecific(this.defineClass, this.functionClass);
+      owner = mostSpecific(owner, this.declaringClass);
+      owner = mostSpecificIn(owner, this.functionType);
+      owner = mostSpecificIn(owner, this.targetType);
+      return mostSpecificIn(owner, this.methodType);
+    }
 
-    if (!Modifier.isPublic(functionClass.getModifiers()) && !samePackage) {
-      throw throwUnchecked(new IllegalAccessException("The function class isn't public and no " +
-        "applicable define lookup is provided. When the access isn't public, the defined class " +
-        "must be in the same package, a lookup within the same package can be set using " +
-        "LambdaType#defineClassesWith(...)"));
-    } else if (!functionClass.isInterface()) {
-      try {
-        final int modifiers = functionClass.getDeclaredConstructor().getModifiers();
-        if (!(Modifier.isPublic(modifiers) || Modifier.isProtected(modifiers)) && !samePackage) {
-          throw throwUnchecked(new IllegalAccessException("The function class constructor isn't " +
-            "public and no applicable define lookup is  provided. When the access isn't public, " +
-            "the defined class must be in the same package, a lookup within the same package can " +
-            "be set using LambdaType#defineClassesWith(...)"));
-        }
-      } catch (NoSuchMethodException e) {
-        // Should never happen, is already checked for at the construction of lambda type
-        throw throwUnchecked(e);
+    private static @NonNull Class<?> mostSpecificIn(
+      @NonNull Class<?> owner,
+      final @NonNull MethodType type
+    ) {
+      owner = mostSpecific(owner, type.returnType());
+      for (final Class<?> parameterType : type.parameterList()) {
+        owner = mostSpecific(owner, parameterType);
       }
-      final int modifiers = lambdaType.resolved.method.getModifiers();
-      if (!(Modifier.isPublic(modifiers) || Modifier.isProtected(modifiers)) && !samePackage) {
-        throw throwUnchecked(new IllegalAccessException("The function class method isn't public " +
-          "or protected and no applicable define lookup is provided. When the access isn't " +
-          "public, the defined class must be in the same package, a lookup within the same " +
-          "package can be set using LambdaType#defineClassesWith(...)"));
+      return owner;
+    }
+
+    @Override
+    public boolean equals(final @Nullable Object obj) {
+      if (!(obj instanceof PregeneratedKey)) {
+        return false;
       }
+      final PregeneratedKey that = (PregeneratedKey) obj;
+      return this.functionClass == that.functionClass &&
+        this.functionType.equals(that.functionType) &&
+        this.targetType.equals(that.targetType) &&
+        this.referenceKind == that.referenceKind &&
+        this.declaringClass == that.declaringClass &&
+        this.name.equals(that.name) &&
+        this.methodType.equals(that.methodType) &&
+        this.defineClass == that.defineClass &&
+        this.strong == that.strong;
     }
 
-    try {
-      return createGeneratedFunction(lambdaType.resolved, methodHandle, defineLookup);
-    } catch (Throwable e) {
-      throw new IllegalStateException("Couldn't create lambda for: \"" + methodHandle + "\". "
-        + "Failed to implement: " + lambdaType, e);
+    @Override
+    public int hashCode() {
+      return Objects.hash(this.functionClass, this.functionType, this.targetType,
+        this.referenceKind, this.declaringClass, this.name, this.methodType, this.defineClass,
+        this.strong);
     }
   }
 
-  private static @NonNull String toGenericDescriptor(
-    final @NonNull Class<?> superClass,
-    final @NonNull ParameterizedType genericType
+  /**
+   * Defines a function class that accesses the target member directly, without a
+   * {@link MethodHandle} in between.
+   *
+   * @param lambdaType   The lambda type
+   * @param methodType   The method type of the function method
+   * @param targetType   The method type of the target method handle
+   * @param target       The target member info
+   * @param defineLookup The define lookup
+   * @param strong       Whether a hidden class should be strongly reachable from its class loader
+   * @return The lookup of the function class
+   */
+  private static MethodHandles.@NonNull Lookup defineDirectFunction(
+    final @NonNull ResolvedLambdaType<?> lambdaType,
+    final @NonNull MethodType methodType,
+    final @NonNull MethodType targetType,
+    final @NonNull MethodHandleInfo target,
+    final MethodHandles.@NonNull Lookup defineLookup,
+    final boolean strong
   ) {
-    final Map<String, TypeVariable<?>> typeVariables = new HashMap<>();
+    final byte[] bytes;
+    if (defineHiddenClass != null) {
+      final String key = getDirectBytecodeCacheKey("direct", lambdaType, methodType, targetType,
+        target, defineLookup);
+      bytes = InternalBytecodeCache.get(key, () -> generateDirectFunction(lambdaType,
+        methodType, targetType, target, nextDirectInternalClassName(defineLookup, lambdaType,
+          target)));
+    } else {
+      bytes = generateDirectFunction(lambdaType, methodType, targetType, target,
+        nextDirectInternalClassName(defineLookup, lambdaType, target));
+    }
+    return defineFunctionClass(defineLookup, bytes, strong);
+  }
 
-    final StringBuilder signatureBuilder = new StringBuilder();
-    toGenericSignature(signatureBuilder, genericType, typeVariables);
+  /**
+   * Gets the key of bytecode in the {@link InternalBytecodeCache} for a function class that
+   * accesses the target member directly.
+   *
+   * @param kind         The kind of the generated function
+   * @param lambdaType   The lambda type
+   * @param methodType   The method type of the function method
+   * @param targetType   The method type of the target method handle
+   * @param target       The target member info
+   * @param defineLookup The define lookup
+   * @return The key
+   */
+  private static @NonNull String getDirectBytecodeCacheKey(
+    final @NonNull String kind,
+    final @NonNull ResolvedLambdaType<?> lambdaType,
+    final @NonNull MethodType methodType,
+    final @NonNull MethodType targetType,
+    final @NonNull MethodHandleInfo target,
+    final MethodHandles.@NonNull Lookup defineLookup
+  ) {
+    return getBytecodeCacheKey(kind, lambdaType, methodType, defineLookup) +
+      ";" + targetType.toMethodDescriptorString() +
+      ";" + MethodHandleInfo.referenceKindToString(target.getReferenceKind()) +
+      ";" + target.getDeclaringClass().getName() +
+      ";" + target.getName() +
+      ";" + target.getMethodType().toMethodDescriptorString();
+  }
 
-    final StringBuilder descriptorBuilder = new StringBuilder();
+  /**
+   * Generates the bytecode of a function class that accesses the target member directly.
+   *
+   * @param lambdaType        The lambda type
+   * @param methodType        The method type of the function method
+   * @param targetType        The method type of the target method handle
+   * @param target            The target member info
+   * @param internalClassName The internal class name
+   * @return The bytecode
+   */
+  private static byte @NonNull [] generateDirectFunction(
+    final @NonNull ResolvedLambdaType<?> lambdaType,
+    final @NonNull MethodType methodType,
+    final @NonNull MethodType targetType,
+    final @NonNull MethodHandleInfo target,
+    final @NonNull String internalClassName
+  ) {
+    final ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
 
-    if (!typeVariables.isEmpty()) {
-      descriptorBuilder.append('<');
-      for (final TypeVariable<?> typeVariable : typeVariables.values()) {
-        descriptorBuilder.append(typeVariable.getName());
-        for (final java.lang.reflect.Type bound : typeVariable.getBounds()) {
-          final boolean isFinal;
-          if (bound instanceof Class) {
-            isFinal = Modifier.isFinal(((Class<?>) bound).getModifiers());
-          } else if (bound instanceof GenericArrayType) {
-            throw new IllegalStateException(); // Should never happen
-          } else if (bound instanceof ParameterizedType) {
-            isFinal = Modifier.isFinal(
-              ((Class<?>) ((ParameterizedType) bound).getRawType()).getModifiers());
-          } else {
-            isFinal = false;
-          }
-          if (isFinal) {
-            descriptorBuilder.append(':');
-          }
-          descriptorBuilder.append(':');
-          toGenericSignature(descriptorBuilder, bound, null);
-        }
-      }
-      descriptorBuilder.append('>');
+    // Private members of nestmates can only be accessed since Java 11
+    final boolean isPrivate = Modifier.isPrivate(target.getModifiers());
+    visitClass(cw, isPrivate ? V11 : V1_8, internalClassName, lambdaType);
+    visitConstructor(cw, lambdaType);
+
+    final MethodVisitor mv = visitFunctionMethod(cw, lambdaType.method);
+
+    final int kind = target.getReferenceKind();
+    final Class<?> owner = target.getDeclaringClass();
+    final String ownerName = Type.getInternalName(owner);
+    final MethodType memberType = target.getMethodType();
+
+    if (kind == MethodHandleInfo.REF_newInvokeSpecial) {
+      mv.visitTypeInsn(NEW, ownerName);
+      mv.visitInsn(DUP);
+    }
+    int local = 1;
+    for (int i = 0; i < methodType.parameterCount(); i++) {
+      final Class<?> parameterType = methodType.parameterType(i);
+      final Type type = Type.getType(parameterType);
+      mv.visitVarInsn(type.getOpcode(ILOAD), local);
+      InternalConversions.visitConversion(mv, parameterType, targetType.parameterType(i));
+      local += type.getSize();
+    }
+    switch (kind) {
+      case MethodHandleInfo.REF_getField:
+        mv.visitFieldInsn(GETFIELD, ownerName, target.getName(),
+          Type.getDescriptor(memberType.returnType()));
+        break;
+      case MethodHandleInfo.REF_getStatic:
+        mv.visitFieldInsn(GETSTATIC, ownerName, target.getName(),
+          Type.getDescriptor(memberType.returnType()));
+        break;
+      case MethodHandleInfo.REF_putField:
+        mv.visitFieldInsn(PUTFIELD, ownerName, target.getName(),
+          Type.getDescriptor(memberType.parameterType(0)));
+        break;
+      case MethodHandleInfo.REF_putStatic:
+        mv.visitFieldInsn(PUTSTATIC, ownerName, target.getName(),
+          Type.getDescriptor(memberType.parameterType(0)));
+        break;
+      case MethodHandleInfo.REF_invokeVirtual:
+        mv.visitMethodInsn(INVOKEVIRTUAL, ownerName, target.getName(),
+          memberType.toMethodDescriptorString(), false);
+        break;
+      case MethodHandleInfo.REF_invokeSpecial:
+        // Only private methods of nestmates, which must be invoked virtually
+        mv.visitMethodInsn(owner.isInterface() ? INVOKEINTERFACE : INVOKEVIRTUAL, ownerName,
+          target.getName(), memberType.toMethodDescriptorString(), owner.isInterface());
+        break;
+      case MethodHandleInfo.REF_invokeStatic:
+        mv.visitMethodInsn(INVOKESTATIC, ownerName, target.getName(),
+          memberType.toMethodDescriptorString(), owner.isInterface());
+        break;
+      case MethodHandleInfo.REF_invokeInterface:
+        mv.visitMethodInsn(INVOKEINTERFACE, ownerName, target.getName(),
+          memberType.toMethodDescriptorString(), true);
+        break;
+      case MethodHandleInfo.REF_newInvokeSpecial:
+        mv.visitMethodInsn(INVOKESPECIAL, ownerName, "<init>",
+          memberType.toMethodDescriptorString(), false);
+        break;
+      default:
+        throw new IllegalStateException("Unsupported reference kind: " +
+          MethodHandleInfo.referenceKindToString(kind));
     }
+    final Class<?> returnType = lambdaType.method.getReturnType();
+    InternalConversions.visitConversion(mv, targetType.returnType(), returnType);
+    mv.visitInsn(Type.getType(returnType).getOpcode(IRETURN));
+    mv.visitMaxs(0, 0);
+    mv.visitEnd();
 
-    descriptorBuilder.append(Type.getDescriptor(superClass));
-    descriptorBuilder.append(signatureBuilder);
+    cw.visitEnd();
 
-    return descriptorBuilder.toString();
+    return cw.toByteArray();
   }
 
-  private static void toGenericSignature(
-    final @NonNull StringBuilder builder,
-    final java.lang.reflect.@NonNull Type type,
-    final @Nullable Map<String, TypeVariable<?>> typeVariables
+  /**
+   * Generates a new internal class name for a function that directly targets the given member,
+   * for example {@code Lmbda$Entity$getHealth$ToIntFunction}.
+   *
+   * @param defineLookup The define lookup
+   * @param lambdaType   The lambda type
+   * @param target       The target member
+   * @return The internal class name
+   */
+  private static @NonNull String nextDirectInternalClassName(
+    final MethodHandles.@NonNull Lookup defineLookup,
+    final @NonNull ResolvedLambdaType<?> lambdaType,
+    final @NonNull MethodHandleInfo target
   ) {
-    if (type instanceof Class) {
-      builder.append(Type.getDescriptor((Class<?>) type));
-    } else if (type instanceof GenericArrayType) {
-      final GenericArrayType arrayType = (GenericArrayType) type;
-      builder.append('[');
-      toGenericSignature(builder, arrayType.getGenericComponentType(), typeVariables);
-    } else if (type instanceof ParameterizedType) {
-      final ParameterizedType parameterizedType = (ParameterizedType) type;
-      builder.append('L');
-      builder.append(Type.getInternalName((Class<?>) parameterizedType.getRawType()));
-      builder.append('<');
-      for (java.lang.reflect.Type parameter : parameterizedType.getActualTypeArguments()) {
-        toGenericSignature(builder, parameter, typeVariables);
-      }
-      builder.append('>').append(';');
-    } else if (type instanceof TypeVariable) {
-      final TypeVariable<?> typeVariable = (TypeVariable<?>) type;
-      builder.append('T').append(typeVariable.getName()).append(';');
-      if (typeVariables != null) {
-        typeVariables.put(typeVariable.getName(), typeVariable);
-      }
-    } else if (type instanceof WildcardType) {
-      final WildcardType wildcardType = (WildcardType) type;
+    return nextInternalClassName(defineLookup, lambdaType, getDirectDescription(target));
+  }
 
-      final java.lang.reflect.Type[] lowerBounds = wildcardType.getLowerBounds();
-      final java.lang.reflect.Type[] upperBounds = wildcardType.getUpperBounds();
+  private static @NonNull String getDirectDescription(final @NonNull MethodHandleInfo target) {
+    final String memberName = target.getReferenceKind() == MethodHandleInfo.REF_newInvokeSpecial ?
+      "new" : target.getName();
+    return getShortName(target.getDeclaringClass()) + "$" + memberName;
+  }
 
-      final boolean hasLower = lowerBounds != null && lowerBounds.length > 0;
-      final boolean hasUpper = upperBounds != null && upperBounds.length > 0;
+  /**
+   * Generates a new internal class name for a function that will be defined using the given
+   * define lookup. The name is derived from the function class and the description, for
+   * example {@code Lmbda$Shared$ToIntFunction}, so that it's stable between runs and readable
+   * in profilers and heap dumps.
+   *
+   * <p>Hidden classes don't require unique names, otherwise a counter per name will be appended
+   * to every name except for the first one.</p>
+   *
+   * @param defineLookup The define lookup
+   * @param lambdaType   The lambda type
+   * @param description  The description of the function, or null if none
+   * @return The internal class name
+   */
+  private static @NonNull String nextInternalClassName(
+    final MethodHandles.@NonNull Lookup defineLookup,
+    final @NonNull ResolvedLambdaType<?> lambdaType,
+    final @Nullable String description
+  ) {
+    return nextInternalClassName(defineLookup, lambdaType, description,
+      defineHiddenClass == null);
+  }
 
-      if (hasUpper && hasLower &&
-        Object.class.equals(lowerBounds[0]) &&
-        Object.class.equals(upperBounds[0])
-      ) {
-        builder.append('*');
-      } else if (hasLower) {
-        builder.append('-');
-        for (final java.lang.reflect.Type lower : lowerBounds) {
-          toGenericSignature(builder, lower, typeVariables);
-        }
-      } else if (hasUpper) {
-        if (upperBounds.length == 1 && Object.class.equals(upperBounds[0])) {
-          builder.append('*');
-        } else {
-          builder.append('+');
-          for (final java.lang.reflect.Type upper : upperBounds) {
-            toGenericSignature(builder, upper, typeVariables);
-          }
-        }
-      } else {
-        builder.append('*');
+  /**
+   * Generates a new internal class name for a function that will be defined using the given
+   * define lookup.
+   *
+   * @param defineLookup The define lookup
+   * @param lambdaType   The lambda type
+   * @param description  The description of the function, or null if none
+   * @param unique       Whether the name must be unique, which is required for normal classes
+   * @return The internal class name
+   */
+  private static @NonNull String nextInternalClassName(
+    final MethodHandles.@NonNull Lookup defineLookup,
+    final @NonNull ResolvedLambdaType<?> lambdaType,
+    final @Nullable String description,
+    final boolean unique
+  ) {
+    String className = getClassName(defineLookup, lambdaType, description);
+    if (unique) {
+      final int count = classNameCounters.computeIfAbsent(className, name -> new AtomicInteger())
+        .incrementAndGet();
+      if (count > 1) {
+        className += "$" + count;
       }
     }
+    return className.replace('.', '/');
   }
 
-  private static final String METHOD_HANDLE_FIELD_NAME = "methodHandle";
-
-  @SuppressWarnings("unchecked")
-  private static <@NonNull T> T createGeneratedFunction(
+  /**
+   * Gets the binary class name for a function that will be defined using the given define
+   * lookup, without a counter.
+   *
+   * @param defineLookup The define lookup
+   * @param lambdaType   The lambda type
+   * @param description  The description of the function, or null if none
+   * @return The binary class name
+   */
+  private static @NonNull String getClassName(
+    final MethodHandles.@NonNull Lookup defineLookup,
     final @NonNull ResolvedLambdaType<?> lambdaType,
-    final @NonNull MethodHandle methodHandle,
-    final MethodHandles.@NonNull Lookup defineLookup
+    final @Nullable String description
   ) {
-    // Convert the method handle types to match the functional method signature, this will make
-    // sure that all the objects are converted accordingly, so we don't have to do it ourselves
-    // with asm.
-    // This will also throw an exception if the functional interface cannot be implemented by the
-    // given method handle
-    MethodType methodType = lambdaType.methodType;
-    // drop parameters at the end if we have too many
-    if (methodType.parameterCount() > methodHandle.type().parameterCount()) {
-      methodType = methodType.dropParameterTypes(methodHandle.type().parameterCount(),
-        methodType.parameterCount());
-    }
-    final MethodHandle convertedMethodHandle = methodHandle.asType(methodType);
+    final String packageName = InternalUtilities.getPackageName(defineLookup.lookupClass());
 
-    final Method method = lambdaType.method;
-    final ClassWriter cw = new ClassWriter(0);
+    final StringBuilder builder = new StringBuilder();
+    if (!packageName.isEmpty()) {
+      builder.append(packageName).append('.');
+    }
+    builder.append("Lmbda$");
+    if (description != null) {
+      appendSanitized(builder, description);
+      builder.append('$');
+    }
+    appendSanitized(builder, getShortName(lambdaType.functionClass));
+    return builder.toString();
+  }
 
-    final String packageName = InternalUtilities.getPackageName(defineLookup.lookupClass());
+  /**
+   * Gets the short name of the class, which is the simple name or the name without the
+   * package if the class doesn't have a simple name.
+   *
+   * @param theClass The class
+   * @return The short name
+   */
+  private static @NonNull String getShortName(final @NonNull Class<?> theClass) {
+    final String simpleName = theClass.getSimpleName();
+    if (!simpleName.isEmpty()) {
+      return simpleName;
+    }
+    final String name = theClass.getName();
+    return name.substring(name.lastIndexOf('.') + 1);
+  }
 
-    final String classPrefix = packageName.isEmpty() ? "" : packageName + ".";
-    final String className = classPrefix + "Lmbda$" + lambdaCounter.incrementAndGet();
-    final String internalClassName = className.replace('.', '/');
+  /**
+   * Appends the name to the builder, characters which aren't valid within a java identifier will
+   * be replaced by underscores.
+   *
+   * @param builder The builder
+   * @param name    The name
+   */
+  private static void appendSanitized(
+    final @NonNull StringBuilder builder,
+    final @NonNull String name
+  ) {
+    for (int i = 0; i < name.length(); i++) {
+      final char c = name.charAt(i);
+      builder.append(Character.isJavaIdentifierPart(c) ? c : '_');
+    }
+  }
 
+  /**
+   * Visits the header of the function class.
+   *
+   * @param cw                The class writer
+   * @param version           The class file version
+   * @param internalClassName The internal class name
+   * @param lambdaType        The lambda type
+   */
+  private static void visitClass(
+    final @NonNull ClassWriter cw,
+    final int version,
+    final @NonNull String internalClassName,
+    final @NonNull ResolvedLambdaType<?> lambdaType
+  ) {
     final Class<?> functionClass = lambdaType.functionClass;
     final Class<?> superclass = functionClass.isInterface() ? Object.class : functionClass;
 
@@ -289,92 +2542,163 @@ private static void toGenericSignature(
     final String[] interfaces = !functionClass.isInterface() ? new String[0] :
       new String[] { Type.getInternalName(lambdaType.functionClass) };
 
-    cw.visit(V1_8, ACC_SUPER, internalClassName, genericDescriptor,
+    cw.visit(version, ACC_SUPER, internalClassName, genericDescriptor,
       Type.getInternalName(superclass), interfaces);
+  }
 
-    final FieldVisitor fv = cw.visitField(ACC_PRIVATE + ACC_FINAL + ACC_STATIC,
-      METHOD_HANDLE_FIELD_NAME, "Ljava/lang/invoke/MethodHandle;", null, null);
-    fv.visitEnd();
+  /**
+   * Visits the package private no-arg constructor of the function class.
+   *
+   * @param cw         The class writer
+   * @param lambdaType The lambda type
+   */
+  private static void visitConstructor(
+    final @NonNull ClassWriter cw,
+    final @NonNull ResolvedLambdaType<?> lambdaType
+  ) {
+    final Class<?> functionClass = lambdaType.functionClass;
+    final Class<?> superclass = functionClass.isInterface() ? Object.class : functionClass;
 
-    // Add a package private constructor
-    MethodVisitor mv = cw.visitMethod(0, "<init>", "()V", null, null);
+    final MethodVisitor mv = cw.visitMethod(0, "<init>", "()V", null, null);
     mv.visitCode();
     mv.visitVarInsn(ALOAD, 0);
     mv.visitMethodInsn(INVOKESPECIAL, Type.getInternalName(superclass), "<init>", "()V", false);
     mv.visitInsn(RETURN);
     mv.visitMaxs(1, 1);
     mv.visitEnd();
+  }
 
-    // Add the method handle field
-    mv = cw.visitMethod(ACC_STATIC, "<clinit>", "()V", null, null);
-    mv.visitCode();
-    mv.visitMethodInsn(INVOKESTATIC, Type.getInternalName(InternalLambdaFactory.class),
-      "requestMethodHandle", "()Ljava/lang/invoke/MethodHandle;", false);
-    mv.visitFieldInsn(PUTSTATIC, internalClassName, METHOD_HANDLE_FIELD_NAME,
-      "Ljava/lang/invoke/MethodHandle;");
-    mv.visitInsn(RETURN);
-    mv.visitMaxs(1, 0);
-    mv.visitEnd();
-
-    // Write the function method
+  /**
+   * Starts visiting the implementation of the function method.
+   *
+   * @param cw     The class writer
+   * @param method The function method
+   * @return The method visitor
+   */
+  private static @NonNull MethodVisitor visitFunctionMethod(
+    final @NonNull ClassWriter cw,
+    final @NonNull Method method
+  ) {
     final String descriptor = Type.getMethodDescriptor(method);
-    mv = cw.visitMethod(ACC_PUBLIC, method.getName(), descriptor, null, null);
+    final MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, method.getName(), descriptor, null, null);
     // Hide the lambda from the stack trace
     mv.visitAnnotation("Ljava/lang/invoke/LambdaForm$Hidden;", true).visitEnd();
     mv.visitCode();
-    mv.visitFieldInsn(GETSTATIC, internalClassName, METHOD_HANDLE_FIELD_NAME,
-      "Ljava/lang/invoke/MethodHandle;");
-    final Class<?>[] parameters = method.getParameterTypes();
-    int maxStack = 1;
-    for (int i = 0; i < methodType.parameterCount(); i++) {
-      final Type type = Type.getType(parameters[i]);
-      mv.visitVarInsn(type.getOpcode(ILOAD), maxStack);
-      maxStack += type.getSize();
-    }
-    int maxLocals = maxStack;
-    for (int i = methodType.parameterCount(); i < parameters.length; i++) {
-      maxLocals += Type.getType(parameters[i]).getSize();
+    return mv;
+  }
+
+  /**
+   * Defines the function class within the provided lookup.
+   *
+   * @param defineLookup The define lookup
+   * @param bytes        The bytecode of the function class
+   * @return The lookup of the defined class
+   */
+  private static MethodHandles.@NonNull Lookup defineFunctionClass(
+    final MethodHandles.@NonNull Lookup defineLookup,
+    final byte @NonNull [] bytes
+  ) {
+    return defineFunctionClass(defineLookup, bytes, false);
+  }
+
+  /**
+   * Defines the function class within the provided lookup.
+   *
+   * @param defineLookup The define lookup
+   * @param bytes        The bytecode of the function class
+   * @param strong       Whether a hidden class should be strongly reachable from its class loader
+   * @return The lookup of the defined class
+   */
+  private static MethodHandles.@NonNull Lookup defineFunctionClass(
+    final MethodHandles.@NonNull Lookup defineLookup,
+    final byte @NonNull [] bytes,
+    final boolean strong
+  ) {
+    final MethodHandle define = strong ? defineStrongHiddenClass : defineHiddenClass;
+    if (define != null) {
+      return record(doUnchecked(() -> (MethodHandles.Lookup) define
+        .invokeExact(defineLookup, bytes, true)), bytes);
     }
-    final Type[] methodHandleParameterTypes =
-      methodType.parameterList().stream().map(Type::getType).toArray(Type[]::new);
-    final String methodHandleDescriptor = Type.getMethodDescriptor(
-      Type.getType(methodType.returnType()), methodHandleParameterTypes);
-    mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/invoke/MethodHandle",
-      "invokeExact", methodHandleDescriptor, false);
-    mv.visitInsn(Type.getType(method.getReturnType()).getOpcode(IRETURN));
-    mv.visitMaxs(maxStack, maxLocals);
-    mv.visitEnd();
+    return defineClass(defineLookup, bytes);
+  }
 
-    cw.visitEnd();
+  /**
+   * Defines the function class as a normal class within the provided lookup.
+   *
+   * @param defineLookup The define lookup
+   * @param bytes        The bytecode of the function class
+   * @return The lookup of the defined class
+   */
+  private static MethodHandles.@NonNull Lookup defineClass(
+    final MethodHandles.@NonNull Lookup defineLookup,
+    final byte @NonNull [] bytes
+  ) {
+    final Class<?> theClass = doUnchecked(() ->
+      MethodHandlesExtensions.defineClass(defineLookup, bytes));
+    return record(defineLookup.in(theClass), bytes);
+  }
 
-    try {
-      // Store the current method handle, it will be required on initialization of the generated
-      // class
-      currentMethodHandle.set(convertedMethodHandle);
+  /**
+   * Records the defined class in the {@link LambdaScope} of the current thread, if any.
+   *
+   * @param theClassLookup The lookup of the defined class
+   * @param bytes          The bytecode of the defined class
+   * @return The lookup of the defined class
+   */
+  private static MethodHandles.@NonNull Lookup record(
+    final MethodHandles.@NonNull Lookup theClassLookup,
+    final byte @NonNull [] bytes
+  ) {
+    final LambdaScope scope = currentScope.get();
+    if (scope != null) {
+      scope.record(theClassLookup.lookupClass(), bytes.length);
+    }
+    return theClassLookup;
+  }
 
-      final byte[] bytes = cw.toByteArray();
-      final MethodHandles.Lookup theClassLookup;
-      final Class<?> theClass;
-      // Define the class within the provided lookup
-      if (defineHiddenClass != null) {
-        theClassLookup = doUnchecked(() -> (MethodHandles.Lookup) defineHiddenClass
-          .invokeExact(defineLookup, bytes, true));
-        theClass = theClassLookup.lookupClass();
+  /**
+   * Runs the given supplier while the classes that are defined on the current thread are
+   * recorded in the given {@link LambdaScope}.
+   *
+   * @param scope    The scope, or null if the classes shouldn't be recorded
+   * @param supplier The supplier
+   * @param <T>      The type of the result
+   * @return The result
+   */
+  static <T> T withScope(
+    final @Nullable LambdaScope scope,
+    final @NonNull Supplier<T> supplier
+  ) {
+    final LambdaScope previous = currentScope.get();
+    if (scope == previous) {
+      return supplier.get();
+    }
+    currentScope.set(scope);
+    try {
+      return supplier.get();
+    } finally {
+      if (previous == null) {
+        currentScope.remove();
       } else {
-        theClass = doUnchecked(() ->
-          MethodHandlesExtensions.defineClass(defineLookup, bytes));
-        theClassLookup = defineLookup.in(theClass);
+        currentScope.set(previous);
       }
-
-      // Instantiate the function object
-      return doUnchecked(() -> (T) theClassLookup
-        .findConstructor(theClass, MethodType.methodType(void.class)).invoke());
-    } finally {
-      // Cleanup
-      currentMethodHandle.remove();
     }
   }
 
+  /**
+   * Instantiates the function object of the function class.
+   *
+   * @param theClassLookup The lookup of the function class
+   * @param <T>            The function type
+   * @return The function object
+   */
+  @SuppressWarnings("unchecked")
+  private static <@NonNull T> T newInstance(final MethodHandles.@NonNull Lookup theClassLookup) {
+    final Class<?> theClass = theClassLookup.lookupClass();
+    return doUnchecked(() -> (T) theClassLookup
+      .findConstructor(theClass, MethodType.methodType(void.class)).invoke());
+  }
+
   private InternalLambdaFactory() {
   }
 }
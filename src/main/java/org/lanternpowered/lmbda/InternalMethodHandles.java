@@ -12,6 +12,7 @@
 import static java.util.Objects.requireNonNull;
 import static org.lanternpowered.lmbda.InternalUtilities.doUnchecked;
 import static org.lanternpowered.lmbda.InternalUtilities.getPackageName;
+import static org.lanternpowered.lmbda.InternalUtilities.isSamePackage;
 import static org.lanternpowered.lmbda.InternalUtilities.throwUnchecked;
 
 import org.checkerframework.checker.nullness.qual.NonNull;
@@ -25,6 +26,9 @@
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.security.ProtectionDomain;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
 
 /**
  * Internal method handles.
@@ -79,8 +83,76 @@ interface Adapter {
       final MethodHandles.@NonNull Lookup lookup,
       final byte @NonNull [] byteCode
     ) throws IllegalAccessException;
+
+    /**
+     * Gets whether the target class is accessible for classes that are defined within the
+     * runtime package of the {@link java.lang.invoke.MethodHandles.Lookup}'s lookup class.
+     * The class must also be visible to the class loader of the lookup class, see
+     * {@link #isVisible(MethodHandles.Lookup, Class)}.
+     *
+     * @param lookup      The lookup
+     * @param targetClass The target class
+     * @return Whether the target class is accessible
+     */
+    boolean isAccessible(
+      final MethodHandles.@NonNull Lookup lookup,
+      final @NonNull Class<?> targetClass
+    );
   }
 
+  /**
+   * Gets the class that determines the access of the given class, the element type of array
+   * types.
+   *
+   * @param targetClass The target class
+   * @return The class that determines the access
+   */
+  private static @NonNull Class<?> getAccessClass(@NonNull Class<?> targetClass) {
+    while (targetClass.isArray()) {
+      targetClass = targetClass.getComponentType();
+    }
+    return targetClass;
+  }
+
+  /**
+   * Gets whether the name of the target class resolves to the same class from within classes
+   * that are defined by the {@link java.lang.invoke.MethodHandles.Lookup}'s class loader, which
+   * is required to reference the class from generated bytecode.
+   *
+   * @param lookup      The lookup
+   * @param targetClass The target class
+   * @return Whether the target class is visible
+   */
+  static boolean isVisible(
+    final MethodHandles.@NonNull Lookup lookup,
+    final @NonNull Class<?> targetClass
+  ) {
+    final Class<?> accessClass = getAccessClass(targetClass);
+    final ClassLoader classLoader = accessClass.getClassLoader();
+    final ClassLoader lookupClassLoader = lookup.lookupClass().getClassLoader();
+    if (classLoader == null || classLoader == lookupClassLoader) {
+      return true;
+    }
+    return visibility.get(accessClass).computeIfAbsent(lookupClassLoader, loader -> {
+      try {
+        return Class.forName(accessClass.getName(), false, loader) == accessClass;
+      } catch (ClassNotFoundException | LinkageError e) {
+        return false;
+      }
+    });
+  }
+
+  /**
+   * The visibility of classes from class loaders, the class loaders are weakly referenced.
+   */
+  private static final @NonNull ClassValue<Map<ClassLoader, Boolean>> visibility =
+    new ClassValue<Map<ClassLoader, Boolean>>() {
+      @Override
+      protected @NonNull Map<ClassLoader, Boolean> computeValue(final @NonNull Class<?> type) {
+        return Collections.synchronizedMap(new WeakHashMap<>());
+      }
+    };
+
   /**
    * Checks whether Java 9 or newer is available.
    *
@@ -107,18 +179,63 @@ private static boolean isJava9Available() {
   /**
    * Searches for the defineHiddenClass method. Introduces in java 15.
    *
+   * @param options The names of the class options that should be applied to the defined classes
    * @return The method handle
    */
-  static @Nullable MethodHandle findDefineHiddenClassMethodHandle() {
+  static @Nullable MethodHandle findDefineHiddenClassMethodHandle(
+    final @NonNull String @NonNull ... options
+  ) {
     try {
       final Class<?> classOption = Class.forName(
         "java.lang.invoke.MethodHandles$Lookup$ClassOption");
-      final Object emptyOptionArray = Array.newInstance(classOption, 0);
+      final Object optionArray = toClassOptionArray(classOption, options);
       final MethodType methodType = MethodType.methodType(MethodHandles.Lookup.class,
-        byte[].class, boolean.class, emptyOptionArray.getClass());
+        byte[].class, boolean.class, optionArray.getClass());
       final MethodHandle methodHandle = MethodHandles.publicLookup().findVirtual(
         MethodHandles.Lookup.class, "defineHiddenClass", methodType);
-      return MethodHandles.insertArguments(methodHandle, 3, emptyOptionArray);
+      return MethodHandles.insertArguments(methodHandle, 3, optionArray);
+    } catch (ClassNotFoundException | IllegalAccessException | NoSuchMethodException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Converts the given class option names into an array of class options.
+   *
+   * @param classOption The class option enum class
+   * @param options     The names of the class options
+   * @return The class option array
+   */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static @NonNull Object toClassOptionArray(
+    final @NonNull Class<?> classOption,
+    final @NonNull String @NonNull [] options
+  ) {
+    final Object optionArray = Array.newInstance(classOption, options.length);
+    for (int i = 0; i < options.length; i++) {
+      Array.set(optionArray, i, Enum.valueOf((Class) classOption, options[i]));
+    }
+    return optionArray;
+  }
+
+  /**
+   * Searches for the defineHiddenClassWithClassData method. Introduces in java 16.
+   *
+   * @param options The names of the class options that should be applied to the defined classes
+   * @return The method handle
+   */
+  static @Nullable MethodHandle findDefineHiddenClassWithClassDataMethodHandle(
+    final @NonNull String @NonNull ... options
+  ) {
+    try {
+      final Class<?> classOption = Class.forName(
+        "java.lang.invoke.MethodHandles$Lookup$ClassOption");
+      final Object optionArray = toClassOptionArray(classOption, options);
+      final MethodType methodType = MethodType.methodType(MethodHandles.Lookup.class,
+        byte[].class, Object.class, boolean.class, optionArray.getClass());
+      final MethodHandle methodHandle = MethodHandles.publicLookup().findVirtual(
+        MethodHandles.Lookup.class, "defineHiddenClassWithClassData", methodType);
+      return MethodHandles.insertArguments(methodHandle, 4, optionArray);
     } catch (ClassNotFoundException | IllegalAccessException | NoSuchMethodException e) {
       return null;
     }
@@ -135,6 +252,19 @@ private static final class Java9Adapter implements Adapter {
     private static final @NonNull MethodHandle defineClassMethodHandle =
       getDefineClassMethodHandle();
 
+    private static final @NonNull MethodHandle accessClassMethodHandle =
+      getAccessClassMethodHandle();
+
+    /**
+     * Gets the {@code accessClass} method. Which is available since Java 9.
+     *
+     * @return The method handle of the access class method
+     */
+    private static @NonNull MethodHandle getAccessClassMethodHandle() {
+      return doUnchecked(() -> MethodHandles.publicLookup().findVirtual(MethodHandles.Lookup.class,
+        "accessClass", MethodType.methodType(Class.class, Class.class)));
+    }
+
     /**
      * Gets the {@code defineClass} method. Which is available since Java 9.
      *
@@ -161,6 +291,25 @@ private static final class Java9Adapter implements Adapter {
     ) {
       return doUnchecked(() -> (Class<?>) defineClassMethodHandle.invoke(lookup, byteCode));
     }
+
+    @Override
+    public boolean isAccessible(
+      final MethodHandles.@NonNull Lookup lookup,
+      final @NonNull Class<?> targetClass
+    ) {
+      final Class<?> accessClass = getAccessClass(targetClass);
+      if (accessClass.isPrimitive()) {
+        return true;
+      }
+      try {
+        accessClassMethodHandle.invoke(lookup, accessClass);
+        return isVisible(lookup, accessClass);
+      } catch (IllegalAccessException e) {
+        return false;
+      } catch (Throwable t) {
+        throw throwUnchecked(t);
+      }
+    }
   }
 
   /**
@@ -268,5 +417,22 @@ private static final class Java8Adapter implements Adapter {
       return doUnchecked(() -> (Class<?>) defineClassMethodHandle.invoke(classLoader,
         className, byteCode, 0, byteCode.length, protectionDomain));
     }
+
+    @Override
+    public boolean isAccessible(
+      final MethodHandles.@NonNull Lookup lookup,
+      final @NonNull Class<?> targetClass
+    ) {
+      final Class<?> accessClass = getAccessClass(targetClass);
+      if (accessClass.isPrimitive()) {
+        return true;
+      }
+      if (Modifier.isPublic(accessClass.getModifiers())) {
+        return isVisible(lookup, accessClass);
+      }
+      return (lookup.lookupModes() & MethodHandles.Lookup.PACKAGE) != 0 &&
+        !Modifier.isPrivate(accessClass.getModifiers()) &&
+        isSamePackage(accessClass, lookup.lookupClass());
+    }
   }
 }
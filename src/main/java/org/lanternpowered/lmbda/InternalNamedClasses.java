@@ -0,0 +1,126 @@
+/*
+ * Lmbda
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) contributors
+ *
+ * This work is licensed under the terms of the MIT License (MIT). For
+ * a copy, see 'LICENSE.txt' or <https://opensource.org/licenses/MIT>.
+ */
+package org.lanternpowered.lmbda;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Utilities for the named function classes of {@link DefinitionStrategy#NAMED}.
+ */
+final class InternalNamedClasses {
+
+  /**
+   * The system property which can be used to set the output directory.
+   */
+  static final String OUTPUT_DIRECTORY_PROPERTY =
+    "org.lanternpowered.lmbda.namedClassOutputDirectory";
+
+  private static volatile @Nullable Path outputDirectory;
+
+  static {
+    final String property = System.getProperty(OUTPUT_DIRECTORY_PROPERTY);
+    if (property != null && !property.isEmpty()) {
+      outputDirectory = Paths.get(property);
+    }
+  }
+
+  /**
+   * Sets the directory to which the named classes will be exported.
+   *
+   * @param directory The directory, or null to disable exporting
+   */
+  static void setOutputDirectory(final @Nullable Path directory) {
+    outputDirectory = directory;
+  }
+
+  /**
+   * Gets the directory to which the named classes will be exported.
+   *
+   * @return The directory, or null if exporting is disabled
+   */
+  static @Nullable Path getOutputDirectory() {
+    return outputDirectory;
+  }
+
+  /**
+   * Gets the suffix that is appended to the names of named classes, which is derived from the
+   * key that describes the bytecode and the version of the generator. Classes with the same name
+   * will always have compatible bytecode this way.
+   *
+   * @param bytecodeKey The key which describes the bytecode
+   * @return The suffix
+   */
+  static @NonNull String getNameSuffix(final @NonNull String bytecodeKey) {
+    final String version = InternalBytecodeCache.getGeneratorVersion();
+    final String key = version == null ? bytecodeKey : version + ";" + bytecodeKey;
+    return InternalBytecodeCache.hash(key.getBytes(StandardCharsets.UTF_8)).substring(0, 8);
+  }
+
+  /**
+   * Attempts to find an existing class with the given name that can be loaded by the class
+   * loader of the define lookup, within the same runtime package.
+   *
+   * @param defineLookup      The define lookup
+   * @param internalClassName The internal class name
+   * @return The class, or null if not found
+   */
+  static @Nullable Class<?> findExisting(
+    final MethodHandles.@NonNull Lookup defineLookup,
+    final @NonNull String internalClassName
+  ) {
+    final ClassLoader classLoader = defineLookup.lookupClass().getClassLoader();
+    final Class<?> theClass;
+    try {
+      theClass = Class.forName(internalClassName.replace('/', '.'), false, classLoader);
+    } catch (ClassNotFoundException | LinkageError e) {
+      return null;
+    }
+    return theClass.getClassLoader() == classLoader ? theClass : null;
+  }
+
+  /**
+   * Exports the bytecode of a named class to the output directory, if set. Failures are
+   * ignored, exporting is only an optimization for following runs.
+   *
+   * @param internalClassName The internal class name
+   * @param bytes             The bytecode
+   */
+  static void export(final @NonNull String internalClassName, final byte @NonNull [] bytes) {
+    final Path directory = outputDirectory;
+    if (directory == null) {
+      return;
+    }
+    final Path file = directory.resolve(internalClassName + ".class");
+    try {
+      Files.createDirectories(file.getParent());
+      final Path tempFile = Files.createTempFile(file.getParent(),
+        file.getFileName().toString(), ".tmp");
+      try {
+        Files.write(tempFile, bytes);
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+      } finally {
+        Files.deleteIfExists(tempFile);
+      }
+    } catch (IOException ignored) {
+    }
+  }
+
+  private InternalNamedClasses() {
+  }
+}
@@ -26,6 +26,21 @@ final class InternalUtilities {
     Class.class, ParameterizedType.class, GenericArrayType.class, WildcardType.class,
     TypeVariable.class);
 
+  private static final @NonNull ClassValue<@NonNull String> packageNames =
+    new ClassValue<@NonNull String>() {
+      @Override
+      protected @NonNull String computeValue(final @NonNull Class<?> type) {
+        Class<?> target = type;
+        while (target.isArray()) {
+          target = target.getComponentType();
+        }
+        if (target.isPrimitive()) {
+          return "java.lang";
+        }
+        return getPackageName(target.getName());
+      }
+    };
+
   /**
    * Gets a readable class name to the given {@link Type}.
    *
@@ -40,20 +55,13 @@ final class InternalUtilities {
   }
 
   /**
-   * Gets the package name for the given {@link Class}.
+   * Gets the package name for the given {@link Class}. The package names are cached per class.
    *
    * @param theClass The class to get the package for
    * @return The package name
    */
   static @NonNull String getPackageName(@NonNull Class<?> theClass) {
-    Class<?> target = theClass;
-    while (target.isArray()) {
-      target = target.getComponentType();
-    }
-    if (target.isPrimitive()) {
-      return "java.lang";
-    }
-    return getPackageName(target.getName());
+    return packageNames.get(theClass);
   }
 
   /**
@@ -67,6 +75,19 @@ final class InternalUtilities {
     return index == -1 ? "" : className.substring(0, index);
   }
 
+  /**
+   * Gets whether the given classes are located in the same runtime package, which means that
+   * they are in the same package and defined by the same {@link ClassLoader}.
+   *
+   * @param class1 The first class
+   * @param class2 The second class
+   * @return Whether the classes are in the same runtime package
+   */
+  static boolean isSamePackage(@NonNull Class<?> class1, @NonNull Class<?> class2) {
+    return class1.getClassLoader() == class2.getClassLoader() &&
+      getPackageName(class1).equals(getPackageName(class2));
+  }
+
   /**
    * Performs a unchecked action.
    *
@@ -10,8 +10,16 @@
 package org.lanternpowered.lmbda;
 
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.BiPredicate;
@@ -62,6 +70,13 @@
 @SuppressWarnings({"unchecked", "rawtypes"})
 public final class LambdaFactory {
 
+  /**
+   * The amount of invocations after which a tiered lambda will be promoted by default.
+   *
+   * @see #createTiered(LambdaType, MethodHandle)
+   */
+  public static final int DEFAULT_TIERED_THRESHOLD = 10000;
+
   // Supplier
 
   private static final LambdaType<Supplier> supplierInterface =
@@ -808,6 +823,396 @@ public final class LambdaFactory {
     return InternalLambdaFactory.create(lambdaType, methodHandle);
   }
 
+  /**
+   * Attempts to create a lambda for the given {@link MethodHandle} implementing the
+   * {@link LambdaType}, with captured values for the leading parameters of the method handle.
+   *
+   * <p>Unlike binding the values to the method handle before creating the lambda, the captured
+   * values are stored in final instance fields. Only one class will be generated for the
+   * {@link LambdaType} and method handle, which is shared between all the captured values, the
+   * same way as {@link java.lang.invoke.LambdaMetafactory} captures values.</p>
+   *
+   * <p>This method can also throw a {@link IllegalAccessException} if the default or provided
+   * {@link java.lang.invoke.MethodHandles.Lookup} doesn't have proper access to implement the
+   * {@link LambdaType}. This exception is thrown as an unchecked exception for convenience.</p>
+   *
+   * @param lambdaType   The lambda type to implement
+   * @param methodHandle The method handle that will be executed by the functional interface
+   * @param captures     The values of the leading parameters of the method handle
+   * @param <T>          The functional interface type
+   * @return The constructed function
+   * @throws IllegalArgumentException If the captured values don't match the parameters of the
+   *                                  method handle
+   * @see #create(LambdaType, MethodHandle)
+   */
+  public static <@NonNull T> T create(
+    final @NonNull LambdaType<T> lambdaType,
+    final @NonNull MethodHandle methodHandle,
+    final @Nullable Object @NonNull ... captures
+  ) {
+    return InternalLambdaFactory.create(lambdaType, methodHandle, captures);
+  }
+
+  /**
+   * Attempts to create a lambda for the given {@link MethodHandle} implementing the
+   * {@link LambdaType}, with constant values for the leading parameters of the method handle.
+   *
+   * <p>Unlike {@link #create(LambdaType, MethodHandle, Object...)}, the values are stored as
+   * constants within the generated class, which allows the JIT compiler to fold them. This is
+   * useful for values which will never change, like enum constants and singleton objects. A new
+   * class will be generated for every call.</p>
+   *
+   * <p>This method can also throw a {@link IllegalAccessException} if the default or provided
+   * {@link java.lang.invoke.MethodHandles.Lookup} doesn't have proper access to implement the
+   * {@link LambdaType}. This exception is thrown as an unchecked exception for convenience.</p>
+   *
+   * @param lambdaType   The lambda type to implement
+   * @param methodHandle The method handle that will be executed by the functional interface
+   * @param constants    The values of the leading parameters of the method handle
+   * @param <T>          The functional interface type
+   * @return The constructed function
+   * @throws IllegalArgumentException If the constants don't match the parameters of the
+   *                                  method handle
+   * @see #create(LambdaType, MethodHandle, Object...)
+   */
+  public static <@NonNull T> T createWithConstants(
+    final @NonNull LambdaType<T> lambdaType,
+    final @NonNull MethodHandle methodHandle,
+    final @Nullable Object @NonNull ... constants
+  ) {
+    return InternalLambdaFactory.createWithConstants(lambdaType, methodHandle, constants);
+  }
+
+  /**
+   * Prepares a factory which can be used to create lambdas for {@link MethodHandle}s of the
+   * given {@link MethodType}, implementing the {@link LambdaType}.
+   *
+   * <p>This is useful when many lambdas with the same shape need to be created, access checks
+   * and bytecode generation will only be done once.</p>
+   *
+   * <p>This method can also throw a {@link IllegalAccessException} if the default or provided
+   * {@link java.lang.invoke.MethodHandles.Lookup} doesn't have proper access to implement the
+   * {@link LambdaType}. This exception is thrown as an unchecked exception for convenience.</p>
+   *
+   * @param lambdaType The lambda type to implement
+   * @param methodType The method type of the method handles that will be used
+   * @param <T>        The functional interface type
+   * @return The prepared lambda factory
+   * @see #create(LambdaType, MethodHandle)
+   */
+  public static <@NonNull T> @NonNull PreparedLambdaFactory<T> prepare(
+    final @NonNull LambdaType<T> lambdaType,
+    final @NonNull MethodType methodType
+  ) {
+    return InternalLambdaFactory.prepare(lambdaType, methodType);
+  }
+
+  /**
+   * Attempts to create a lambda for the given {@link MethodHandle} implementing the
+   * {@link LambdaType}, using a generated class which is shared between all the method handles
+   * of the same type.
+   *
+   * <p>Unlike {@link #create(LambdaType, MethodHandle)}, the method handle is stored in a final
+   * instance field instead of a constant, so only one class is generated for every
+   * {@link LambdaType} and method type. This reduces the memory used by the generated classes
+   * when many lambdas are created, at the cost of slower invocations, because the method handle
+   * can't be inlined as constant by the JIT compiler.</p>
+   *
+   * @param lambdaType   The lambda type to implement
+   * @param methodHandle The method handle that will be executed by the functional interface
+   * @param <T>          The functional interface type
+   * @return The constructed function
+   * @see #create(LambdaType, MethodHandle)
+   */
+  public static <@NonNull T> T createShared(
+    final @NonNull LambdaType<T> lambdaType,
+    final @NonNull MethodHandle methodHandle
+  ) {
+    return InternalLambdaFactory.createShared(lambdaType, methodHandle);
+  }
+
+  /**
+   * Attempts to create a tiered lambda for the given {@link MethodHandle} implementing the
+   * {@link LambdaType}, which will be promoted after {@value #DEFAULT_TIERED_THRESHOLD}
+   * invocations.
+   *
+   * @param lambdaType   The lambda type to implement
+   * @param methodHandle The method handle that will be executed by the functional interface
+   * @param <T>          The functional interface type
+   * @return The constructed function
+   * @see #createTiered(LambdaType, MethodHandle, int)
+   */
+  public static <@NonNull T> T createTiered(
+    final @NonNull LambdaType<T> lambdaType,
+    final @NonNull MethodHandle methodHandle
+  ) {
+    return InternalLambdaFactory.createTiered(lambdaType, methodHandle, DEFAULT_TIERED_THRESHOLD);
+  }
+
+  /**
+   * Attempts to create a tiered lambda for the given {@link MethodHandle} implementing the
+   * {@link LambdaType}.
+   *
+   * <p>A tiered lambda starts as a shared lambda, see
+   * {@link #createShared(LambdaType, MethodHandle)}, which is cheap to create. Once the function
+   * is invoked as many times as the given threshold, a dedicated function class is created like
+   * {@link #create(LambdaType, MethodHandle)} would, to which all the following invocations will
+   * be delegated. This way only the functions that are frequently used pay the cost of a
+   * dedicated class.</p>
+   *
+   * <p>Every tiered lambda invokes the method handle through its own call site, which is relinked
+   * to the dedicated function once promoted, so the promoted functions don't share a single
+   * polymorphic invocation. If the dedicated function couldn't be created, the lambda keeps
+   * invoking the method handle.</p>
+   *
+   * <p>A promoted function is still invoked through the method handle of the shared class, which
+   * delegates to the dedicated function. The JIT compiler can only inline this chain if the
+   * tiered lambda is a constant, e.g. stored in a static final field. Otherwise, the invocations
+   * remain slower than those of a function created by {@link #create(LambdaType, MethodHandle)},
+   * which should be used instead for hot functions that aren't constants.</p>
+   *
+   * @param lambdaType   The lambda type to implement
+   * @param methodHandle The method handle that will be executed by the functional interface
+   * @param threshold    The amount of invocations after which the function will be promoted
+   * @param <T>          The functional interface type
+   * @return The constructed function
+   * @see #createShared(LambdaType, MethodHandle)
+   */
+  public static <@NonNull T> T createTiered(
+    final @NonNull LambdaType<T> lambdaType,
+    final @NonNull MethodHandle methodHandle,
+    final int threshold
+  ) {
+    return InternalLambdaFactory.createTiered(lambdaType, methodHandle, threshold);
+  }
+
+  /**
+   * Attempts to create a lazy lambda for the given {@link MethodHandle} implementing the
+   * {@link LambdaType}.
+   *
+   * <p>The dedicated function class, like {@link #create(LambdaType, MethodHandle)} would
+   * create, is only generated and defined when the function is invoked for the first time. All
+   * the following invocations will be delegated to it. This avoids the cost of the class for
+   * functions that are never used. Until then, the function only requires a class that is
+   * shared between all the method handles of the same type, like
+   * {@link #createTiered(LambdaType, MethodHandle, int)}.</p>
+   *
+   * <p>Like a promoted tiered lambda, the dedicated function is invoked through the method handle
+   * of the shared class, which can only be inlined by the JIT compiler if the lazy lambda is a
+   * constant.</p>
+   *
+   * @param lambdaType   The lambda type to implement
+   * @param methodHandle The method handle that will be executed by the functional interface
+   * @param <T>          The functional interface type
+   * @return The constructed function
+   * @see #createTiered(LambdaType, MethodHandle, int)
+   */
+  public static <@NonNull T> T createLazy(
+    final @NonNull LambdaType<T> lambdaType,
+    final @NonNull MethodHandle methodHandle
+  ) {
+    return InternalLambdaFactory.createLazy(lambdaType, methodHandle);
+  }
+
+  /**
+   * Attempts to create lambdas for all the given {@link LambdaRequest}s.
+   *
+   * <p>This is faster than calling {@link #create(LambdaType, MethodHandle)} for every request,
+   * access checks are only done once per {@link LambdaType}, the generated bytecode is shared
+   * between requests of the same shape where possible and large batches are defined in
+   * parallel.</p>
+   *
+   * @param requests The lambda requests
+   * @return The constructed functions, in the same order as the requests
+   * @see #create(LambdaType, MethodHandle)
+   */
+  public static @NonNull List<Object> createAll(
+    final @NonNull Collection<? extends LambdaRequest<?>> requests
+  ) {
+    return InternalLambdaFactory.createAll(requests);
+  }
+
+  /**
+   * Attempts to create lambdas for all the given {@link MethodHandle}s implementing the
+   * {@link LambdaType}.
+   *
+   * @param lambdaType    The lambda type to implement
+   * @param methodHandles The method handles that will be executed by the functional interfaces
+   * @param <T>           The functional interface type
+   * @return The constructed functions, in the same order as the method handles
+   * @see #createAll(Collection)
+   */
+  @SuppressWarnings("unchecked")
+  public static <@NonNull T> @NonNull List<T> createAll(
+    final @NonNull LambdaType<T> lambdaType,
+    final @NonNull Collection<? extends MethodHandle> methodHandles
+  ) {
+    final LambdaRequest<?>[] requests = methodHandles.stream()
+      .map(methodHandle -> LambdaRequest.of(lambdaType, methodHandle))
+      .toArray(LambdaRequest<?>[]::new);
+    return (List<T>) InternalLambdaFactory.createAll(Arrays.asList(requests));
+  }
+
+  /**
+   * Creates a lambda for the given {@link MethodHandle} implementing the {@link LambdaType} in
+   * the background, using the given {@link Executor}.
+   *
+   * <p>This allows the generation and definition of the function class to overlap with other
+   * work. If the lambda couldn't be created, the future will complete exceptionally.</p>
+   *
+   * @param lambdaType   The lambda type to implement
+   * @param methodHandle The method handle that will be executed by the functional interface
+   * @param executor     The executor that will create the lambda
+   * @param <T>          The functional interface type
+   * @return The future of the constructed function
+   * @see #create(LambdaType, MethodHandle)
+   */
+  public static <@NonNull T> @NonNull CompletableFuture<T> createAsync(
+    final @NonNull LambdaType<T> lambdaType,
+    final @NonNull MethodHandle methodHandle,
+    final @NonNull Executor executor
+  ) {
+    return InternalLambdaFactory.createAsync(lambdaType, methodHandle, executor);
+  }
+
+  /**
+   * Creates lambdas for all the given {@link LambdaRequest}s in the background, using the given
+   * {@link Executor}.
+   *
+   * <p>The requests represent a plan of all the lambdas which will be needed, which can be
+   * created while other work is done. If any of the lambdas couldn't be created, the future
+   * will complete exceptionally.</p>
+   *
+   * @param requests The lambda requests
+   * @param executor The executor that will create the lambdas
+   * @return The future of the constructed functions, in the same order as the requests
+   * @see #createAll(Collection)
+   */
+  public static @NonNull CompletableFuture<List<Object>> createAllAsync(
+    final @NonNull Collection<? extends LambdaRequest<?>> requests,
+    final @NonNull Executor executor
+  ) {
+    return InternalLambdaFactory.createAllAsync(requests, executor);
+  }
+
+  /**
+   * Attempts to create a lambda for the given {@link MethodHandle} implementing the
+   * {@link LambdaType}, which can be used immediately while its dedicated function class is
+   * created in the background, using the given {@link Executor}.
+   *
+   * <p>Until the dedicated function is available, the returned function behaves like a tiered
+   * function, see {@link #createTiered(LambdaType, MethodHandle, int)}, which invokes the method
+   * handle from an instance field. Once available, all the following invocations will be
+   * delegated to the dedicated function. If the dedicated function couldn't be created, the
+   * slower implementation will be kept.</p>
+   *
+   * <p>The class of the interim function is shared between all the method handles of the same
+   * type, so only the first function of a specific type has to generate a class.</p>
+   *
+   * @param lambdaType   The lambda type to implement
+   * @param methodHandle The method handle that will be executed by the functional interface
+   * @param executor     The executor that will create the dedicated function
+   * @param <T>          The functional interface type
+   * @return The constructed function
+   * @see #createAsync(LambdaType, MethodHandle, Executor)
+   */
+  public static <@NonNull T> T createInterim(
+    final @NonNull LambdaType<T> lambdaType,
+    final @NonNull MethodHandle methodHandle,
+    final @NonNull Executor executor
+  ) {
+    return InternalLambdaFactory.createInterim(lambdaType, methodHandle, executor);
+  }
+
+  /**
+   * Attempts to get or create a lambda for the given {@link MethodHandle} implementing the
+   * {@link LambdaType}.
+   *
+   * <p>Unlike {@link #create(LambdaType, MethodHandle)}, will the same function instance be
+   * returned for an equal {@link LambdaType} (including its define lookup) and the same
+   * {@link MethodHandle} instance, as long as the function is still reachable. The cache only
+   * holds weak references to method handles and functions, so the generated classes can still
+   * be unloaded.</p>
+   *
+   * <p>When multiple threads request the same function concurrently, only one of them will
+   * generate and define the function class, the other threads will wait for it and share the
+   * resulting function.</p>
+   *
+   * @param lambdaType   The lambda type to implement
+   * @param methodHandle The method handle that will be executed by the functional interface
+   * @param <T>          The functional interface type
+   * @return The constructed or cached function
+   * @see #create(LambdaType, MethodHandle)
+   */
+  public static <@NonNull T> T createCached(
+    final @NonNull LambdaType<T> lambdaType,
+    final @NonNull MethodHandle methodHandle
+  ) {
+    return InternalLambdaFactory.createCached(lambdaType, methodHandle);
+  }
+
+  /**
+   * Opens a new {@link LambdaScope}. All the classes that are defined for lambdas created through
+   * the scope, or while an action runs within it, see {@link LambdaScope#run(Supplier)}, are
+   * tracked by it, and will be released together when the scope is closed.
+   *
+   * @return The lambda scope
+   * @see LambdaScope
+   */
+  public static @NonNull LambdaScope openScope() {
+    return new LambdaScope();
+  }
+
+  /**
+   * Sets the directory in which the bytecode of generated function classes will be stored, so
+   * that it can be reused after a restart of the JVM instead of generating it again.
+   *
+   * <p>The cache can also be enabled with the
+   * {@code org.lanternpowered.lmbda.bytecodeCacheDirectory} system property. The bytecode is
+   * only cached if hidden classes are supported, which is the case on Java 15 and later.</p>
+   *
+   * @param directory The cache directory, or null to disable the cache
+   */
+  public static void setBytecodeCacheDirectory(final @Nullable Path directory) {
+    InternalBytecodeCache.setDirectory(directory);
+  }
+
+  /**
+   * Gets the directory in which the bytecode of generated function classes will be stored.
+   *
+   * @return The cache directory, or null if the cache is disabled
+   * @see #setBytecodeCacheDirectory(Path)
+   */
+  public static @Nullable Path getBytecodeCacheDirectory() {
+    return InternalBytecodeCache.getDirectory();
+  }
+
+  /**
+   * Sets the directory to which the classes of {@link DefinitionStrategy#NAMED} functions will
+   * be exported when they are defined. Adding the directory to the class path of a following
+   * run allows the classes to be loaded by the application class loader, and to be stored in a
+   * class data sharing archive.
+   *
+   * <p>The directory can also be set with the
+   * {@code org.lanternpowered.lmbda.namedClassOutputDirectory} system property.</p>
+   *
+   * @param directory The output directory, or null to disable exporting
+   */
+  public static void setNamedClassOutputDirectory(final @Nullable Path directory) {
+    InternalNamedClasses.setOutputDirectory(directory);
+  }
+
+  /**
+   * Gets the directory to which the classes of {@link DefinitionStrategy#NAMED} functions will
+   * be exported.
+   *
+   * @return The output directory, or null if exporting is disabled
+   * @see #setNamedClassOutputDirectory(Path)
+   */
+  public static @Nullable Path getNamedClassOutputDirectory() {
+    return InternalNamedClasses.getOutputDirectory();
+  }
+
   private LambdaFactory() {
   }
 }
@@ -0,0 +1,382 @@
+/*
+ * Lmbda
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) contributors
+ *
+ * This work is licensed under the terms of the MIT License (MIT). For
+ * a copy, see 'LICENSE.txt' or <https://opensource.org/licenses/MIT>.
+ */
+package org.lanternpowered.lmbda;
+
+import static java.util.Objects.requireNonNull;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandleInfo;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A manifest of lambdas which were created during a run of the application, which can be used to
+ * generate the same lambdas in a single parallel phase at the next startup.
+ *
+ * <p>Only lambdas of which the method handle directly targets a field, method or constructor
+ * can be recorded. Each entry consists of the function class, the target member and the class
+ * of the define lookup. When the manifest is replayed, the function classes are generated and
+ * defined in parallel, after which {@link LambdaFactory#create(LambdaType, MethodHandle)} will
+ * use them for matching lambda types and method handles instead of generating new ones.</p>
+ *
+ * <p>The pre-generated classes are shared between lambda types with the same function class,
+ * so the generic signature of a parameterized {@link LambdaType} isn't retained by them.</p>
+ */
+public final class LambdaManifest {
+
+  /**
+   * The manifest that is currently recording, if any.
+   */
+  private static final @NonNull AtomicReference<@Nullable LambdaManifest> recording =
+    new AtomicReference<>();
+
+  /**
+   * The name which is written instead of the define lookup class for lambdas which were
+   * defined with the default define lookup.
+   */
+  private static final String DEFAULT_DEFINE_LOOKUP = "-";
+
+  /**
+   * Starts recording all the lambdas which are created from now on in a new manifest. Only one
+   * manifest can be recording at the same time.
+   *
+   * @return The recording manifest
+   * @throws IllegalStateException If another manifest is already recording
+   */
+  public static @NonNull LambdaManifest startRecording() {
+    final LambdaManifest manifest = new LambdaManifest();
+    if (!recording.compareAndSet(null, manifest)) {
+      throw new IllegalStateException("Another manifest is already recording.");
+    }
+    return manifest;
+  }
+
+  /**
+   * Reads a manifest from the given file.
+   *
+   * @param path The path of the file
+   * @return The manifest
+   * @throws IOException If an I/O error occurred or the file isn't a valid manifest
+   */
+  public static @NonNull LambdaManifest read(final @NonNull Path path) throws IOException {
+    requireNonNull(path, "path");
+    try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+      return read(reader);
+    }
+  }
+
+  /**
+   * Reads a manifest from the given {@link Reader}.
+   *
+   * @param reader The reader
+   * @return The manifest
+   * @throws IOException If an I/O error occurred or the content isn't a valid manifest
+   */
+  public static @NonNull LambdaManifest read(final @NonNull Reader reader) throws IOException {
+    requireNonNull(reader, "reader");
+    final LambdaManifest manifest = new LambdaManifest();
+    final BufferedReader bufferedReader = reader instanceof BufferedReader ?
+      (BufferedReader) reader : new BufferedReader(reader);
+    String line;
+    while ((line = bufferedReader.readLine()) != null) {
+      line = line.trim();
+      if (line.isEmpty() || line.startsWith("#")) {
+        continue;
+      }
+      manifest.entries.add(Entry.parse(line));
+    }
+    return manifest;
+  }
+
+  /**
+   * Gets the manifest that is currently recording.
+   *
+   * @return The recording manifest, or null if none
+   */
+  static @Nullable LambdaManifest getRecording() {
+    return recording.get();
+  }
+
+  private final @NonNull Set<Entry> entries = ConcurrentHashMap.newKeySet();
+
+  private LambdaManifest() {
+  }
+
+  /**
+   * Stops recording lambdas, if this manifest is the one that's recording.
+   */
+  public void stopRecording() {
+    recording.compareAndSet(this, null);
+  }
+
+  /**
+   * Gets the amount of lambdas in this manifest.
+   *
+   * @return The amount of lambdas
+   */
+  public int size() {
+    return this.entries.size();
+  }
+
+  /**
+   * Records a lambda that directly targets the given member.
+   *
+   * @param functionClass     The function class
+   * @param defineLookupClass The class of the define lookup, or null for the default one
+   * @param target            The target member
+   */
+  void record(
+    final @NonNull Class<?> functionClass,
+    final @Nullable Class<?> defineLookupClass,
+    final @NonNull MethodHandleInfo target
+  ) {
+    this.entries.add(new Entry(functionClass.getName(),
+      defineLookupClass == null ? DEFAULT_DEFINE_LOOKUP : defineLookupClass.getName(),
+      target.getReferenceKind(), target.getDeclaringClass().getName(), target.getName(),
+      target.getMethodType().toMethodDescriptorString()));
+  }
+
+  /**
+   * Writes this manifest to the given file.
+   *
+   * @param path The path of the file
+   * @throws IOException If an I/O error occurred
+   */
+  public void write(final @NonNull Path path) throws IOException {
+    requireNonNull(path, "path");
+    try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+      write(writer);
+    }
+  }
+
+  /**
+   * Writes this manifest to the given {@link Writer}. The entries are sorted, so the same
+   * lambdas always result in the same manifest.
+   *
+   * @param writer The writer
+   * @throws IOException If an I/O error occurred
+   */
+  public void write(final @NonNull Writer writer) throws IOException {
+    requireNonNull(writer, "writer");
+    final List<String> lines = new ArrayList<>();
+    for (final Entry entry : this.entries) {
+      lines.add(entry.toString());
+    }
+    lines.sort(Comparator.naturalOrder());
+    final BufferedWriter bufferedWriter = writer instanceof BufferedWriter ?
+      (BufferedWriter) writer : new BufferedWriter(writer);
+    bufferedWriter.write("# Lmbda manifest");
+    bufferedWriter.newLine();
+    for (final String line : lines) {
+      bufferedWriter.write(line);
+      bufferedWriter.newLine();
+    }
+    bufferedWriter.flush();
+  }
+
+  /**
+   * Generates and defines the function classes of all the lambdas in this manifest in parallel.
+   *
+   * <p>Lambdas which were defined with a custom define lookup, see
+   * {@link LambdaType#defineClassesWith(MethodHandles.Lookup)}, are only generated if a lookup
+   * with the same lookup class is provided. Lambdas of which the classes or target members can
+   * no longer be found, or which are no longer accessible, will be skipped.</p>
+   *
+   * @param classLoader   The class loader to load the function classes and target members with
+   * @param defineLookups The define lookups that were used by lambda types
+   * @return The amount of lambdas of which the classes were generated
+   */
+  public int replay(
+    final @NonNull ClassLoader classLoader,
+    final MethodHandles.@NonNull Lookup @NonNull ... defineLookups
+  ) {
+    requireNonNull(classLoader, "classLoader");
+    requireNonNull(defineLookups, "defineLookups");
+    final Map<String, MethodHandles.Lookup> defineLookupsByName = new HashMap<>();
+    for (final MethodHandles.Lookup defineLookup : defineLookups) {
+      defineLookupsByName.put(defineLookup.lookupClass().getName(), defineLookup);
+    }
+    return (int) this.entries.parallelStream()
+      .filter(entry -> entry.replay(classLoader, defineLookupsByName))
+      .count();
+  }
+
+  @Override
+  public @NonNull String toString() {
+    return "LambdaManifest[size=" + this.entries.size() + "]";
+  }
+
+  /**
+   * Represents a lambda within the manifest.
+   */
+  private static final class Entry {
+
+    private static final String SEPARATOR = "\t";
+
+    /**
+     * Parses the entry from the given line.
+     *
+     * @param line The line
+     * @return The entry
+     * @throws IOException If the line isn't a valid entry
+     */
+    static @NonNull Entry parse(final @NonNull String line) throws IOException {
+      final String[] parts = line.split(SEPARATOR);
+      if (parts.length != 6) {
+        throw new IOException("Invalid manifest entry: " + line);
+      }
+      int referenceKind = -1;
+      for (int kind = MethodHandleInfo.REF_getField;
+           kind <= MethodHandleInfo.REF_invokeInterface; kind++) {
+        if (MethodHandleInfo.referenceKindToString(kind).equals(parts[2])) {
+          referenceKind = kind;
+          break;
+        }
+      }
+      if (referenceKind == -1) {
+        throw new IOException("Invalid reference kind: " + parts[2]);
+      }
+      return new Entry(parts[0], parts[1], referenceKind, parts[3], parts[4], parts[5]);
+    }
+
+    private final @NonNull String functionClass;
+    private final @NonNull String defineLookupClass;
+    private final int referenceKind;
+    private final @NonNull String declaringClass;
+    private final @NonNull String name;
+    private final @NonNull String descriptor;
+
+    Entry(
+      final @NonNull String functionClass,
+      final @NonNull String defineLookupClass,
+      final int referenceKind,
+      final @NonNull String declaringClass,
+      final @NonNull String name,
+      final @NonNull String descriptor
+    ) {
+      this.functionClass = functionClass;
+      this.defineLookupClass = defineLookupClass;
+      this.referenceKind = referenceKind;
+      this.declaringClass = declaringClass;
+      this.name = name;
+      this.descriptor = descriptor;
+    }
+
+    /**
+     * Generates and defines the function class of this entry.
+     *
+     * @param classLoader   The class loader
+     * @param defineLookups The define lookups, mapped by the name of the lookup class
+     * @return Whether the function class was generated
+     */
+    @SuppressWarnings("unchecked")
+    boolean replay(
+      final @NonNull ClassLoader classLoader,
+      final @NonNull Map<String, MethodHandles.Lookup> defineLookups
+    ) {
+      LambdaType<Object> lambdaType;
+      final MethodHandle methodHandle;
+      try {
+        final Class<Object> functionClass =
+          (Class<Object>) Class.forName(this.functionClass, false, classLoader);
+        lambdaType = LambdaType.of(functionClass);
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        if (!this.defineLookupClass.equals(DEFAULT_DEFINE_LOOKUP)) {
+          lookup = defineLookups.get(this.defineLookupClass);
+          if (lookup == null) {
+            return false;
+          }
+          lambdaType = lambdaType.defineClassesWith(lookup);
+        }
+        final Class<?> declaringClass = Class.forName(this.declaringClass, false, classLoader);
+        final MethodType methodType = MethodType.fromMethodDescriptorString(
+          this.descriptor, classLoader);
+        methodHandle = findMember(lookup, declaringClass, methodType);
+      } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+        return false;
+      }
+      return InternalLambdaFactory.pregenerate(lambdaType, methodHandle);
+    }
+
+    private @NonNull MethodHandle findMember(
+      final MethodHandles.@NonNull Lookup lookup,
+      final @NonNull Class<?> declaringClass,
+      final @NonNull MethodType methodType
+    ) throws ReflectiveOperationException {
+      switch (this.referenceKind) {
+        case MethodHandleInfo.REF_getField:
+          return lookup.findGetter(declaringClass, this.name, methodType.returnType());
+        case MethodHandleInfo.REF_getStatic:
+          return lookup.findStaticGetter(declaringClass, this.name, methodType.returnType());
+        case MethodHandleInfo.REF_putField:
+          return lookup.findSetter(declaringClass, this.name, methodType.parameterType(0));
+        case MethodHandleInfo.REF_putStatic:
+          return lookup.findStaticSetter(declaringClass, this.name, methodType.parameterType(0));
+        case MethodHandleInfo.REF_invokeVirtual:
+        case MethodHandleInfo.REF_invokeInterface:
+          return lookup.findVirtual(declaringClass, this.name, methodType);
+        case MethodHandleInfo.REF_invokeStatic:
+          return lookup.findStatic(declaringClass, this.name, methodType);
+        case MethodHandleInfo.REF_newInvokeSpecial:
+          return lookup.findConstructor(declaringClass, methodType);
+        default:
+          throw new IllegalStateException("Unsupported reference kind: " +
+            MethodHandleInfo.referenceKindToString(this.referenceKind));
+      }
+    }
+
+    @Override
+    public boolean equals(final @Nullable Object obj) {
+      if (!(obj instanceof Entry)) {
+        return false;
+      }
+      final Entry that = (Entry) obj;
+      return this.referenceKind == that.referenceKind &&
+        this.functionClass.equals(that.functionClass) &&
+        this.defineLookupClass.equals(that.defineLookupClass) &&
+        this.declaringClass.equals(that.declaringClass) &&
+        this.name.equals(that.name) &&
+        this.descriptor.equals(that.descriptor);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(this.functionClass, this.defineLookupClass, this.referenceKind,
+        this.declaringClass, this.name, this.descriptor);
+    }
+
+    @Override
+    public @NonNull String toString() {
+      return String.join(SEPARATOR, this.functionClass, this.defineLookupClass,
+        MethodHandleInfo.referenceKindToString(this.referenceKind), this.declaringClass,
+        this.name, this.descriptor);
+    }
+  }
+}
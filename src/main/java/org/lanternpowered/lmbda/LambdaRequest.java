@@ -0,0 +1,78 @@
+/*
+ * Lmbda
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) contributors
+ *
+ * This work is licensed under the terms of the MIT License (MIT). For
+ * a copy, see 'LICENSE.txt' or <https://opensource.org/licenses/MIT>.
+ */
+package org.lanternpowered.lmbda;
+
+import static java.util.Objects.requireNonNull;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+import java.lang.invoke.MethodHandle;
+
+/**
+ * Represents a request to create a lambda for a {@link MethodHandle} implementing a
+ * {@link LambdaType}. Used to create many lambdas at once.
+ *
+ * @param <T> The type of the function
+ * @see LambdaFactory#createAll(java.util.Collection)
+ */
+public final class LambdaRequest<@NonNull T> {
+
+  /**
+   * Constructs a new {@link LambdaRequest}.
+   *
+   * @param lambdaType   The lambda type to implement
+   * @param methodHandle The method handle that will be executed by the functional interface
+   * @param <T>          The functional interface type
+   * @return The lambda request
+   */
+  public static <@NonNull T> @NonNull LambdaRequest<T> of(
+    final @NonNull LambdaType<T> lambdaType,
+    final @NonNull MethodHandle methodHandle
+  ) {
+    requireNonNull(lambdaType, "lambdaType");
+    requireNonNull(methodHandle, "methodHandle");
+    return new LambdaRequest<>(lambdaType, methodHandle);
+  }
+
+  final @NonNull LambdaType<T> lambdaType;
+  final @NonNull MethodHandle methodHandle;
+
+  private LambdaRequest(
+    final @NonNull LambdaType<T> lambdaType,
+    final @NonNull MethodHandle methodHandle
+  ) {
+    this.lambdaType = lambdaType;
+    this.methodHandle = methodHandle;
+  }
+
+  /**
+   * Gets the lambda type that will be implemented.
+   *
+   * @return The lambda type
+   */
+  public @NonNull LambdaType<T> getLambdaType() {
+    return this.lambdaType;
+  }
+
+  /**
+   * Gets the method handle that will be executed by the functional interface.
+   *
+   * @return The method handle
+   */
+  public @NonNull MethodHandle getMethodHandle() {
+    return this.methodHandle;
+  }
+
+  @Override
+  public @NonNull String toString() {
+    return String.format("LambdaRequest[lambdaType=%s,methodHandle=%s]",
+      this.lambdaType, this.methodHandle);
+  }
+}
@@ -0,0 +1,362 @@
+/*
+ * Lmbda
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) contributors
+ *
+ * This work is licensed under the terms of the MIT License (MIT). For
+ * a copy, see 'LICENSE.txt' or <https://opensource.org/licenses/MIT>.
+ */
+package org.lanternpowered.lmbda;
+
+import static java.util.Objects.requireNonNull;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.ref.WeakReference;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * A scope in which lambdas can be created, which keeps track of all the classes that were
+ * defined for them. For example, all the lambdas of a plugin can be created through a scope
+ * that lives as long as the plugin.
+ *
+ * <p>All the lambdas that are created by the {@link LambdaFactory} while an action is
+ * {@link #run(Supplier) run} within the scope belong to it, regardless of the kind of lambda.
+ * The scope is also kept for the work that follows from it: asynchronous lambdas are created
+ * within the scope, and tiered and lazy functions are promoted within the scope. The classes
+ * that are normally shared between all the lambdas, like the classes of shared functions and
+ * cached functions, are cached by the scope instead, and functions that were pre-generated from
+ * a {@link LambdaManifest} aren't used.</p>
+ *
+ * <p>The scope holds strong references to its classes, and with that to their target method
+ * handles, until it's closed. Closing the scope drops these references, and all the functions
+ * that were cached by the scope, so that the classes can be unloaded together once the created
+ * functions aren't referenced anymore. Whether this actually happened can be checked with
+ * {@link #getUnloadedClassCount()} or awaited with {@link #awaitUnloading(long, TimeUnit)}.</p>
+ *
+ * <p>Only hidden classes can be unloaded separately from their class loader, see
+ * {@link DefinitionStrategy}. Other classes will only be unloaded together with the class
+ * loader of their define lookup. Classes that were generated at compile time, see
+ * {@link GenerateAccessor}, aren't defined by the scope and aren't tracked.</p>
+ *
+ * @see LambdaFactory#openScope()
+ */
+public final class LambdaScope implements AutoCloseable {
+
+  /**
+   * All the classes that were defined within this scope.
+   */
+  private final @NonNull Queue<ScopedClass> classes = new ConcurrentLinkedQueue<>();
+
+  /**
+   * The functions that were cached within this scope, mapped by lambda type and method handle.
+   */
+  private final @NonNull ConcurrentMap<LambdaType<?>, ConcurrentMap<MethodHandle, Object>> cache =
+    new ConcurrentHashMap<>();
+
+  /**
+   * The constructors of the shared function classes that were defined within this scope, mapped
+   * by their shape.
+   */
+  private final @NonNull ConcurrentMap<Object, MethodHandle> sharedConstructors =
+    new ConcurrentHashMap<>();
+
+  /**
+   * The capturing function classes that were defined within this scope.
+   */
+  final @NonNull InternalLambdaCache capturingCache = new InternalLambdaCache();
+
+  private volatile boolean closed;
+
+  LambdaScope() {
+  }
+
+  /**
+   * Runs the given action within this scope. All the lambdas that are created by the
+   * {@link LambdaFactory} on the current thread while the action runs belong to this scope.
+   *
+   * @param action The action to run
+   * @param <R>    The type of the result
+   * @return The result of the action
+   * @throws IllegalStateException If this scope is closed
+   */
+  public <R> R run(final @NonNull Supplier<R> action) {
+    requireNonNull(action, "action");
+    checkOpen();
+    return InternalLambdaFactory.withScope(this, action);
+  }
+
+  /**
+   * Attempts to create a lambda for the given {@link MethodHandle} within this scope.
+   *
+   * @param lambdaType   The lambda type to implement
+   * @param methodHandle The method handle that will be executed by the functional interface
+   * @param <T>          The functional interface type
+   * @return The constructed function
+   * @throws IllegalStateException If this scope is closed
+   * @see LambdaFactory#create(LambdaType, MethodHandle)
+   */
+  public <@NonNull T> T create(
+    final @NonNull LambdaType<T> lambdaType,
+    final @NonNull MethodHandle methodHandle
+  ) {
+    return run(() -> LambdaFactory.create(lambdaType, methodHandle));
+  }
+
+  /**
+   * Attempts to create lambdas for all the given {@link LambdaRequest}s within this scope.
+   *
+   * @param requests The lambda requests
+   * @return The constructed functions, in the same order as the requests
+   * @throws IllegalStateException If this scope is closed
+   * @see LambdaFactory#createAll(Collection)
+   */
+  public @NonNull List<Object> createAll(
+    final @NonNull Collection<? extends LambdaRequest<?>> requests
+  ) {
+    return run(() -> LambdaFactory.createAll(requests));
+  }
+
+  /**
+   * Attempts to get or create a lambda for the given {@link MethodHandle} within this scope.
+   * The function is cached by this scope until it's closed.
+   *
+   * @param lambdaType   The lambda type to implement
+   * @param methodHandle The method handle that will be executed by the functional interface
+   * @param <T>          The functional interface type
+   * @return The constructed or cached function
+   * @throws IllegalStateException If this scope is closed
+   * @see LambdaFactory#createCached(LambdaType, MethodHandle)
+   */
+  public <@NonNull T> T createCached(
+    final @NonNull LambdaType<T> lambdaType,
+    final @NonNull MethodHandle methodHandle
+  ) {
+    return run(() -> LambdaFactory.createCached(lambdaType, methodHandle));
+  }
+
+  /**
+   * Gets the function that's cached by this scope for the given lambda type and method handle,
+   * or creates and caches a new one using the given factory.
+   *
+   * @param lambdaType   The lambda type
+   * @param methodHandle The method handle
+   * @param factory      The factory to create a new function
+   * @param <T>          The function type
+   * @return The function
+   */
+  @SuppressWarnings("unchecked")
+  <@NonNull T> T getCached(
+    final @NonNull LambdaType<T> lambdaType,
+    final @NonNull MethodHandle methodHandle,
+    final @NonNull Supplier<T> factory
+  ) {
+    checkOpen();
+    // Method handles don't override equals, so they are compared by identity
+    final T function = (T) this.cache.computeIfAbsent(lambdaType,
+      type -> new ConcurrentHashMap<>()).computeIfAbsent(methodHandle, handle -> factory.get());
+    // The scope was closed while the function was being created, don't keep it
+    if (this.closed) {
+      this.cache.clear();
+    }
+    return function;
+  }
+
+  /**
+   * Gets the constructor of the shared function class of the given shape that was defined within
+   * this scope, or defines a new one using the given factory.
+   *
+   * @param shape   The shape of the shared function class
+   * @param factory The factory to define a new shared function class
+   * @return The constructor
+   */
+  @NonNull MethodHandle getSharedConstructor(
+    final @NonNull Object shape,
+    final @NonNull Supplier<MethodHandle> factory
+  ) {
+    checkOpen();
+    final MethodHandle constructor =
+      this.sharedConstructors.computeIfAbsent(shape, key -> factory.get());
+    // The scope was closed while the class was being defined, don't keep it
+    if (this.closed) {
+      this.sharedConstructors.clear();
+    }
+    return constructor;
+  }
+
+  /**
+   * Checks whether this scope is still open.
+   *
+   * @throws IllegalStateException If this scope is closed
+   */
+  void checkOpen() {
+    if (this.closed) {
+      throw new IllegalStateException("The lambda scope is closed.");
+    }
+  }
+
+  /**
+   * Records a class that was defined within this scope.
+   *
+   * @param theClass The defined class
+   * @param size     The size of the bytecode of the class
+   */
+  void record(final @NonNull Class<?> theClass, final int size) {
+    final ScopedClass scopedClass = new ScopedClass(theClass, size);
+    this.classes.add(scopedClass);
+    // The class was defined while the scope was being closed
+    if (this.closed) {
+      scopedClass.theClass = null;
+    }
+  }
+
+  /**
+   * Gets whether this scope is closed.
+   *
+   * @return Whether this scope is closed
+   */
+  public boolean isClosed() {
+    return this.closed;
+  }
+
+  /**
+   * Gets the amount of classes that were defined within this scope.
+   *
+   * @return The amount of classes
+   */
+  public int getClassCount() {
+    return this.classes.size();
+  }
+
+  /**
+   * Gets the total size of the bytecode of the classes that were defined within this scope.
+   * Classes that were defined by the {@link java.lang.invoke.LambdaMetafactory} aren't
+   * included, their bytecode isn't available.
+   *
+   * @return The size in bytes
+   */
+  public long getByteCount() {
+    long bytes = 0;
+    for (final ScopedClass scopedClass : this.classes) {
+      bytes += scopedClass.size;
+    }
+    return bytes;
+  }
+
+  /**
+   * Gets the amount of classes that were defined within this scope and that are already
+   * unloaded, or at least unreachable and about to be unloaded.
+   *
+   * @return The amount of unloaded classes
+   */
+  public int getUnloadedClassCount() {
+    int count = 0;
+    for (final ScopedClass scopedClass : this.classes) {
+      if (scopedClass.reference.get() == null) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Gets the total size of the bytecode of the classes that were defined within this scope and
+   * that are already unloaded, or at least unreachable and about to be unloaded.
+   *
+   * @return The size in bytes
+   */
+  public long getUnloadedByteCount() {
+    long bytes = 0;
+    for (final ScopedClass scopedClass : this.classes) {
+      if (scopedClass.reference.get() == null) {
+        bytes += scopedClass.size;
+      }
+    }
+    return bytes;
+  }
+
+  /**
+   * Requests garbage collections until all the classes of this closed scope are unloaded or
+   * until the timeout expires.
+   *
+   * <p>The classes can only be unloaded if nothing references the created functions anymore,
+   * and if they are hidden classes or their class loader can be unloaded as well.</p>
+   *
+   * @param timeout The maximum time to wait
+   * @param unit    The unit of the timeout
+   * @return Whether all the classes were unloaded
+   * @throws IllegalStateException If this scope isn't closed
+   * @throws InterruptedException  If the current thread was interrupted while waiting
+   */
+  public boolean awaitUnloading(
+    final long timeout,
+    final @NonNull TimeUnit unit
+  ) throws InterruptedException {
+    requireNonNull(unit, "unit");
+    if (!this.closed) {
+      throw new IllegalStateException("The lambda scope isn't closed.");
+    }
+    final long deadline = System.nanoTime() + unit.toNanos(timeout);
+    while (getUnloadedClassCount() < getClassCount()) {
+      if (System.nanoTime() - deadline >= 0) {
+        return false;
+      }
+      System.gc();
+      Thread.sleep(10);
+    }
+    return true;
+  }
+
+  /**
+   * Closes this scope, which drops all the references that this scope holds to the defined
+   * classes and the cached functions. New lambdas can't be created within this scope anymore.
+   */
+  @Override
+  public void close() {
+    if (this.closed) {
+      return;
+    }
+    this.closed = true;
+    this.cache.clear();
+    this.sharedConstructors.clear();
+    for (final ScopedClass scopedClass : this.classes) {
+      scopedClass.theClass = null;
+    }
+  }
+
+  @Override
+  public @NonNull String toString() {
+    return String.format("LambdaScope[closed=%s,classes=%s,bytes=%s,unloadedClasses=%s]",
+      this.closed, getClassCount(), getByteCount(), getUnloadedClassCount());
+  }
+
+  /**
+   * Represents a class that was defined within a scope.
+   */
+  private static final class ScopedClass {
+
+    final @NonNull WeakReference<Class<?>> reference;
+    final int size;
+
+    /**
+     * The strong reference to the class, until the scope is closed.
+     */
+    volatile @Nullable Class<?> theClass;
+
+    ScopedClass(final @NonNull Class<?> theClass, final int size) {
+      this.reference = new WeakReference<>(theClass);
+      this.size = size;
+      this.theClass = theClass;
+    }
+  }
+}
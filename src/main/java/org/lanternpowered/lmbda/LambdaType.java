@@ -72,23 +72,47 @@
      * @param functionType The function type
      */
     Simple(final @NonNull Type functionType) {
-      super(new ResolvedLambdaType<>(functionType), null);
+      super(ResolvedLambdaType.of(functionType), null, DefinitionStrategy.defaultStrategy);
     }
 
     /**
      * Constructs a new {@link LambdaType}.
      *
-     * @param resolved     The resolved lambda type
-     * @param defineLookup The define lookup
+     * @param resolved           The resolved lambda type
+     * @param defineLookup       The define lookup
+     * @param definitionStrategy The definition strategy
      */
     Simple(
       final @NonNull ResolvedLambdaType<T> resolved,
-      final MethodHandles.@Nullable Lookup defineLookup
+      final MethodHandles.@Nullable Lookup defineLookup,
+      final @NonNull DefinitionStrategy definitionStrategy
     ) {
-      super(resolved, defineLookup);
+      super(resolved, defineLookup, definitionStrategy);
     }
   }
 
+  /**
+   * The resolved lambda types of the direct subclasses of {@link LambdaType}, these are usually
+   * anonymous classes which are constructed many times.
+   */
+  private static final @NonNull ClassValue<@NonNull ResolvedLambdaType<?>> resolvedSubclasses =
+    new ClassValue<@NonNull ResolvedLambdaType<?>>() {
+      @Override
+      protected @NonNull ResolvedLambdaType<?> computeValue(final @NonNull Class<?> theClass) {
+        final Class<?> superClass = theClass.getSuperclass();
+        if (superClass != LambdaType.class) {
+          throw new IllegalStateException("Only direct subclasses of LambdaType are allowed.");
+        }
+        final Type superType = theClass.getGenericSuperclass();
+        if (!(superType instanceof ParameterizedType)) {
+          throw new IllegalStateException(
+            "Direct subclasses of LambdaType must be a parameterized type.");
+        }
+        final ParameterizedType parameterizedType = (ParameterizedType) superType;
+        return ResolvedLambdaType.of(parameterizedType.getActualTypeArguments()[0]);
+      }
+    };
+
   final @NonNull ResolvedLambdaType<T> resolved;
 
   /**
@@ -97,6 +121,11 @@
    */
   final MethodHandles.@Nullable Lookup defineLookup;
 
+  /**
+   * The strategy that will be used to define the generated lambda implementation classes.
+   */
+  final @NonNull DefinitionStrategy definitionStrategy;
+
   /**
    * Constructs a new {@link LambdaType}.
    *
@@ -104,34 +133,28 @@
    * interface to implement. If it's not resolved, a {@link IllegalStateException} can be
    * expected.</p>
    */
+  @SuppressWarnings("unchecked")
   public LambdaType() {
-    final Class<?> theClass = getClass();
-    final Class<?> superClass = theClass.getSuperclass();
-    if (superClass != LambdaType.class) {
-      throw new IllegalStateException("Only direct subclasses of LambdaType are allowed.");
-    }
-    final Type superType = theClass.getGenericSuperclass();
-    if (!(superType instanceof ParameterizedType)) {
-      throw new IllegalStateException(
-        "Direct subclasses of LambdaType must be a parameterized type.");
-    }
-    final ParameterizedType parameterizedType = (ParameterizedType) superType;
-    this.resolved = new ResolvedLambdaType<>(parameterizedType.getActualTypeArguments()[0]);
+    this.resolved = (ResolvedLambdaType<T>) resolvedSubclasses.get(getClass());
     this.defineLookup = null;
+    this.definitionStrategy = DefinitionStrategy.defaultStrategy;
   }
 
   /**
    * Constructs a new {@link LambdaType}.
    *
-   * @param resolved     The resolved lambda type
-   * @param defineLookup The define lookup
+   * @param resolved           The resolved lambda type
+   * @param defineLookup       The define lookup
+   * @param definitionStrategy The definition strategy
    */
   private LambdaType(
     final @NonNull ResolvedLambdaType<T> resolved,
-    final MethodHandles.@Nullable Lookup defineLookup
+    final MethodHandles.@Nullable Lookup defineLookup,
+    final @NonNull DefinitionStrategy definitionStrategy
   ) {
     this.defineLookup = defineLookup;
     this.resolved = resolved;
+    this.definitionStrategy = definitionStrategy;
   }
 
   /**
@@ -150,7 +173,30 @@ private LambdaType(
     final MethodHandles.@NonNull Lookup defineLookup
   ) {
     requireNonNull(defineLookup, "defineLookup");
-    return new Simple<>(this.resolved, defineLookup);
+    return new Simple<>(this.resolved, defineLookup, this.definitionStrategy);
+  }
+
+  /**
+   * Constructs a new {@link LambdaType} that will define the implementation classes using the
+   * provided {@link DefinitionStrategy}.
+   *
+   * @param definitionStrategy The definition strategy
+   * @return The new lambda type
+   */
+  public final @NonNull LambdaType<T> defineClassesUsing(
+    final @NonNull DefinitionStrategy definitionStrategy
+  ) {
+    requireNonNull(definitionStrategy, "definitionStrategy");
+    return new Simple<>(this.resolved, this.defineLookup, definitionStrategy);
+  }
+
+  /**
+   * Gets the {@link DefinitionStrategy} that will be used to define the implementation classes.
+   *
+   * @return The definition strategy
+   */
+  public final @NonNull DefinitionStrategy getDefinitionStrategy() {
+    return this.definitionStrategy;
   }
 
   /**
@@ -193,12 +239,38 @@ public final boolean equals(final @Nullable Object obj) {
     }
     final LambdaType<?> that = (LambdaType<?>) obj;
     return that.resolved.equals(this.resolved) &&
-      Objects.equals(that.defineLookup, this.defineLookup);
+      that.definitionStrategy == this.definitionStrategy &&
+      lookupEquals(that.defineLookup, this.defineLookup);
   }
 
   @Override
   public final int hashCode() {
-    return Objects.hash(this.resolved, this.defineLookup);
+    final MethodHandles.Lookup defineLookup = this.defineLookup;
+    return Objects.hash(this.resolved,
+      defineLookup == null ? null : defineLookup.lookupClass(),
+      defineLookup == null ? 0 : defineLookup.lookupModes(), this.definitionStrategy);
+  }
+
+  /**
+   * Gets whether the two lookups are equal, lookups don't implement equality themselves, so
+   * the lookup class and modes will be compared instead.
+   *
+   * @param lookup1 The first lookup
+   * @param lookup2 The second lookup
+   * @return Whether the lookups are equal
+   */
+  private static boolean lookupEquals(
+    final MethodHandles.@Nullable Lookup lookup1,
+    final MethodHandles.@Nullable Lookup lookup2
+  ) {
+    if (lookup1 == lookup2) {
+      return true;
+    }
+    if (lookup1 == null || lookup2 == null) {
+      return false;
+    }
+    return lookup1.lookupClass() == lookup2.lookupClass() &&
+      lookup1.lookupModes() == lookup2.lookupModes();
   }
 
   // Override these to force them as final
@@ -0,0 +1,95 @@
+/*
+ * Lmbda
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) contributors
+ *
+ * This work is licensed under the terms of the MIT License (MIT). For
+ * a copy, see 'LICENSE.txt' or <https://opensource.org/licenses/MIT>.
+ */
+package org.lanternpowered.lmbda;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * A factory to create lambda functions of a specific {@link LambdaType} for
+ * {@link MethodHandle}s of a specific {@link MethodType}.
+ *
+ * <p>All the work that doesn't depend on the method handle itself, like access checks and
+ * generating the bytecode, is only done once when the factory is prepared. Creating a function
+ * only requires the method handle to be injected into a newly defined class.</p>
+ *
+ * @param <T> The type of the function
+ * @see LambdaFactory#prepare(LambdaType, MethodType)
+ */
+public final class PreparedLambdaFactory<@NonNull T> {
+
+  final @NonNull LambdaType<T> lambdaType;
+  final @NonNull MethodType methodType;
+  final @NonNull MethodType functionMethodType;
+  final MethodHandles.@NonNull Lookup defineLookup;
+
+  /**
+   * The shared bytecode of the generated classes, or null if every class needs to be generated
+   * separately.
+   */
+  final byte @Nullable [] bytes;
+
+  PreparedLambdaFactory(
+    final @NonNull LambdaType<T> lambdaType,
+    final @NonNull MethodType methodType,
+    final @NonNull MethodType functionMethodType,
+    final MethodHandles.@NonNull Lookup defineLookup,
+    final byte @Nullable [] bytes
+  ) {
+    this.lambdaType = lambdaType;
+    this.methodType = methodType;
+    this.functionMethodType = functionMethodType;
+    this.defineLookup = defineLookup;
+    this.bytes = bytes;
+  }
+
+  /**
+   * Gets the lambda type that will be implemented.
+   *
+   * @return The lambda type
+   */
+  public @NonNull LambdaType<T> getLambdaType() {
+    return this.lambdaType;
+  }
+
+  /**
+   * Gets the method type that method handles must have to be used with this factory.
+   *
+   * @return The method type
+   */
+  public @NonNull MethodType getMethodType() {
+    return this.methodType;
+  }
+
+  /**
+   * Attempts to create a lambda for the given {@link MethodHandle}.
+   *
+   * <p>The generated function will always invoke the method handle, also when it's a direct
+   * method handle, this way the bytecode can be shared between all the created functions.</p>
+   *
+   * @param methodHandle The method handle that will be executed by the functional interface
+   * @return The constructed function
+   * @throws IllegalArgumentException If the type of the method handle doesn't match the
+   *                                  prepared method type
+   */
+  public @NonNull T create(final @NonNull MethodHandle methodHandle) {
+    return InternalLambdaFactory.createPrepared(this, methodHandle);
+  }
+
+  @Override
+  public @NonNull String toString() {
+    return String.format("PreparedLambdaFactory[lambdaType=%s,methodType=%s]",
+      this.lambdaType, this.methodType);
+  }
+}
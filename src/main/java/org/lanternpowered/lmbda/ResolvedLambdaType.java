@@ -39,24 +39,105 @@
   final @NonNull Method method;
   final @NonNull MethodType methodType;
 
-  ResolvedLambdaType(final @NonNull Type type) {
-    final Class<T> functionClass;
-    final ParameterizedType genericFunctionType;
+  /**
+   * The reason why the function class can only be implemented by classes in the same package,
+   * or null if it can be implemented from any package.
+   */
+  final @Nullable String packageAccessRestriction;
+
+  /**
+   * The resolved lambda types of raw function classes. The validation and lookup of the function
+   * method only depend on the function class, so they are only done once per class.
+   */
+  private static final @NonNull ClassValue<@NonNull ResolvedLambdaType<?>> rawTypes =
+    new ClassValue<@NonNull ResolvedLambdaType<?>>() {
+      @Override
+      protected @NonNull ResolvedLambdaType<?> computeValue(final @NonNull Class<?> type) {
+        return new ResolvedLambdaType<>(type);
+      }
+    };
+
+  /**
+   * Gets the {@link ResolvedLambdaType} for the given function type.
+   *
+   * @param type The function type
+   * @param <T>  The type of the function
+   * @return The resolved lambda type
+   */
+  static <@NonNull T> @NonNull ResolvedLambdaType<T> of(final @NonNull Type type) {
     if (type instanceof Class<?>) {
-      genericFunctionType = null;
-      functionClass = (Class<T>) type;
+      return (ResolvedLambdaType<T>) rawTypes.get((Class<?>) type);
     } else if (type instanceof ParameterizedType) {
-      genericFunctionType = (ParameterizedType) type;
-      functionClass = (Class<T>) genericFunctionType.getRawType();
+      final ParameterizedType genericFunctionType = (ParameterizedType) type;
+      final ResolvedLambdaType<T> raw = (ResolvedLambdaType<T>) rawTypes.get(
+        (Class<?>) genericFunctionType.getRawType());
+      return new ResolvedLambdaType<>(raw, genericFunctionType);
     } else {
       throw new IllegalStateException("A " + InternalUtilities.getTypeClassName(type) +
         " can't be a LambdaType.");
     }
+  }
+
+  private ResolvedLambdaType(final @NonNull Class<T> functionClass) {
     this.method = validateClassAndFindMethod(functionClass);
     this.methodType = MethodType.methodType(
       this.method.getReturnType(), this.method.getParameterTypes());
     this.functionClass = functionClass;
+    this.genericFunctionType = null;
+    this.packageAccessRestriction = findPackageAccessRestriction(functionClass, this.method);
+  }
+
+  private ResolvedLambdaType(
+    final @NonNull ResolvedLambdaType<T> raw,
+    final @NonNull ParameterizedType genericFunctionType
+  ) {
+    this.method = raw.method;
+    this.methodType = raw.methodType;
+    this.functionClass = raw.functionClass;
     this.genericFunctionType = genericFunctionType;
+    this.packageAccessRestriction = raw.packageAccessRestriction;
+  }
+
+  /**
+   * Finds the reason why the function class can only be implemented by classes in the same
+   * package. This only depends on the function class, so it only needs to be checked once.
+   *
+   * @param functionClass The function class
+   * @param method        The function method
+   * @return The restriction, or null if there is none
+   */
+  private static @Nullable String findPackageAccessRestriction(
+    final @NonNull Class<?> functionClass,
+    final @NonNull Method method
+  ) {
+    if (!Modifier.isPublic(functionClass.getModifiers())) {
+      return "The function class isn't public and no applicable define lookup is provided. " +
+        "When the access isn't public, the defined class must be in the same package, a lookup " +
+        "within the same package can be set using LambdaType#defineClassesWith(...)";
+    } else if (!functionClass.isInterface()) {
+      final int constructorModifiers;
+      try {
+        constructorModifiers = functionClass.getDeclaredConstructor().getModifiers();
+      } catch (NoSuchMethodException e) {
+        // Should never happen, is already checked for by validating the constructors
+        throw new IllegalStateException(e);
+      }
+      if (!(Modifier.isPublic(constructorModifiers) ||
+        Modifier.isProtected(constructorModifiers))) {
+        return "The function class constructor isn't public and no applicable define lookup is " +
+          "provided. When the access isn't public, the defined class must be in the same " +
+          "package, a lookup within the same package can be set using " +
+          "LambdaType#defineClassesWith(...)";
+      }
+      final int modifiers = method.getModifiers();
+      if (!(Modifier.isPublic(modifiers) || Modifier.isProtected(modifiers))) {
+        return "The function class method isn't public or protected and no applicable define " +
+          "lookup is provided. When the access isn't public, the defined class must be in the " +
+          "same package, a lookup within the same package can be set using " +
+          "LambdaType#defineClassesWith(...)";
+      }
+    }
+    return null;
   }
 
   /**
@@ -219,9 +300,19 @@ private static void findClassMethods(
    * @return The method copy
    */
   @NonNull Method getMethodCopy() {
-    // Find the same method object in the declaring class
+    // Lookups of a single method only copy the found method instead of all the declared ones
+    final Class<?> declaringClass = this.method.getDeclaringClass();
+    try {
+      final Method method = declaringClass.getDeclaredMethod(
+        this.method.getName(), this.method.getParameterTypes());
+      if (method.getReturnType() == this.method.getReturnType()) {
+        return method;
+      }
+    } catch (NoSuchMethodException ignored) {
+    }
+    // Bridge methods can have the same name and parameters, but a different return type
     final Class<?>[] parameters = this.method.getParameterTypes();
-    for (final Method method : this.method.getDeclaringClass().getDeclaredMethods()) {
+    for (final Method method : declaringClass.getDeclaredMethods()) {
       if (method.getName().equals(this.method.getName()) &&
         method.getReturnType().equals(this.method.getReturnType()) &&
         method.getParameterCount() == parameters.length &&
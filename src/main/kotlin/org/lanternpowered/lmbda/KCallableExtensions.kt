@@ -53,27 +53,40 @@ internal fun <T : Any> KCallable<*>.createLambdaWithLookup(
   lambdaType: LambdaType<T>,
   lookup: MethodHandles.Lookup
 ): T {
-  var methodHandle: MethodHandle? = null
+  var target: LambdaTarget? = null
   var exception: IllegalAccessException? = null
   try {
-    methodHandle = toMethodHandle(lookup)
+    target = toLambdaTarget(lookup)
   } catch (ex: IllegalAccessException) {
     exception = ex
   }
-  if (methodHandle == null) {
+  if (target == null) {
     try {
       // not enough access, try again with a private lookup in the declaring class,
       // if we have enough access to create a private lookup
       val privateLookup = lookup.privateLookupIn(toDeclaringClass())
-      methodHandle = toMethodHandle(privateLookup)
+      target = toLambdaTarget(privateLookup)
     } catch (_: IllegalAccessException) {
     }
   }
-  if (methodHandle == null)
+  if (target == null)
     throw exception!!
-  return methodHandle.createLambda(lambdaType)
+  val objectInstance = target.objectInstance
+  // the object instance is a singleton, so it can be a constant within the generated class
+  if (objectInstance != null)
+    return LambdaFactory.createWithConstants(lambdaType, target.methodHandle, objectInstance)
+  return target.methodHandle.createLambda(lambdaType)
 }
 
+/**
+ * Represents the method handle of a [KCallable] and the instance of the
+ * object declaration it should be invoked on, if any.
+ */
+private class LambdaTarget(
+  val methodHandle: MethodHandle,
+  val objectInstance: Any?
+)
+
 private fun KCallable<*>.toDeclaringClass(): Class<*> {
   if (this is KProperty.Getter<*>) {
     val declaringClass = property.toGetterDeclaringClass()
@@ -112,57 +125,54 @@ private fun KProperty<*>.toGetterDeclaringClass(): Class<*>? {
   return null
 }
 
-private fun KCallable<*>.toMethodHandle(
+private fun KCallable<*>.toLambdaTarget(
   lookup: MethodHandles.Lookup
-): MethodHandle {
+): LambdaTarget {
   if (this is KProperty.Getter<*>) {
-    val methodHandle = property.toGetterMethodHandle(lookup)
-    if (methodHandle != null)
-      return methodHandle
+    val target = property.toGetterLambdaTarget(lookup)
+    if (target != null)
+      return target
   } else if (this is KMutableProperty.Setter<*>) {
     val property = property as KMutableProperty<*>
     val javaSetter = property.javaSetter
     if (javaSetter != null)
       return lookup.unreflect(javaSetter)
-        .bindObjectIfNeeded(javaSetter)
+        .toLambdaTarget(javaSetter)
     val javaField = property.javaField
     if (javaField != null)
       return lookup.unreflectSetter(javaField)
-        .bindObjectIfNeeded(javaField)
+        .toLambdaTarget(javaField)
   } else if (this is KFunction<*>) {
     val javaMethod = javaMethod
     if (javaMethod != null)
       return lookup.unreflect(javaMethod)
-        .bindObjectIfNeeded(javaMethod)
+        .toLambdaTarget(javaMethod)
     val javaConstructor = javaConstructor
     if (javaConstructor != null)
-      return lookup.unreflectConstructor(javaConstructor)
+      return LambdaTarget(lookup.unreflectConstructor(javaConstructor), null)
   } else if (this is KProperty<*>) {
-    val methodHandle = toGetterMethodHandle(lookup)
-    if (methodHandle != null)
-      return methodHandle
+    val target = toGetterLambdaTarget(lookup)
+    if (target != null)
+      return target
   }
   throw IllegalStateException("Unable to get MethodHandle for KCallable: $this")
 }
 
-private fun KProperty<*>.toGetterMethodHandle(lookup: MethodHandles.Lookup): MethodHandle? {
+private fun KProperty<*>.toGetterLambdaTarget(lookup: MethodHandles.Lookup): LambdaTarget? {
   val javaGetter = javaGetter
   if (javaGetter != null)
     return lookup.unreflect(javaGetter)
-      .bindObjectIfNeeded(javaGetter)
+      .toLambdaTarget(javaGetter)
   val javaField = javaField
   if (javaField != null)
     return lookup.unreflectGetter(javaField)
-      .bindObjectIfNeeded(javaField)
+      .toLambdaTarget(javaField)
   return null
 }
 
-private fun MethodHandle.bindObjectIfNeeded(member: Member): MethodHandle {
-  var methodHandle = this
-  if (!Modifier.isStatic(member.modifiers)) {
-    val objectInstance = member.declaringClass.kotlin.objectInstance
-    if (objectInstance != null)
-      methodHandle = methodHandle.bindTo(objectInstance)
-  }
-  return methodHandle
+private fun MethodHandle.toLambdaTarget(member: Member): LambdaTarget {
+  var objectInstance: Any? = null
+  if (!Modifier.isStatic(member.modifiers))
+    objectInstance = member.declaringClass.kotlin.objectInstance
+  return LambdaTarget(this, objectInstance)
 }
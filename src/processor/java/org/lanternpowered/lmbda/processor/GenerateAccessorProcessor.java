@@ -0,0 +1,651 @@
+/*
+ * Lmbda
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) contributors
+ *
+ * This work is licensed under the terms of the MIT License (MIT). For
+ * a copy, see 'LICENSE.txt' or <https://opensource.org/licenses/MIT>.
+ */
+package org.lanternpowered.lmbda.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+
+/**
+ * The annotation processor which generates the function classes that are requested by
+ * {@code org.lanternpowered.lmbda.GenerateAccessor} annotations.
+ *
+ * <p>For every class that declares targeted members, a package private holder class named
+ * {@code <DeclaringClass>$$LmbdaAccessors} is generated in the same package. Its static
+ * {@code get(String)} method returns a new function for a key describing the function class
+ * and the target member, in the same format the runtime uses to look them up. The holder isn't
+ * public, so it doesn't give access to members that wouldn't be accessible otherwise.</p>
+ */
+public final class GenerateAccessorProcessor extends AbstractProcessor {
+
+  private static final String ANNOTATION_NAME = "org.lanternpowered.lmbda.GenerateAccessor";
+  private static final String CONTAINER_NAME = "org.lanternpowered.lmbda.GenerateAccessors";
+  private static final String HOLDER_SUFFIX = "$$LmbdaAccessors";
+
+  /**
+   * The binary names of the declaring classes of which holders have been generated.
+   */
+  private final Set<String> generatedHolders = new HashSet<>();
+
+  /**
+   * The qualified names of the top level classes that are part of the current compilation, the
+   * holders can only be generated for the classes declared by them.
+   */
+  private final Set<String> compiledTypes = new HashSet<>();
+
+  @Override
+  public Set<String> getSupportedAnnotationTypes() {
+    return new HashSet<>(Arrays.asList(ANNOTATION_NAME, CONTAINER_NAME));
+  }
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(
+    final Set<? extends TypeElement> annotations,
+    final RoundEnvironment roundEnv
+  ) {
+    for (final Element element : roundEnv.getRootElements()) {
+      if (element instanceof TypeElement) {
+        this.compiledTypes.add(((TypeElement) element).getQualifiedName().toString());
+      }
+    }
+    final Map<TypeElement, Holder> holders = new LinkedHashMap<>();
+    for (final TypeElement annotation : annotations) {
+      for (final Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+        for (final AnnotationMirror mirror : element.getAnnotationMirrors()) {
+          final String name = getName(mirror.getAnnotationType().asElement());
+          if (name.equals(ANNOTATION_NAME)) {
+            processAnnotation(element, mirror, holders);
+          } else if (name.equals(CONTAINER_NAME)) {
+            for (final Object value : getValues(getValue(mirror, "value"))) {
+              processAnnotation(element, (AnnotationMirror) value, holders);
+            }
+          }
+        }
+      }
+    }
+    for (final Map.Entry<TypeElement, Holder> entry : holders.entrySet()) {
+      writeHolder(entry.getKey(), entry.getValue());
+    }
+    return true;
+  }
+
+  private void processAnnotation(
+    final Element element,
+    final AnnotationMirror mirror,
+    final Map<TypeElement, Holder> holders
+  ) {
+    final Object targetValue = getValue(mirror, "target").getValue();
+    final Object functionTypeValue = getValue(mirror, "type").getValue();
+    if (!(targetValue instanceof DeclaredType) || !(functionTypeValue instanceof DeclaredType)) {
+      // The class literals couldn't be resolved, which is already reported by the compiler
+      return;
+    }
+    final TypeElement target = (TypeElement) ((DeclaredType) targetValue).asElement();
+    final String memberName = (String) getValue(mirror, "member").getValue();
+    final TypeElement functionType = (TypeElement) ((DeclaredType) functionTypeValue).asElement();
+
+    final ExecutableElement method = findFunctionMethod(functionType);
+    if (method == null) {
+      error(element, mirror, "Couldn't find a single abstract method in " +
+        functionType.getQualifiedName());
+      return;
+    }
+    final List<TypeMirror> parameterTypes = new ArrayList<>();
+    for (final VariableElement parameter : method.getParameters()) {
+      parameterTypes.add(erasure(parameter.asType()));
+    }
+    final TypeMirror returnType = erasure(method.getReturnType());
+
+    final Accessor accessor = findAccessor(target, memberName, parameterTypes, returnType);
+    if (accessor == null) {
+      error(element, mirror, "Couldn't find a member " + memberName + " in " +
+        target.getQualifiedName() + " that matches " + method.getSimpleName() +
+        parameterTypes.toString().replace('[', '(').replace(']', ')') + returnType);
+      return;
+    }
+    if (accessor.member.getModifiers().contains(Modifier.PRIVATE)) {
+      error(element, mirror, "Private members can't be accessed by generated accessors: " +
+        target.getQualifiedName() + "." + memberName);
+      return;
+    }
+    final TypeElement declaringType = (TypeElement) accessor.member.getEnclosingElement();
+    if (!isCompiled(declaringType)) {
+      error(element, mirror, "The member " + target.getQualifiedName() + "." + memberName +
+        " is declared by " + declaringType.getQualifiedName() + ", which isn't part of the " +
+        "current compilation, the accessor can't be generated in its package");
+      return;
+    }
+    final String mismatch = findMismatch(accessor, functionType, parameterTypes, returnType);
+    if (mismatch != null) {
+      error(element, mirror, "The member " + target.getQualifiedName() + "." + memberName +
+        " can't be accessed through " + functionType.getQualifiedName() + ": " + mismatch);
+      return;
+    }
+    accessor.functionType = functionType;
+    accessor.method = method;
+    accessor.parameterTypes = parameterTypes;
+    accessor.returnType = returnType;
+    accessor.key = getName(functionType) + ";" + accessor.kind + ";" +
+      (accessor.member.getKind() == ElementKind.CONSTRUCTOR ? "<init>" :
+        accessor.member.getSimpleName().toString()) + ";" + accessor.descriptor;
+
+    final TypeElement declaringClass = (TypeElement) accessor.member.getEnclosingElement();
+    final Holder holder = holders.computeIfAbsent(declaringClass, type -> new Holder());
+    holder.originatingElements.add(element);
+    for (final Accessor other : holder.accessors) {
+      if (other.key.equals(accessor.key)) {
+        return;
+      }
+    }
+    holder.accessors.add(accessor);
+  }
+
+  private ExecutableElement findFunctionMethod(final TypeElement functionType) {
+    final TypeElement objectType = this.processingEnv.getElementUtils()
+      .getTypeElement(Object.class.getName());
+    final Map<String, ExecutableElement> methods = new LinkedHashMap<>();
+    for (final ExecutableElement method : ElementFilter.methodsIn(
+        this.processingEnv.getElementUtils().getAllMembers(functionType))) {
+      if (!method.getModifiers().contains(Modifier.ABSTRACT)) {
+        continue;
+      }
+      final String signature = method.getSimpleName() + getParameterDescriptor(method);
+      // Abstract redeclarations of public object methods, like equals in Comparator
+      boolean objectMethod = false;
+      for (final ExecutableElement other : ElementFilter.methodsIn(
+          objectType.getEnclosedElements())) {
+        if (other.getModifiers().contains(Modifier.PUBLIC) &&
+            signature.equals(other.getSimpleName() + getParameterDescriptor(other))) {
+          objectMethod = true;
+          break;
+        }
+      }
+      if (!objectMethod) {
+        methods.putIfAbsent(signature, method);
+      }
+    }
+    return methods.size() == 1 ? methods.values().iterator().next() : null;
+  }
+
+  private Accessor findAccessor(
+    final TypeElement target,
+    final String memberName,
+    final List<TypeMirror> parameterTypes,
+    final TypeMirror returnType
+  ) {
+    final boolean returns = returnType.getKind() != TypeKind.VOID;
+    final int count = parameterTypes.size();
+    final List<Accessor> accessors = new ArrayList<>();
+    if (memberName.equals("<init>")) {
+      for (final ExecutableElement constructor :
+          ElementFilter.constructorsIn(target.getEnclosedElements())) {
+        if (constructor.getParameters().size() == count) {
+          accessors.add(new Accessor(constructor, "newInvokeSpecial",
+            getParameterDescriptor(constructor) + "V"));
+        }
+      }
+    } else {
+      for (final Element member :
+          this.processingEnv.getElementUtils().getAllMembers(target)) {
+        if (!member.getSimpleName().contentEquals(memberName)) {
+          continue;
+        }
+        final boolean isStatic = member.getModifiers().contains(Modifier.STATIC);
+        final int receiver = isStatic ? 0 : 1;
+        if (member.getKind() == ElementKind.FIELD) {
+          final String descriptor = getDescriptor(member.asType());
+          if (returns && count == receiver) {
+            accessors.add(new Accessor(member, isStatic ? "getStatic" : "getField",
+              "()" + descriptor));
+          } else if (!returns && count == receiver + 1) {
+            accessors.add(new Accessor(member, isStatic ? "putStatic" : "putField",
+              "(" + descriptor + ")V"));
+          }
+        } else if (member.getKind() == ElementKind.METHOD) {
+          final ExecutableElement method = (ExecutableElement) member;
+          if (method.getParameters().size() + receiver != count) {
+            continue;
+          }
+          final String kind;
+          if (isStatic) {
+            kind = "invokeStatic";
+          } else if (method.getEnclosingElement().getKind() == ElementKind.INTERFACE) {
+            kind = "invokeInterface";
+          } else {
+            kind = "invokeVirtual";
+          }
+          accessors.add(new Accessor(method, kind, getParameterDescriptor(method) +
+            getDescriptor(method.getReturnType())));
+        }
+      }
+    }
+    return accessors.size() == 1 ? accessors.get(0) : null;
+  }
+
+  /**
+   * Finds a reason why the generated accessor wouldn't compile, the types of the function method
+   * must be convertible to the types of the member, like the runtime would convert them, and all
+   * the referenced types must be accessible from the package of the declaring class.
+   *
+   * @return The mismatch, or null if there's none
+   */
+  private String findMismatch(
+    final Accessor accessor,
+    final TypeElement functionType,
+    final List<TypeMirror> parameterTypes,
+    final TypeMirror returnType
+  ) {
+    final Element member = accessor.member;
+    final TypeElement declaringClass = (TypeElement) member.getEnclosingElement();
+    final PackageElement packageElement =
+      this.processingEnv.getElementUtils().getPackageOf(declaringClass);
+    if (!isAccessible(declaringClass.asType(), packageElement)) {
+      return declaringClass.getQualifiedName() + " isn't accessible";
+    }
+    if (!isAccessible(functionType.asType(), packageElement)) {
+      return functionType.getQualifiedName() + " isn't accessible";
+    }
+    final List<TypeMirror> memberParameterTypes = new ArrayList<>();
+    final TypeMirror memberReturnType;
+    final boolean isStatic = member.getModifiers().contains(Modifier.STATIC);
+    if (member.getKind() != ElementKind.CONSTRUCTOR && !isStatic) {
+      memberParameterTypes.add(erasure(declaringClass.asType()));
+    }
+    if (member.getKind() == ElementKind.FIELD) {
+      if (accessor.kind.startsWith("put")) {
+        memberParameterTypes.add(erasure(member.asType()));
+        memberReturnType = this.processingEnv.getTypeUtils().getNoType(TypeKind.VOID);
+      } else {
+        memberReturnType = erasure(member.asType());
+      }
+    } else {
+      final ExecutableElement executable = (ExecutableElement) member;
+      for (final VariableElement parameter : executable.getParameters()) {
+        memberParameterTypes.add(erasure(parameter.asType()));
+      }
+      memberReturnType = member.getKind() == ElementKind.CONSTRUCTOR ?
+        erasure(declaringClass.asType()) : erasure(executable.getReturnType());
+    }
+    for (int i = 0; i < memberParameterTypes.size(); i++) {
+      final TypeMirror memberParameterType = memberParameterTypes.get(i);
+      final TypeMirror parameterType = parameterTypes.get(i);
+      if (!isAccessible(memberParameterType, packageElement)) {
+        return memberParameterType + " isn't accessible";
+      }
+      if (!isConvertible(parameterType, memberParameterType)) {
+        return "parameter " + parameterType + " can't be converted to " + memberParameterType;
+      }
+    }
+    if (returnType.getKind() != TypeKind.VOID) {
+      if (memberReturnType.getKind() == TypeKind.VOID) {
+        return "the member doesn't return a value";
+      }
+      // The value is returned without a cast
+      if (!this.processingEnv.getTypeUtils().isAssignable(memberReturnType, returnType)) {
+        return "return type " + memberReturnType + " can't be converted to " + returnType;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Gets whether the value of the given type can be cast to the target type. Like the runtime,
+   * only widening conversions are allowed between primitive types. Casts between reference types
+   * are allowed if they could succeed at runtime.
+   */
+  private boolean isConvertible(final TypeMirror type, final TypeMirror target) {
+    final Types types = this.processingEnv.getTypeUtils();
+    if (types.isAssignable(type, target)) {
+      return true;
+    } else if (type.getKind().isPrimitive()) {
+      return false;
+    } else if (target.getKind().isPrimitive()) {
+      // A down cast to the box type, followed by unboxing
+      return types.isAssignable(types.boxedClass((PrimitiveType) target).asType(), type);
+    }
+    return types.isAssignable(target, type) || isOpenInterfaceCast(type, target) ||
+      isOpenInterfaceCast(target, type);
+  }
+
+  private static boolean isOpenInterfaceCast(final TypeMirror type, final TypeMirror target) {
+    if (type.getKind() != TypeKind.DECLARED || target.getKind() != TypeKind.DECLARED) {
+      return false;
+    }
+    final Element element = ((DeclaredType) type).asElement();
+    final Element targetElement = ((DeclaredType) target).asElement();
+    return element.getKind() == ElementKind.INTERFACE &&
+      !targetElement.getModifiers().contains(Modifier.FINAL);
+  }
+
+  /**
+   * Gets whether the given type is part of the current compilation, otherwise it could be a
+   * library class, of which the package can't be extended.
+   */
+  private boolean isCompiled(final TypeElement type) {
+    Element element = type;
+    while (element.getEnclosingElement() instanceof TypeElement) {
+      element = element.getEnclosingElement();
+    }
+    return this.compiledTypes.contains(((TypeElement) element).getQualifiedName().toString());
+  }
+
+  /**
+   * Gets whether the given type can be referenced from the given package, which requires the
+   * type and all its enclosing types to be accessible.
+   */
+  private boolean isAccessible(final TypeMirror type, final PackageElement packageElement) {
+    final TypeMirror erased = erasure(type);
+    if (erased.getKind() == TypeKind.ARRAY) {
+      return isAccessible(((ArrayType) erased).getComponentType(), packageElement);
+    } else if (erased.getKind() != TypeKind.DECLARED) {
+      return true;
+    }
+    Element element = ((DeclaredType) erased).asElement();
+    final boolean samePackage =
+      this.processingEnv.getElementUtils().getPackageOf(element).equals(packageElement);
+    while (element instanceof TypeElement) {
+      final Set<Modifier> modifiers = element.getModifiers();
+      if (modifiers.contains(Modifier.PRIVATE) ||
+          (!samePackage && !modifiers.contains(Modifier.PUBLIC))) {
+        return false;
+      }
+      element = element.getEnclosingElement();
+    }
+    return true;
+  }
+
+  private void writeHolder(final TypeElement declaringClass, final Holder holder) {
+    final String binaryName = getName(declaringClass);
+    if (!this.generatedHolders.add(binaryName)) {
+      this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+        "Accessors of " + binaryName + " were already generated in a previous round",
+        holder.originatingElements.get(0));
+      return;
+    }
+    final String packageName = this.processingEnv.getElementUtils()
+      .getPackageOf(declaringClass).getQualifiedName().toString();
+    final String holderName = (packageName.isEmpty() ? binaryName :
+      binaryName.substring(packageName.length() + 1)) + HOLDER_SUFFIX;
+    final String declaringName = getSourceName(declaringClass.asType());
+
+    final StringBuilder builder = new StringBuilder();
+    if (!packageName.isEmpty()) {
+      builder.append("package ").append(packageName).append(";\n\n");
+    }
+    builder.append("/**\n * Generated by the Lmbda annotation processor.\n */\n");
+    builder.append("@SuppressWarnings({\"rawtypes\", \"unchecked\"})\n");
+    builder.append("final class ").append(holderName).append(" {\n\n");
+    builder.append("  static Object get(final String key) {\n");
+    builder.append("    switch (key) {\n");
+    for (int i = 0; i < holder.accessors.size(); i++) {
+      builder.append("      case \"").append(holder.accessors.get(i).key).append("\":\n");
+      builder.append("        return new Accessor").append(i).append("();\n");
+    }
+    builder.append("      default:\n");
+    builder.append("        return null;\n");
+    builder.append("    }\n");
+    builder.append("  }\n");
+    boolean sneakyThrow = false;
+    for (int i = 0; i < holder.accessors.size(); i++) {
+      sneakyThrow |= writeAccessor(builder, "Accessor" + i, declaringName,
+        holder.accessors.get(i));
+    }
+    if (sneakyThrow) {
+      builder.append("\n  private static <T extends Throwable> RuntimeException " +
+        "sneakyThrow(final Throwable t) throws T {\n");
+      builder.append("    throw (T) t;\n");
+      builder.append("  }\n");
+    }
+    builder.append("\n  private ").append(holderName).append("() {\n  }\n}\n");
+
+    final String qualifiedName = packageName.isEmpty() ? holderName :
+      packageName + "." + holderName;
+    try (Writer writer = this.processingEnv.getFiler().createSourceFile(qualifiedName,
+        holder.originatingElements.toArray(new Element[0])).openWriter()) {
+      writer.write(builder.toString());
+    } catch (IOException e) {
+      this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+        "Couldn't write " + qualifiedName + ": " + e.getMessage(),
+        holder.originatingElements.get(0));
+    }
+  }
+
+  /**
+   * Writes the nested class of an accessor.
+   *
+   * @return Whether the sneaky throw helper is required
+   */
+  private boolean writeAccessor(
+    final StringBuilder builder,
+    final String className,
+    final String declaringName,
+    final Accessor accessor
+  ) {
+    final boolean isInterface = accessor.functionType.getKind() == ElementKind.INTERFACE;
+    builder.append("\n  private static final class ").append(className)
+      .append(isInterface ? " implements " : " extends ")
+      .append(getSourceName(erasure(accessor.functionType.asType()))).append(" {\n\n");
+    builder.append("    @Override\n");
+    builder.append("    public ").append(getSourceName(accessor.returnType)).append(' ')
+      .append(accessor.method.getSimpleName()).append('(');
+    for (int i = 0; i < accessor.parameterTypes.size(); i++) {
+      if (i > 0) {
+        builder.append(", ");
+      }
+      builder.append("final ").append(getSourceName(accessor.parameterTypes.get(i)))
+        .append(" a").append(i);
+    }
+    builder.append(") {\n");
+
+    final Element member = accessor.member;
+    final boolean isStatic = member.getModifiers().contains(Modifier.STATIC);
+    final StringBuilder expression = new StringBuilder();
+    int argument = 0;
+    if (member.getKind() == ElementKind.CONSTRUCTOR) {
+      expression.append("new ").append(declaringName);
+    } else if (isStatic) {
+      expression.append(declaringName).append('.').append(member.getSimpleName());
+    } else {
+      expression.append("((").append(declaringName).append(") a").append(argument++)
+        .append(").").append(member.getSimpleName());
+    }
+    final boolean sneakyThrow;
+    if (member.getKind() == ElementKind.FIELD) {
+      if (accessor.kind.startsWith("put")) {
+        expression.append(" = (").append(getSourceName(erasure(member.asType())))
+          .append(") a").append(argument);
+      }
+      sneakyThrow = false;
+    } else {
+      final ExecutableElement executable = (ExecutableElement) member;
+      expression.append('(');
+      final List<? extends VariableElement> parameters = executable.getParameters();
+      for (int i = 0; i < parameters.size(); i++) {
+        if (i > 0) {
+          expression.append(", ");
+        }
+        expression.append('(').append(getSourceName(erasure(parameters.get(i).asType())))
+          .append(") a").append(argument++);
+      }
+      expression.append(')');
+      sneakyThrow = !executable.getThrownTypes().isEmpty();
+    }
+
+    final String indent = sneakyThrow ? "        " : "      ";
+    if (sneakyThrow) {
+      builder.append("      try {\n");
+    }
+    builder.append(indent);
+    if (accessor.returnType.getKind() != TypeKind.VOID) {
+      builder.append("return ");
+    }
+    builder.append(expression).append(";\n");
+    if (sneakyThrow) {
+      builder.append("      } catch (Throwable t) {\n");
+      builder.append("        throw sneakyThrow(t);\n");
+      builder.append("      }\n");
+    }
+    builder.append("    }\n");
+    builder.append("  }\n");
+    return sneakyThrow;
+  }
+
+  private void error(
+    final Element element,
+    final AnnotationMirror mirror,
+    final String message
+  ) {
+    this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element,
+      mirror);
+  }
+
+  private AnnotationValue getValue(final AnnotationMirror mirror, final String name) {
+    for (final Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry :
+        this.processingEnv.getElementUtils().getElementValuesWithDefaults(mirror).entrySet()) {
+      if (entry.getKey().getSimpleName().contentEquals(name)) {
+        return entry.getValue();
+      }
+    }
+    throw new IllegalStateException("Missing annotation value: " + name);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<? extends AnnotationValue> getValues(final AnnotationValue value) {
+    return (List<? extends AnnotationValue>) value.getValue();
+  }
+
+  private TypeMirror erasure(final TypeMirror type) {
+    return this.processingEnv.getTypeUtils().erasure(type);
+  }
+
+  /**
+   * Gets the binary name of the type element.
+   */
+  private String getName(final Element element) {
+    return this.processingEnv.getElementUtils().getBinaryName((TypeElement) element).toString();
+  }
+
+  /**
+   * Gets the name of the erased type as it can be used in source code.
+   */
+  private String getSourceName(final TypeMirror type) {
+    final TypeMirror erased = erasure(type);
+    if (erased.getKind() == TypeKind.ARRAY) {
+      return getSourceName(((ArrayType) erased).getComponentType()) + "[]";
+    } else if (erased.getKind() == TypeKind.DECLARED) {
+      return ((TypeElement) ((DeclaredType) erased).asElement()).getQualifiedName().toString();
+    }
+    return erased.toString();
+  }
+
+  private String getParameterDescriptor(final ExecutableElement method) {
+    final StringBuilder builder = new StringBuilder("(");
+    for (final VariableElement parameter : method.getParameters()) {
+      builder.append(getDescriptor(parameter.asType()));
+    }
+    return builder.append(')').toString();
+  }
+
+  /**
+   * Gets the descriptor of the erased type.
+   */
+  private String getDescriptor(final TypeMirror type) {
+    final TypeMirror erased = erasure(type);
+    switch (erased.getKind()) {
+      case BOOLEAN:
+        return "Z";
+      case BYTE:
+        return "B";
+      case SHORT:
+        return "S";
+      case CHAR:
+        return "C";
+      case INT:
+        return "I";
+      case LONG:
+        return "J";
+      case FLOAT:
+        return "F";
+      case DOUBLE:
+        return "D";
+      case VOID:
+        return "V";
+      case ARRAY:
+        return "[" + getDescriptor(((ArrayType) erased).getComponentType());
+      case DECLARED:
+        return "L" + getName(((DeclaredType) erased).asElement()).replace('.', '/') + ";";
+      default:
+        throw new IllegalStateException("Unsupported type: " + erased);
+    }
+  }
+
+  /**
+   * The accessors that will be generated for a declaring class.
+   */
+  private static final class Holder {
+
+    final List<Element> originatingElements = new ArrayList<>();
+    final List<Accessor> accessors = new ArrayList<>();
+  }
+
+  /**
+   * An accessor of a member.
+   */
+  private static final class Accessor {
+
+    final Element member;
+    final String kind;
+    final String descriptor;
+
+    TypeElement functionType;
+    ExecutableElement method;
+    List<TypeMirror> parameterTypes;
+    TypeMirror returnType;
+    String key;
+
+    Accessor(final Element member, final String kind, final String descriptor) {
+      this.member = member;
+      this.kind = kind;
+      this.descriptor = descriptor;
+    }
+  }
+}
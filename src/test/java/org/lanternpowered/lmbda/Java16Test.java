@@ -0,0 +1,45 @@
+/*
+ * Lmbda
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) contributors
+ *
+ * This work is licensed under the terms of the MIT License (MIT). For
+ * a copy, see 'LICENSE.txt' or <https://opensource.org/licenses/MIT>.
+ */
+package org.lanternpowered.lmbda;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.function.IntSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+public class Java16Test {
+
+  @Test
+  @EnabledForJreRange(min = JRE.JAVA_16)
+  void testDefineHiddenClassWithClassDataExists() {
+    assertNotNull(InternalMethodHandles.findDefineHiddenClassWithClassDataMethodHandle());
+  }
+
+  @Test
+  @EnabledForJreRange(min = JRE.JAVA_16)
+  void testMethodHandleAsClassData() throws Exception {
+    final IntSupplier supplier = LambdaFactory.createIntSupplier(MethodHandles.lookup()
+      .findStatic(Java16Test.class, "getValue", MethodType.methodType(int.class)));
+
+    assertEquals(100, supplier.getAsInt());
+    // The method handle shouldn't be stored in a field
+    assertEquals(0, supplier.getClass().getDeclaredFields().length);
+  }
+
+  private static int getValue() {
+    return 100;
+  }
+}
@@ -48,6 +48,22 @@ void testPackagePrivateInterface() throws Exception {
         .defineClassesWith(MethodHandles.lookup()), methodHandle));
   }
 
+  @Test
+  void testReusedPackagePrivateInterface() throws Exception {
+    final MethodHandle methodHandle = getGetterMethodHandle();
+
+    // The access restrictions are only resolved once per lambda type, but must still be checked
+    // against every define lookup
+    final LambdaType<IMyPackagePrivateFunction> lambdaType =
+      new LambdaType<IMyPackagePrivateFunction>() {};
+    for (int i = 0; i < 2; i++) {
+      assertThrows(IllegalAccessException.class, () -> LambdaFactory.create(
+        lambdaType, methodHandle));
+      assertDoesNotThrow(() -> LambdaFactory.create(
+        lambdaType.defineClassesWith(MethodHandles.lookup()), methodHandle));
+    }
+  }
+
   @Test
   void testPrivateInterface() {
     // Private function interfaces aren't supported
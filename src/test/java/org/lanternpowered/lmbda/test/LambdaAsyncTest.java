@@ -0,0 +1,87 @@
+/*
+ * Lmbda
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) contributors
+ *
+ * This work is licensed under the terms of the MIT License (MIT). For
+ * a copy, see 'LICENSE.txt' or <https://opensource.org/licenses/MIT>.
+ */
+package org.lanternpowered.lmbda.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+import org.lanternpowered.lmbda.LambdaFactory;
+import org.lanternpowered.lmbda.LambdaRequest;
+import org.lanternpowered.lmbda.LambdaType;
+import org.lanternpowered.lmbda.MethodHandlesExtensions;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.IntSupplier;
+import java.util.function.ToIntFunction;
+
+class LambdaAsyncTest {
+
+  private MethodHandle getGetterMethodHandle() throws Exception {
+    final MethodHandles.Lookup lookup = MethodHandlesExtensions.privateLookupIn(
+      TestObject.class, MethodHandles.lookup());
+    return lookup.findGetter(TestObject.class, "data", int.class);
+  }
+
+  @Test
+  void testCreateAsync() throws Exception {
+    final CompletableFuture<ToIntFunction<TestObject>> future = LambdaFactory.createAsync(
+      new LambdaType<ToIntFunction<TestObject>>() {}, getGetterMethodHandle(), Runnable::run);
+    assertEquals(100, future.get().applyAsInt(new TestObject()));
+  }
+
+  @Test
+  void testCreateAsyncFailure() {
+    // The method handle doesn't match the function type
+    final CompletableFuture<IntSupplier> future = LambdaFactory.createAsync(
+      LambdaType.of(IntSupplier.class), MethodHandles.constant(String.class, "Test"),
+      Runnable::run);
+    assertThrows(ExecutionException.class, future::get);
+  }
+
+  @Test
+  void testCreateAllAsync() throws Exception {
+    final List<LambdaRequest<?>> requests = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      requests.add(LambdaRequest.of(
+        LambdaType.of(IntSupplier.class), MethodHandles.constant(int.class, i)));
+    }
+    final List<Object> functions = LambdaFactory.createAllAsync(requests, Runnable::run).get();
+    for (int i = 0; i < 10; i++) {
+      assertEquals(i, ((IntSupplier) functions.get(i)).getAsInt());
+    }
+  }
+
+  @Test
+  void testCreateInterim() throws Exception {
+    final List<Runnable> tasks = new ArrayList<>();
+    final ToIntFunction<TestObject> getter = LambdaFactory.createInterim(
+      new LambdaType<ToIntFunction<TestObject>>() {}, getGetterMethodHandle(), tasks::add);
+
+    // The interim implementation should be usable before the task ran
+    final TestObject object = new TestObject();
+    assertEquals(100, getter.applyAsInt(object));
+    assertEquals(1, tasks.size());
+    tasks.get(0).run();
+    // And after it's promoted to the dedicated function
+    assertEquals(100, getter.applyAsInt(object));
+    assertEquals(100, getter.applyAsInt(object));
+  }
+
+  public static class TestObject {
+
+    private int data = 100;
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * Lmbda
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) contributors
+ *
+ * This work is licensed under the terms of the MIT License (MIT). For
+ * a copy, see 'LICENSE.txt' or <https://opensource.org/licenses/MIT>.
+ */
+package org.lanternpowered.lmbda.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+import org.lanternpowered.lmbda.LambdaFactory;
+import org.lanternpowered.lmbda.LambdaRequest;
+import org.lanternpowered.lmbda.LambdaType;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+class LambdaBatchTest {
+
+  @Test
+  void testCreateAll() throws Exception {
+    final MethodHandles.Lookup lookup = MethodHandles.lookup();
+    final MethodHandle getter = lookup.findGetter(TestObject.class, "data", int.class);
+    final MethodHandle constructor = lookup.findConstructor(TestObject.class,
+      MethodType.methodType(void.class));
+
+    final List<Object> functions = LambdaFactory.createAll(Arrays.asList(
+      LambdaRequest.of(new LambdaType<ToIntFunction<TestObject>>() {}, getter),
+      LambdaRequest.of(new LambdaType<Supplier<TestObject>>() {}, constructor),
+      LambdaRequest.of(LambdaType.of(IntSupplier.class), MethodHandles.constant(int.class, 5))));
+
+    assertEquals(3, functions.size());
+    @SuppressWarnings("unchecked")
+    final ToIntFunction<TestObject> function = (ToIntFunction<TestObject>) functions.get(0);
+    @SuppressWarnings("unchecked")
+    final Supplier<TestObject> supplier = (Supplier<TestObject>) functions.get(1);
+    assertEquals(100, function.applyAsInt(supplier.get()));
+    assertEquals(5, ((IntSupplier) functions.get(2)).getAsInt());
+  }
+
+  @Test
+  void testCreateAllParallel() {
+    final List<MethodHandle> methodHandles = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      methodHandles.add(MethodHandles.constant(int.class, i));
+    }
+
+    final List<IntSupplier> functions =
+      LambdaFactory.createAll(LambdaType.of(IntSupplier.class), methodHandles);
+
+    assertEquals(200, functions.size());
+    for (int i = 0; i < 200; i++) {
+      assertEquals(i, functions.get(i).getAsInt());
+    }
+  }
+
+  @Test
+  void testCreateAllInvalid() {
+    assertThrows(IllegalStateException.class, () -> LambdaFactory.createAll(
+      LambdaType.of(IntSupplier.class),
+      Arrays.asList(MethodHandles.constant(int.class, 1),
+        MethodHandles.constant(String.class, "a"))));
+  }
+
+  public static class TestObject {
+
+    public int data = 100;
+  }
+}
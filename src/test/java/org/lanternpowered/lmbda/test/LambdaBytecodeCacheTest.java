@@ -0,0 +1,93 @@
+/*
+ * Lmbda
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) contributors
+ *
+ * This work is licensed under the terms of the MIT License (MIT). For
+ * a copy, see 'LICENSE.txt' or <https://opensource.org/licenses/MIT>.
+ */
+package org.lanternpowered.lmbda.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.lanternpowered.lmbda.test.TestUtilities.isHiddenClassSupported;
+
+import org.junit.jupiter.api.Test;
+import org.lanternpowered.lmbda.LambdaFactory;
+import org.lanternpowered.lmbda.LambdaType;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntSupplier;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+class LambdaBytecodeCacheTest {
+
+  private static List<Path> listFiles(final Path directory) throws IOException {
+    if (!Files.isDirectory(directory)) {
+      return Collections.emptyList();
+    }
+    try (Stream<Path> stream = Files.list(directory)) {
+      return stream.collect(Collectors.toList());
+    }
+  }
+
+  private static void createLambdas() throws Exception {
+    final ToIntFunction<TestObject> getter = LambdaFactory.create(
+      new LambdaType<ToIntFunction<TestObject>>() {},
+      MethodHandles.lookup().findGetter(TestObject.class, "data", int.class));
+    assertEquals(100, getter.applyAsInt(new TestObject()));
+    final IntSupplier supplier = LambdaFactory.create(
+      LambdaType.of(IntSupplier.class), MethodHandles.constant(int.class, 10));
+    assertEquals(10, supplier.getAsInt());
+  }
+
+  @Test
+  void testCache() throws Exception {
+    final Path directory = Files.createTempDirectory("lmbda-cache");
+    LambdaFactory.setBytecodeCacheDirectory(directory);
+    try {
+      createLambdas();
+      final List<Path> files = listFiles(directory);
+      if (!isHiddenClassSupported()) {
+        assertTrue(files.isEmpty());
+        return;
+      }
+      // A direct function and a method handle function
+      assertEquals(2, files.size());
+
+      // The cached bytes should be reused
+      createLambdas();
+      assertEquals(files, listFiles(directory));
+
+      // Invalid files should be ignored and replaced
+      for (final Path file : files) {
+        Files.write(file, new byte[] { 1, 2, 3 });
+      }
+      createLambdas();
+      for (final Path file : files) {
+        assertTrue(Files.size(file) > 3);
+      }
+    } finally {
+      LambdaFactory.setBytecodeCacheDirectory(null);
+      for (final Path file : listFiles(directory)) {
+        Files.delete(file);
+      }
+      Files.delete(directory);
+    }
+    assertNull(LambdaFactory.getBytecodeCacheDirectory());
+  }
+
+  public static class TestObject {
+
+    public int data = 100;
+  }
+}
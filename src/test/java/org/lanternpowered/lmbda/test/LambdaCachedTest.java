@@ -0,0 +1,110 @@
+/*
+ * Lmbda
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) contributors
+ *
+ * This work is licensed under the terms of the MIT License (MIT). For
+ * a copy, see 'LICENSE.txt' or <https://opensource.org/licenses/MIT>.
+ */
+package org.lanternpowered.lmbda.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+import org.lanternpowered.lmbda.LambdaFactory;
+import org.lanternpowered.lmbda.LambdaType;
+import org.lanternpowered.lmbda.MethodHandlesExtensions;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.ToIntFunction;
+
+class LambdaCachedTest {
+
+  private MethodHandle getGetterMethodHandle() throws Exception {
+    final MethodHandles.Lookup lookup = MethodHandlesExtensions.privateLookupIn(
+      TestObject.class, MethodHandles.lookup());
+    return lookup.findGetter(TestObject.class, "data", int.class);
+  }
+
+  @Test
+  void testSameMethodHandle() throws Exception {
+    final MethodHandle methodHandle = getGetterMethodHandle();
+
+    final ToIntFunction<TestObject> getter1 = LambdaFactory.createCached(
+      new LambdaType<ToIntFunction<TestObject>>() {}, methodHandle);
+    final ToIntFunction<TestObject> getter2 = LambdaFactory.createCached(
+      new LambdaType<ToIntFunction<TestObject>>() {}, methodHandle);
+
+    assertSame(getter1, getter2);
+    assertEquals(100, getter1.applyAsInt(new TestObject()));
+  }
+
+  @Test
+  void testDifferentMethodHandle() throws Exception {
+    final ToIntFunction<TestObject> getter1 = LambdaFactory.createCached(
+      new LambdaType<ToIntFunction<TestObject>>() {}, getGetterMethodHandle());
+    final ToIntFunction<TestObject> getter2 = LambdaFactory.createCached(
+      new LambdaType<ToIntFunction<TestObject>>() {}, getGetterMethodHandle());
+
+    assertNotSame(getter1, getter2);
+  }
+
+  @Test
+  void testDifferentDefineLookup() throws Exception {
+    final MethodHandle methodHandle = getGetterMethodHandle();
+
+    final ToIntFunction<TestObject> getter1 = LambdaFactory.createCached(
+      new LambdaType<ToIntFunction<TestObject>>() {}, methodHandle);
+    final ToIntFunction<TestObject> getter2 = LambdaFactory.createCached(
+      new LambdaType<ToIntFunction<TestObject>>() {}
+        .defineClassesWith(MethodHandles.lookup()), methodHandle);
+
+    assertNotSame(getter1, getter2);
+    assertSame(getter2, LambdaFactory.createCached(
+      new LambdaType<ToIntFunction<TestObject>>() {}
+        .defineClassesWith(MethodHandles.lookup()), methodHandle));
+  }
+
+  @Test
+  void testConcurrentCreation() throws Exception {
+    final MethodHandle methodHandle = getGetterMethodHandle();
+    final LambdaType<ToIntFunction<TestObject>> lambdaType =
+      new LambdaType<ToIntFunction<TestObject>>() {};
+
+    final int threads = 8;
+    final ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      final CyclicBarrier barrier = new CyclicBarrier(threads);
+      final List<Future<ToIntFunction<TestObject>>> futures = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        futures.add(executor.submit(() -> {
+          barrier.await();
+          return LambdaFactory.createCached(lambdaType, methodHandle);
+        }));
+      }
+      // All the threads should share the function that was created by one of them
+      final ToIntFunction<TestObject> getter = futures.get(0).get();
+      for (final Future<ToIntFunction<TestObject>> future : futures) {
+        assertSame(getter, future.get());
+      }
+      assertEquals(100, getter.applyAsInt(new TestObject()));
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  public static class TestObject {
+
+    private int data = 100;
+  }
+}
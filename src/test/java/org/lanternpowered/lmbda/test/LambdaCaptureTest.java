@@ -0,0 +1,144 @@
+/*
+ * Lmbda
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) contributors
+ *
+ * This work is licensed under the terms of the MIT License (MIT). For
+ * a copy, see 'LICENSE.txt' or <https://opensource.org/licenses/MIT>.
+ */
+package org.lanternpowered.lmbda.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+import org.lanternpowered.lmbda.LambdaFactory;
+import org.lanternpowered.lmbda.LambdaType;
+import org.lanternpowered.lmbda.MethodHandlesExtensions;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+import java.util.function.IntUnaryOperator;
+import java.util.function.Supplier;
+
+class LambdaCaptureTest {
+
+  @Test
+  void testCaptureReceiver() throws Exception {
+    final MethodHandles.Lookup lookup =
+      MethodHandlesExtensions.privateLookupIn(TestObject.class, MethodHandles.lookup());
+    final MethodHandle methodHandle = lookup.findVirtual(TestObject.class, "getData",
+      MethodType.methodType(int.class));
+    final LambdaType<IntSupplier> lambdaType = LambdaType.of(IntSupplier.class);
+
+    final IntSupplier supplier1 = LambdaFactory.create(lambdaType, methodHandle,
+      new TestObject(100));
+    final IntSupplier supplier2 = LambdaFactory.create(lambdaType, methodHandle,
+      new TestObject(200));
+
+    assertEquals(100, supplier1.getAsInt());
+    assertEquals(200, supplier2.getAsInt());
+    assertSame(supplier1.getClass(), supplier2.getClass());
+  }
+
+  @Test
+  void testCaptureMultiple() throws Exception {
+    final MethodHandles.Lookup lookup =
+      MethodHandlesExtensions.privateLookupIn(TestObject.class, MethodHandles.lookup());
+    final MethodHandle methodHandle = lookup.findVirtual(TestObject.class, "add",
+      MethodType.methodType(int.class, long.class, int.class));
+
+    final IntUnaryOperator operator = LambdaFactory.create(
+      LambdaType.of(IntUnaryOperator.class), methodHandle, new TestObject(100), 20L);
+
+    assertEquals(125, operator.applyAsInt(5));
+  }
+
+  @Test
+  void testCaptureAll() throws Exception {
+    final MethodHandles.Lookup lookup =
+      MethodHandlesExtensions.privateLookupIn(TestObject.class, MethodHandles.lookup());
+    final MethodHandle methodHandle = lookup.findStatic(TestObject.class, "format",
+      MethodType.methodType(String.class, String.class, int.class));
+
+    final Supplier<String> supplier = LambdaFactory.create(
+      new LambdaType<Supplier<String>>() {}, methodHandle, "a", 1);
+
+    assertEquals("a1", supplier.get());
+  }
+
+  @Test
+  void testCaptureCounts() throws Exception {
+    final MethodHandles.Lookup lookup =
+      MethodHandlesExtensions.privateLookupIn(TestObject.class, MethodHandles.lookup());
+    final MethodHandle methodHandle = lookup.findStatic(TestObject.class, "format",
+      MethodType.methodType(String.class, String.class, int.class));
+    final LambdaType<Function<Integer, String>> lambdaType =
+      new LambdaType<Function<Integer, String>>() {};
+
+    final Function<Integer, String> function1 = LambdaFactory.create(
+      lambdaType, methodHandle, "a");
+    // The parameter of the function is dropped if all the values are captured
+    final Function<Integer, String> function2 = LambdaFactory.create(
+      lambdaType, methodHandle, "b", 2);
+    final Function<Integer, String> function3 = LambdaFactory.create(
+      lambdaType, methodHandle, "c");
+    final Function<Integer, String> function4 = LambdaFactory.create(
+      lambdaType, methodHandle, "d", 4);
+
+    assertEquals("a1", function1.apply(1));
+    assertEquals("b2", function2.apply(1));
+    assertEquals("c3", function3.apply(3));
+    assertEquals("d4", function4.apply(3));
+    assertSame(function1.getClass(), function3.getClass());
+    assertSame(function2.getClass(), function4.getClass());
+  }
+
+  @Test
+  void testCaptureInvalidValue() throws Exception {
+    final MethodHandles.Lookup lookup =
+      MethodHandlesExtensions.privateLookupIn(TestObject.class, MethodHandles.lookup());
+    final MethodHandle methodHandle = lookup.findVirtual(TestObject.class, "getData",
+      MethodType.methodType(int.class));
+
+    assertThrows(IllegalArgumentException.class, () -> LambdaFactory.create(
+      LambdaType.of(IntSupplier.class), methodHandle, "Not a test object"));
+  }
+
+  @Test
+  void testTooManyCaptures() throws Exception {
+    final MethodHandles.Lookup lookup =
+      MethodHandlesExtensions.privateLookupIn(TestObject.class, MethodHandles.lookup());
+    final MethodHandle methodHandle = lookup.findVirtual(TestObject.class, "getData",
+      MethodType.methodType(int.class));
+
+    assertThrows(IllegalArgumentException.class, () -> LambdaFactory.create(
+      LambdaType.of(IntSupplier.class), methodHandle, new TestObject(1), 1));
+  }
+
+  private static class TestObject {
+
+    private final int data;
+
+    TestObject(final int data) {
+      this.data = data;
+    }
+
+    private int getData() {
+      return this.data;
+    }
+
+    private int add(final long value, final int other) {
+      return (int) (this.data + value + other);
+    }
+
+    private static String format(final String value, final int other) {
+      return value + other;
+    }
+  }
+}
@@ -0,0 +1,66 @@
+/*
+ * Lmbda
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) contributors
+ *
+ * This work is licensed under the terms of the MIT License (MIT). For
+ * a copy, see 'LICENSE.txt' or <https://opensource.org/licenses/MIT>.
+ */
+package org.lanternpowered.lmbda.test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.lanternpowered.lmbda.LambdaFactory;
+import org.lanternpowered.lmbda.LambdaType;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+class LambdaClassNameTest {
+
+  private static void assertClassName(final String expected, final Object function) {
+    final String name = function.getClass().getName();
+    // Hidden classes get a suffix
+    assertTrue(name.equals(expected) || name.startsWith(expected + "/") ||
+      name.startsWith(expected + "$"), "Unexpected class name: " + name);
+  }
+
+  @Test
+  void testDirectMethod() throws Exception {
+    final ToIntFunction<Entity> function = LambdaFactory.create(
+      new LambdaType<ToIntFunction<Entity>>() {}.defineClassesWith(MethodHandles.lookup()),
+      MethodHandles.lookup().findVirtual(Entity.class, "getHealth",
+        MethodType.methodType(int.class)));
+    assertClassName(getClass().getPackage().getName() + ".Lmbda$Entity$getHealth$ToIntFunction",
+      function);
+  }
+
+  @Test
+  void testDirectConstructor() throws Exception {
+    final Supplier<Entity> function = LambdaFactory.create(
+      new LambdaType<Supplier<Entity>>() {}.defineClassesWith(MethodHandles.lookup()),
+      MethodHandles.lookup().findConstructor(Entity.class, MethodType.methodType(void.class)));
+    assertClassName(getClass().getPackage().getName() + ".Lmbda$Entity$new$Supplier",
+      function);
+  }
+
+  @Test
+  void testShared() {
+    final IntSupplier function = LambdaFactory.createShared(
+      LambdaType.of(IntSupplier.class).defineClassesWith(MethodHandles.lookup()),
+      MethodHandles.constant(int.class, 1));
+    assertClassName(getClass().getPackage().getName() + ".Lmbda$Shared$IntSupplier", function);
+  }
+
+  public static class Entity {
+
+    public int getHealth() {
+      return 20;
+    }
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Lmbda
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) contributors
+ *
+ * This work is licensed under the terms of the MIT License (MIT). For
+ * a copy, see 'LICENSE.txt' or <https://opensource.org/licenses/MIT>.
+ */
+package org.lanternpowered.lmbda.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.lanternpowered.lmbda.LambdaFactory;
+import org.lanternpowered.lmbda.LambdaType;
+import org.lanternpowered.lmbda.MethodHandlesExtensions;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.function.IntSupplier;
+import java.util.function.IntUnaryOperator;
+import java.util.function.Supplier;
+
+class LambdaConstantTest {
+
+  @Test
+  void testConstantReceiver() throws Exception {
+    final MethodHandles.Lookup lookup =
+      MethodHandlesExtensions.privateLookupIn(TestService.class, MethodHandles.lookup());
+    final MethodHandle methodHandle = lookup.findVirtual(TestService.class, "getData",
+      MethodType.methodType(int.class));
+
+    final IntSupplier supplier = LambdaFactory.createWithConstants(
+      LambdaType.of(IntSupplier.class), methodHandle, TestService.INSTANCE);
+
+    assertEquals(100, supplier.getAsInt());
+    // The constant isn't stored in an instance field
+    for (final Field field : supplier.getClass().getDeclaredFields()) {
+      assertTrue(Modifier.isStatic(field.getModifiers()));
+    }
+  }
+
+  @Test
+  void testConstantEnumAndPrimitive() throws Exception {
+    final MethodHandles.Lookup lookup =
+      MethodHandlesExtensions.privateLookupIn(TestService.class, MethodHandles.lookup());
+    final MethodHandle methodHandle = lookup.findStatic(TestService.class, "add",
+      MethodType.methodType(int.class, TestEnum.class, long.class, int.class));
+
+    // The integer constant will be widened to a long
+    final IntUnaryOperator operator = LambdaFactory.createWithConstants(
+      LambdaType.of(IntUnaryOperator.class), methodHandle, TestEnum.B, 10);
+
+    assertEquals(1 + 10 + 5, operator.applyAsInt(5));
+  }
+
+  @Test
+  void testConstantNull() throws Exception {
+    final MethodHandle methodHandle = MethodHandles.identity(String.class);
+
+    final Supplier<String> supplier = LambdaFactory.createWithConstants(
+      new LambdaType<Supplier<String>>() {}, methodHandle, (Object) null);
+
+    assertNull(supplier.get());
+  }
+
+  @Test
+  void testConstantInvalidValue() throws Exception {
+    final MethodHandles.Lookup lookup =
+      MethodHandlesExtensions.privateLookupIn(TestService.class, MethodHandles.lookup());
+    final MethodHandle methodHandle = lookup.findVirtual(TestService.class, "getData",
+      MethodType.methodType(int.class));
+
+    assertThrows(IllegalArgumentException.class, () -> LambdaFactory.createWithConstants(
+      LambdaType.of(IntSupplier.class), methodHandle, "Not a service"));
+  }
+
+  private enum TestEnum {
+    A,
+    B,
+  }
+
+  private static final class TestService {
+
+    static final TestService INSTANCE = new TestService();
+
+    private int getData() {
+      return 100;
+    }
+
+    private static int add(final TestEnum value, final long other, final int another) {
+      return (int) (value.ordinal() + other + another);
+    }
+  }
+}
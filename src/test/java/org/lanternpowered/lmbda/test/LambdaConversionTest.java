@@ -0,0 +1,124 @@
+/*
+ * Lmbda
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) contributors
+ *
+ * This work is licensed under the terms of the MIT License (MIT). For
+ * a copy, see 'LICENSE.txt' or <https://opensource.org/licenses/MIT>.
+ */
+package org.lanternpowered.lmbda.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+import org.lanternpowered.lmbda.LambdaFactory;
+import org.lanternpowered.lmbda.LambdaType;
+import org.lanternpowered.lmbda.MethodHandlesExtensions;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+class LambdaConversionTest {
+
+  private static MethodHandle filterIdentity(final MethodHandle methodHandle) {
+    // Not a direct method handle, so the generated function needs to invoke it
+    final Class<?> returnType = methodHandle.type().returnType();
+    return MethodHandles.filterReturnValue(methodHandle, MethodHandles.identity(returnType));
+  }
+
+  @Test
+  void testPrimitiveWidening() throws Exception {
+    final MethodHandles.Lookup lookup =
+      MethodHandlesExtensions.privateLookupIn(TestObject.class, MethodHandles.lookup());
+    final MethodHandle methodHandle = filterIdentity(lookup.findVirtual(
+      TestObject.class, "getValue", MethodType.methodType(int.class)));
+
+    final ToLongFunction<TestObject> function = LambdaFactory.create(
+      new LambdaType<ToLongFunction<TestObject>>() {}, methodHandle);
+    assertEquals(100L, function.applyAsLong(new TestObject()));
+  }
+
+  @Test
+  void testBoxingAndCasting() throws Exception {
+    final MethodHandles.Lookup lookup =
+      MethodHandlesExtensions.privateLookupIn(TestObject.class, MethodHandles.lookup());
+    final MethodHandle methodHandle = filterIdentity(lookup.findVirtual(
+      TestObject.class, "getValue", MethodType.methodType(int.class)));
+
+    final Function<Object, Object> function = LambdaFactory.create(
+      new LambdaType<Function<Object, Object>>() {}, methodHandle);
+    assertEquals(100, function.apply(new TestObject()));
+    assertThrows(ClassCastException.class, () -> function.apply("Not a TestObject"));
+  }
+
+  @Test
+  void testUnboxing() throws Exception {
+    final MethodHandle methodHandle = filterIdentity(MethodHandles.lookup().findStatic(
+      LambdaConversionTest.class, "square", MethodType.methodType(int.class, int.class)));
+
+    final Function<Integer, Long> function = LambdaFactory.create(
+      new LambdaType<Function<Integer, Long>>() {}, methodHandle.asType(
+        MethodType.methodType(long.class, int.class)));
+    assertEquals(Long.valueOf(16L), function.apply(4));
+    assertThrows(NullPointerException.class, () -> function.apply(null));
+  }
+
+  @Test
+  void testForeignClassLoader() throws Exception {
+    // A copy of the class which isn't visible from the class loader of the library
+    final Class<?> foreignClass = loadCopy(ForeignObject.class);
+    final Object object = foreignClass.getConstructor().newInstance();
+    final MethodHandle getter = MethodHandles.publicLookup()
+      .findGetter(foreignClass, "value", int.class);
+
+    final ToLongFunction<Object> direct = LambdaFactory.create(
+      new LambdaType<ToLongFunction<Object>>() {}, getter);
+    assertEquals(100L, direct.applyAsLong(object));
+
+    final ToLongFunction<Object> function = LambdaFactory.create(
+      new LambdaType<ToLongFunction<Object>>() {}, filterIdentity(getter));
+    assertEquals(100L, function.applyAsLong(object));
+  }
+
+  private static Class<?> loadCopy(final Class<?> theClass) throws Exception {
+    final String resource = theClass.getName().replace('.', '/') + ".class";
+    final byte[] bytes;
+    try (InputStream is = theClass.getClassLoader().getResourceAsStream(resource)) {
+      final ByteArrayOutputStream os = new ByteArrayOutputStream();
+      final byte[] buffer = new byte[4096];
+      int length;
+      while ((length = is.read(buffer)) != -1) {
+        os.write(buffer, 0, length);
+      }
+      bytes = os.toByteArray();
+    }
+    return new ClassLoader(theClass.getClassLoader()) {
+      Class<?> define() {
+        return defineClass(theClass.getName(), bytes, 0, bytes.length);
+      }
+    }.define();
+  }
+
+  private static int square(final int value) {
+    return value * value;
+  }
+
+  public static class ForeignObject {
+
+    public int value = 100;
+  }
+
+  public static class TestObject {
+
+    private int getValue() {
+      return 100;
+    }
+  }
+}
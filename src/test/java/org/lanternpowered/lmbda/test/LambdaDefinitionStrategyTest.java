@@ -0,0 +1,253 @@
+/*
+ * Lmbda
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) contributors
+ *
+ * This work is licensed under the terms of the MIT License (MIT). For
+ * a copy, see 'LICENSE.txt' or <https://opensource.org/licenses/MIT>.
+ */
+package org.lanternpowered.lmbda.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.lanternpowered.lmbda.test.TestUtilities.isHidden;
+import static org.lanternpowered.lmbda.test.TestUtilities.isHiddenClassSupported;
+
+import org.junit.jupiter.api.Test;
+import org.lanternpowered.lmbda.DefinitionStrategy;
+import org.lanternpowered.lmbda.LambdaFactory;
+import org.lanternpowered.lmbda.LambdaType;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ToIntFunction;
+
+class LambdaDefinitionStrategyTest {
+
+  private static <T> LambdaType<T> using(
+    final LambdaType<T> lambdaType, final DefinitionStrategy strategy) {
+    return lambdaType.defineClassesWith(MethodHandles.lookup()).defineClassesUsing(strategy);
+  }
+
+  @Test
+  void testDefaultStrategy() {
+    assertSame(DefinitionStrategy.HIDDEN, LambdaType.of(Runnable.class).getDefinitionStrategy());
+    assertSame(DefinitionStrategy.METAFACTORY, LambdaType.of(Runnable.class)
+      .defineClassesUsing(DefinitionStrategy.METAFACTORY).getDefinitionStrategy());
+  }
+
+  @Test
+  void testDefaultStrategyProperty() throws Exception {
+    assertEquals("STRONG_HIDDEN", loadDefaultStrategy("strong_hidden"));
+    // Unknown strategies fall back to hidden classes
+    assertEquals("HIDDEN", loadDefaultStrategy("STRONGER_HIDDEN"));
+  }
+
+  /**
+   * Loads the default strategy in a new class loader, with the given value of the system property.
+   */
+  private static String loadDefaultStrategy(final String property) throws Exception {
+    final String key = "org.lanternpowered.lmbda.definitionStrategy";
+    final String previous = System.getProperty(key);
+    System.setProperty(key, property);
+    final URL location = DefinitionStrategy.class.getProtectionDomain().getCodeSource()
+      .getLocation();
+    try (URLClassLoader classLoader = new URLClassLoader(new URL[] { location }, null)) {
+      final Field field = Class.forName(DefinitionStrategy.class.getName(), true, classLoader)
+        .getDeclaredField("defaultStrategy");
+      field.setAccessible(true);
+      return ((Enum<?>) field.get(null)).name();
+    } finally {
+      if (previous == null) {
+        System.clearProperty(key);
+      } else {
+        System.setProperty(key, previous);
+      }
+    }
+  }
+
+  @Test
+  void testGetter() throws Exception {
+    final MethodHandle methodHandle =
+      MethodHandles.lookup().findGetter(TestObject.class, "data", int.class);
+    for (final DefinitionStrategy strategy : DefinitionStrategy.values()) {
+      final ToIntFunction<TestObject> getter = LambdaFactory.create(
+        using(new LambdaType<ToIntFunction<TestObject>>() {}, strategy), methodHandle);
+      assertEquals(100, getter.applyAsInt(new TestObject()), strategy.name());
+    }
+  }
+
+  @Test
+  void testSetter() throws Exception {
+    final MethodHandle methodHandle =
+      MethodHandles.lookup().findSetter(TestObject.class, "data", int.class);
+    for (final DefinitionStrategy strategy : DefinitionStrategy.values()) {
+      final ObjIntConsumer<TestObject> setter = LambdaFactory.create(
+        using(new LambdaType<ObjIntConsumer<TestObject>>() {}, strategy), methodHandle);
+      final TestObject object = new TestObject();
+      setter.accept(object, 200);
+      assertEquals(200, object.data, strategy.name());
+    }
+  }
+
+  @Test
+  void testConversions() throws Exception {
+    final MethodHandle methodHandle = MethodHandles.lookup().findVirtual(TestObject.class,
+      "multiply", MethodType.methodType(int.class, int.class));
+    for (final DefinitionStrategy strategy : DefinitionStrategy.values()) {
+      final BiFunction<TestObject, Integer, Integer> function = LambdaFactory.create(
+        using(new LambdaType<BiFunction<TestObject, Integer, Integer>>() {}, strategy),
+        methodHandle);
+      assertEquals(300, (int) function.apply(new TestObject(), 3), strategy.name());
+    }
+  }
+
+  @Test
+  void testNonDirect() throws Exception {
+    final MethodHandle methodHandle = MethodHandles.filterReturnValue(
+      MethodHandles.lookup().findGetter(TestObject.class, "data", int.class),
+      MethodHandles.lookup().findStatic(LambdaDefinitionStrategyTest.class, "negate",
+        MethodType.methodType(int.class, int.class)));
+    for (final DefinitionStrategy strategy : DefinitionStrategy.values()) {
+      final ToIntFunction<TestObject> getter = LambdaFactory.create(
+        using(new LambdaType<ToIntFunction<TestObject>>() {}, strategy), methodHandle);
+      assertEquals(-100, getter.applyAsInt(new TestObject()), strategy.name());
+    }
+  }
+
+  @Test
+  void testAbstractClass() throws Exception {
+    final MethodHandle methodHandle =
+      MethodHandles.lookup().findGetter(TestObject.class, "data", int.class);
+    for (final DefinitionStrategy strategy : DefinitionStrategy.values()) {
+      final AbstractGetter getter = LambdaFactory.create(
+        using(LambdaType.of(AbstractGetter.class), strategy), methodHandle);
+      assertEquals(100, getter.get(new TestObject()), strategy.name());
+    }
+  }
+
+  @Test
+  void testHiddenClasses() throws Exception {
+    final MethodHandle methodHandle =
+      MethodHandles.lookup().findGetter(TestObject.class, "data", int.class);
+    final Object hidden = LambdaFactory.create(
+      using(new LambdaType<ToIntFunction<TestObject>>() {}, DefinitionStrategy.HIDDEN),
+      methodHandle);
+    final Object strongHidden = LambdaFactory.create(
+      using(new LambdaType<ToIntFunction<TestObject>>() {}, DefinitionStrategy.STRONG_HIDDEN),
+      methodHandle);
+    assertEquals(isHiddenClassSupported(), isHidden(hidden.getClass()));
+    assertEquals(isHiddenClassSupported(), isHidden(strongHidden.getClass()));
+  }
+
+  @Test
+  void testDefineClass() throws Exception {
+    final MethodHandle methodHandle =
+      MethodHandles.lookup().findGetter(TestObject.class, "data", int.class);
+    final LambdaType<ToIntFunction<TestObject>> lambdaType = using(
+      new LambdaType<ToIntFunction<TestObject>>() {}, DefinitionStrategy.DEFINE_CLASS);
+    final Object function1 = LambdaFactory.create(lambdaType, methodHandle);
+    final Object function2 = LambdaFactory.create(lambdaType, methodHandle);
+
+    final Class<?> theClass = function1.getClass();
+    assertFalse(isHidden(theClass));
+    assertEquals(LambdaDefinitionStrategyTest.class.getPackage(), theClass.getPackage());
+    assertNotSame(theClass, function2.getClass());
+    assertSame(theClass, Class.forName(theClass.getName(), false, theClass.getClassLoader()));
+  }
+
+  @Test
+  void testMetafactory() throws Exception {
+    final MethodHandle methodHandle = MethodHandles.lookup().findVirtual(TestObject.class,
+      "multiply", MethodType.methodType(int.class, int.class));
+    final Function<TestObject, Integer> function = LambdaFactory.create(
+      using(new LambdaType<Function<TestObject, Integer>>() {}, DefinitionStrategy.METAFACTORY),
+      MethodHandles.insertArguments(methodHandle, 1, 2));
+    // Not a direct method handle, so a lmbda class is used instead
+    assertEquals(200, (int) function.apply(new TestObject()));
+    assertTrue(function.getClass().getName().contains("Lmbda$"), function.getClass().getName());
+
+    final ToIntFunction<TestObject> getter = LambdaFactory.create(
+      using(new LambdaType<ToIntFunction<TestObject>>() {}, DefinitionStrategy.METAFACTORY),
+      MethodHandles.lookup().findVirtual(TestObject.class, "getData",
+        MethodType.methodType(int.class)));
+    assertEquals(100, getter.applyAsInt(new TestObject()));
+    assertTrue(getter.getClass().getName().contains("$$Lambda"), getter.getClass().getName());
+  }
+
+  @Test
+  void testAutomatic() throws Exception {
+    final MethodHandle methodHandle = MethodHandles.lookup().findVirtual(
+      TestObject.class, "getData", MethodType.methodType(int.class));
+
+    final ToIntFunction<TestObject> metafactory = LambdaFactory.create(
+      using(new LambdaType<ToIntFunction<TestObject>>() {}, DefinitionStrategy.AUTOMATIC),
+      methodHandle);
+    assertEquals(100, metafactory.applyAsInt(new TestObject()));
+    assertTrue(metafactory.getClass().getName().contains("$$Lambda"),
+      metafactory.getClass().getName());
+
+    // Without a define lookup, the classes of the metafactory would be bound to the library
+    final ToIntFunction<TestObject> noDefineLookup = LambdaFactory.create(
+      new LambdaType<ToIntFunction<TestObject>>() {}
+        .defineClassesUsing(DefinitionStrategy.AUTOMATIC), methodHandle);
+    assertEquals(100, noDefineLookup.applyAsInt(new TestObject()));
+    assertTrue(noDefineLookup.getClass().getName().contains("Lmbda$"),
+      noDefineLookup.getClass().getName());
+
+    // Abstract classes can't be implemented by the metafactory
+    final AbstractGetter abstractGetter = LambdaFactory.create(
+      using(LambdaType.of(AbstractGetter.class), DefinitionStrategy.AUTOMATIC), methodHandle);
+    assertEquals(100, abstractGetter.get(new TestObject()));
+    assertTrue(abstractGetter.getClass().getName().contains("Lmbda$"),
+      abstractGetter.getClass().getName());
+
+    // Fields aren't supported by the metafactory
+    final ToIntFunction<TestObject> getter = LambdaFactory.create(
+      using(new LambdaType<ToIntFunction<TestObject>>() {}, DefinitionStrategy.AUTOMATIC),
+      MethodHandles.lookup().findGetter(TestObject.class, "data", int.class));
+    assertEquals(100, getter.applyAsInt(new TestObject()));
+    assertTrue(getter.getClass().getName().contains("Lmbda$"), getter.getClass().getName());
+
+    // Supported parameter conversions
+    final ToIntFunction<Object> converted = LambdaFactory.create(
+      using(new LambdaType<ToIntFunction<Object>>() {}, DefinitionStrategy.AUTOMATIC),
+      MethodHandles.lookup().findVirtual(Object.class, "hashCode",
+        MethodType.methodType(int.class)));
+    final Object object = new Object();
+    assertEquals(object.hashCode(), converted.applyAsInt(object));
+  }
+
+  private static int negate(final int value) {
+    return -value;
+  }
+
+  public abstract static class AbstractGetter {
+
+    public abstract int get(TestObject object);
+  }
+
+  public static class TestObject {
+
+    private int data = 100;
+
+    private int getData() {
+      return this.data;
+    }
+
+    private int multiply(final int factor) {
+      return this.data * factor;
+    }
+  }
+}
@@ -0,0 +1,154 @@
+/*
+ * Lmbda
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) contributors
+ *
+ * This work is licensed under the terms of the MIT License (MIT). For
+ * a copy, see 'LICENSE.txt' or <https://opensource.org/licenses/MIT>.
+ */
+package org.lanternpowered.lmbda.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+import org.lanternpowered.lmbda.LambdaFactory;
+import org.lanternpowered.lmbda.LambdaType;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Tests for method handles that target members which are accessible from the generated class,
+ * these will be invoked without a method handle in between.
+ */
+class LambdaDirectTest {
+
+  private static final MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+  @Test
+  void testFieldGetter() throws Exception {
+    final MethodHandle methodHandle = lookup.findGetter(TestObject.class, "data", int.class);
+
+    final ToIntFunction<TestObject> getter = LambdaFactory.create(
+      new LambdaType<ToIntFunction<TestObject>>() {}, methodHandle);
+
+    final TestObject object = new TestObject();
+    assertEquals(100, getter.applyAsInt(object));
+    object.data = 200;
+    assertEquals(200, getter.applyAsInt(object));
+    // No method handle field should be required
+    assertEquals(0, getter.getClass().getDeclaredFields().length);
+  }
+
+  @Test
+  void testFieldGetterWidening() throws Exception {
+    final MethodHandle methodHandle = lookup.findGetter(TestObject.class, "data", int.class);
+
+    final ToLongFunction<TestObject> getter = LambdaFactory.create(
+      new LambdaType<ToLongFunction<TestObject>>() {}, methodHandle);
+
+    assertEquals(100L, getter.applyAsLong(new TestObject()));
+  }
+
+  @Test
+  void testFieldGetterBoxing() throws Exception {
+    final MethodHandle methodHandle = lookup.findGetter(TestObject.class, "data", int.class);
+
+    final Function<TestObject, Integer> getter = LambdaFactory.create(
+      new LambdaType<Function<TestObject, Integer>>() {}, methodHandle);
+
+    assertEquals(Integer.valueOf(100), getter.apply(new TestObject()));
+  }
+
+  @Test
+  void testFieldSetterUnboxing() throws Exception {
+    final MethodHandle methodHandle = lookup.findSetter(TestObject.class, "data", int.class);
+
+    final BiConsumer<TestObject, Integer> setter = LambdaFactory.create(
+      new LambdaType<BiConsumer<TestObject, Integer>>() {}, methodHandle);
+
+    final TestObject object = new TestObject();
+    setter.accept(object, 300);
+    assertEquals(300, object.data);
+  }
+
+  @Test
+  void testFieldSetterNarrowing() throws Exception {
+    final MethodHandle methodHandle = lookup.findSetter(TestObject.class, "data", int.class);
+
+    // Narrowing from long to int isn't allowed
+    assertThrows(IllegalStateException.class, () -> LambdaFactory.create(
+      new LambdaType<ObjLongConsumer<TestObject>>() {}, methodHandle));
+  }
+
+  @Test
+  void testStaticFieldGetter() throws Exception {
+    final MethodHandle methodHandle =
+      lookup.findStaticGetter(TestObject.class, "staticData", int.class);
+
+    final IntSupplier getter = LambdaFactory.create(
+      new LambdaType<IntSupplier>() {}, methodHandle);
+
+    assertEquals(50, getter.getAsInt());
+  }
+
+  @Test
+  void testVirtualMethod() throws Exception {
+    final MethodHandle methodHandle = lookup.findVirtual(TestObject.class, "getData",
+      MethodType.methodType(int.class));
+
+    final ToIntFunction<TestObject> getter = LambdaFactory.create(
+      new LambdaType<ToIntFunction<TestObject>>() {}, methodHandle);
+
+    assertEquals(100, getter.applyAsInt(new TestObject()));
+  }
+
+  @Test
+  void testInterfaceMethod() throws Exception {
+    final MethodHandle methodHandle = lookup.findVirtual(IDataHolder.class, "getData",
+      MethodType.methodType(int.class));
+
+    final ToIntFunction<IDataHolder> getter = LambdaFactory.create(
+      new LambdaType<ToIntFunction<IDataHolder>>() {}, methodHandle);
+
+    assertEquals(100, getter.applyAsInt(new TestObject()));
+  }
+
+  @Test
+  void testConstructor() throws Exception {
+    final MethodHandle methodHandle = lookup.findConstructor(TestObject.class,
+      MethodType.methodType(void.class));
+
+    final Supplier<TestObject> constructor = LambdaFactory.create(
+      new LambdaType<Supplier<TestObject>>() {}, methodHandle);
+
+    assertEquals(100, constructor.get().data);
+  }
+
+  public interface IDataHolder {
+
+    int getData();
+  }
+
+  public static class TestObject implements IDataHolder {
+
+    public static int staticData = 50;
+
+    public int data = 100;
+
+    @Override
+    public int getData() {
+      return this.data;
+    }
+  }
+}
@@ -0,0 +1,219 @@
+/*
+ * Lmbda
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) contributors
+ *
+ * This work is licensed under the terms of the MIT License (MIT). For
+ * a copy, see 'LICENSE.txt' or <https://opensource.org/licenses/MIT>.
+ */
+package org.lanternpowered.lmbda.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.lanternpowered.lmbda.GenerateAccessor;
+import org.lanternpowered.lmbda.LambdaFactory;
+import org.lanternpowered.lmbda.LambdaType;
+import org.lanternpowered.lmbda.processor.GenerateAccessorProcessor;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+
+@GenerateAccessor(target = LambdaGeneratedAccessorTest.TestObject.class, member = "data",
+  type = ToIntFunction.class)
+@GenerateAccessor(target = LambdaGeneratedAccessorTest.TestObject.class, member = "data",
+  type = ObjIntConsumer.class)
+@GenerateAccessor(target = LambdaGeneratedAccessorTest.TestObject.class, member = "describe",
+  type = BiFunction.class)
+@GenerateAccessor(target = LambdaGeneratedAccessorTest.TestObject.class, member = "getStatic",
+  type = IntSupplier.class)
+@GenerateAccessor(target = LambdaGeneratedAccessorTest.TestObject.class, member = "<init>",
+  type = Supplier.class)
+@GenerateAccessor(target = LambdaGeneratedAccessorTest.TestObject.class, member = "fail",
+  type = Function.class)
+class LambdaGeneratedAccessorTest {
+
+  private static final MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+  private static boolean isGenerated(final Object function) {
+    return function.getClass().getName().contains("$$LmbdaAccessors$");
+  }
+
+  @Test
+  void testGetter() throws Exception {
+    final ToIntFunction<TestObject> getter = LambdaFactory.create(
+      new LambdaType<ToIntFunction<TestObject>>() {},
+      lookup.findGetter(TestObject.class, "data", int.class));
+    assertTrue(isGenerated(getter), getter.getClass().getName());
+    assertEquals(100, getter.applyAsInt(new TestObject()));
+  }
+
+  @Test
+  void testSetter() throws Exception {
+    final ObjIntConsumer<TestObject> setter = LambdaFactory.create(
+      new LambdaType<ObjIntConsumer<TestObject>>() {},
+      lookup.findSetter(TestObject.class, "data", int.class));
+    assertTrue(isGenerated(setter), setter.getClass().getName());
+    final TestObject object = new TestObject();
+    setter.accept(object, 300);
+    assertEquals(300, object.data);
+  }
+
+  @Test
+  void testMethod() throws Exception {
+    final BiFunction<TestObject, String, String> function = LambdaFactory.create(
+      new LambdaType<BiFunction<TestObject, String, String>>() {},
+      lookup.findVirtual(TestObject.class, "describe",
+        MethodType.methodType(String.class, String.class)));
+    assertTrue(isGenerated(function), function.getClass().getName());
+    assertEquals("data=100", function.apply(new TestObject(), "data="));
+  }
+
+  @Test
+  void testStaticMethod() throws Exception {
+    final IntSupplier supplier = LambdaFactory.create(LambdaType.of(IntSupplier.class),
+      lookup.findStatic(TestObject.class, "getStatic", MethodType.methodType(int.class)));
+    assertTrue(isGenerated(supplier), supplier.getClass().getName());
+    assertEquals(500, supplier.getAsInt());
+  }
+
+  @Test
+  void testConstructor() throws Exception {
+    final Supplier<TestObject> supplier = LambdaFactory.create(
+      new LambdaType<Supplier<TestObject>>() {},
+      lookup.findConstructor(TestObject.class, MethodType.methodType(void.class)));
+    assertTrue(isGenerated(supplier), supplier.getClass().getName());
+    assertEquals(100, supplier.get().data);
+  }
+
+  @Test
+  void testCheckedException() throws Exception {
+    final Function<TestObject, Object> function = LambdaFactory.create(
+      new LambdaType<Function<TestObject, Object>>() {},
+      lookup.findVirtual(TestObject.class, "fail", MethodType.methodType(Object.class)));
+    assertTrue(isGenerated(function), function.getClass().getName());
+    assertThrows(IOException.class, () -> function.apply(new TestObject()));
+  }
+
+  @Test
+  void testNotGenerated() throws Exception {
+    final ToIntFunction<TestObject> getter = LambdaFactory.create(
+      new LambdaType<ToIntFunction<TestObject>>() {},
+      lookup.findGetter(TestObject.class, "other", int.class));
+    assertFalse(isGenerated(getter), getter.getClass().getName());
+    assertEquals(200, getter.applyAsInt(new TestObject()));
+  }
+
+  @Test
+  void testCompiledDeclaringClass() throws Exception {
+    final List<Diagnostic<? extends JavaFileObject>> errors = process(
+      "@GenerateAccessor(target = Accessors.Entity.class, member = \"health\",\n" +
+      "  type = ToIntFunction.class)\n" +
+      "public class Accessors {\n" +
+      "  public static class Entity {\n" +
+      "    int health;\n" +
+      "  }\n" +
+      "}\n");
+    assertTrue(errors.isEmpty(), errors.toString());
+  }
+
+  @Test
+  void testLibraryDeclaringClass() throws Exception {
+    // The accessor would have to be generated in the java.util package
+    final List<Diagnostic<? extends JavaFileObject>> errors = process(
+      "@GenerateAccessor(target = Accessors.Entities.class, member = \"size\",\n" +
+      "  type = ToIntFunction.class)\n" +
+      "public class Accessors {\n" +
+      "  public static class Entities extends java.util.ArrayList<Object> {\n" +
+      "  }\n" +
+      "}\n");
+    assertEquals(1, errors.size(), errors.toString());
+    assertTrue(errors.get(0).getMessage(null).contains("java.util.ArrayList"),
+      errors.toString());
+  }
+
+  /**
+   * Runs the annotation processor for a class named Accessors with the given body.
+   *
+   * @return The reported errors
+   */
+  private static List<Diagnostic<? extends JavaFileObject>> process(final String body)
+      throws IOException {
+    final String source = "package accessors;\n" +
+      "import java.util.function.ToIntFunction;\n" +
+      "import org.lanternpowered.lmbda.GenerateAccessor;\n" + body;
+    final JavaFileObject file = new SimpleJavaFileObject(
+        URI.create("string:///accessors/Accessors.java"), JavaFileObject.Kind.SOURCE) {
+      @Override
+      public CharSequence getCharContent(final boolean ignoreEncodingErrors) {
+        return source;
+      }
+    };
+    final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    final Path directory = Files.createTempDirectory("lmbda-processor");
+    try {
+      final JavaCompiler.CompilationTask task = compiler.getTask(null, null, diagnostics,
+        Arrays.asList("-proc:only", "-s", directory.toString(),
+          "-classpath", System.getProperty("java.class.path")),
+        null, Collections.singletonList(file));
+      task.setProcessors(Collections.singletonList(new GenerateAccessorProcessor()));
+      task.call();
+    } finally {
+      try (Stream<Path> stream = Files.walk(directory)) {
+        for (final Path path : stream.sorted(Comparator.reverseOrder())
+            .collect(Collectors.toList())) {
+          Files.delete(path);
+        }
+      }
+    }
+    return diagnostics.getDiagnostics().stream()
+      .filter(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.ERROR)
+      .collect(Collectors.toList());
+  }
+
+  public static class TestObject {
+
+    public static int getStatic() {
+      return 500;
+    }
+
+    public int data = 100;
+    public int other = 200;
+
+    public String describe(final String prefix) {
+      return prefix + this.data;
+    }
+
+    public Object fail() throws IOException {
+      throw new IOException();
+    }
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ * Lmbda
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) contributors
+ *
+ * This work is licensed under the terms of the MIT License (MIT). For
+ * a copy, see 'LICENSE.txt' or <https://opensource.org/licenses/MIT>.
+ */
+package org.lanternpowered.lmbda.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import org.junit.jupiter.api.Test;
+import org.lanternpowered.lmbda.DefinitionStrategy;
+import org.lanternpowered.lmbda.LambdaFactory;
+import org.lanternpowered.lmbda.LambdaType;
+import org.lanternpowered.lmbda.MethodHandlesExtensions;
+import org.lanternpowered.lmbda.test.other.CallerFunction;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+class LambdaLazyTest {
+
+  private static final MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+  @Test
+  void testFirstInvocation() throws Exception {
+    // Normal classes are visible in the stack trace, unlike the shared hidden class
+    final LambdaType<Supplier<String>> lambdaType = new LambdaType<Supplier<String>>() {}
+      .defineClassesWith(lookup)
+      .defineClassesUsing(DefinitionStrategy.DEFINE_CLASS);
+    final MethodHandle methodHandle = lookup.findStatic(TestUtilities.class, "getGeneratedCaller",
+      MethodType.methodType(String.class));
+    final Supplier<String> supplier = LambdaFactory.createLazy(lambdaType, methodHandle);
+
+    // The dedicated function is created by the first invocation
+    final String sharedCaller = supplier.get();
+    final Supplier<String> dedicated = LambdaFactory.createCached(lambdaType, methodHandle);
+    final String dedicatedCaller = dedicated.get();
+    assertNotNull(dedicatedCaller);
+    assertNotEquals(sharedCaller, dedicatedCaller);
+    assertEquals(dedicatedCaller, supplier.get());
+  }
+
+  @Test
+  void testProtectedMethod() throws Exception {
+    // The protected method isn't accessible from the default lookup
+    final LambdaType<CallerFunction> lambdaType = new LambdaType<CallerFunction>() {}
+      .defineClassesUsing(DefinitionStrategy.DEFINE_CLASS);
+    final MethodHandle methodHandle = lookup.findStatic(TestUtilities.class, "getGeneratedCaller",
+      MethodType.methodType(String.class));
+    final CallerFunction function = LambdaFactory.createLazy(lambdaType, methodHandle);
+
+    final String sharedCaller = function.invoke();
+    final String dedicatedCaller = function.invoke();
+    assertNotNull(dedicatedCaller);
+    assertNotEquals(sharedCaller, dedicatedCaller);
+  }
+
+  @Test
+  void testPrivateGetter() throws Exception {
+    final MethodHandles.Lookup lookup =
+      MethodHandlesExtensions.privateLookupIn(TestObject.class, MethodHandles.lookup());
+
+    final ToIntFunction<TestObject> getter = LambdaFactory.createLazy(
+      new LambdaType<ToIntFunction<TestObject>>() {},
+      lookup.findGetter(TestObject.class, "data", int.class));
+
+    final TestObject object = new TestObject();
+    for (int i = 0; i < 3; i++) {
+      assertEquals(100, getter.applyAsInt(object));
+    }
+  }
+
+  public static class TestObject {
+
+    private int data = 100;
+  }
+}
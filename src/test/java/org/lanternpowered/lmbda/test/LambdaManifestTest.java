@@ -0,0 +1,176 @@
+/*
+ * Lmbda
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) contributors
+ *
+ * This work is licensed under the terms of the MIT License (MIT). For
+ * a copy, see 'LICENSE.txt' or <https://opensource.org/licenses/MIT>.
+ */
+package org.lanternpowered.lmbda.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.lanternpowered.lmbda.LambdaFactory;
+import org.lanternpowered.lmbda.LambdaManifest;
+import org.lanternpowered.lmbda.LambdaType;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.ref.WeakReference;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.function.IntSupplier;
+import java.util.function.ToIntFunction;
+
+class LambdaManifestTest {
+
+  @Test
+  void testRecordAndReplay() throws Exception {
+    final MethodHandle methodHandle = MethodHandles.lookup().findGetter(
+      TestObject.class, "data", int.class);
+
+    final LambdaManifest recording = LambdaManifest.startRecording();
+    try {
+      LambdaFactory.create(new LambdaType<ToIntFunction<TestObject>>() {}, methodHandle);
+      // Not a direct method handle, can't be recorded
+      LambdaFactory.create(LambdaType.of(IntSupplier.class),
+        MethodHandles.constant(int.class, 1));
+    } finally {
+      recording.stopRecording();
+    }
+    assertEquals(1, recording.size());
+
+    final StringWriter writer = new StringWriter();
+    recording.write(writer);
+    assertTrue(writer.toString().contains(TestObject.class.getName() + "\tdata\t"));
+
+    final LambdaManifest manifest = LambdaManifest.read(new StringReader(writer.toString()));
+    assertEquals(1, manifest.size());
+    assertEquals(1, manifest.replay(getClass().getClassLoader()));
+
+    // The pre-generated class should be used by the lambdas of the same member
+    final ToIntFunction<TestObject> getter1 = LambdaFactory.create(
+      new LambdaType<ToIntFunction<TestObject>>() {}, methodHandle);
+    final ToIntFunction<TestObject> getter2 = LambdaFactory.create(
+      new LambdaType<ToIntFunction<TestObject>>() {}, MethodHandles.lookup().findGetter(
+        TestObject.class, "data", int.class));
+    assertNotSame(getter1, getter2);
+    assertSame(getter1.getClass(), getter2.getClass());
+    assertEquals(100, getter1.applyAsInt(new TestObject()));
+  }
+
+  @Test
+  void testReplayMissingDefineLookup() throws Exception {
+    final LambdaManifest recording = LambdaManifest.startRecording();
+    try {
+      LambdaFactory.create(new LambdaType<ToIntFunction<TestObject>>() {}
+        .defineClassesWith(MethodHandles.lookup()), MethodHandles.lookup().findVirtual(
+          TestObject.class, "getData", MethodType.methodType(int.class)));
+    } finally {
+      recording.stopRecording();
+    }
+    assertEquals(1, recording.size());
+    // The define lookup isn't provided, so the lambda can't be generated
+    assertEquals(0, recording.replay(getClass().getClassLoader()));
+    assertEquals(1, recording.replay(getClass().getClassLoader(), MethodHandles.lookup()));
+  }
+
+  @Test
+  void testReplayMoreSpecificType() throws Exception {
+    final LambdaManifest recording = LambdaManifest.startRecording();
+    try {
+      LambdaFactory.create(new LambdaType<ToIntFunction<Object>>() {},
+        MethodHandles.lookup().findVirtual(
+          TestObject.class, "getData", MethodType.methodType(int.class)));
+    } finally {
+      recording.stopRecording();
+    }
+    assertEquals(1, recording.replay(getClass().getClassLoader()));
+
+    // The pre-generated class casts to the declaring class, which would accept any test object
+    final ToIntFunction<Object> getter = LambdaFactory.create(
+      new LambdaType<ToIntFunction<Object>>() {}, MethodHandles.lookup().findVirtual(
+        SubObject.class, "getData", MethodType.methodType(int.class)));
+    assertEquals(100, getter.applyAsInt(new SubObject()));
+    assertThrows(ClassCastException.class, () -> getter.applyAsInt(new TestObject()));
+  }
+
+  @Test
+  void testReplayUnloading() throws Exception {
+    final WeakReference<ClassLoader> loader = replayInThrowawayClassLoader();
+    for (int i = 0; i < 100 && loader.get() != null; i++) {
+      System.gc();
+      Thread.sleep(10);
+    }
+    // The pre-generated class shouldn't prevent the class loader from being unloaded
+    assertNull(loader.get());
+  }
+
+  private static WeakReference<ClassLoader> replayInThrowawayClassLoader() throws Exception {
+    final URL location = LoaderObject.class.getProtectionDomain().getCodeSource().getLocation();
+    final ClassLoader loader = new URLClassLoader(new URL[] { location }, null);
+    final Class<?> objectClass = loader.loadClass(LoaderObject.class.getName());
+    // The classes of the throwaway class loader aren't visible from the default lookup
+    final MethodHandles.Lookup lookup = (MethodHandles.Lookup) objectClass
+      .getMethod("lookup").invoke(null);
+    final MethodHandle methodHandle = lookup.findGetter(objectClass, "data", int.class);
+
+    final LambdaManifest recording = LambdaManifest.startRecording();
+    try {
+      LambdaFactory.create(LambdaType.of(ToIntFunction.class).defineClassesWith(lookup),
+        methodHandle);
+    } finally {
+      recording.stopRecording();
+    }
+    assertEquals(1, recording.replay(loader, lookup));
+    return new WeakReference<>(loader);
+  }
+
+  @Test
+  void testSingleRecording() {
+    final LambdaManifest recording = LambdaManifest.startRecording();
+    try {
+      assertThrows(IllegalStateException.class, LambdaManifest::startRecording);
+    } finally {
+      recording.stopRecording();
+    }
+  }
+
+  @Test
+  void testInvalidManifest() {
+    assertThrows(IOException.class, () -> LambdaManifest.read(
+      new StringReader("Invalid entry")));
+  }
+
+  public static class TestObject {
+
+    public int data = 100;
+
+    public int getData() {
+      return this.data;
+    }
+  }
+
+  public static class SubObject extends TestObject {
+  }
+
+  public static class LoaderObject {
+
+    public int data = 100;
+
+    public static MethodHandles.Lookup lookup() {
+      return MethodHandles.lookup();
+    }
+  }
+}
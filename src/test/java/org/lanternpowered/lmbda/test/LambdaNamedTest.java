@@ -0,0 +1,132 @@
+/*
+ * Lmbda
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) contributors
+ *
+ * This work is licensed under the terms of the MIT License (MIT). For
+ * a copy, see 'LICENSE.txt' or <https://opensource.org/licenses/MIT>.
+ */
+package org.lanternpowered.lmbda.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.lanternpowered.lmbda.test.TestUtilities.isHidden;
+
+import org.junit.jupiter.api.Test;
+import org.lanternpowered.lmbda.DefinitionStrategy;
+import org.lanternpowered.lmbda.LambdaFactory;
+import org.lanternpowered.lmbda.LambdaRequest;
+import org.lanternpowered.lmbda.LambdaType;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntSupplier;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+class LambdaNamedTest {
+
+  private static final LambdaType<ToIntFunction<TestObject>> getterType =
+    new LambdaType<ToIntFunction<TestObject>>() {}.defineClassesUsing(DefinitionStrategy.NAMED);
+  private static final LambdaType<IntSupplier> supplierType =
+    LambdaType.of(IntSupplier.class).defineClassesUsing(DefinitionStrategy.NAMED);
+
+  @Test
+  void testDirect() throws Exception {
+    final MethodHandle methodHandle =
+      MethodHandles.lookup().findGetter(TestObject.class, "data", int.class);
+
+    final ToIntFunction<TestObject> getter1 = LambdaFactory.create(getterType, methodHandle);
+    final ToIntFunction<TestObject> getter2 = LambdaFactory.create(getterType, methodHandle);
+    assertEquals(100, getter1.applyAsInt(new TestObject()));
+    assertEquals(100, getter2.applyAsInt(new TestObject()));
+
+    final Class<?> theClass = getter1.getClass();
+    assertFalse(isHidden(theClass));
+    assertTrue(theClass.getName().contains("Lmbda$TestObject$data$ToIntFunction$"),
+      theClass.getName());
+    // The class should be reused
+    assertSame(theClass, getter2.getClass());
+    assertSame(theClass, Class.forName(theClass.getName(), false, theClass.getClassLoader()));
+  }
+
+  @Test
+  void testMethodHandle() throws Exception {
+    final IntSupplier supplier1 = LambdaFactory.create(supplierType,
+      MethodHandles.constant(int.class, 1));
+    final IntSupplier supplier2 = LambdaFactory.create(supplierType,
+      MethodHandles.constant(int.class, 2));
+    assertEquals(1, supplier1.getAsInt());
+    assertEquals(2, supplier2.getAsInt());
+
+    // Every class binds a different method handle
+    assertFalse(isHidden(supplier1.getClass()));
+    assertNotSame(supplier1.getClass(), supplier2.getClass());
+  }
+
+  @Test
+  void testCreateAll() throws Exception {
+    final MethodHandle methodHandle = MethodHandles.lookup().findStatic(LambdaNamedTest.class,
+      "getValue", MethodType.methodType(int.class));
+    final List<Object> functions = LambdaFactory.createAll(Stream.of(1, 2, 3)
+      .map(i -> LambdaRequest.of(getterType, MethodHandles.dropArguments(
+        MethodHandles.constant(int.class, i), 0, TestObject.class)))
+      .collect(Collectors.toList()));
+    assertEquals(3, functions.size());
+    for (int i = 0; i < functions.size(); i++) {
+      @SuppressWarnings("unchecked")
+      final ToIntFunction<TestObject> function = (ToIntFunction<TestObject>) functions.get(i);
+      assertEquals(i + 1, function.applyAsInt(new TestObject()));
+    }
+    final IntSupplier supplier = LambdaFactory.create(supplierType, methodHandle);
+    assertEquals(300, supplier.getAsInt());
+  }
+
+  @Test
+  void testExport() throws Exception {
+    final Path directory = Files.createTempDirectory("lmbda-named");
+    LambdaFactory.setNamedClassOutputDirectory(directory);
+    try {
+      final IntSupplier supplier = LambdaFactory.create(supplierType,
+        MethodHandles.constant(int.class, 42));
+      assertEquals(42, supplier.getAsInt());
+      final Path file = directory.resolve(supplier.getClass().getName().replace('.', '/') +
+        ".class");
+      assertTrue(Files.isRegularFile(file), file.toString());
+    } finally {
+      LambdaFactory.setNamedClassOutputDirectory(null);
+      delete(directory);
+    }
+    assertNull(LambdaFactory.getNamedClassOutputDirectory());
+  }
+
+  private static void delete(final Path directory) throws IOException {
+    try (Stream<Path> stream = Files.walk(directory)) {
+      for (final Path path : stream.sorted(Comparator.reverseOrder())
+          .collect(Collectors.toList())) {
+        Files.delete(path);
+      }
+    }
+  }
+
+  private static int getValue() {
+    return 300;
+  }
+
+  public static class TestObject {
+
+    public int data = 100;
+  }
+}
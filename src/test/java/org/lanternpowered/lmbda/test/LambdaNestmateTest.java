@@ -0,0 +1,172 @@
+/*
+ * Lmbda
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) contributors
+ *
+ * This work is licensed under the terms of the MIT License (MIT). For
+ * a copy, see 'LICENSE.txt' or <https://opensource.org/licenses/MIT>.
+ */
+package org.lanternpowered.lmbda.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.lanternpowered.lmbda.test.TestUtilities.isHiddenClassSupported;
+
+import org.junit.jupiter.api.Test;
+import org.lanternpowered.lmbda.DefinitionStrategy;
+import org.lanternpowered.lmbda.LambdaFactory;
+import org.lanternpowered.lmbda.LambdaType;
+import org.lanternpowered.lmbda.MethodHandlesExtensions;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.IntUnaryOperator;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+class LambdaNestmateTest {
+
+  private static final MethodHandles.Lookup lookup = doPrivateLookup();
+
+  private static MethodHandles.Lookup doPrivateLookup() {
+    try {
+      return MethodHandlesExtensions.privateLookupIn(TestObject.class, MethodHandles.lookup());
+    } catch (IllegalAccessException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static <T> LambdaType<T> nestmate(final LambdaType<T> lambdaType) {
+    return lambdaType.defineClassesUsing(DefinitionStrategy.NESTMATE);
+  }
+
+  /**
+   * Gets the nest host of the class, or null if hidden classes aren't supported.
+   */
+  private static Class<?> getNestHost(final Class<?> theClass) throws Exception {
+    if (!isHiddenClassSupported()) {
+      return null;
+    }
+    return (Class<?>) Class.class.getMethod("getNestHost").invoke(theClass);
+  }
+
+  private static void assertNestmate(final Object function) throws Exception {
+    final Class<?> nestHost = getNestHost(function.getClass());
+    if (nestHost != null) {
+      assertSame(LambdaNestmateTest.class, nestHost);
+    }
+  }
+
+  @Test
+  void testPrivateGetter() throws Exception {
+    final ToIntFunction<TestObject> getter = LambdaFactory.create(
+      nestmate(new LambdaType<ToIntFunction<TestObject>>() {}),
+      lookup.findGetter(TestObject.class, "data", int.class));
+    assertEquals(100, getter.applyAsInt(new TestObject()));
+    assertNestmate(getter);
+  }
+
+  @Test
+  void testPrivateSetter() throws Exception {
+    final ObjIntConsumer<TestObject> setter = LambdaFactory.create(
+      nestmate(new LambdaType<ObjIntConsumer<TestObject>>() {}),
+      lookup.findSetter(TestObject.class, "data", int.class));
+    final TestObject object = new TestObject();
+    setter.accept(object, 200);
+    assertEquals(200, object.data);
+    assertNestmate(setter);
+  }
+
+  @Test
+  void testPrivateMethod() throws Exception {
+    final BiFunction<TestObject, String, String> method = LambdaFactory.create(
+      nestmate(new LambdaType<BiFunction<TestObject, String, String>>() {}),
+      lookup.findVirtual(TestObject.class, "describe",
+        MethodType.methodType(String.class, String.class)));
+    assertEquals("Test: 100", method.apply(new TestObject(), "Test"));
+    assertNestmate(method);
+  }
+
+  @Test
+  void testPrivateSpecialMethod() throws Exception {
+    final BiFunction<TestObject, String, String> method = LambdaFactory.create(
+      nestmate(new LambdaType<BiFunction<TestObject, String, String>>() {}),
+      lookup.findSpecial(TestObject.class, "describe",
+        MethodType.methodType(String.class, String.class), TestObject.class));
+    assertEquals("Test: 100", method.apply(new TestObject(), "Test"));
+    assertNestmate(method);
+  }
+
+  @Test
+  void testPrivateStaticMethod() throws Exception {
+    final IntUnaryOperator method = LambdaFactory.create(
+      nestmate(LambdaType.of(IntUnaryOperator.class)),
+      lookup.findStatic(TestObject.class, "square",
+        MethodType.methodType(int.class, int.class)));
+    assertEquals(16, method.applyAsInt(4));
+    assertNestmate(method);
+  }
+
+  @Test
+  void testPrivateConstructor() throws Exception {
+    final Supplier<TestObject> constructor = LambdaFactory.create(
+      nestmate(new LambdaType<Supplier<TestObject>>() {}),
+      lookup.findConstructor(TestObject.class, MethodType.methodType(void.class)));
+    assertEquals(100, constructor.get().data);
+    assertNestmate(constructor);
+  }
+
+  @Test
+  void testBoxing() throws Exception {
+    final Function<TestObject, Integer> getter = LambdaFactory.create(
+      nestmate(new LambdaType<Function<TestObject, Integer>>() {}),
+      lookup.findGetter(TestObject.class, "data", int.class));
+    assertEquals(100, (int) getter.apply(new TestObject()));
+    assertNestmate(getter);
+  }
+
+  @Test
+  void testNonDirectFallback() throws Exception {
+    final MethodHandle methodHandle = MethodHandles.filterReturnValue(
+      lookup.findGetter(TestObject.class, "data", int.class),
+      lookup.findStatic(TestObject.class, "square", MethodType.methodType(int.class, int.class)));
+    final ToIntFunction<TestObject> getter = LambdaFactory.create(
+      nestmate(new LambdaType<ToIntFunction<TestObject>>() {}), methodHandle);
+    assertEquals(10000, getter.applyAsInt(new TestObject()));
+    final Class<?> nestHost = getNestHost(getter.getClass());
+    if (nestHost != null) {
+      assertFalse(nestHost == LambdaNestmateTest.class);
+    }
+  }
+
+  @Test
+  void testInaccessibleFallback() throws Exception {
+    // The java.base module isn't open, so the function can't be a nestmate of String
+    final ToIntFunction<String> length = LambdaFactory.create(
+      nestmate(new LambdaType<ToIntFunction<String>>() {}),
+      MethodHandles.publicLookup().findVirtual(String.class, "length",
+        MethodType.methodType(int.class)));
+    assertEquals(4, length.applyAsInt("test"));
+    assertTrue(getNestHost(length.getClass()) != String.class);
+  }
+
+  public static class TestObject {
+
+    private int data = 100;
+
+    private String describe(final String prefix) {
+      return prefix + ": " + this.data;
+    }
+
+    private static int square(final int value) {
+      return value * value;
+    }
+  }
+}
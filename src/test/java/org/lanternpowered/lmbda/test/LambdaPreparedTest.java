@@ -0,0 +1,72 @@
+/*
+ * Lmbda
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) contributors
+ *
+ * This work is licensed under the terms of the MIT License (MIT). For
+ * a copy, see 'LICENSE.txt' or <https://opensource.org/licenses/MIT>.
+ */
+package org.lanternpowered.lmbda.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+import org.lanternpowered.lmbda.LambdaFactory;
+import org.lanternpowered.lmbda.LambdaType;
+import org.lanternpowered.lmbda.MethodHandlesExtensions;
+import org.lanternpowered.lmbda.PreparedLambdaFactory;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.function.ToIntFunction;
+
+class LambdaPreparedTest {
+
+  @Test
+  void testCreate() throws Exception {
+    final MethodHandles.Lookup lookup =
+      MethodHandlesExtensions.privateLookupIn(TestObject.class, MethodHandles.lookup());
+
+    final PreparedLambdaFactory<ToIntFunction<TestObject>> factory = LambdaFactory.prepare(
+      new LambdaType<ToIntFunction<TestObject>>() {},
+      MethodType.methodType(int.class, TestObject.class));
+
+    final ToIntFunction<TestObject> getter1 = factory.create(
+      lookup.findGetter(TestObject.class, "data1", int.class));
+    final ToIntFunction<TestObject> getter2 = factory.create(
+      lookup.findGetter(TestObject.class, "data2", int.class));
+
+    final TestObject object = new TestObject();
+    assertEquals(100, getter1.applyAsInt(object));
+    assertEquals(200, getter2.applyAsInt(object));
+  }
+
+  @Test
+  void testMismatchedMethodType() throws Exception {
+    final MethodHandles.Lookup lookup =
+      MethodHandlesExtensions.privateLookupIn(TestObject.class, MethodHandles.lookup());
+
+    final PreparedLambdaFactory<ToIntFunction<TestObject>> factory = LambdaFactory.prepare(
+      new LambdaType<ToIntFunction<TestObject>>() {},
+      MethodType.methodType(int.class, TestObject.class));
+
+    assertThrows(IllegalArgumentException.class, () -> factory.create(
+      lookup.findGetter(TestObject.class, "data3", long.class)));
+  }
+
+  @Test
+  void testUnsupportedMethodType() {
+    assertThrows(IllegalStateException.class, () -> LambdaFactory.prepare(
+      new LambdaType<ToIntFunction<TestObject>>() {},
+      MethodType.methodType(String.class, TestObject.class)));
+  }
+
+  public static class TestObject {
+
+    private int data1 = 100;
+    private int data2 = 200;
+    private long data3 = 300L;
+  }
+}
@@ -0,0 +1,193 @@
+/*
+ * Lmbda
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) contributors
+ *
+ * This work is licensed under the terms of the MIT License (MIT). For
+ * a copy, see 'LICENSE.txt' or <https://opensource.org/licenses/MIT>.
+ */
+package org.lanternpowered.lmbda.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.lanternpowered.lmbda.test.TestUtilities.isHiddenClassSupported;
+
+import org.junit.jupiter.api.Test;
+import org.lanternpowered.lmbda.LambdaFactory;
+import org.lanternpowered.lmbda.LambdaRequest;
+import org.lanternpowered.lmbda.LambdaScope;
+import org.lanternpowered.lmbda.LambdaType;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+import java.util.function.ToIntFunction;
+
+class LambdaScopeTest {
+
+  private static final MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+  @Test
+  void testCreate() throws Exception {
+    try (LambdaScope scope = LambdaFactory.openScope()) {
+      final ToIntFunction<TestObject> getter = scope.create(
+        new LambdaType<ToIntFunction<TestObject>>() {},
+        lookup.findGetter(TestObject.class, "data1", int.class));
+      assertEquals(100, getter.applyAsInt(new TestObject()));
+      assertEquals(1, scope.getClassCount());
+      assertTrue(scope.getByteCount() > 0);
+      assertEquals(0, scope.getUnloadedClassCount());
+    }
+  }
+
+  @Test
+  void testCreateAll() throws Exception {
+    try (LambdaScope scope = LambdaFactory.openScope()) {
+      final LambdaType<ToIntFunction<TestObject>> lambdaType =
+        new LambdaType<ToIntFunction<TestObject>>() {};
+      final List<Object> functions = scope.createAll(Arrays.asList(
+        LambdaRequest.of(lambdaType, lookup.findGetter(TestObject.class, "data1", int.class)),
+        LambdaRequest.of(lambdaType, lookup.findGetter(TestObject.class, "data2", int.class))));
+      assertEquals(2, functions.size());
+      assertEquals(2, scope.getClassCount());
+    }
+  }
+
+  @Test
+  void testCreateCached() throws Exception {
+    final MethodHandle methodHandle = lookup.findGetter(TestObject.class, "data1", int.class);
+    final LambdaType<ToIntFunction<TestObject>> lambdaType =
+      new LambdaType<ToIntFunction<TestObject>>() {};
+    final ToIntFunction<TestObject> getter;
+    try (LambdaScope scope = LambdaFactory.openScope()) {
+      getter = scope.createCached(lambdaType, methodHandle);
+      assertSame(getter, scope.createCached(lambdaType, methodHandle));
+      assertEquals(1, scope.getClassCount());
+    }
+    try (LambdaScope scope = LambdaFactory.openScope()) {
+      assertNotSame(getter, scope.createCached(lambdaType, methodHandle));
+    }
+  }
+
+  @Test
+  void testRun() throws Exception {
+    final LambdaType<ToIntFunction<TestObject>> lambdaType =
+      new LambdaType<ToIntFunction<TestObject>>() {};
+    final MethodHandle methodHandle = lookup.findGetter(TestObject.class, "data1", int.class);
+    try (LambdaScope scope = LambdaFactory.openScope()) {
+      final ToIntFunction<TestObject> getter = scope.run(() -> {
+        // The shared class is shared within the scope
+        LambdaFactory.createShared(lambdaType, methodHandle);
+        return LambdaFactory.createShared(lambdaType, methodHandle);
+      });
+      assertEquals(100, getter.applyAsInt(new TestObject()));
+      assertEquals(1, scope.getClassCount());
+    }
+    try (LambdaScope scope = LambdaFactory.openScope()) {
+      scope.run(() -> LambdaFactory.createShared(lambdaType, methodHandle));
+      assertEquals(1, scope.getClassCount());
+    }
+  }
+
+  @Test
+  void testRunCapturing() throws Exception {
+    final LambdaType<IntSupplier> lambdaType = new LambdaType<IntSupplier>() {};
+    final MethodHandle methodHandle = lookup.findStatic(LambdaScopeTest.class, "identity",
+      MethodType.methodType(int.class, int.class));
+    try (LambdaScope scope = LambdaFactory.openScope()) {
+      final IntSupplier supplier = scope.run(() -> {
+        LambdaFactory.create(lambdaType, methodHandle, 1);
+        return LambdaFactory.create(lambdaType, methodHandle, 2);
+      });
+      assertEquals(2, supplier.getAsInt());
+      assertEquals(1, scope.getClassCount());
+    }
+    try (LambdaScope scope = LambdaFactory.openScope()) {
+      scope.run(() -> LambdaFactory.create(lambdaType, methodHandle, 3));
+      assertEquals(1, scope.getClassCount());
+    }
+  }
+
+  @Test
+  void testRunAsync() throws Exception {
+    final MethodHandle methodHandle = lookup.findGetter(TestObject.class, "data1", int.class);
+    try (LambdaScope scope = LambdaFactory.openScope()) {
+      final ToIntFunction<TestObject> getter = scope.run(() -> LambdaFactory.createAsync(
+        new LambdaType<ToIntFunction<TestObject>>() {}, methodHandle,
+        command -> new Thread(command).start())).join();
+      assertEquals(100, getter.applyAsInt(new TestObject()));
+      assertEquals(1, scope.getClassCount());
+    }
+  }
+
+  @Test
+  void testRunLazy() throws Exception {
+    final MethodHandle methodHandle = lookup.findGetter(TestObject.class, "data1", int.class);
+    try (LambdaScope scope = LambdaFactory.openScope()) {
+      final ToIntFunction<TestObject> getter = scope.run(() -> LambdaFactory.createLazy(
+        new LambdaType<ToIntFunction<TestObject>>() {}, methodHandle));
+      assertEquals(1, scope.getClassCount());
+      // The function is promoted outside the run, but still within the scope
+      assertEquals(100, getter.applyAsInt(new TestObject()));
+      assertEquals(2, scope.getClassCount());
+    }
+  }
+
+  @Test
+  void testClosed() throws Exception {
+    final MethodHandle methodHandle = lookup.findGetter(TestObject.class, "data1", int.class);
+    final LambdaScope scope = LambdaFactory.openScope();
+    assertFalse(scope.isClosed());
+    assertThrows(IllegalStateException.class, () -> scope.awaitUnloading(1, TimeUnit.SECONDS));
+    scope.close();
+    assertTrue(scope.isClosed());
+    assertThrows(IllegalStateException.class, () -> scope.create(
+      new LambdaType<ToIntFunction<TestObject>>() {}, methodHandle));
+    assertThrows(IllegalStateException.class, () -> scope.run(() -> null));
+  }
+
+  @Test
+  void testOutsideScope() throws Exception {
+    try (LambdaScope scope = LambdaFactory.openScope()) {
+      LambdaFactory.create(new LambdaType<ToIntFunction<TestObject>>() {},
+        lookup.findGetter(TestObject.class, "data1", int.class));
+      assertEquals(0, scope.getClassCount());
+    }
+  }
+
+  @Test
+  void testUnloading() throws Exception {
+    final LambdaScope scope = LambdaFactory.openScope();
+    ToIntFunction<TestObject> getter = scope.create(
+      new LambdaType<ToIntFunction<TestObject>>() {},
+      lookup.findGetter(TestObject.class, "data1", int.class));
+    assertEquals(100, getter.applyAsInt(new TestObject()));
+    scope.close();
+    // Only hidden classes can be unloaded separately from their class loader
+    if (isHiddenClassSupported()) {
+      getter = null;
+      assertTrue(scope.awaitUnloading(10, TimeUnit.SECONDS));
+      assertEquals(scope.getClassCount(), scope.getUnloadedClassCount());
+      assertEquals(scope.getByteCount(), scope.getUnloadedByteCount());
+    }
+  }
+
+  private static int identity(final int value) {
+    return value;
+  }
+
+  public static class TestObject {
+
+    private int data1 = 100;
+    private int data2 = 200;
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * Lmbda
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) contributors
+ *
+ * This work is licensed under the terms of the MIT License (MIT). For
+ * a copy, see 'LICENSE.txt' or <https://opensource.org/licenses/MIT>.
+ */
+package org.lanternpowered.lmbda.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+import org.lanternpowered.lmbda.LambdaFactory;
+import org.lanternpowered.lmbda.LambdaType;
+import org.lanternpowered.lmbda.MethodHandlesExtensions;
+
+import java.lang.invoke.MethodHandles;
+import java.util.function.IntSupplier;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+class LambdaSharedTest {
+
+  @Test
+  void testSharedClass() throws Exception {
+    final MethodHandles.Lookup lookup =
+      MethodHandlesExtensions.privateLookupIn(TestObject.class, MethodHandles.lookup());
+    final LambdaType<ToIntFunction<TestObject>> lambdaType =
+      new LambdaType<ToIntFunction<TestObject>>() {};
+
+    final ToIntFunction<TestObject> getter1 = LambdaFactory.createShared(lambdaType,
+      lookup.findGetter(TestObject.class, "data1", int.class));
+    final ToIntFunction<TestObject> getter2 = LambdaFactory.createShared(lambdaType,
+      lookup.findGetter(TestObject.class, "data2", int.class));
+
+    final TestObject object = new TestObject();
+    assertEquals(100, getter1.applyAsInt(object));
+    assertEquals(200, getter2.applyAsInt(object));
+    assertNotSame(getter1, getter2);
+    assertSame(getter1.getClass(), getter2.getClass());
+  }
+
+  @Test
+  void testSharedClassConversion() throws Exception {
+    final MethodHandles.Lookup lookup =
+      MethodHandlesExtensions.privateLookupIn(TestObject.class, MethodHandles.lookup());
+
+    final ToLongFunction<TestObject> getter = LambdaFactory.createShared(
+      new LambdaType<ToLongFunction<TestObject>>() {},
+      lookup.findGetter(TestObject.class, "data1", int.class));
+
+    assertEquals(100L, getter.applyAsLong(new TestObject()));
+  }
+
+  @Test
+  void testSharedClassAcrossValues() {
+    final IntSupplier supplier1 = LambdaFactory.createShared(
+      LambdaType.of(IntSupplier.class), MethodHandles.constant(int.class, 1));
+    final IntSupplier supplier2 = LambdaFactory.createShared(
+      LambdaType.of(IntSupplier.class), MethodHandles.constant(int.class, 2));
+
+    assertEquals(1, supplier1.getAsInt());
+    assertEquals(2, supplier2.getAsInt());
+    assertSame(supplier1.getClass(), supplier2.getClass());
+  }
+
+  @Test
+  void testInvalidMethodHandle() {
+    assertThrows(IllegalStateException.class, () -> LambdaFactory.createShared(
+      LambdaType.of(IntSupplier.class), MethodHandles.constant(String.class, "a")));
+  }
+
+  public static class TestObject {
+
+    private int data1 = 100;
+    private int data2 = 200;
+  }
+}
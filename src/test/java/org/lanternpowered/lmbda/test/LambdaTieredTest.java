@@ -0,0 +1,136 @@
+/*
+ * Lmbda
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) contributors
+ *
+ * This work is licensed under the terms of the MIT License (MIT). For
+ * a copy, see 'LICENSE.txt' or <https://opensource.org/licenses/MIT>.
+ */
+package org.lanternpowered.lmbda.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+import org.lanternpowered.lmbda.DefinitionStrategy;
+import org.lanternpowered.lmbda.LambdaFactory;
+import org.lanternpowered.lmbda.LambdaType;
+import org.lanternpowered.lmbda.MethodHandlesExtensions;
+import org.lanternpowered.lmbda.test.other.CallerFunction;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.function.BiFunction;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+class LambdaTieredTest {
+
+  private static final MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+  /**
+   * Creates a tiered supplier of the caller, the dedicated function class will be visible in the
+   * stack trace once promoted.
+   */
+  private static Supplier<String> createCallerSupplier(final int threshold) throws Exception {
+    return LambdaFactory.createTiered(new LambdaType<Supplier<String>>() {}
+        .defineClassesWith(lookup)
+        .defineClassesUsing(DefinitionStrategy.DEFINE_CLASS),
+      lookup.findStatic(TestUtilities.class, "getGeneratedCaller",
+        MethodType.methodType(String.class)), threshold);
+  }
+
+  @Test
+  void testPromotion() throws Exception {
+    final Supplier<String> supplier = createCallerSupplier(5);
+
+    final String sharedCaller = supplier.get();
+    for (int i = 0; i < 4; i++) {
+      assertEquals(sharedCaller, supplier.get());
+    }
+    // The fifth invocation promoted the function
+    final String dedicatedCaller = supplier.get();
+    assertNotNull(dedicatedCaller);
+    assertNotEquals(sharedCaller, dedicatedCaller);
+    assertEquals(dedicatedCaller, supplier.get());
+  }
+
+  @Test
+  void testPromotionPerFunction() throws Exception {
+    final Supplier<String> supplier1 = createCallerSupplier(1);
+    final Supplier<String> supplier2 = createCallerSupplier(100);
+    assertSame(supplier1.getClass(), supplier2.getClass());
+
+    final String sharedCaller = supplier2.get();
+    supplier1.get();
+    assertNotEquals(sharedCaller, supplier1.get());
+    // Promoting the first function doesn't affect the second one
+    assertEquals(sharedCaller, supplier2.get());
+  }
+
+  @Test
+  void testSharedClass() {
+    final IntSupplier supplier1 = LambdaFactory.createTiered(
+      LambdaType.of(IntSupplier.class), MethodHandles.constant(int.class, 1));
+    final IntSupplier supplier2 = LambdaFactory.createTiered(
+      LambdaType.of(IntSupplier.class), MethodHandles.constant(int.class, 2));
+
+    assertEquals(1, supplier1.getAsInt());
+    assertEquals(2, supplier2.getAsInt());
+    assertSame(supplier1.getClass(), supplier2.getClass());
+  }
+
+  @Test
+  void testPromotionWithParameters() throws Exception {
+    final MethodHandles.Lookup lookup =
+      MethodHandlesExtensions.privateLookupIn(TestObject.class, MethodHandles.lookup());
+
+    final BiFunction<TestObject, Long, String> function = LambdaFactory.createTiered(
+      new LambdaType<BiFunction<TestObject, Long, String>>() {},
+      lookup.findVirtual(TestObject.class, "format",
+        MethodType.methodType(String.class, long.class)), 2);
+    final ToLongFunction<TestObject> getter = LambdaFactory.createTiered(
+      new LambdaType<ToLongFunction<TestObject>>() {},
+      lookup.findGetter(TestObject.class, "data", int.class), 1);
+
+    final TestObject object = new TestObject();
+    for (int i = 0; i < 5; i++) {
+      assertEquals("100:" + i, function.apply(object, (long) i));
+      assertEquals(100L, getter.applyAsLong(object));
+    }
+  }
+
+  @Test
+  void testPromotionProtectedMethod() throws Exception {
+    // The protected method isn't accessible from the default lookup
+    final CallerFunction function = LambdaFactory.createTiered(new LambdaType<CallerFunction>() {}
+        .defineClassesUsing(DefinitionStrategy.DEFINE_CLASS),
+      lookup.findStatic(TestUtilities.class, "getGeneratedCaller",
+        MethodType.methodType(String.class)), 1);
+
+    final String sharedCaller = function.invoke();
+    final String dedicatedCaller = function.invoke();
+    assertNotNull(dedicatedCaller);
+    assertNotEquals(sharedCaller, dedicatedCaller);
+  }
+
+  @Test
+  void testNegativeThreshold() {
+    assertThrows(IllegalArgumentException.class, () -> LambdaFactory.createTiered(
+      LambdaType.of(IntSupplier.class), MethodHandles.constant(int.class, 1), -1));
+  }
+
+  public static class TestObject {
+
+    private int data = 100;
+
+    private String format(final long value) {
+      return this.data + ":" + value;
+    }
+  }
+}
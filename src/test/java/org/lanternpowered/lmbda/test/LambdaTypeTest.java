@@ -0,0 +1,67 @@
+/*
+ * Lmbda
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) contributors
+ *
+ * This work is licensed under the terms of the MIT License (MIT). For
+ * a copy, see 'LICENSE.txt' or <https://opensource.org/licenses/MIT>.
+ */
+package org.lanternpowered.lmbda.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+import org.lanternpowered.lmbda.LambdaType;
+
+import java.lang.reflect.Method;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+
+class LambdaTypeTest {
+
+  private static LambdaType<Function<String, Integer>> newFunctionType() {
+    return new LambdaType<Function<String, Integer>>() {};
+  }
+
+  @Test
+  void testRepeatedSubclass() {
+    final LambdaType<Function<String, Integer>> lambdaType1 = newFunctionType();
+    final LambdaType<Function<String, Integer>> lambdaType2 = newFunctionType();
+
+    assertNotSame(lambdaType1, lambdaType2);
+    assertEquals(lambdaType1, lambdaType2);
+    assertEquals(lambdaType1.getFunctionType(), lambdaType2.getFunctionType());
+    assertEquals(Function.class, lambdaType1.getFunctionClass());
+  }
+
+  @Test
+  void testRepeatedClass() {
+    final LambdaType<IntSupplier> lambdaType1 = LambdaType.of(IntSupplier.class);
+    final LambdaType<IntSupplier> lambdaType2 = LambdaType.of(IntSupplier.class);
+
+    assertEquals(lambdaType1, lambdaType2);
+    assertEquals(IntSupplier.class, lambdaType1.getFunctionType());
+  }
+
+  @Test
+  void testMethodCopy() throws Exception {
+    final LambdaType<IntSupplier> lambdaType = LambdaType.of(IntSupplier.class);
+
+    final Method method1 = lambdaType.getMethod();
+    final Method method2 = lambdaType.getMethod();
+    // Every call should return a copy, so the accessibility can't be shared
+    assertNotSame(method1, method2);
+    assertEquals(IntSupplier.class.getMethod("getAsInt"), method1);
+  }
+
+  @Test
+  void testInvalidClass() {
+    // Failures aren't cached, the validation should fail every time
+    for (int i = 0; i < 2; i++) {
+      assertThrows(IllegalStateException.class, () -> LambdaType.of(String.class));
+    }
+  }
+}
@@ -0,0 +1,62 @@
+/*
+ * Lmbda
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) contributors
+ *
+ * This work is licensed under the terms of the MIT License (MIT). For
+ * a copy, see 'LICENSE.txt' or <https://opensource.org/licenses/MIT>.
+ */
+package org.lanternpowered.lmbda.test;
+
+/**
+ * Utilities that are shared between tests.
+ */
+final class TestUtilities {
+
+  /**
+   * Gets whether hidden classes are supported, which is the case on Java 15 and later.
+   *
+   * @return Whether hidden classes are supported
+   */
+  static boolean isHiddenClassSupported() {
+    try {
+      Class.class.getMethod("isHidden");
+      return true;
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Gets whether the given class is hidden.
+   *
+   * @param theClass The class
+   * @return Whether the class is hidden, always false if hidden classes aren't supported
+   */
+  static boolean isHidden(final Class<?> theClass) throws Exception {
+    try {
+      return (boolean) Class.class.getMethod("isHidden").invoke(theClass);
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Gets the name of the generated class that invoked the method which calls this method, or
+   * null if it isn't visible in the stack trace, which is the case for hidden classes.
+   *
+   * @return The name of the generated class
+   */
+  static String getGeneratedCaller() {
+    for (final StackTraceElement element : new Throwable().getStackTrace()) {
+      if (element.getClassName().contains("Lmbda$")) {
+        return element.getClassName();
+      }
+    }
+    return null;
+  }
+
+  private TestUtilities() {
+  }
+}
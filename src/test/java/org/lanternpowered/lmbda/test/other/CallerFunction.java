@@ -0,0 +1,23 @@
+/*
+ * Lmbda
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) contributors
+ *
+ * This work is licensed under the terms of the MIT License (MIT). For
+ * a copy, see 'LICENSE.txt' or <https://opensource.org/licenses/MIT>.
+ */
+package org.lanternpowered.lmbda.test.other;
+
+/**
+ * A function type with a protected abstract method, which isn't accessible from the package of
+ * the tests.
+ */
+public abstract class CallerFunction {
+
+  protected abstract String call();
+
+  public final String invoke() {
+    return call();
+  }
+}